@@ -26,4 +26,11 @@ public interface IDynamXSound
      * @return False to cancel sound stop, if you want to make a soft transition, you should call IDynamXSoundHandler.stopSound at the end of the transition, and return true here
      */
     boolean tryStop();
+
+    /**
+     * @return The priority of this sound in the voice budget of the {@link IDynamXSoundHandler} : when there are more sounds than sources, the ones with the lowest priority lose their source until they get more important
+     */
+    default float getPriority() {
+        return Float.MAX_VALUE;
+    }
 }
@@ -5,18 +5,18 @@ import fr.dynamx.common.entities.ModularPhysicsEntity;
 import fr.dynamx.common.entities.PhysicsEntity;
 import fr.dynamx.common.network.packets.PhysicsEntityMessage;
 import fr.dynamx.common.network.sync.vars.EntityPhysicsState;
+import fr.dynamx.common.network.sync.vars.EntityPhysicsStateBuffer;
 import fr.dynamx.common.physics.player.WalkingOnPlayerController;
+import fr.dynamx.server.network.DriverMoveValidator;
 import fr.dynamx.utils.debug.Profiler;
 import fr.dynamx.utils.debug.SyncTracker;
 import fr.dynamx.utils.optimization.PooledHashMap;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraftforge.fml.relauncher.Side;
 
-import java.util.HashSet;
+import javax.annotation.Nullable;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Base net handler (responsible to sync the different clients and the server) of a {@link PhysicsEntity}
@@ -185,10 +185,18 @@ public abstract class PhysicsEntityNetHandler<T extends PhysicsEntity<?>> {
     }
 
     /**
-     * @return The map of the past {@link EntityPhysicsState} of the entity (old entries are removed periodically) <br>
+     * @return The validator of the states sent by the driver of the entity, or null if they aren't verified on this side
+     */
+    @Nullable
+    public DriverMoveValidator getMoveValidator() {
+        return null;
+    }
+
+    /**
+     * @return The history of the past {@link EntityPhysicsState} of the entity (old entries are removed periodically) <br>
      * @throws UnsupportedOperationException If not implemented (like in single player)
      */
-    public Map<Integer, EntityPhysicsState> getOldStates() {
+    public EntityPhysicsStateBuffer getOldStates() {
         throw new UnsupportedOperationException("This net handler does not memorises states");
     }
 
@@ -200,16 +208,6 @@ public abstract class PhysicsEntityNetHandler<T extends PhysicsEntity<?>> {
      * @return The {@link EntityPhysicsState} matching this time
      */
     public EntityPhysicsState getStateAndClearOlders(int simulationTime) {
-        Set<Integer> remove = new HashSet<>();
-        AtomicReference<EntityPhysicsState> target = new AtomicReference<>(null);
-        getOldStates().forEach((i, s) -> {
-            if (i <= simulationTime) {
-                remove.add(i);
-                if (i == simulationTime)
-                    target.set(s);
-            }
-        });
-        remove.forEach(getOldStates()::remove);
-        return target.get();
+        return getOldStates().getAndClearOlders(simulationTime);
     }
 }
@@ -2,9 +2,11 @@ package fr.dynamx.api.obj;
 
 import fr.dynamx.client.renders.model.ObjModelClient;
 import fr.dynamx.common.obj.Mesh;
+import fr.dynamx.common.obj.Vertex;
 import fr.dynamx.common.obj.texture.TextureData;
 
 import javax.vecmath.Vector3f;
+import java.util.function.IntPredicate;
 
 /**
  * An object object is a part of an obj model <br>
@@ -32,6 +34,19 @@ public interface IObjObject
      */
     Mesh getMesh();
 
+    /**
+     * @return Radius of the bounding sphere of the part, around its center
+     */
+    default float getRadius() {
+        Vector3f center = getCenter() != null ? getCenter() : new Vector3f();
+        float radiusSquared = 0;
+        for (Vertex vertex : getMesh().vertices) {
+            float dx = vertex.getPos().x - center.x, dy = vertex.getPos().y - center.y, dz = vertex.getPos().z - center.z;
+            radiusSquared = Math.max(radiusSquared, dx * dx + dy * dy + dz * dz);
+        }
+        return (float) Math.sqrt(radiusSquared);
+    }
+
     /**
      * Clears any computed render info
      */
@@ -62,6 +77,35 @@ public interface IObjObject
      */
     default void render(ObjModelClient model, byte textureDataId) {}
 
+    /**
+     * Renders this part with a lower level of detail, see {@link fr.dynamx.client.renders.model.ModelLod} <br>
+     * By default, renders the part at full detail
+     *
+     * @param model The model owning this object
+     * @param textureDataId The texture to use
+     * @param lodLevel The level of detail, 0 is the full detail
+     */
+    default void render(ObjModelClient model, byte textureDataId, int lodLevel) {
+        render(model, textureDataId);
+    }
+
+    /**
+     * Renders this part for several instances of the model, see {@link fr.dynamx.client.renders.InstancedModelRenderer} <br>
+     * By default, renders the part once per instance
+     *
+     * @param model The model owning this object
+     * @param textureDataId The texture to use
+     * @param lodLevel The level of detail, 0 is the full detail
+     * @param count The number of instances
+     * @param applyInstance Setups the transform of the instance with the given index, must be called before drawing it. Returns false if this instance should not be drawn
+     */
+    default void renderInstances(ObjModelClient model, byte textureDataId, int lodLevel, int count, IntPredicate applyInstance) {
+        for (int i = 0; i < count; i++) {
+            if (applyInstance.test(i))
+                render(model, textureDataId, lodLevel);
+        }
+    }
+
     /**
      * Provides obj objects <br>
      *      Interface used for protection system
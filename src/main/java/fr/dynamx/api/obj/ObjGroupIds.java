@@ -0,0 +1,33 @@
+package fr.dynamx.api.obj;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Gives an id to each obj group name, shared by all models <br>
+ * The parts and the models register their group ids when they are loaded, then the models find their groups by id, without comparing strings at render time <br>
+ * Names are case-insensitive, like the groups of the models
+ */
+public class ObjGroupIds
+{
+    private static final Map<String, Integer> ids = new HashMap<>();
+
+    /**
+     * Gives an id to the group name if it doesn't have one yet, only called when loading the packs and the models
+     *
+     * @param groupName The name of the group, case-insensitive
+     * @return The id of this group name, always the same for a given name
+     */
+    public static synchronized int register(String groupName) {
+        return ids.computeIfAbsent(groupName.toLowerCase(Locale.ROOT), name -> ids.size());
+    }
+
+    /**
+     * @param groupName The name of the group, case-insensitive
+     * @return The id of this group name, or -1 if no part or model has this group
+     */
+    public static synchronized int get(String groupName) {
+        return ids.getOrDefault(groupName.toLowerCase(Locale.ROOT), -1);
+    }
+}
@@ -8,6 +8,7 @@ import com.jme3.bullet.objects.PhysicsVehicle;
 import fr.dynamx.api.events.PhysicsEvent;
 import fr.dynamx.api.physics.terrain.ITerrainManager;
 import fr.dynamx.common.entities.PhysicsEntity;
+import fr.dynamx.common.physics.entities.parts.wheel.TireForceSolver;
 import fr.dynamx.common.physics.utils.PhysicsWorldOperation;
 import net.minecraft.world.World;
 import net.minecraftforge.common.MinecraftForge;
@@ -122,6 +123,11 @@ public interface IPhysicsWorld
      */
     void clearAll();
 
+    /**
+     * @return The solver computing the tire forces of the wheels of this world, at each physics tick
+     */
+    TireForceSolver getTireSolver();
+
     /**
      * Processes all simulation things, called once per tick
      * @param deltaTime The time elapsed since the last call of the function, in seconds (typically one tick ie 0.05 secs) <br>
@@ -10,7 +10,9 @@ import fr.dynamx.client.ClientProxy;
 import fr.dynamx.client.camera.CameraSystem;
 import fr.dynamx.client.gui.GuiLoadingErrors;
 import fr.dynamx.client.gui.VehicleHud;
+import fr.dynamx.client.network.ClientPhysicsSyncManager;
 import fr.dynamx.client.renders.RenderMovableLine;
+import fr.dynamx.client.renders.SkidMarkManager;
 import fr.dynamx.client.renders.model.ObjModelClient;
 import fr.dynamx.common.DynamXContext;
 import fr.dynamx.common.DynamXMain;
@@ -90,6 +92,7 @@ public class ClientEventHandler {
     public void onWorldUnloaded(WorldEvent.Unload event) {
         if (event.getWorld().isRemote) {
             ClientProxy.SOUND_HANDLER.unload();
+            SkidMarkManager.clear();
         }
         DynamXDebugOptions.PROFILING.disable();
     }
@@ -201,6 +204,7 @@ public class ClientEventHandler {
     @SubscribeEvent
     public void onClientDisconnected(FMLNetworkEvent.ClientDisconnectionFromServerEvent event) {
         DynamXContext.getNetwork().stopNetwork();
+        ClientPhysicsSyncManager.resetSyncAcks();
         connectionTime = -1;
     }
 
@@ -298,6 +302,8 @@ public class ClientEventHandler {
         GlStateManager.enableLighting();
         GlStateManager.popMatrix();
 
+        SkidMarkManager.render(MC.world, event.getPartialTicks());
+
         if (ClientDebugSystem.enableDebugDrawing) {
             if (DynamXDebugOptions.CAMERA_RAYCAST.isActive()) {
                 CameraSystem.drawDebug();
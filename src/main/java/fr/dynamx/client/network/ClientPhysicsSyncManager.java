@@ -1,7 +1,9 @@
 package fr.dynamx.client.network;
 
+import fr.dynamx.client.network.udp.UdpClientNetworkHandler;
 import fr.dynamx.common.DynamXContext;
 import fr.dynamx.common.network.packets.MessagePing;
+import fr.dynamx.common.network.sync.MessageSyncAck;
 import net.minecraft.client.Minecraft;
 
 public class ClientPhysicsSyncManager
@@ -10,6 +12,12 @@ public class ClientPhysicsSyncManager
     public static int pingMs = -1;
     public static long lastPing;
 
+    /** Last sync sequence received from the server, see {@link MessageSyncAck} */
+    private static int lastSyncSequence = -1;
+    /** Previously received sync sequences, see {@link MessageSyncAck} */
+    private static int receivedSyncBits;
+    private static boolean hasSyncsToAck;
+
     public static void tick() {
         if(!Minecraft.getMinecraft().isSingleplayer()) {
             if (System.currentTimeMillis() - lastPing > 10000) {
@@ -18,7 +26,51 @@ public class ClientPhysicsSyncManager
                 DynamXContext.getNetwork().sendToServer(new MessagePing(lastPing, false));
             }
             ClientPhysicsSyncManager.simulationTime++;
+            sendSyncAck();
+        }
+    }
+
+    /**
+     * Registers a sync packet received from the server, acknowledged on next tick <br>
+     * Called from the udp thread
+     *
+     * @param sequence The sequence of the received packet
+     */
+    public static synchronized void onSyncReceived(int sequence) {
+        if (sequence > lastSyncSequence) {
+            int shift = sequence - lastSyncSequence;
+            if (shift > MessageSyncAck.ACK_WINDOW)
+                receivedSyncBits = 0;
+            else {
+                //The bit of the previous last sequence is at index shift - 1
+                receivedSyncBits = shift == MessageSyncAck.ACK_WINDOW ? 0 : receivedSyncBits << shift;
+                if (lastSyncSequence != -1)
+                    receivedSyncBits |= 1 << (shift - 1);
+            }
+            lastSyncSequence = sequence;
+        } else if (sequence < lastSyncSequence && lastSyncSequence - sequence <= MessageSyncAck.ACK_WINDOW) {
+            receivedSyncBits |= 1 << (lastSyncSequence - sequence - 1);
         }
+        hasSyncsToAck = true;
+    }
+
+    /**
+     * Sends the received sync sequences to the server, used for its congestion control
+     */
+    private static synchronized void sendSyncAck() {
+        if (hasSyncsToAck && DynamXContext.getNetwork().getQuickNetwork() instanceof UdpClientNetworkHandler) {
+            DynamXContext.getNetwork().sendToServer(new MessageSyncAck(lastSyncSequence, receivedSyncBits));
+            hasSyncsToAck = false;
+        }
+    }
+
+    /**
+     * Resets the sync acknowledgements, on disconnection
+     */
+    public static synchronized void resetSyncAcks() {
+        lastSyncSequence = -1;
+        receivedSyncBits = 0;
+        hasSyncsToAck = false;
     }
 
     public static String getPingMessage()
@@ -16,7 +16,7 @@ import fr.dynamx.common.network.packets.MessageWalkingPlayer;
 import fr.dynamx.common.network.packets.PhysicsEntityMessage;
 import fr.dynamx.common.network.sync.MessagePhysicsEntitySync;
 import fr.dynamx.common.network.sync.MessageSeatsSync;
-import fr.dynamx.common.network.sync.vars.EntityPhysicsState;
+import fr.dynamx.common.network.sync.vars.EntityPhysicsStateBuffer;
 import fr.dynamx.common.physics.joints.EntityJoint;
 import fr.dynamx.common.physics.joints.EntityJointsHandler;
 import fr.dynamx.common.physics.player.WalkingOnPlayerController;
@@ -42,7 +42,7 @@ public class UdpClientPhysicsEntityNetHandler<T extends PhysicsEntity<?>> extend
     private final Queue<MessagePhysicsEntitySync<T>> queuedPackets = Queues.newArrayDeque();
     private int ticksBeforeNextSync, skippedPacketsCount;
 
-    private final Map<Integer, EntityPhysicsState> states = new HashMap<>();
+    private final EntityPhysicsStateBuffer states;
 
     private final List<IVehicleController> controllers = new ArrayList<>();
 
@@ -50,6 +50,7 @@ public class UdpClientPhysicsEntityNetHandler<T extends PhysicsEntity<?>> extend
 
     public UdpClientPhysicsEntityNetHandler(T entity) {
         super(entity);
+        this.states = new EntityPhysicsStateBuffer(entity);
     }
 
     @Override
@@ -120,7 +121,7 @@ public class UdpClientPhysicsEntityNetHandler<T extends PhysicsEntity<?>> extend
         }
         // }
         if (DynamXMain.proxy.ownsSimulation(entity)) {
-            states.put(ClientPhysicsSyncManager.simulationTime, entity.createStateSnapshot());
+            states.record(ClientPhysicsSyncManager.simulationTime);
         }
     }
 
@@ -243,7 +244,7 @@ public class UdpClientPhysicsEntityNetHandler<T extends PhysicsEntity<?>> extend
     }
 
     @Override
-    public Map<Integer, EntityPhysicsState> getOldStates() {
+    public EntityPhysicsStateBuffer getOldStates() {
         return states;
     }
 
@@ -12,6 +12,7 @@ import fr.dynamx.common.network.udp.EncapsulatedUDPPacket;
 import fr.dynamx.common.network.udp.UDPPacket;
 import fr.dynamx.common.network.udp.auth.UDPClientAuthenticationPacket;
 import fr.dynamx.utils.DynamXConfig;
+import fr.dynamx.utils.debug.NetworkTrafficStats;
 import fr.dynamx.utils.optimization.UPDByteArrayPool;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
@@ -77,10 +78,12 @@ public class UdpClientNetworkHandler implements IDnxNetworkHandler
             packetBuffer.writeByte(packet.id());
             packet.write(packetBuffer);
             byte[] data = packetBuffer.array();
+            //The backing array is bigger than the written data
+            int length = packetBuffer.writerIndex();
 
             if(DynamXConfig.udpDebug)
-                DynamXMain.log.info("Send packet with size "+data.length);
-            if(data.length > 512) { //512 is reasonable when sent from client
+                DynamXMain.log.info("Send packet with size "+length);
+            if(length > 512) { //512 is reasonable when sent from client
                 if(warningThreshold == 0)
                     DynamXMain.log.warn("[UDP] Packet with id " + packet.id() + " is too large, reduce the amount of data to 512 bytes at max !");
                 warningThreshold++;
@@ -88,7 +91,8 @@ public class UdpClientNetworkHandler implements IDnxNetworkHandler
                     warningThreshold = 0;
             }
             try {
-                this.datagramSocket.send(new DatagramPacket(data, data.length, this.address));
+                this.datagramSocket.send(new DatagramPacket(data, packetBuffer.arrayOffset(), length, this.address));
+                NetworkTrafficStats.recordSent(NetworkTrafficStats.Category.TRANSPORT, EnumNetworkType.DYNAMX_UDP, length);
             } catch (IOException e) {
                 e.printStackTrace();
             }
@@ -125,6 +129,7 @@ public class UdpClientNetworkHandler implements IDnxNetworkHandler
                 this.datagramSocket.receive(p);
                 if(DynamXConfig.udpDebug)
                     DynamXMain.log.info("Received length "+p.getLength());
+                NetworkTrafficStats.recordReceived(NetworkTrafficStats.Category.TRANSPORT, EnumNetworkType.DYNAMX_UDP, p.getLength());
                 this.handler.packetQueue.offer(p.getData());
 
                 synchronized (this.handler) {
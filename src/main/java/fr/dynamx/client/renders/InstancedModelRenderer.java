@@ -0,0 +1,294 @@
+package fr.dynamx.client.renders;
+
+import com.jme3.math.Vector3f;
+import fr.dynamx.api.obj.IObjObject;
+import fr.dynamx.client.renders.model.ModelLod;
+import fr.dynamx.client.renders.model.ObjModelClient;
+import fr.dynamx.utils.DynamXConfig;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.OpenGlHelper;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.util.vector.Matrix4f;
+import org.lwjgl.util.vector.Quaternion;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Batches the rendering of the main model of the physics entities <br>
+ * The entities using the same model and texture are grouped, and each part of the model is drawn once for all of them : with the vertex buffer renderer, the vertex array and the textures are bound once per part, then only the transform and the light of each instance change between the draw calls <br>
+ * The instances are queued while the world renders the entities, then drawn at the end of the entity render pass (see fr.dynamx.common.core.mixin.MixinRenderGlobal) <br>
+ * Minecraft has no shaders, so there is no real gpu instancing : the transforms are computed in a per-frame instance buffer and loaded with glLoadMatrix
+ */
+public class InstancedModelRenderer
+{
+    private static final Map<ObjModelClient, List<Batch>> batches = new HashMap<>();
+    private static final FloatBuffer viewBuffer = BufferUtils.createFloatBuffer(16);
+    private static final Matrix4f viewMatrix = new Matrix4f();
+    private static final Matrix4f instanceMatrix = new Matrix4f();
+    private static FloatBuffer instanceBuffer = BufferUtils.createFloatBuffer(16 * 32);
+    private static boolean collecting;
+    private static int lastInstanceCount, lastBatchCount;
+
+    /**
+     * @return True if the batching is enabled in the config
+     */
+    public static boolean isEnabled() {
+        return DynamXConfig.batchEntityRendering;
+    }
+
+    /**
+     * @return True if the world entities are being rendered : models can be queued
+     */
+    public static boolean isCollecting() {
+        return collecting;
+    }
+
+    /**
+     * Called when the world starts rendering the entities
+     */
+    public static void beginCollecting() {
+        collecting = isEnabled();
+    }
+
+    /**
+     * Queues a model for this frame
+     *
+     * @param model         The model to render
+     * @param textureDataId The texture to use
+     * @param mainParts     If true, only the parts allowed by {@link fr.dynamx.api.obj.IModelTextureSupplier#canRenderPart(String)} are rendered (like {@link ObjModelClient#renderMainParts(byte)}), else all the parts are rendered (like {@link ObjModelClient#renderModel(byte)})
+     * @param x             The position of the model, relative to the camera
+     * @param y             The position of the model, relative to the camera
+     * @param z             The position of the model, relative to the camera
+     * @param rotation      The rotation of the model
+     * @param scale         The scale of the model
+     * @param brightness    The light of the model, see {@link net.minecraft.entity.Entity#getBrightnessForRender()}
+     * @return False if the model cannot be batched, it should then be rendered normally
+     */
+    public static boolean queue(ObjModelClient model, byte textureDataId, boolean mainParts, double x, double y, double z, Quaternion rotation, Vector3f scale, int brightness) {
+        if (!collecting || model.objObjects.isEmpty())
+            return false;
+        if (mainParts && model.getCustomTextures() == null)
+            return false;
+        List<Batch> modelBatches = batches.computeIfAbsent(model, m -> new ArrayList<>(1));
+        Batch batch = null;
+        for (Batch b : modelBatches) {
+            if (b.textureDataId == textureDataId && b.mainParts == mainParts) {
+                batch = b;
+                break;
+            }
+        }
+        if (batch == null) {
+            batch = new Batch(model, textureDataId, mainParts);
+            if (!batch.hasParts())
+                return false;
+            modelBatches.add(batch);
+        }
+        batch.add(x, y, z, rotation, scale, brightness);
+        return true;
+    }
+
+    /**
+     * Draws all queued models, called at the end of the entity render pass <br>
+     * The gl model view matrix must be the one used to render the entities
+     */
+    public static void flush() {
+        collecting = false;
+        lastInstanceCount = lastBatchCount = 0;
+        if (batches.isEmpty())
+            return;
+        viewBuffer.clear();
+        GL11.glGetFloat(GL11.GL_MODELVIEW_MATRIX, viewBuffer);
+        viewMatrix.load(viewBuffer);
+
+        Minecraft.getMinecraft().entityRenderer.enableLightmap();
+        GlStateManager.enableTexture2D();
+        GlStateManager.color(1, 1, 1, 1);
+        GlStateManager.pushMatrix();
+        Iterator<List<Batch>> modelIterator = batches.values().iterator();
+        while (modelIterator.hasNext()) {
+            List<Batch> modelBatches = modelIterator.next();
+            //Forget the models that weren't rendered in this frame, they may have been unloaded
+            modelBatches.removeIf(batch -> batch.count == 0);
+            if (modelBatches.isEmpty()) {
+                modelIterator.remove();
+                continue;
+            }
+            for (Batch batch : modelBatches) {
+                batch.draw();
+                lastInstanceCount += batch.count;
+                lastBatchCount++;
+                batch.count = 0;
+            }
+        }
+        GlStateManager.popMatrix();
+        Minecraft.getMinecraft().entityRenderer.disableLightmap();
+    }
+
+    /**
+     * @return The number of models drawn in the last frame
+     */
+    public static int getLastInstanceCount() {
+        return lastInstanceCount;
+    }
+
+    /**
+     * @return The number of model/texture groups drawn in the last frame
+     */
+    public static int getLastBatchCount() {
+        return lastBatchCount;
+    }
+
+    /**
+     * The instances of a model with a texture
+     */
+    private static class Batch implements IntPredicate
+    {
+        /** Size of an instance in the transforms array : the 3x4 matrix of the model */
+        private static final int STRIDE = 12;
+
+        private final ObjModelClient model;
+        private final byte textureDataId;
+        private final boolean mainParts;
+        /** The drawn objects, computed once */
+        private final IObjObject[] parts;
+        private float[] transforms = new float[STRIDE * 8];
+        private int[] brightness = new int[8];
+        /** Size on the screen, in pixels, of one block of the model */
+        private float[] pixelsPerUnit = new float[8];
+        /** Level of detail of each instance, for the drawn object */
+        private byte[] lodLevels = new byte[8];
+        private int drawnLevel;
+        private int count;
+
+        private Batch(ObjModelClient model, byte textureDataId, boolean mainParts) {
+            this.model = model;
+            this.textureDataId = textureDataId;
+            this.mainParts = mainParts;
+            List<IObjObject> parts = new ArrayList<>();
+            for (IObjObject object : model.objObjects) {
+                if (shouldRender(object))
+                    parts.add(object);
+            }
+            this.parts = parts.toArray(new IObjObject[0]);
+        }
+
+        private boolean shouldRender(IObjObject object) {
+            return !object.getName().equals("main") && !model.isLodObject(object) && (!mainParts || model.getCustomTextures().canRenderPart(object.getName()));
+        }
+
+        private boolean hasParts() {
+            return parts.length > 0;
+        }
+
+        /**
+         * Stores the transform of the instance, as done by GlStateManager.translate, rotate and scale
+         */
+        private void add(double x, double y, double z, Quaternion q, Vector3f scale, int light) {
+            if (count == brightness.length) {
+                transforms = Arrays.copyOf(transforms, transforms.length * 2);
+                brightness = Arrays.copyOf(brightness, brightness.length * 2);
+                pixelsPerUnit = Arrays.copyOf(pixelsPerUnit, pixelsPerUnit.length * 2);
+                lodLevels = Arrays.copyOf(lodLevels, lodLevels.length * 2);
+            }
+            int i = count * STRIDE;
+            float xx = q.x * q.x, yy = q.y * q.y, zz = q.z * q.z;
+            float xy = q.x * q.y, xz = q.x * q.z, yz = q.y * q.z;
+            float xw = q.x * q.w, yw = q.y * q.w, zw = q.z * q.w;
+            //Columns of the rotation matrix, scaled
+            transforms[i] = (1 - 2 * (yy + zz)) * scale.x;
+            transforms[i + 1] = 2 * (xy + zw) * scale.x;
+            transforms[i + 2] = 2 * (xz - yw) * scale.x;
+            transforms[i + 3] = 2 * (xy - zw) * scale.y;
+            transforms[i + 4] = (1 - 2 * (xx + zz)) * scale.y;
+            transforms[i + 5] = 2 * (yz + xw) * scale.y;
+            transforms[i + 6] = 2 * (xz + yw) * scale.z;
+            transforms[i + 7] = 2 * (yz - xw) * scale.z;
+            transforms[i + 8] = (1 - 2 * (xx + yy)) * scale.z;
+            transforms[i + 9] = (float) x;
+            transforms[i + 10] = (float) y;
+            transforms[i + 11] = (float) z;
+            brightness[count] = light;
+            float distance = (float) Math.sqrt(x * x + y * y + z * z);
+            pixelsPerUnit[count] = ModelLod.getPixelsPerUnit() * Math.max(Math.abs(scale.x), Math.max(Math.abs(scale.y), Math.abs(scale.z))) / Math.max(distance, 0.05f);
+            count++;
+        }
+
+        private void draw() {
+            //Fill the instance buffer with the model view matrices of all instances
+            if (instanceBuffer.capacity() < count * 16)
+                instanceBuffer = BufferUtils.createFloatBuffer(Integer.highestOneBit(count * 16) * 2);
+            instanceBuffer.clear();
+            for (int n = 0; n < count; n++) {
+                int i = n * STRIDE;
+                instanceMatrix.m00 = transforms[i];
+                instanceMatrix.m01 = transforms[i + 1];
+                instanceMatrix.m02 = transforms[i + 2];
+                instanceMatrix.m03 = 0;
+                instanceMatrix.m10 = transforms[i + 3];
+                instanceMatrix.m11 = transforms[i + 4];
+                instanceMatrix.m12 = transforms[i + 5];
+                instanceMatrix.m13 = 0;
+                instanceMatrix.m20 = transforms[i + 6];
+                instanceMatrix.m21 = transforms[i + 7];
+                instanceMatrix.m22 = transforms[i + 8];
+                instanceMatrix.m23 = 0;
+                instanceMatrix.m30 = transforms[i + 9];
+                instanceMatrix.m31 = transforms[i + 10];
+                instanceMatrix.m32 = transforms[i + 11];
+                instanceMatrix.m33 = 1;
+                Matrix4f.mul(viewMatrix, instanceMatrix, instanceMatrix);
+                instanceBuffer.position(n * 16);
+                instanceMatrix.store(instanceBuffer);
+            }
+            instanceBuffer.clear();
+            for (IObjObject object : parts) {
+                if (!ModelLod.isEnabled()) {
+                    drawnLevel = -1;
+                    object.renderInstances(model, textureDataId, 0, count, this);
+                    continue;
+                }
+                //Draw the instances grouped by level of detail of this object
+                float radius = object.getRadius();
+                int usedLevels = 0;
+                for (int n = 0; n < count; n++) {
+                    lodLevels[n] = (byte) ModelLod.selectLevel(radius * pixelsPerUnit[n]);
+                    if (lodLevels[n] != ModelLod.CULLED)
+                        usedLevels |= 1 << lodLevels[n];
+                }
+                for (int level = 0; level < ModelLod.LEVELS; level++) {
+                    if ((usedLevels & (1 << level)) == 0)
+                        continue;
+                    drawnLevel = level;
+                    IObjObject lodObject = model.getLodObject(object, level);
+                    if (lodObject != null)
+                        lodObject.renderInstances(model, textureDataId, 0, count, this);
+                    else
+                        object.renderInstances(model, textureDataId, level, count, this);
+                }
+            }
+        }
+
+        /**
+         * Applies the transform and the light of an instance, if it's drawn with the current level of detail
+         */
+        @Override
+        public boolean test(int instance) {
+            if (drawnLevel != -1 && lodLevels[instance] != drawnLevel)
+                return false;
+            instanceBuffer.position(instance * 16);
+            GL11.glLoadMatrix(instanceBuffer);
+            int light = brightness[instance];
+            OpenGlHelper.setLightmapTextureCoords(OpenGlHelper.lightmapTexUnit, light % 65536, light / 65536);
+            return true;
+        }
+    }
+}
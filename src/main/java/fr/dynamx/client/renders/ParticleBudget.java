@@ -0,0 +1,177 @@
+package fr.dynamx.client.renders;
+
+import fr.dynamx.utils.DynamXConfig;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.entity.RenderManager;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.EnumParticleTypes;
+import net.minecraft.world.World;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Limits the number of particles spawned by the physics entities at each frame <br>
+ * During the entity render pass, the particles are queued (in pooled requests) instead of being spawned. At the end of the pass, the most important and the nearest ones are spawned, in the limit of the budget of the config <br>
+ * The particles of far entities are coalesced : only one particle of each type is spawned per entity and per frame <br>
+ * Outside of the entity render pass, or if the budget is disabled, the particles are directly spawned
+ */
+public class ParticleBudget
+{
+    /**
+     * Importance of the particles of the pack emitters
+     */
+    public static final float EMITTER_IMPORTANCE = 1;
+    /**
+     * Importance of the particles giving a feedback of the driving (like the wheel dust)
+     */
+    public static final float DRIVING_IMPORTANCE = 2;
+
+    private static final Comparator<Request> BY_SCORE = (a, b) -> Float.compare(b.score, a.score);
+
+    private static Request[] requests = new Request[64];
+    private static int count;
+    private static boolean collecting;
+    /** Entity spawning the particles, and index of its first request : the requests of an entity are contiguous */
+    private static Entity currentSource;
+    private static int sourceStart;
+    private static int requested, coalesced;
+    private static int lastRequested, lastSpawned, lastCoalesced, lastDropped;
+
+    /**
+     * @return True if the budget is enabled in the config
+     */
+    public static boolean isEnabled() {
+        return DynamXConfig.particleBudget > 0;
+    }
+
+    /**
+     * Called when the world starts rendering the entities
+     */
+    public static void beginFrame() {
+        collecting = isEnabled();
+        count = requested = coalesced = 0;
+        currentSource = null;
+    }
+
+    /**
+     * Spawns a particle, or queues it until the end of the entity render pass
+     *
+     * @param source     The entity spawning the particle
+     * @param type       The particle
+     * @param importance The importance of the particle, see the constants of this class
+     */
+    public static void spawn(Entity source, EnumParticleTypes type, float importance, double x, double y, double z, double velocityX, double velocityY, double velocityZ) {
+        if (!collecting) {
+            source.world.spawnParticle(type, x, y, z, velocityX, velocityY, velocityZ);
+            return;
+        }
+        requested++;
+        RenderManager renderManager = Minecraft.getMinecraft().getRenderManager();
+        double dx = x - renderManager.viewerPosX, dy = y - renderManager.viewerPosY, dz = z - renderManager.viewerPosZ;
+        float distance = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (source != currentSource) {
+            currentSource = source;
+            sourceStart = count;
+        }
+        if (distance > DynamXConfig.particleCoalesceDistance) {
+            for (int i = sourceStart; i < count; i++) {
+                if (requests[i].type == type) {
+                    requests[i].weight++;
+                    coalesced++;
+                    return;
+                }
+            }
+        }
+        if (count == requests.length)
+            requests = Arrays.copyOf(requests, count * 2);
+        Request request = requests[count];
+        if (request == null)
+            request = requests[count] = new Request();
+        request.set(type, importance, distance, x, y, z, velocityX, velocityY, velocityZ);
+        count++;
+    }
+
+    /**
+     * Spawns the queued particles allowed by the budget, called at the end of the entity render pass
+     */
+    public static void flush() {
+        collecting = false;
+        currentSource = null;
+        int spawned = count;
+        if (count > DynamXConfig.particleBudget) {
+            for (int i = 0; i < count; i++)
+                requests[i].score = requests[i].importance * requests[i].weight / (1 + requests[i].distance);
+            Arrays.sort(requests, 0, count, BY_SCORE);
+            spawned = DynamXConfig.particleBudget;
+        }
+        World world = Minecraft.getMinecraft().world;
+        if (world != null) {
+            for (int i = 0; i < spawned; i++) {
+                Request r = requests[i];
+                world.spawnParticle(r.type, r.x, r.y, r.z, r.velocityX, r.velocityY, r.velocityZ);
+            }
+        }
+        lastRequested = requested;
+        lastSpawned = spawned;
+        lastCoalesced = coalesced;
+        lastDropped = count - spawned;
+        count = 0;
+    }
+
+    /**
+     * @return The number of particles requested by the entities in the last frame
+     */
+    public static int getLastRequested() {
+        return lastRequested;
+    }
+
+    /**
+     * @return The number of particles spawned in the last frame
+     */
+    public static int getLastSpawned() {
+        return lastSpawned;
+    }
+
+    /**
+     * @return The number of particles of far entities merged with another particle in the last frame
+     */
+    public static int getLastCoalesced() {
+        return lastCoalesced;
+    }
+
+    /**
+     * @return The number of particles exceeding the budget in the last frame
+     */
+    public static int getLastDropped() {
+        return lastDropped;
+    }
+
+    /**
+     * A queued particle, reused at each frame
+     */
+    private static class Request
+    {
+        private EnumParticleTypes type;
+        private float importance;
+        private float distance;
+        /** Number of particles coalesced in this one */
+        private int weight;
+        private float score;
+        private double x, y, z;
+        private double velocityX, velocityY, velocityZ;
+
+        private void set(EnumParticleTypes type, float importance, float distance, double x, double y, double z, double velocityX, double velocityY, double velocityZ) {
+            this.type = type;
+            this.importance = importance;
+            this.distance = distance;
+            this.weight = 1;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.velocityX = velocityX;
+            this.velocityY = velocityY;
+            this.velocityZ = velocityZ;
+        }
+    }
+}
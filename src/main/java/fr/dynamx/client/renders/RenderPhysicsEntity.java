@@ -1,13 +1,16 @@
 package fr.dynamx.client.renders;
 
+import com.jme3.math.Vector3f;
 import fr.dynamx.api.entities.IModuleContainer;
 import fr.dynamx.api.events.PhysicsEntityEvent;
 import fr.dynamx.client.handlers.ClientEventHandler;
+import fr.dynamx.client.renders.model.ModelLod;
 import fr.dynamx.client.renders.model.ObjModelClient;
 import fr.dynamx.common.contentpack.parts.PartSeat;
 import fr.dynamx.common.contentpack.type.ParticleEmitterInfo;
 import fr.dynamx.common.entities.PackPhysicsEntity;
 import fr.dynamx.common.entities.PhysicsEntity;
+import fr.dynamx.utils.EventListenerChecker;
 import fr.dynamx.utils.client.ClientDynamXUtils;
 import fr.dynamx.utils.debug.ClientDebugSystem;
 import fr.dynamx.utils.debug.renderer.DebugRenderer;
@@ -55,15 +58,20 @@ public abstract class RenderPhysicsEntity<T extends PhysicsEntity<?>> extends Re
         Vector3fPool.openPool();
         GlQuaternionPool.openPool();
         Quaternion appliedRotation = null;
+        //Only create the events if something listens to them, they're posted for each entity at each frame
+        boolean postEvents = EventListenerChecker.hasListeners(PhysicsEntityEvent.RenderPhysicsEntityEvent.class);
         //Render vehicle
-        if (!MinecraftForge.EVENT_BUS.post(new PhysicsEntityEvent.RenderPhysicsEntityEvent(entity, this, PhysicsEntityEvent.RenderPhysicsEntityEvent.Type.ENTITY, x, y, z, partialTicks))) {
+        if (!postEvents || !MinecraftForge.EVENT_BUS.post(new PhysicsEntityEvent.RenderPhysicsEntityEvent(entity, this, PhysicsEntityEvent.RenderPhysicsEntityEvent.Type.ENTITY, x, y, z, partialTicks))) {
             GlStateManager.pushMatrix();
             {
                 //TODO TRANSPARENT THINGS SHOULD BE RENDER LAST GlStateManager.enableBlend();
 
                 appliedRotation = setupRenderTransform(entity, x, y, z, entityYaw, partialTicks);
-                renderMain(entity, partialTicks);
+                ModelLod.begin(x, y, z, appliedRotation, getModelScale(entity));
+                if (!InstancedModelRenderer.isCollecting() || !queueMain(entity, x, y, z, appliedRotation, partialTicks))
+                    renderMain(entity, partialTicks);
                 renderParts(entity, partialTicks);
+                ModelLod.end();
                 spawnParticles(entity, partialTicks);
             /*if (entity instanceof ModularVehicleEntity) {
                 ClientDynamXUtils.renderCar(((ModularVehicleEntity<?>) entity).getPackInfo(), ((ModularVehicleEntity<?>) entity).getTextureInfo().getChassisTextureId());
@@ -73,14 +81,15 @@ public abstract class RenderPhysicsEntity<T extends PhysicsEntity<?>> extends Re
         }
 
         //Render players inside of the entity
-        if (ClientEventHandler.renderPlayer != null && !MinecraftForge.EVENT_BUS.post(new PhysicsEntityEvent.RenderPhysicsEntityEvent(entity, this, PhysicsEntityEvent.RenderPhysicsEntityEvent.Type.RIDDING_PLAYERS, x, y, z, partialTicks))) {
+        if (ClientEventHandler.renderPlayer != null && (!postEvents || !MinecraftForge.EVENT_BUS.post(new PhysicsEntityEvent.RenderPhysicsEntityEvent(entity, this, PhysicsEntityEvent.RenderPhysicsEntityEvent.Type.RIDDING_PLAYERS, x, y, z, partialTicks)))) {
             renderRidingPlayers(entity, x, y, z, partialTicks, appliedRotation);
         }
         //Render debug
-        if (!MinecraftForge.EVENT_BUS.post(new PhysicsEntityEvent.RenderPhysicsEntityEvent(entity, this, PhysicsEntityEvent.RenderPhysicsEntityEvent.Type.DEBUG, x, y, z, partialTicks))) {
+        if (!postEvents || !MinecraftForge.EVENT_BUS.post(new PhysicsEntityEvent.RenderPhysicsEntityEvent(entity, this, PhysicsEntityEvent.RenderPhysicsEntityEvent.Type.DEBUG, x, y, z, partialTicks))) {
             renderDebug(entity, x, y, z, partialTicks);
         }
-        MinecraftForge.EVENT_BUS.post(new PhysicsEntityEvent.RenderPhysicsEntityEvent(entity, this, PhysicsEntityEvent.RenderPhysicsEntityEvent.Type.POST, x, y, z, partialTicks));
+        if (postEvents)
+            MinecraftForge.EVENT_BUS.post(new PhysicsEntityEvent.RenderPhysicsEntityEvent(entity, this, PhysicsEntityEvent.RenderPhysicsEntityEvent.Type.POST, x, y, z, partialTicks));
         Vector3fPool.closePool();
         QuaternionPool.closePool();
         GlQuaternionPool.closePool();
@@ -148,20 +157,44 @@ public abstract class RenderPhysicsEntity<T extends PhysicsEntity<?>> extends Re
     public abstract void renderMain(T entity, float partialsTicks);
 
     /**
-     * Spawns particles used for the render (like drift particles)
+     * @return The scale applied to the model of the entity, used to compute the size of its parts on the screen
+     */
+    protected Vector3f getModelScale(T entity) {
+        return Vector3f.UNIT_XYZ;
+    }
+
+    /**
+     * Queues the core of the entity in the {@link InstancedModelRenderer}, instead of rendering it with {@link #renderMain(PhysicsEntity, float)} <br>
+     * Only called while the world entities are rendered, if the batching is enabled
+     *
+     * @param x        The position of the entity, relative to the camera
+     * @param y        The position of the entity, relative to the camera
+     * @param z        The position of the entity, relative to the camera
+     * @param rotation The rotation applied by {@link #setupRenderTransform(PhysicsEntity, double, double, double, float, float)}
+     * @return False if the entity cannot be batched, then renderMain is called
+     */
+    protected boolean queueMain(T entity, double x, double y, double z, Quaternion rotation, float partialTicks) {
+        return false;
+    }
+
+    /**
+     * Spawns particles used for the render (like drift particles) <br>
+     * Use the {@link ParticleBudget} to spawn them, so they're limited when there are many entities
      */
     public void spawnParticles(T entity, float partialTicks) {
         if (entity instanceof PackPhysicsEntity) {
             if (((PackPhysicsEntity<?, ?>) entity).getPackInfo() instanceof ParticleEmitterInfo.IParticleEmitterContainer) {
-                ((ParticleEmitterInfo.IParticleEmitterContainer) ((PackPhysicsEntity<?, ?>) entity).getPackInfo()).getParticleEmitters().forEach(emitterInfo -> {
-                    entity.world.spawnParticle(emitterInfo.particleType,
+                List<ParticleEmitterInfo<?>> emitters = ((ParticleEmitterInfo.IParticleEmitterContainer) ((PackPhysicsEntity<?, ?>) entity).getPackInfo()).getParticleEmitters();
+                for (int i = 0; i < emitters.size(); i++) {
+                    ParticleEmitterInfo<?> emitterInfo = emitters.get(i);
+                    ParticleBudget.spawn(entity, emitterInfo.particleType, ParticleBudget.EMITTER_IMPORTANCE,
                             entity.posX + emitterInfo.position.x,
                             entity.posY + emitterInfo.position.y,
                             entity.posZ + emitterInfo.position.z,
                             emitterInfo.velocity.x,
                             emitterInfo.velocity.y,
                             emitterInfo.velocity.z);
-                });
+                }
             }
         }
     }
@@ -261,4 +294,14 @@ public abstract class RenderPhysicsEntity<T extends PhysicsEntity<?>> extends Re
             renderOffsetAABB(entity.getEntityBoundingBox(), -entity.lastTickPosX, -entity.lastTickPosY, -entity.lastTickPosZ);
         }
     }
+
+    /**
+     * Same as {@link #renderModelGroup(ObjModelClient, String, Entity, byte)}, with the {@link fr.dynamx.api.obj.ObjGroupIds} id of the group
+     */
+    public void renderModelGroup(ObjModelClient model, int groupId, Entity entity, byte textureDataId) {
+        boolean drawn = model.renderGroups(groupId, textureDataId);
+        if (!drawn) {
+            renderOffsetAABB(entity.getEntityBoundingBox(), -entity.lastTickPosX, -entity.lastTickPosY, -entity.lastTickPosZ);
+        }
+    }
 }
@@ -1,12 +1,17 @@
 package fr.dynamx.client.renders;
 
+import com.jme3.math.Vector3f;
+import fr.dynamx.api.events.DynamXRenderEvent;
 import fr.dynamx.api.events.PhysicsEntityEvent;
+import fr.dynamx.client.renders.model.ObjModelClient;
 import fr.dynamx.common.DynamXContext;
 import fr.dynamx.common.entities.PropsEntity;
+import fr.dynamx.utils.EventListenerChecker;
 import fr.dynamx.utils.debug.renderer.DebugRenderer;
 import net.minecraft.client.renderer.GlStateManager;
 import net.minecraft.client.renderer.entity.RenderManager;
 import net.minecraftforge.common.MinecraftForge;
+import org.lwjgl.util.vector.Quaternion;
 
 public class RenderProp<T extends PropsEntity<?>> extends RenderPhysicsEntity<T>
 {
@@ -28,6 +33,20 @@ public class RenderProp<T extends PropsEntity<?>> extends RenderPhysicsEntity<T>
         //GlStateManager.popMatrix();
     }
 
+    @Override
+    protected Vector3f getModelScale(T entity) {
+        return entity.getPackInfo().getScaleModifier();
+    }
+
+    @Override
+    protected boolean queueMain(T entity, double x, double y, double z, Quaternion rotation, float partialTicks) {
+        //The model events are posted by the model itself, so it cannot be batched if they are listened
+        if (EventListenerChecker.hasListeners(DynamXRenderEvent.RenderModel.class))
+            return false;
+        ObjModelClient model = DynamXContext.getObjModelRegistry().getModel(entity.getPackInfo().getModel());
+        return InstancedModelRenderer.queue(model, (byte) entity.getMetadata(), false, x, y, z, rotation, entity.getPackInfo().getScaleModifier(), entity.getBrightnessForRender());
+    }
+
     @Override
     public void renderParts(T entity, float partialTicks) {}
 
@@ -0,0 +1,166 @@
+package fr.dynamx.client.renders;
+
+import fr.dynamx.utils.DynamXConfig;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.BufferBuilder;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.Tessellator;
+import net.minecraft.client.renderer.entity.RenderManager;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import net.minecraft.world.World;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+import org.lwjgl.opengl.GL11;
+
+/**
+ * Stores and renders the skid marks left by the skidding wheels <br>
+ * The marks are quads stored in a global ring buffer of fixed size (see the Visuals section of the config) : when it's full, the oldest marks are replaced, so the memory and the render cost are bounded whatever the number of skidding vehicles <br>
+ * The marks fade with their age, and are all drawn in one tessellator draw call, skipping the marks far from the camera : only the live marks are walked, from the newest to the first expired one
+ */
+@SideOnly(Side.CLIENT)
+public class SkidMarkManager {
+    /** Size of a mark in the buffer : the 4 corners (x, y, z), then the center (x, y, z), the creation time and the intensity */
+    private static final int STRIDE = 12 + 5;
+    /** Height of the marks above the ground, avoids z-fighting */
+    private static final float GROUND_OFFSET = 0.02f;
+    /** Max alpha of a mark */
+    private static final float MAX_ALPHA = 0.6f;
+
+    private static float[] marks = new float[0];
+    /** Index of the next written mark */
+    private static int head;
+    /** Number of marks in the buffer */
+    private static int size;
+    /** World time of the first mark, the creation times are relative to it to keep the float precision */
+    private static long epoch;
+    private static int lastRendered;
+
+    /**
+     * @return True if the skid marks are enabled in the config
+     */
+    public static boolean isEnabled() {
+        return DynamXConfig.skidMarkCount > 0;
+    }
+
+    /**
+     * Adds a mark between two ground contact points of a wheel, replacing the oldest mark if the buffer is full
+     *
+     * @param world     The world, used to get the creation time of the mark
+     * @param width     The width of the wheel
+     * @param intensity The opacity of the mark, between 0 and 1, typically 1 - the skid info of the wheel
+     */
+    public static void addMark(World world, float fromX, float fromY, float fromZ, float toX, float toY, float toZ, float width, float intensity) {
+        if (!isEnabled())
+            return;
+        if (marks.length != DynamXConfig.skidMarkCount * STRIDE) {
+            //Config changed (or first mark) : reallocate the buffer
+            marks = new float[DynamXConfig.skidMarkCount * STRIDE];
+            head = size = 0;
+        }
+        if (size == 0)
+            epoch = world.getTotalWorldTime();
+        float dx = toX - fromX, dz = toZ - fromZ;
+        float length = (float) Math.sqrt(dx * dx + dz * dz);
+        if (length < 1.0E-4f)
+            return;
+        //Horizontal vector perpendicular to the mark, with a length of half the width
+        float sideX = -dz / length * width / 2, sideZ = dx / length * width / 2;
+        fromY += GROUND_OFFSET;
+        toY += GROUND_OFFSET;
+        int i = head * STRIDE;
+        marks[i] = fromX - sideX;
+        marks[i + 1] = fromY;
+        marks[i + 2] = fromZ - sideZ;
+        marks[i + 3] = fromX + sideX;
+        marks[i + 4] = fromY;
+        marks[i + 5] = fromZ + sideZ;
+        marks[i + 6] = toX + sideX;
+        marks[i + 7] = toY;
+        marks[i + 8] = toZ + sideZ;
+        marks[i + 9] = toX - sideX;
+        marks[i + 10] = toY;
+        marks[i + 11] = toZ - sideZ;
+        marks[i + 12] = (fromX + toX) / 2;
+        marks[i + 13] = (fromY + toY) / 2;
+        marks[i + 14] = (fromZ + toZ) / 2;
+        marks[i + 15] = world.getTotalWorldTime() - epoch;
+        marks[i + 16] = Math.min(1, Math.max(0, intensity));
+        head = (head + 1) % DynamXConfig.skidMarkCount;
+        if (size < DynamXConfig.skidMarkCount)
+            size++;
+    }
+
+    /**
+     * Draws all the visible marks, the gl matrix must be the one of the world (with the camera at the origin)
+     */
+    public static void render(World world, float partialTicks) {
+        lastRendered = 0;
+        if (size == 0 || !isEnabled())
+            return;
+        RenderManager renderManager = Minecraft.getMinecraft().getRenderManager();
+        double viewerX = renderManager.viewerPosX, viewerY = renderManager.viewerPosY, viewerZ = renderManager.viewerPosZ;
+        float maxDistanceSq = DynamXConfig.skidMarkRenderDistance * DynamXConfig.skidMarkRenderDistance;
+        float time = world.getTotalWorldTime() - epoch + partialTicks;
+        float lifetime = DynamXConfig.skidMarkLifetime * 20;
+
+        GlStateManager.pushMatrix();
+        GlStateManager.translate(-viewerX, -viewerY, -viewerZ);
+        GlStateManager.disableTexture2D();
+        GlStateManager.disableLighting();
+        GlStateManager.disableCull();
+        GlStateManager.enableBlend();
+        GlStateManager.tryBlendFuncSeparate(GlStateManager.SourceFactor.SRC_ALPHA, GlStateManager.DestFactor.ONE_MINUS_SRC_ALPHA, GlStateManager.SourceFactor.ONE, GlStateManager.DestFactor.ZERO);
+        GlStateManager.depthMask(false);
+        GlStateManager.enablePolygonOffset();
+        GlStateManager.doPolygonOffset(-1, -1);
+
+        Tessellator tessellator = Tessellator.getInstance();
+        BufferBuilder buffer = tessellator.getBuffer();
+        buffer.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_COLOR);
+        int capacity = marks.length / STRIDE;
+        for (int n = 1; n <= size; n++) {
+            int i = ((head - n + capacity) % capacity) * STRIDE;
+            float age = time - marks[i + 15];
+            if (age >= lifetime)
+                break; //The marks are written in creation order : the older ones are expired too
+            double cx = marks[i + 12] - viewerX, cy = marks[i + 13] - viewerY, cz = marks[i + 14] - viewerZ;
+            if (cx * cx + cy * cy + cz * cz > maxDistanceSq)
+                continue;
+            float alpha = MAX_ALPHA * marks[i + 16] * (1 - age / lifetime);
+            for (int corner = 0; corner < 4; corner++)
+                buffer.pos(marks[i + corner * 3], marks[i + corner * 3 + 1], marks[i + corner * 3 + 2]).color(0.08f, 0.08f, 0.08f, alpha).endVertex();
+            lastRendered++;
+        }
+        tessellator.draw();
+
+        GlStateManager.doPolygonOffset(0, 0);
+        GlStateManager.disablePolygonOffset();
+        GlStateManager.depthMask(true);
+        GlStateManager.disableBlend();
+        GlStateManager.enableCull();
+        GlStateManager.enableLighting();
+        GlStateManager.enableTexture2D();
+        GlStateManager.popMatrix();
+    }
+
+    /**
+     * Removes all the marks, called when the world is unloaded
+     */
+    public static void clear() {
+        head = size = lastRendered = 0;
+    }
+
+    /**
+     * @return The number of marks in the buffer
+     */
+    public static int getSize() {
+        return size;
+    }
+
+    /**
+     * @return The number of marks drawn in the last frame
+     */
+    public static int getLastRendered() {
+        return lastRendered;
+    }
+}
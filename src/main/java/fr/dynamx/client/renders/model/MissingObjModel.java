@@ -69,12 +69,23 @@ public class MissingObjModel extends ObjModelClient
         return emptyPart;
     }
 
+    @Override
+    public IObjObject getObjObject(int groupId) {
+        return emptyPart;
+    }
+
     @Override
     public boolean renderGroups(String groupsName, byte textureDataId) {
         renderModel(textureDataId);
         return true;
     }
 
+    @Override
+    public boolean renderGroups(int groupId, byte textureDataId) {
+        renderModel(textureDataId);
+        return true;
+    }
+
     @Override
     public boolean renderMainParts(byte textureDataId) {
         renderModel(textureDataId);
@@ -0,0 +1,142 @@
+package fr.dynamx.client.renders.model;
+
+import com.jme3.math.Vector3f;
+import fr.dynamx.api.obj.IObjObject;
+import fr.dynamx.utils.DynamXConfig;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.culling.Frustum;
+import net.minecraft.client.renderer.culling.ICamera;
+import org.lwjgl.util.vector.Quaternion;
+
+import javax.annotation.Nullable;
+
+/**
+ * Selects the level of detail of the model parts, and culls the parts that are too small to be seen or out of the screen <br>
+ * The level depends on the size of the part on the screen (the radius of its bounding sphere, in pixels), see the Visuals section of the config <br>
+ * The lower detail meshes are declared in the obj file, with groups named 'part_lod1' and 'part_lod2', or generated from the full detail mesh <br>
+ * It's setup by the {@link fr.dynamx.client.renders.RenderPhysicsEntity} for each rendered entity, outside of an entity render all parts are rendered at full detail
+ */
+public class ModelLod
+{
+    /**
+     * Returned by {@link #select(IObjObject, boolean)} when the part should not be rendered
+     */
+    public static final int CULLED = -1;
+    /**
+     * Number of levels of detail, including the full detail
+     */
+    public static final int LEVELS = 3;
+
+    private static ICamera camera;
+    private static boolean active;
+    private static double viewerX, viewerY, viewerZ;
+    private static float x, y, z;
+    /** Rotation and scale of the entity, by columns */
+    private static float m00, m01, m02, m10, m11, m12, m20, m21, m22;
+    private static float maxScale;
+    private static float pixelsPerUnit;
+
+    /**
+     * Sets the camera used by the world to render the entities, to cull the parts out of the screen
+     */
+    public static void setCamera(@Nullable ICamera camera) {
+        ModelLod.camera = camera;
+    }
+
+    /**
+     * @return True if the lod is enabled in the config
+     */
+    public static boolean isEnabled() {
+        return DynamXConfig.enableModelLod;
+    }
+
+    /**
+     * Setups the transform of the rendered entity
+     *
+     * @param x        The position of the entity, relative to the camera
+     * @param y        The position of the entity, relative to the camera
+     * @param z        The position of the entity, relative to the camera
+     * @param rotation The rotation of the entity
+     * @param scale    The scale of the entity model
+     */
+    public static void begin(double x, double y, double z, Quaternion rotation, Vector3f scale) {
+        if (!isEnabled())
+            return;
+        active = true;
+        Minecraft mc = Minecraft.getMinecraft();
+        viewerX = mc.getRenderManager().viewerPosX;
+        viewerY = mc.getRenderManager().viewerPosY;
+        viewerZ = mc.getRenderManager().viewerPosZ;
+        ModelLod.x = (float) x;
+        ModelLod.y = (float) y;
+        ModelLod.z = (float) z;
+        float xx = rotation.x * rotation.x, yy = rotation.y * rotation.y, zz = rotation.z * rotation.z;
+        float xy = rotation.x * rotation.y, xz = rotation.x * rotation.z, yz = rotation.y * rotation.z;
+        float xw = rotation.x * rotation.w, yw = rotation.y * rotation.w, zw = rotation.z * rotation.w;
+        m00 = (1 - 2 * (yy + zz)) * scale.x;
+        m01 = 2 * (xy + zw) * scale.x;
+        m02 = 2 * (xz - yw) * scale.x;
+        m10 = 2 * (xy - zw) * scale.y;
+        m11 = (1 - 2 * (xx + zz)) * scale.y;
+        m12 = 2 * (yz + xw) * scale.y;
+        m20 = 2 * (xz + yw) * scale.z;
+        m21 = 2 * (yz - xw) * scale.z;
+        m22 = (1 - 2 * (xx + yy)) * scale.z;
+        maxScale = Math.max(Math.abs(scale.x), Math.max(Math.abs(scale.y), Math.abs(scale.z)));
+        pixelsPerUnit = getPixelsPerUnit();
+    }
+
+    /**
+     * Ends the render of the entity
+     */
+    public static void end() {
+        active = false;
+    }
+
+    /**
+     * @return The size, in pixels, of one block at a distance of one block from the camera
+     */
+    public static float getPixelsPerUnit() {
+        Minecraft mc = Minecraft.getMinecraft();
+        return (float) (mc.displayHeight / (2 * Math.tan(Math.toRadians(mc.gameSettings.fovSetting) / 2)));
+    }
+
+    /**
+     * Selects the level of detail of a part of the rendered entity
+     *
+     * @param object     The part
+     * @param modelSpace True if the part is rendered at its position in the model (chassis parts), false if it has its own transform (wheels, doors...) : then only the distance of the entity is used
+     * @return The level of detail, or {@link #CULLED}
+     */
+    public static int select(IObjObject object, boolean modelSpace) {
+        if (!active || object.getCenter() == null)
+            return 0;
+        float radius = object.getRadius() * maxScale;
+        float cx = x, cy = y, cz = z;
+        if (modelSpace) {
+            javax.vecmath.Vector3f c = object.getCenter();
+            cx += m00 * c.x + m10 * c.y + m20 * c.z;
+            cy += m01 * c.x + m11 * c.y + m21 * c.z;
+            cz += m02 * c.x + m12 * c.y + m22 * c.z;
+            if (camera instanceof Frustum && !((Frustum) camera).isBoxInFrustum(viewerX + cx - radius, viewerY + cy - radius, viewerZ + cz - radius,
+                    viewerX + cx + radius, viewerY + cy + radius, viewerZ + cz + radius))
+                return CULLED;
+        }
+        float distance = (float) Math.sqrt(cx * cx + cy * cy + cz * cz);
+        return selectLevel(radius * pixelsPerUnit / Math.max(distance, 0.05f));
+    }
+
+    /**
+     * @param pixelSize The radius of the part on the screen, in pixels
+     * @return The level of detail, or {@link #CULLED}
+     */
+    public static int selectLevel(float pixelSize) {
+        if (pixelSize < DynamXConfig.partCullingPixelSize)
+            return CULLED;
+        if (pixelSize < DynamXConfig.lod2PixelSize)
+            return 2;
+        if (pixelSize < DynamXConfig.lod1PixelSize)
+            return 1;
+        return 0;
+    }
+}
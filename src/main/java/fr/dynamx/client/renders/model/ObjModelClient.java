@@ -2,6 +2,7 @@ package fr.dynamx.client.renders.model;
 
 import fr.dynamx.api.obj.IModelTextureSupplier;
 import fr.dynamx.api.obj.IObjObject;
+import fr.dynamx.api.obj.ObjGroupIds;
 import fr.dynamx.common.contentpack.type.objects.BlockObject;
 import fr.dynamx.common.obj.eximpl.TessellatorModelClient;
 import net.minecraft.client.renderer.GlStateManager;
@@ -11,6 +12,7 @@ import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
 
 import javax.annotation.Nullable;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -19,16 +21,68 @@ import java.util.List;
  * @see fr.dynamx.common.obj.ObjModelServer
  */
 public abstract class ObjModelClient {
+    private static final IObjObject[] NO_OBJECTS = new IObjObject[0];
+
     private final ResourceLocation location;
     public final List<IObjObject> objObjects;
     /**
      * Used for error logging, see {@link IObjObject}
      */
     public boolean hasNoneMaterials;
+    /**
+     * Open addressing table of the objects of each group, by {@link ObjGroupIds} id
+     */
+    private int[] groupIds;
+    private IObjObject[][] groupObjects;
 
     public ObjModelClient(ResourceLocation location, List<IObjObject> objObjects) {
         this.location = location;
         this.objObjects = objObjects;
+        indexGroups();
+    }
+
+    /**
+     * Indexes the objects by group id, called once when the model is created
+     */
+    private void indexGroups() {
+        int capacity = 4;
+        while (capacity < objObjects.size() * 2)
+            capacity <<= 1;
+        groupIds = new int[capacity];
+        Arrays.fill(groupIds, -1);
+        groupObjects = new IObjObject[capacity][];
+        for (IObjObject object : objObjects) {
+            int groupId = ObjGroupIds.register(object.getName());
+            int slot = findSlot(groupId);
+            groupIds[slot] = groupId;
+            IObjObject[] objects = groupObjects[slot];
+            if (objects == null) {
+                groupObjects[slot] = new IObjObject[]{object};
+            } else {
+                objects = Arrays.copyOf(objects, objects.length + 1);
+                objects[objects.length - 1] = object;
+                groupObjects[slot] = objects;
+            }
+        }
+    }
+
+    private int findSlot(int groupId) {
+        int mask = groupIds.length - 1;
+        int slot = (groupId * 0x9E3779B9) & mask;
+        while (groupIds[slot] != -1 && groupIds[slot] != groupId)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    /**
+     * @param groupId The {@link ObjGroupIds} id of the group name
+     * @return The objects of this group, empty if this model doesn't have this group
+     */
+    public IObjObject[] getGroupObjects(int groupId) {
+        if (groupId == -1)
+            return NO_OBJECTS;
+        IObjObject[] objects = groupObjects[findSlot(groupId)];
+        return objects != null ? objects : NO_OBJECTS;
     }
 
     public ResourceLocation getLocation() {
@@ -56,6 +110,33 @@ public abstract class ObjModelClient {
 
     public abstract IObjObject getObjObject(String groupName);
 
+    /**
+     * @param groupId The {@link ObjGroupIds} id of the group name
+     * @return The first object of this group, or null
+     */
+    @Nullable
+    public IObjObject getObjObject(int groupId) {
+        IObjObject[] objects = getGroupObjects(groupId);
+        return objects.length > 0 ? objects[0] : null;
+    }
+
+    /**
+     * @return True if this object is a lower detail version of another object, it's only rendered by {@link ModelLod}
+     */
+    public boolean isLodObject(IObjObject object) {
+        return false;
+    }
+
+    /**
+     * @param object   The full detail object
+     * @param lodLevel The level of detail
+     * @return The lower detail version of the object declared in the model, or null to use the generated one
+     */
+    @Nullable
+    public IObjObject getLodObject(IObjObject object, int lodLevel) {
+        return null;
+    }
+
     /**
      * Called to render this part <br>
      * Will draw nothing if the model is not correctly loaded
@@ -64,6 +145,20 @@ public abstract class ObjModelClient {
      */
     public abstract boolean renderGroups(String groupsName, byte textureDataId);
 
+    /**
+     * Called to render the objects of this group, found without comparing names <br>
+     * Will draw nothing if the model is not correctly loaded
+     *
+     * @param groupId The {@link ObjGroupIds} id of the group name
+     * @return True if successfully drawn something
+     */
+    public boolean renderGroups(int groupId, byte textureDataId) {
+        IObjObject[] objects = getGroupObjects(groupId);
+        for (IObjObject object : objects)
+            renderGroup(object, textureDataId);
+        return objects.length > 0;
+    }
+
     public abstract boolean renderMainParts(byte textureDataId);
 
     /**
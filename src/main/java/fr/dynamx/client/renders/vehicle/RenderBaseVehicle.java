@@ -1,10 +1,13 @@
 package fr.dynamx.client.renders.vehicle;
 
+import com.jme3.math.Vector3f;
 import fr.dynamx.api.entities.IModuleContainer;
 import fr.dynamx.api.entities.modules.IPhysicsModule;
+import fr.dynamx.api.events.DynamXRenderEvent;
 import fr.dynamx.api.events.PhysicsEntityEvent;
 import fr.dynamx.api.events.VehicleEntityEvent.RenderVehicleEntityEvent;
 import fr.dynamx.api.events.VehicleEntityEvent.RenderVehicleEntityEvent.Type;
+import fr.dynamx.client.renders.InstancedModelRenderer;
 import fr.dynamx.client.renders.RenderPhysicsEntity;
 import fr.dynamx.client.renders.model.ObjModelClient;
 import fr.dynamx.common.DynamXContext;
@@ -12,12 +15,14 @@ import fr.dynamx.common.entities.BaseVehicleEntity;
 import fr.dynamx.common.entities.vehicles.BoatEntity;
 import fr.dynamx.common.entities.vehicles.CarEntity;
 import fr.dynamx.common.entities.vehicles.TrailerEntity;
+import fr.dynamx.utils.EventListenerChecker;
 import fr.dynamx.utils.debug.renderer.BoatDebugRenderer;
 import fr.dynamx.utils.debug.renderer.DebugRenderer;
 import fr.dynamx.utils.debug.renderer.VehicleDebugRenderer;
 import net.minecraft.client.renderer.GlStateManager;
 import net.minecraft.client.renderer.entity.RenderManager;
 import net.minecraftforge.common.MinecraftForge;
+import org.lwjgl.util.vector.Quaternion;
 
 public class RenderBaseVehicle<T extends BaseVehicleEntity<?>> extends RenderPhysicsEntity<T>
 {
@@ -27,36 +32,59 @@ public class RenderBaseVehicle<T extends BaseVehicleEntity<?>> extends RenderPhy
         MinecraftForge.EVENT_BUS.post(new PhysicsEntityEvent.InitPhysicEntityRenderEvent<>(BaseVehicleEntity.class, this));
     }
 
+    /**
+     * Posts a {@link RenderVehicleEntityEvent}, only if something listens to it
+     *
+     * @return True if the event was cancelled
+     */
+    protected boolean postRenderEvent(Type type, T carEntity, PhysicsEntityEvent.Phase phase, float partialTicks) {
+        return EventListenerChecker.hasListeners(RenderVehicleEntityEvent.class) && MinecraftForge.EVENT_BUS.post(new RenderVehicleEntityEvent(type, this, carEntity, phase, partialTicks));
+    }
+
+    @Override
+    protected Vector3f getModelScale(T carEntity) {
+        return carEntity.getPackInfo().getScaleModifier();
+    }
+
+    @Override
+    protected boolean queueMain(T carEntity, double x, double y, double z, Quaternion rotation, float partialTicks) {
+        //The chassis events are posted around the chassis render, and the model events by the model itself, so it cannot be batched if they are listened
+        if (!carEntity.getPackInfo().isModelValid() || EventListenerChecker.hasListeners(RenderVehicleEntityEvent.class) || EventListenerChecker.hasListeners(DynamXRenderEvent.RenderModel.class))
+            return false;
+        ObjModelClient vehicleModel = DynamXContext.getObjModelRegistry().getModel(carEntity.getPackInfo().getModel());
+        return InstancedModelRenderer.queue(vehicleModel, carEntity.getEntityTextureID(), true, x, y, z, rotation, carEntity.getPackInfo().getScaleModifier(), carEntity.getBrightnessForRender());
+    }
+
     @Override
     public void renderMain(T carEntity, float partialTicks) {
-        if (!MinecraftForge.EVENT_BUS.post(new RenderVehicleEntityEvent(Type.CHASSIS, this, carEntity, PhysicsEntityEvent.Phase.PRE, partialTicks)) && carEntity.getPackInfo().isModelValid()) {
+        if (!postRenderEvent(Type.CHASSIS, carEntity, PhysicsEntityEvent.Phase.PRE, partialTicks) && carEntity.getPackInfo().isModelValid()) {
             /* Rendering the chassis */
             ObjModelClient vehicleModel = DynamXContext.getObjModelRegistry().getModel(carEntity.getPackInfo().getModel());
             GlStateManager.scale(carEntity.getPackInfo().getScaleModifier().x,carEntity.getPackInfo().getScaleModifier().y,carEntity.getPackInfo().getScaleModifier().z);
             renderMainModel(vehicleModel, carEntity, carEntity.getEntityTextureID());
             GlStateManager.scale(1/carEntity.getPackInfo().getScaleModifier().x,1/carEntity.getPackInfo().getScaleModifier().y,1/carEntity.getPackInfo().getScaleModifier().z);
         }
-        MinecraftForge.EVENT_BUS.post(new RenderVehicleEntityEvent(Type.CHASSIS, this, carEntity, PhysicsEntityEvent.Phase.POST, partialTicks));
+        postRenderEvent(Type.CHASSIS, carEntity, PhysicsEntityEvent.Phase.POST, partialTicks);
     }
 
     @Override
     public void renderParts(T carEntity, float partialTicks) {
-        if (!MinecraftForge.EVENT_BUS.post(new RenderVehicleEntityEvent(Type.PARTS, this, carEntity, PhysicsEntityEvent.Phase.PRE, partialTicks))) {
+        if (!postRenderEvent(Type.PARTS, carEntity, PhysicsEntityEvent.Phase.PRE, partialTicks)) {
             if(carEntity.getPackInfo().isModelValid()) {
                 carEntity.getDrawableModules().forEach(d -> ((IPhysicsModule.IDrawableModule<T>) d).drawParts(this, partialTicks, carEntity));
             }
         }
-        MinecraftForge.EVENT_BUS.post(new RenderVehicleEntityEvent(Type.PARTS, this, carEntity, PhysicsEntityEvent.Phase.POST, partialTicks));
+        postRenderEvent(Type.PARTS, carEntity, PhysicsEntityEvent.Phase.POST, partialTicks);
     }
 
     @Override
     public void spawnParticles(T carEntity, float partialTicks) {
         super.spawnParticles(carEntity, partialTicks);
-        if (!MinecraftForge.EVENT_BUS.post(new RenderVehicleEntityEvent(Type.PARTICLES, this, carEntity, PhysicsEntityEvent.Phase.PRE, partialTicks))) {
+        if (!postRenderEvent(Type.PARTICLES, carEntity, PhysicsEntityEvent.Phase.PRE, partialTicks)) {
             if (carEntity instanceof IModuleContainer.IPropulsionContainer) {
                 ((IModuleContainer.IPropulsionContainer<?>) carEntity).getPropulsion().spawnPropulsionParticles(this, partialTicks);
             }
-            MinecraftForge.EVENT_BUS.post(new RenderVehicleEntityEvent(Type.PARTICLES, this, carEntity, PhysicsEntityEvent.Phase.POST, partialTicks));
+            postRenderEvent(Type.PARTICLES, carEntity, PhysicsEntityEvent.Phase.POST, partialTicks);
         }
     }
 
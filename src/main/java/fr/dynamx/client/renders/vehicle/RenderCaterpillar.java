@@ -5,6 +5,7 @@ import fr.dynamx.api.entities.IModuleContainer;
 import fr.dynamx.api.entities.VehicleEntityProperties;
 import fr.dynamx.api.events.PhysicsEntityEvent;
 import fr.dynamx.api.events.VehicleEntityEvent;
+import fr.dynamx.api.obj.ObjGroupIds;
 import fr.dynamx.common.DynamXContext;
 import fr.dynamx.common.contentpack.ModularVehicleInfo;
 import fr.dynamx.common.contentpack.parts.PartWheel;
@@ -24,6 +25,8 @@ import static java.lang.Math.sin;
 import static org.lwjgl.opengl.GL11.*;
 
 public class RenderCaterpillar<T extends CaterpillarEntity<?>> extends RenderBaseVehicle<T> {
+    private static final int STEERING_WHEEL_GROUP = ObjGroupIds.register("SteeringWheel");
+
     public RenderCaterpillar(RenderManager manager) {
         super(manager);
         VehicleDebugRenderer.addAll(this, true);
@@ -43,7 +46,7 @@ public class RenderCaterpillar<T extends CaterpillarEntity<?>> extends RenderBas
                 /* Translate with the same values but negative to move it to it normal position*/
                 GlStateManager.translate(-0.5, -1.1, -1);
                 /* Rendering the steering wheel */
-                DynamXContext.getObjModelRegistry().getModel(carEntity.getPackInfo().getModel()).renderGroups("SteeringWheel", carEntity.getEntityTextureID());
+                DynamXContext.getObjModelRegistry().getModel(carEntity.getPackInfo().getModel()).renderGroups(STEERING_WHEEL_GROUP, carEntity.getEntityTextureID());
             }
             GlStateManager.popMatrix();
 
@@ -26,7 +26,7 @@ public class RenderDoor<T extends DoorEntity<?>> extends RenderPhysicsEntity<T>
         if (carEntity != null) {
             ObjModelClient vehicleModel = DynamXContext.getObjModelRegistry().getModel(carEntity.getPackInfo().getModel());
             GlStateManager.scale(carEntity.getPackInfo().getScaleModifier().x, carEntity.getPackInfo().getScaleModifier().y, carEntity.getPackInfo().getScaleModifier().z);
-            renderModelGroup(vehicleModel, entity.getPackInfo().getPartName(), carEntity, carEntity.getEntityTextureID());
+            renderModelGroup(vehicleModel, entity.getPackInfo().getPartGroupId(), carEntity, carEntity.getEntityTextureID());
             GlStateManager.scale(1 / carEntity.getPackInfo().getScaleModifier().x, 1 / carEntity.getPackInfo().getScaleModifier().y, 1 / carEntity.getPackInfo().getScaleModifier().z);
         }
     }
@@ -3,6 +3,7 @@ package fr.dynamx.client.sound;
 import com.jme3.math.Vector3f;
 import fr.dynamx.api.audio.IDynamXSound;
 import fr.dynamx.api.audio.IDynamXSoundHandler;
+import fr.dynamx.utils.DynamXConfig;
 import fr.dynamx.utils.DynamXConstants;
 import fr.dynamx.utils.optimization.Vector3fPool;
 import net.minecraft.client.Minecraft;
@@ -27,12 +28,19 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLStreamHandler;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static fr.dynamx.common.DynamXMain.log;
 
 /**
- * Default DynamX implementation of {@link IDynamXSoundHandler}
+ * Default DynamX implementation of {@link IDynamXSoundHandler} <br>
+ * The streaming sounds don't own a sound source : the sources are taken from a pool shared by all the sounds, limited by the voice budget (see the Sounds section of the config) <br>
+ * When the pool is full, the sounds with the lowest {@link IDynamXSound#getPriority()} lose their source (they are "virtual"), and get one again when they become important again <br>
+ * A free source is reused by the next sound, from any entity, and is only re-created if the new sound uses another sound file
  */
 @SideOnly(Side.CLIENT)
 public class DynamXSoundHandler implements IDynamXSoundHandler
@@ -44,6 +52,16 @@ public class DynamXSoundHandler implements IDynamXSoundHandler
     private int soundSystemStartupDelay = 0;
     private boolean secondStartupTry;
 
+    /**
+     * Time (in ticks) before a free source is released
+     */
+    private static final int IDLE_SOURCE_LIFETIME = 200;
+    /**
+     * Interval (in ticks) between two updates of the voice budget
+     */
+    private static final int BUDGET_UPDATE_INTERVAL = 10;
+    private static final Comparator<Voice> BY_PRIORITY = (a, b) -> Float.compare(b.priority, a.priority);
+
     private final URLStreamHandler resourceStreamHandler = new ResourceStreamHandler();
 
     @Override
@@ -56,23 +74,49 @@ public class DynamXSoundHandler implements IDynamXSoundHandler
         mcSoundSystem = null;
         secondStartupTry = false;
         soundSystemStartupDelay = 100;
-        playingSounds.clear();
+        clearSounds();
     }
 
     @Override
     public void unload() {
-        for (IDynamXSound soundID : getPlayingSounds()) {
-            if (mcSoundSystem.playing(soundID.getSoundUniqueName())) {
-                mcSoundSystem.stop(soundID.getSoundUniqueName());
+        if (mcSoundSystem != null) {
+            for (Source source : sources) {
+                if (mcSoundSystem.playing(source.name)) {
+                    mcSoundSystem.stop(source.name);
+                }
+                mcSoundSystem.removeSource(source.name);
             }
         }
+        clearSounds();
+    }
+
+    private void clearSounds() {
         playingSounds.clear();
+        voices.clear();
+        stoppingSounds.clear();
+        sources.clear();
+        freeSources.clear();
     }
 
     /**
      * All currently playing (or paused) sounds
      */
     private final List<IDynamXSound> playingSounds = new ArrayList<>();
+    /**
+     * The voices of the playing sounds, also used for fast lookups
+     */
+    private final Map<IDynamXSound, Voice> voices = new HashMap<>();
+    /**
+     * All the sources of the pool
+     */
+    private final List<Source> sources = new ArrayList<>();
+    /**
+     * The sources not used by a sound, in release order
+     */
+    private final List<Source> freeSources = new ArrayList<>();
+    private Voice[] sortedVoices = new Voice[16];
+    private int nextSourceId;
+    private int ticks;
     /**
      * Sounds waiting to be removed from the playingSounds list
      */
@@ -90,6 +134,9 @@ public class DynamXSoundHandler implements IDynamXSoundHandler
     public void tick()
     {
         if(ready()) {
+            ticks++;
+            if(ticks % BUDGET_UPDATE_INTERVAL == 0)
+                updateVoiceBudget();
             //Update all sounds
             Vector3fPool.openPool();
             for (IDynamXSound sound : playingSounds) {
@@ -100,12 +147,143 @@ public class DynamXSoundHandler implements IDynamXSoundHandler
             if(!stoppingSounds.isEmpty()) {
                 for (IDynamXSound sound : stoppingSounds) {
                     playingSounds.remove(sound);
+                    voices.remove(sound);
                 }
                 stoppingSounds.clear();
             }
+            releaseIdleSources();
         }
     }
 
+    /**
+     * Gives the sources of the pool to the sounds with the highest priority, the other sounds become virtual
+     */
+    private void updateVoiceBudget() {
+        int budget = DynamXConfig.maxSoundVoices;
+        int count = playingSounds.size();
+        if (budget <= 0 || (count <= budget && getVirtualSoundCount() == 0))
+            return;
+        if (sortedVoices.length < count)
+            sortedVoices = Arrays.copyOf(sortedVoices, Math.max(count, sortedVoices.length * 2));
+        for (int i = 0; i < count; i++) {
+            Voice voice = voices.get(playingSounds.get(i));
+            voice.priority = voice.sound.getPriority();
+            sortedVoices[i] = voice;
+        }
+        Arrays.sort(sortedVoices, 0, count, BY_PRIORITY);
+        //Free the sources first, so the sounds entering the budget can take them
+        for (int i = budget; i < count; i++) {
+            if (sortedVoices[i].source != null)
+                releaseSource(sortedVoices[i]);
+        }
+        boolean paused = Minecraft.getMinecraft().isGamePaused();
+        for (int i = 0; i < count; i++) {
+            Voice voice = sortedVoices[i];
+            sortedVoices[i] = null;
+            if (i < budget && voice.source == null && acquireSource(voice) && !paused)
+                mcSoundSystem.play(voice.source.name);
+        }
+    }
+
+    /**
+     * Gives a source of the pool to the voice, evicting the sound with the lowest priority if the pool is full
+     *
+     * @return False if the pool is full of sounds with a higher priority, the voice stays virtual
+     */
+    private boolean acquireSource(Voice voice) {
+        Source source = null;
+        //A free source already playing this sound file
+        for (int i = freeSources.size() - 1; i >= 0; i--) {
+            if (freeSources.get(i).soundName.equals(voice.soundName)) {
+                source = freeSources.remove(i);
+                break;
+            }
+        }
+        int budget = DynamXConfig.maxSoundVoices;
+        if (source == null) {
+            if (budget <= 0 || sources.size() < budget) {
+                source = new Source("dynamx_source_" + nextSourceId++);
+                sources.add(source);
+            } else if (!freeSources.isEmpty()) {
+                source = freeSources.remove(0);
+            } else {
+                Voice evicted = null;
+                for (IDynamXSound sound : playingSounds) {
+                    Voice other = voices.get(sound);
+                    if (other.source != null && other.priority < voice.priority && (evicted == null || other.priority < evicted.priority))
+                        evicted = other;
+                }
+                if (evicted == null)
+                    return false;
+                source = evicted.source;
+                mcSoundSystem.stop(source.name);
+                evicted.source = null;
+            }
+        }
+        if (voice.soundName.equals(source.soundName)) {
+            mcSoundSystem.setPosition(source.name, voice.x, voice.y, voice.z);
+            mcSoundSystem.setAttenuation(source.name, voice.attenuationType);
+            mcSoundSystem.setDistOrRoll(source.name, voice.distOrRoll);
+        } else {
+            //Another sound file : the source is created again, with the same name
+            if (source.soundName != null)
+                mcSoundSystem.removeSource(source.name);
+            mcSoundSystem.newSource(false, source.name, voice.soundURL, voice.soundURL.toString(), true, voice.x, voice.y, voice.z, voice.attenuationType, voice.distOrRoll);
+            source.soundName = voice.soundName;
+        }
+        voice.source = source;
+        return true;
+    }
+
+    /**
+     * Stops the source of the voice and gives it back to the pool
+     */
+    private void releaseSource(Voice voice) {
+        Source source = voice.source;
+        voice.source = null;
+        mcSoundSystem.stop(source.name);
+        source.freeSince = ticks;
+        freeSources.add(source);
+    }
+
+    /**
+     * Releases the sources free for a long time
+     */
+    private void releaseIdleSources() {
+        while (!freeSources.isEmpty() && ticks - freeSources.get(0).freeSince >= IDLE_SOURCE_LIFETIME) {
+            //The next ones were released later
+            Source source = freeSources.remove(0);
+            mcSoundSystem.removeSource(source.name);
+            sources.remove(source);
+        }
+    }
+
+    /**
+     * @return The number of streaming sounds without source because of the voice budget
+     */
+    public int getVirtualSoundCount() {
+        int count = 0;
+        for (Voice voice : voices.values()) {
+            if (voice.source == null)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return The number of sources in the pool
+     */
+    public int getSourceCount() {
+        return sources.size();
+    }
+
+    /**
+     * @return The number of sources of the pool not used by a sound
+     */
+    public int getIdleSourceCount() {
+        return freeSources.size();
+    }
+
     @Override
     public List<IDynamXSound> getPlayingSounds() {
         return playingSounds;
@@ -155,20 +333,27 @@ public class DynamXSoundHandler implements IDynamXSoundHandler
     public void playStreamingSound(Vector3f soundPosition, IDynamXSound sound, int attenuationType, float distOrRoll) {
         if (ready())
         {
-            if(playingSounds.contains(sound))
+            if(voices.containsKey(sound))
                 throw new IllegalStateException("Sound "+sound+" is already playing !");
             String soundID = sound.getSoundUniqueName();
             String soundName = soundID.substring(soundID.indexOf('_')+1);
-            if (!playingSounds.contains(sound) && !Minecraft.getMinecraft().isGamePaused()) {
+            if (!Minecraft.getMinecraft().isGamePaused()) {
                 try {
                     URL soundURL = new URL(null, DynamXConstants.ID + ":" + soundName + ".ogg", resourceStreamHandler);
                     if (trustedSounds.contains(soundName) || soundURL.openStream() != null) {
                         if (!trustedSounds.contains(soundName))
                             trustedSounds.add(soundName);
-                        mcSoundSystem.newSource(false, soundID, soundURL, soundURL.toString(), true, soundPosition.x, soundPosition.y, soundPosition.z, attenuationType, distOrRoll);
-                        mcSoundSystem.play(soundID);
+                        Voice voice = new Voice(sound, soundName, soundURL, attenuationType, distOrRoll);
+                        voice.priority = sound.getPriority();
+                        voice.x = soundPosition.x;
+                        voice.y = soundPosition.y;
+                        voice.z = soundPosition.z;
+                        //Without free source, the sound is virtual until the next update of the voice budget
+                        if (acquireSource(voice))
+                            mcSoundSystem.play(voice.source.name);
                         sound.onStarted();
                         playingSounds.add(sound);
+                        voices.put(sound, voice);
                     }
                 } catch (FileNotFoundException e) {
                     if(!erroredSounds.contains(soundName)) {
@@ -188,11 +373,13 @@ public class DynamXSoundHandler implements IDynamXSoundHandler
     @Override
     public void stopSound(IDynamXSound sound)
     {
-        if(playingSounds.contains(sound)) {
+        Voice voice = voices.get(sound);
+        if(voice != null) {
             if(sound.tryStop()) {
                 try {
-                    if (mcSoundSystem != null) {
-                        mcSoundSystem.stop(sound.getSoundUniqueName());
+                    //Give the source back to the pool, the next sound will reuse it
+                    if (mcSoundSystem != null && voice.source != null) {
+                        releaseSource(voice);
                     }
                     stoppingSounds.add(sound);
                 } catch (Exception e) {
@@ -210,46 +397,73 @@ public class DynamXSoundHandler implements IDynamXSoundHandler
         return mcSoundSystem;
     }
 
+    /**
+     * @return The source used by the sound, or null if it isn't playing or is virtual
+     */
+    private String getSource(IDynamXSound sound) {
+        Voice voice = voices.get(sound);
+        return voice != null && voice.source != null ? voice.source.name : null;
+    }
+
     @Override
     public void setVolume(IDynamXSound sound, float volume) {
-        if(playingSounds.contains(sound))
-            mcSoundSystem.setVolume(sound.getSoundUniqueName(), volume);
+        String source = getSource(sound);
+        if(source != null)
+            mcSoundSystem.setVolume(source, volume);
     }
 
     @Override
     public void setPitch(IDynamXSound sound, float pitch) {
-        if(playingSounds.contains(sound))
-            mcSoundSystem.setPitch(sound.getSoundUniqueName(), pitch);
+        String source = getSource(sound);
+        if(source != null)
+            mcSoundSystem.setPitch(source, pitch);
     }
 
     @Override
     public void setAttenuationType(IDynamXSound sound, int attenuationType) {
-        if(playingSounds.contains(sound))
-            mcSoundSystem.setAttenuation(sound.getSoundUniqueName(), attenuationType);
+        Voice voice = voices.get(sound);
+        if(voice != null) {
+            voice.attenuationType = attenuationType;
+            if(voice.source != null)
+                mcSoundSystem.setAttenuation(voice.source.name, attenuationType);
+        }
     }
 
     @Override
     public void setSoundDistance(IDynamXSound sound, float radius) {
-        if(playingSounds.contains(sound))
-            mcSoundSystem.setDistOrRoll(sound.getSoundUniqueName(), radius);
+        Voice voice = voices.get(sound);
+        if(voice != null) {
+            voice.distOrRoll = radius;
+            if(voice.source != null)
+                mcSoundSystem.setDistOrRoll(voice.source.name, radius);
+        }
     }
 
     @Override
     public void setPosition(IDynamXSound sound, float x, float y, float z) {
-        if(playingSounds.contains(sound))
-            mcSoundSystem.setPosition(sound.getSoundUniqueName(), x, y, z);
+        Voice voice = voices.get(sound);
+        if(voice != null) {
+            //Kept for the next source of a virtual sound
+            voice.x = x;
+            voice.y = y;
+            voice.z = z;
+            if(voice.source != null)
+                mcSoundSystem.setPosition(voice.source.name, x, y, z);
+        }
     }
 
     @Override
     public void pause(IDynamXSound sound) {
-        if(playingSounds.contains(sound))
-            mcSoundSystem.pause(sound.getSoundUniqueName());
+        String source = getSource(sound);
+        if(source != null)
+            mcSoundSystem.pause(source);
     }
 
     @Override
     public void resume(IDynamXSound sound) {
-        if(playingSounds.contains(sound))
-            mcSoundSystem.play(sound.getSoundUniqueName());
+        String source = getSource(sound);
+        if(source != null)
+            mcSoundSystem.play(source);
     }
 
     /**
@@ -305,6 +519,50 @@ public class DynamXSoundHandler implements IDynamXSoundHandler
         }
     }
 
+    /**
+     * A playing sound, with the source it uses
+     */
+    private static class Voice {
+        private final IDynamXSound sound;
+        private final String soundName;
+        private final URL soundURL;
+        private int attenuationType;
+        private float distOrRoll;
+        private float x, y, z;
+        private float priority;
+        /**
+         * The source of the pool, null if the sound is virtual
+         */
+        private Source source;
+
+        private Voice(IDynamXSound sound, String soundName, URL soundURL, int attenuationType, float distOrRoll) {
+            this.sound = sound;
+            this.soundName = soundName;
+            this.soundURL = soundURL;
+            this.attenuationType = attenuationType;
+            this.distOrRoll = distOrRoll;
+        }
+    }
+
+    /**
+     * A source of the pool, shared by all the sounds
+     */
+    private static class Source {
+        private final String name;
+        /**
+         * The sound file loaded in the source
+         */
+        private String soundName;
+        /**
+         * The tick of the release of the source, if it's free
+         */
+        private int freeSince;
+
+        private Source(String name) {
+            this.name = name;
+        }
+    }
+
     /**
      * Custom stream handler for our sounds, to bypass sounds.json
      */
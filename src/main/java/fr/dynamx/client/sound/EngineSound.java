@@ -64,6 +64,14 @@ public class EngineSound extends VehicleSound
         return soundIn.isInterior() == forInterior && soundIn.getRpmRange()[0] <= rpm && soundIn.getRpmRange()[1] >= rpm;
     }
 
+    public int getMinRpm() {
+        return soundIn.getRpmRange()[0];
+    }
+
+    public int getMaxRpm() {
+        return soundIn.getRpmRange()[1];
+    }
+
     @Override
     public boolean isSoundActive(){
         return engine.isEngineStarted() || getState() == EnumSoundState.STOPPING;
@@ -109,6 +109,17 @@ public abstract class VehicleSound implements IDynamXSound {
         return getCurrentVolume() * volumeFactor;
     }
 
+    /**
+     * The sounds of the vehicle ridden by the player are always audible, the other ones depend on their volume and their distance
+     */
+    @Override
+    public float getPriority() {
+        if (vehicleEntity.equals(player.getRidingEntity())) {
+            return Float.MAX_VALUE;
+        }
+        return getVolume() / (1 + player.getDistance(vehicleEntity));
+    }
+
     public float getPitch() {
         //If the player is riding the sound source, don't apply a doppler effect.
         if (vehicleEntity.equals(player.getRidingEntity())) {
@@ -19,6 +19,8 @@ import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -32,7 +34,7 @@ public class DynamXContext
     private static final IRotatedCollisionHandler collisionHandler = new RotatedCollisionHandlerImpl();
     private static final IDnxNetworkSystem network;
 
-    private static final ErrorTrackingService errorTrackingService = ACsLib.getPlatform().provideService(ErrorTrackingService.class);
+    private static final ErrorTrackingService errorTrackingService = synchronizedErrorTracker(ACsLib.getPlatform().provideService(ErrorTrackingService.class));
     @SideOnly(Side.CLIENT)
     private static IObjModelRegistry objModelRegistry;
 
@@ -96,7 +98,22 @@ public class DynamXContext
     }
 
     /**
-     * The current {@link ErrorTrackingService} instance
+     * The errors are also added by the threads parsing the content packs, so all the calls to the service are synchronized
+     */
+    private static ErrorTrackingService synchronizedErrorTracker(ErrorTrackingService service) {
+        return (ErrorTrackingService) Proxy.newProxyInstance(ErrorTrackingService.class.getClassLoader(), new Class<?>[]{ErrorTrackingService.class}, (proxy, method, args) -> {
+            synchronized (service) {
+                try {
+                    return method.invoke(service, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        });
+    }
+
+    /**
+     * The current {@link ErrorTrackingService} instance, thread-safe
      */
     public static ErrorTrackingService getErrorTracker() {
         return errorTrackingService;
@@ -14,6 +14,7 @@ import fr.dynamx.common.capability.DynamXChunkDataProvider;
 import fr.dynamx.common.contentpack.DynamXObjectLoaders;
 import fr.dynamx.common.contentpack.type.objects.BlockObject;
 import fr.dynamx.common.entities.ICollidableObject;
+import fr.dynamx.common.handlers.CollidableIndex;
 import fr.dynamx.utils.VerticalChunkPos;
 import fr.dynamx.utils.maths.DynamXGeometry;
 import fr.dynamx.utils.optimization.MutableBoundingBox;
@@ -273,6 +274,14 @@ public class TEDynamXBlock extends TileEntity implements ICollidableObject, ITic
     public void onLoad() {
         DynamXChunkData data = world.getChunk(pos).getCapability(DynamXChunkDataProvider.DYNAM_X_CHUNK_DATA_CAPABILITY, null);
         data.getBlocksAABB().put(pos, computeBoundingBox().offset(pos));
+        CollidableIndex.addBlock(this);
+    }
+
+    @Override
+    public void invalidate() {
+        super.invalidate();
+        if (world != null)
+            CollidableIndex.removeBlock(this);
     }
 
     @Override
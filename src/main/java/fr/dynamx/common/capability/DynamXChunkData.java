@@ -1,20 +1,58 @@
 package fr.dynamx.common.capability;
 
+import fr.dynamx.common.entities.ICollidableObject;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Holds collisions data of DynamX blocks in each chunk <br>
- * Used for destroy and interaction raytracing
+ * Used for destroy and interaction raytracing, and for the collisions of the vanilla entities (see {@link fr.dynamx.common.handlers.CollidableIndex})
  */
 public class DynamXChunkData
 {
     private final Map<BlockPos, AxisAlignedBB> blocksAABB = new HashMap<>();
+    /**
+     * The collidable objects in each 16*16*16 section of the chunk
+     */
+    private final List<ICollidableObject>[] sectionCollidables = new List[16];
+    private int collidableCount;
 
     public Map<BlockPos, AxisAlignedBB> getBlocksAABB() {
         return blocksAABB;
     }
+
+    public void addCollidable(int section, ICollidableObject object) {
+        if (sectionCollidables[section] == null)
+            sectionCollidables[section] = new ArrayList<>(2);
+        if (!sectionCollidables[section].contains(object)) {
+            sectionCollidables[section].add(object);
+            collidableCount++;
+        }
+    }
+
+    public void removeCollidable(int section, ICollidableObject object) {
+        if (sectionCollidables[section] != null && sectionCollidables[section].remove(object))
+            collidableCount--;
+    }
+
+    /**
+     * @return The collidable objects in this section, or null
+     */
+    @Nullable
+    public List<ICollidableObject> getCollidables(int section) {
+        return sectionCollidables[section];
+    }
+
+    /**
+     * @return True if there is at least one collidable object in this chunk
+     */
+    public boolean hasCollidables() {
+        return collidableCount > 0;
+    }
 }
@@ -0,0 +1,238 @@
+package fr.dynamx.common.contentpack;
+
+import fr.dynamx.common.contentpack.loader.CompiledPackFile;
+import fr.dynamx.common.contentpack.loader.InfoLoader;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static fr.dynamx.common.DynamXMain.log;
+
+/**
+ * Compiles the .dynx files of the content packs, and caches the result in a binary file per pack <br>
+ * The cache is keyed by a hash of the pack files : the crc of the zip entries (read from the zip directory, without inflating anything), or the path, size and modification time of the files of the pack folders <br>
+ * Unchanged packs are loaded from their cache without reading and tokenizing their .dynx files. Only the tokenization is cached : the properties are parsed into new objects by the {@link InfoLoader}s on each load <br>
+ * This class doesn't use any loader, so packs can be compiled in parallel. The {@link ContentPackLoader} then parses the compiled files on the same threads, and registers the objects in order
+ */
+public class CompiledPackCache
+{
+    /** Increment when the {@link CompiledPackFile} format changes */
+    private static final int CACHE_VERSION = 2;
+    private static final String SUFFIX = ".dynx";
+    private static final String PACK_INFO = "pack_info" + SUFFIX;
+
+    private final File cacheDir;
+
+    /**
+     * @param cacheDir The directory of the cache files
+     */
+    public CompiledPackCache(File cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Compiles a pack folder or a zip pack, or reads it from the cache if it didn't change <br>
+     * Can be called from any thread
+     *
+     * @param packFile The pack folder or zip
+     * @return The compiled pack
+     * @throws IOException If the pack cannot be read
+     */
+    public CompiledPack compile(File packFile) throws IOException {
+        byte[] hash = packFile.isDirectory() ? hashDirectory(packFile) : hashZip(packFile);
+        File cacheFile = new File(cacheDir, packFile.getName() + ".bin");
+        CompiledPack pack = readCache(packFile, cacheFile, hash);
+        if (pack != null)
+            return pack;
+        pack = packFile.isDirectory() ? compileDirectory(packFile) : compileZip(packFile);
+        writeCache(cacheFile, hash, pack);
+        return pack;
+    }
+
+    private CompiledPack compileDirectory(File packFile) throws IOException {
+        CompiledPack pack = new CompiledPack(packFile);
+        for (Path path : listDirectoryFiles(packFile)) {
+            //Like before the cache, the first pack info found in the folder is used, and the others are ignored
+            boolean packInfo = path.getFileName().toString().equals(PACK_INFO);
+            if (packInfo ? pack.packInfo != null : path.toString().endsWith(PACK_INFO))
+                continue;
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                CompiledPackFile file = CompiledPackFile.compile(path.getFileName().toString(), reader);
+                if (packInfo)
+                    pack.packInfo = file;
+                else
+                    pack.files.add(file);
+            }
+        }
+        return pack;
+    }
+
+    private CompiledPack compileZip(File packFile) throws IOException {
+        CompiledPack pack = new CompiledPack(packFile);
+        try (ZipFile zip = new ZipFile(packFile)) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                //Like before the cache, only the pack info at the root of the zip is used, and the others are ignored
+                boolean packInfo = entry.getName().equals(PACK_INFO);
+                if (entry.getName().endsWith(SUFFIX) && (packInfo || !entry.getName().endsWith(PACK_INFO))) {
+                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(zip.getInputStream(entry), StandardCharsets.UTF_8))) {
+                        CompiledPackFile file = CompiledPackFile.compile(entry.getName().substring(entry.getName().lastIndexOf('/') + 1), reader);
+                        if (packInfo)
+                            pack.packInfo = file;
+                        else
+                            pack.files.add(file);
+                    }
+                }
+            }
+        }
+        return pack;
+    }
+
+    /**
+     * @return The .dynx files of the pack, sorted by path so the loading order doesn't depend on the file system
+     */
+    private List<Path> listDirectoryFiles(File packFile) throws IOException {
+        try (Stream<Path> files = Files.walk(packFile.toPath())) {
+            return files.filter(path -> path.toString().endsWith(SUFFIX) && Files.isRegularFile(path)).sorted().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Hashes the path, size and modification time of the files, so an unchanged pack is detected without reading its files
+     */
+    private byte[] hashDirectory(File packFile) throws IOException {
+        MessageDigest digest = createDigest();
+        for (Path path : listDirectoryFiles(packFile)) {
+            digest.update(packFile.toPath().relativize(path).toString().getBytes(StandardCharsets.UTF_8));
+            updateLong(digest, Files.size(path));
+            updateLong(digest, Files.getLastModifiedTime(path).toMillis());
+        }
+        return digest.digest();
+    }
+
+    private byte[] hashZip(File packFile) throws IOException {
+        MessageDigest digest = createDigest();
+        try (ZipFile zip = new ZipFile(packFile)) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.getName().endsWith(SUFFIX)) {
+                    digest.update(entry.getName().getBytes(StandardCharsets.UTF_8));
+                    updateLong(digest, entry.getCrc());
+                }
+            }
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void updateLong(MessageDigest digest, long value) {
+        for (int i = 0; i < 8; i++)
+            digest.update((byte) (value >>> (i * 8)));
+    }
+
+    private CompiledPack readCache(File packFile, File cacheFile, byte[] hash) {
+        if (!cacheFile.exists())
+            return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            if (in.readInt() != CACHE_VERSION)
+                return null;
+            byte[] cachedHash = new byte[in.readInt()];
+            in.readFully(cachedHash);
+            if (!Arrays.equals(hash, cachedHash))
+                return null;
+            CompiledPack pack = new CompiledPack(packFile);
+            if (in.readBoolean())
+                pack.packInfo = CompiledPackFile.readFrom(in);
+            int size = in.readInt();
+            for (int i = 0; i < size; i++)
+                pack.files.add(CompiledPackFile.readFrom(in));
+            pack.fromCache = true;
+            return pack;
+        } catch (IOException e) {
+            log.warn("Corrupted content pack cache " + cacheFile + ", the pack will be parsed again", e);
+            return null;
+        }
+    }
+
+    private void writeCache(File cacheFile, byte[] hash, CompiledPack pack) {
+        if (!cacheDir.exists() && !cacheDir.mkdirs()) {
+            log.warn("Cannot create the content pack cache directory " + cacheDir);
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(cacheFile)))) {
+            out.writeInt(CACHE_VERSION);
+            out.writeInt(hash.length);
+            out.write(hash);
+            out.writeBoolean(pack.packInfo != null);
+            if (pack.packInfo != null)
+                pack.packInfo.writeTo(out);
+            out.writeInt(pack.files.size());
+            for (CompiledPackFile file : pack.files)
+                file.writeTo(out);
+        } catch (IOException e) {
+            log.warn("Cannot write the content pack cache " + cacheFile, e);
+            cacheFile.delete();
+        }
+    }
+
+    /**
+     * The compiled .dynx files of a pack
+     */
+    public static class CompiledPack
+    {
+        private final File packFile;
+        private final List<CompiledPackFile> files = new ArrayList<>();
+        private CompiledPackFile packInfo;
+        private boolean fromCache;
+
+        private CompiledPack(File packFile) {
+            this.packFile = packFile;
+        }
+
+        public File getPackFile() {
+            return packFile;
+        }
+
+        /**
+         * @return The pack_info.dynx file, or null
+         */
+        public CompiledPackFile getPackInfo() {
+            return packInfo;
+        }
+
+        /**
+         * @return The other .dynx files, in loading order
+         */
+        public List<CompiledPackFile> getFiles() {
+            return files;
+        }
+
+        /**
+         * @return True if the pack was read from the cache
+         */
+        public boolean isFromCache() {
+            return fromCache;
+        }
+    }
+}
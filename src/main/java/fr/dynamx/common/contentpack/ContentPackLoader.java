@@ -3,11 +3,14 @@ package fr.dynamx.common.contentpack;
 import fr.aym.acsguis.api.ACsGuiApi;
 import fr.aym.acslib.api.services.ErrorTrackingService;
 import fr.aym.acslib.api.services.mps.ModProtectionContainer;
+import fr.aym.acslib.services.impl.thrload.DynamXThreadedModLoader;
+import fr.dynamx.api.contentpack.object.INamedObject;
 import fr.dynamx.api.events.ContentPackSystemEvent;
 import fr.dynamx.api.events.PhysicsEntityEvent;
 import fr.dynamx.client.handlers.hud.CarController;
 import fr.dynamx.common.DynamXContext;
 import fr.dynamx.common.DynamXMain;
+import fr.dynamx.common.contentpack.loader.CompiledPackFile;
 import fr.dynamx.common.contentpack.loader.InfoLoader;
 import fr.dynamx.common.contentpack.sync.PackSyncHandler;
 import fr.dynamx.utils.DynamXConstants;
@@ -31,15 +34,13 @@ import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
 import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Stream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 
 import static fr.dynamx.common.DynamXMain.log;
 
@@ -240,95 +241,59 @@ public class ContentPackLoader {
             int packCount = 0;
             int errorCount = 0;
             String suffix = ".dynx";
-            for (File contentPack : resDir.listFiles()) {
-                if (contentPack.getName().equals("slopes.dynx") && loadBlocksConfigs) {
-                    registerSlopes(new BufferedReader(new InputStreamReader(new FileInputStream(contentPack))));
-                } else if (contentPack.getName().equals("blocks.dynx") && loadBlocksConfigs) {
-                    registerBlockGrip(new BufferedReader(new InputStreamReader(new FileInputStream(contentPack))));
-                } else if (contentPack.isDirectory()) {
-                    // Loading pack, useful for debugging errors
-                    String loadingPack = contentPack.getName();
-                    try {
-                        Stream<Path> configs = Files.walk(Paths.get(contentPack.getPath()));
-
-                        //Seach for real pack name in the pack info
-                        Optional<Path> info = configs.filter(path -> path.getFileName().toString().equals("pack_info.dynx")).findFirst();
-                        if (info.isPresent()) {
-                            try {
-                                loadFile(isHotReloading, loadingPack, suffix, new FileInputStream(info.get().toFile()), info.get().getFileName().toString());
-                            } catch (FileNotFoundException e) {
-                                throw new RuntimeException("Failed to find file " + info.get(), e);
-                            }
-                            loadingPack = DynamXObjectLoaders.PACKS.findInfo(loadingPack + ".pack_info").getFixedPackName();
-                        } else {
-                            log.warn("Content pack " + loadingPack + " is missing a pack_info.dynx file !");
-                            DynamXObjectLoaders.PACKS.addInfo(loadingPack + ".pack_info.dynx", new PackInfo(loadingPack).setPathName(contentPack.getName()).setPackVersion("dummy info"));
-                            //DynamXContext.getErrorTracker().addError(DynamXLoadingTasks.PACK, loadingPack, "Content Pack " + loadingPack + " is missing a pack_info.dynx file !", "Please add a pack_info.dynx file to this pack", ErrorTrackingService.TrackedErrorLevel.FATAL);
-                        }
-                        DynamXMain.log.info("Loading " + loadingPack + "(in " + contentPack.getName() + ")");
-                        String finalLoadingPack = loadingPack;
-                        configs = Files.walk(Paths.get(contentPack.getPath())); //FIXME THIS IS BAD
-                        configs.forEach(path -> {
-                            if (path.toString().endsWith(suffix) && !path.toString().endsWith("pack_info.dynx")) {
-                                try {
-                                    loadFile(isHotReloading, finalLoadingPack, suffix, new FileInputStream(path.toFile()), path.getFileName().toString());
-                                } catch (FileNotFoundException e) {
-                                    throw new RuntimeException("Failed to find file " + path, e);
-                                }
-                            }
-                        });
-                        packCount++;
-                    } catch (Exception e) {
-                        log.error("Content Pack " + loadingPack + " cannot be loaded : ", e);
-                        DynamXContext.getErrorTracker().addError(DynamXLoadingTasks.PACK, loadingPack, "Content Pack " + loadingPack + " cannot be loaded", e, ErrorTrackingService.TrackedErrorLevel.FATAL);
-                        errorCount++;
-                    }
-                } else if (contentPack.isFile() && (contentPack.getName().endsWith(".zip") || contentPack.getName().endsWith(PACK_FILE_EXTENSION))) {
-                    DynamXMain.log.info("Loading " + contentPack.getName());
-                    // Loading pack, useful for debugging errors
-                    String loadingPack = contentPack.getName().replace(".zip", "").replace(PACK_FILE_EXTENSION, "");
-                    try {
-                        ZipFile zip = new ZipFile(contentPack);
-
-                        //Seach for real pack name in the pack info
-                        Enumeration<? extends ZipEntry> configs = zip.entries();
-                        Optional<ZipEntry> info = Optional.empty();
-                        while (configs.hasMoreElements()) {
-                            ZipEntry config = configs.nextElement();
-                            if (config.getName().equals("pack_info.dynx")) {
-                                info = Optional.of(config);
-                                break;
-                            }
-                        }
-                        if (info.isPresent()) {
-                            try {
-                                loadFile(isHotReloading, loadingPack, suffix, zip.getInputStream(info.get()), info.get().getName().substring(info.get().getName().lastIndexOf("/") + 1));
-                            } catch (FileNotFoundException e) {
-                                throw new RuntimeException("Failed to find file " + info.get(), e);
-                            }
-                            PackInfo ifo = DynamXObjectLoaders.PACKS.findInfo(loadingPack + ".pack_info");
-                            loadingPack = ifo.getFixedPackName();
-                            ifo.setPathName(contentPack.getName());
-                        } else {
-                            log.warn("Zip content pack " + loadingPack + " is missing a pack_info.dynx file !");
-                            DynamXObjectLoaders.PACKS.addInfo(loadingPack + ".pack_info", new PackInfo(loadingPack).setPathName(contentPack.getName()).setPackVersion("dummy info"));
-                            //DynamXContext.getErrorTracker().addError(DynamXLoadingTasks.PACK, loadingPack, "Zip content Pack " + loadingPack + " is missing a pack_info.dynx file !", "Please add a pack_info.dynx file to this pack", ErrorTrackingService.TrackedErrorLevel.FATAL);
-                        }
-                        DynamXMain.log.info("Loading " + loadingPack + "(in " + contentPack.getName() + ")");
-                        configs = zip.entries(); //FIXME THIS IS BAD
-                        while (configs.hasMoreElements()) {
-                            ZipEntry config = configs.nextElement();
-                            if (config.getName().endsWith(suffix) && !config.getName().endsWith("pack_info.dynx")) {
-                                loadFile(isHotReloading, loadingPack, suffix, zip.getInputStream(config), config.getName().substring(config.getName().lastIndexOf("/") + 1));
+            File[] contentPacks = resDir.listFiles();
+            if (contentPacks == null)
+                contentPacks = new File[0];
+            //Sorted so the registration order doesn't depend on the file system
+            Arrays.sort(contentPacks, Comparator.comparing(File::getName));
+            //The packs are read, compiled and parsed in parallel, then the objects are registered in order, on this thread
+            CompiledPackCache cache = new CompiledPackCache(new File(resDir.getAbsoluteFile().getParentFile(), "dynamx_cache/packs"));
+            Map<File, Future<ParsedPack>> parsedPacks = new HashMap<>();
+            ExecutorService parser = Executors.newFixedThreadPool(Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), contentPacks.length)), new DynamXThreadedModLoader.DefaultThreadFactory("DnxPackParser"));
+            try {
+                for (File contentPack : contentPacks) {
+                    if (contentPack.isDirectory() || (contentPack.isFile() && (contentPack.getName().endsWith(".zip") || contentPack.getName().endsWith(PACK_FILE_EXTENSION))))
+                        parsedPacks.put(contentPack, parser.submit(() -> parsePack(cache, contentPack, suffix)));
+                }
+                for (File contentPack : contentPacks) {
+                    if (contentPack.getName().equals("slopes.dynx") && loadBlocksConfigs) {
+                        registerSlopes(new BufferedReader(new InputStreamReader(new FileInputStream(contentPack))));
+                    } else if (contentPack.getName().equals("blocks.dynx") && loadBlocksConfigs) {
+                        registerBlockGrip(new BufferedReader(new InputStreamReader(new FileInputStream(contentPack))));
+                    } else if (parsedPacks.containsKey(contentPack)) {
+                        boolean zip = contentPack.isFile();
+                        String packType = zip ? "Zip content Pack " : "Content Pack ";
+                        if (zip)
+                            DynamXMain.log.info("Loading " + contentPack.getName());
+                        // Loading pack, useful for debugging errors
+                        String loadingPack = getLoadingPackName(contentPack);
+                        try {
+                            ParsedPack pack = parsedPacks.get(contentPack).get();
+                            //Seach for real pack name in the pack info
+                            if (pack.packInfo != null) {
+                                registerFile(isHotReloading, loadingPack, pack.packInfo);
+                                PackInfo ifo = DynamXObjectLoaders.PACKS.findInfo(loadingPack + ".pack_info");
+                                loadingPack = ifo.getFixedPackName();
+                                if (zip)
+                                    ifo.setPathName(contentPack.getName());
+                            } else {
+                                log.warn(packType + loadingPack + " is missing a pack_info.dynx file !");
+                                DynamXObjectLoaders.PACKS.addInfo(loadingPack + (zip ? ".pack_info" : ".pack_info.dynx"), new PackInfo(loadingPack).setPathName(contentPack.getName()).setPackVersion("dummy info"));
                             }
+                            DynamXMain.log.info("Loading " + loadingPack + "(in " + contentPack.getName() + (pack.compiledPack.isFromCache() ? ", cached" : "") + ")");
+                            for (ParsedFile file : pack.files)
+                                registerFile(isHotReloading, loadingPack, file);
+                            packCount++;
+                        } catch (Exception e) {
+                            Exception cause = e instanceof ExecutionException && e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                            log.error(packType + loadingPack + " cannot be loaded : ", cause);
+                            DynamXContext.getErrorTracker().addError(DynamXLoadingTasks.PACK, loadingPack, packType + loadingPack + " cannot be loaded", cause, ErrorTrackingService.TrackedErrorLevel.FATAL);
+                            errorCount++;
                         }
-                        packCount++;
-                    } catch (Exception e) {
-                        log.error("Zip content Pack " + loadingPack + " cannot be loaded : ", e);
-                        DynamXContext.getErrorTracker().addError(DynamXLoadingTasks.PACK, loadingPack, "Zip content Pack " + loadingPack + " cannot be loaded", e, ErrorTrackingService.TrackedErrorLevel.FATAL);
-                        errorCount++;
                     }
                 }
+            } finally {
+                parser.shutdownNow();
             }
             //Load shapes
             for (InfoLoader<?, ?> loader : DynamXObjectLoaders.LOADERS) {
@@ -353,33 +318,56 @@ public class ContentPackLoader {
         System.out.println("LOAD END");
     }
 
-    private static void loadFile(boolean hot, String loadingPack, String suffix, InputStream inputFile, String configFileName) {
-        BufferedReader inputStream = null;
+    private static String getLoadingPackName(File contentPack) {
+        return contentPack.isFile() ? contentPack.getName().replace(".zip", "").replace(PACK_FILE_EXTENSION, "") : contentPack.getName();
+    }
+
+    /**
+     * Compiles the pack and parses its objects, without registering them <br>
+     * Called from the parser threads : the objects are registered later, in order, on the loading thread
+     */
+    private static ParsedPack parsePack(CompiledPackCache cache, File contentPack, String suffix) throws IOException {
+        ParsedPack pack = new ParsedPack(cache.compile(contentPack));
+        String loadingPack = getLoadingPackName(contentPack);
+        if (pack.compiledPack.getPackInfo() != null) {
+            pack.packInfo = parseFile(loadingPack, suffix, pack.compiledPack.getPackInfo());
+            //The other objects are named after the pack name of the pack info
+            if (pack.packInfo.info instanceof PackInfo)
+                loadingPack = ((PackInfo) pack.packInfo.info).getFixedPackName();
+        }
+        for (CompiledPackFile file : pack.compiledPack.getFiles())
+            pack.files.add(parseFile(loadingPack, suffix, file));
+        return pack;
+    }
+
+    private static ParsedFile parseFile(String loadingPack, String suffix, CompiledPackFile file) {
+        ParsedFile parsed = new ParsedFile(file.getFileName());
         try {
-            inputStream = new BufferedReader(new InputStreamReader(inputFile));
-            String configName = configFileName.substring(0, configFileName.length() - suffix.length()).toLowerCase();
-            boolean loaded = false;
+            parsed.configName = parsed.fileName.substring(0, parsed.fileName.length() - suffix.length()).toLowerCase();
             for (InfoLoader<?, ?> loader : DynamXObjectLoaders.LOADERS) {
-                if (loader.load(loadingPack, configName, inputStream, hot)) {
-                    loaded = true;
+                INamedObject info = loader.parse(loadingPack, parsed.configName, file);
+                if (info != null) {
+                    parsed.loader = loader;
+                    parsed.info = info;
                     break;
                 }
             }
-            if (!loaded)
-                throw new IllegalArgumentException("Invalid " + suffix + " file name : " + configFileName);
-        } catch (FileNotFoundException e) {
-            throw new RuntimeException(e);
+            if (parsed.info == null)
+                throw new IllegalArgumentException("Invalid " + suffix + " file name : " + parsed.fileName);
         } catch (Exception e) {
-            log.error("Content pack file " + configFileName + " of " + loadingPack + " cannot be loaded : ", e);
-            DynamXContext.getErrorTracker().addError(DynamXLoadingTasks.PACK, loadingPack, "Content pack file " + configFileName + " cannot be loaded", e, ErrorTrackingService.TrackedErrorLevel.FATAL);
-        } finally {
-            if (inputStream != null) {
-                try {
-                    inputStream.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
+            parsed.error = e;
+        }
+        return parsed;
+    }
+
+    private static void registerFile(boolean hot, String loadingPack, ParsedFile file) {
+        try {
+            if (file.error != null)
+                throw file.error;
+            file.loader.register(file.configName, file.info, hot);
+        } catch (Exception e) {
+            log.error("Content pack file " + file.fileName + " of " + loadingPack + " cannot be loaded : ", e);
+            DynamXContext.getErrorTracker().addError(DynamXLoadingTasks.PACK, loadingPack, "Content pack file " + file.fileName + " cannot be loaded", e, ErrorTrackingService.TrackedErrorLevel.FATAL);
         }
     }
 
@@ -445,4 +433,32 @@ public class ContentPackLoader {
     public static Map<Block, float[]> getBlocksGrip() {
         return BLOCKS_GRIP;
     }
-}
\ No newline at end of file
+
+    /**
+     * The objects of a pack, parsed but not registered
+     */
+    private static class ParsedPack {
+        private final CompiledPackCache.CompiledPack compiledPack;
+        private ParsedFile packInfo;
+        private final List<ParsedFile> files = new ArrayList<>();
+
+        private ParsedPack(CompiledPackCache.CompiledPack compiledPack) {
+            this.compiledPack = compiledPack;
+        }
+    }
+
+    /**
+     * An object parsed by its {@link InfoLoader}, or the error thrown while parsing it
+     */
+    private static class ParsedFile {
+        private final String fileName;
+        private String configName;
+        private InfoLoader<?, ?> loader;
+        private INamedObject info;
+        private Exception error;
+
+        private ParsedFile(String fileName) {
+            this.fileName = fileName;
+        }
+    }
+}
@@ -29,10 +29,13 @@ import net.minecraft.client.renderer.block.model.ItemCameraTransforms;
 import net.minecraft.item.ItemStack;
 import net.minecraftforge.common.MinecraftForge;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -61,6 +64,10 @@ public class ModularVehicleInfo<U extends ModularVehicleInfo<?>> extends Abstrac
      * The parts of this vehicle (wheels, seats, doors...)
      */
     private final List<BasePart<ModularVehicleInfoBuilder>> parts;
+    /**
+     * The parts of each type, see {@link #getPartsByType(Class)}
+     */
+    private final Map<Class<?>, List<?>> partsByType = new ConcurrentHashMap<>();
     /**
      * The shapes of this vehicle, can be used for collisions
      */
@@ -103,7 +110,7 @@ public class ModularVehicleInfo<U extends ModularVehicleInfo<?>> extends Abstrac
     /**
      * The collision shape of this vehicle, generated either form the partShapes list, or the obj model of the vehicle (hull shape)
      */
-    private final CompoundCollisionShape physicsCollisionShape;
+    private CompoundCollisionShape physicsCollisionShape;
     /**
      * The debug buffer for the hull shape of the vehicle (generated from the obj model)
      */
@@ -138,6 +145,7 @@ public class ModularVehicleInfo<U extends ModularVehicleInfo<?>> extends Abstrac
         this.parts = parts;
         this.partShapes = partShapes;
         this.subProperties = subProperties;
+        indexParts();
 
         this.itemScale = itemScale;
         this.item3DRenderLocation = item3DRenderLocation;
@@ -153,6 +161,18 @@ public class ModularVehicleInfo<U extends ModularVehicleInfo<?>> extends Abstrac
         this.defaultZoomLevel = defaultZoomLevel;
     }
 
+    /**
+     * Indexes the parts by their classes and super classes
+     */
+    private void indexParts() {
+        Map<Class<?>, List<Object>> index = new HashMap<>();
+        for (BasePart<ModularVehicleInfoBuilder> part : parts) {
+            for (Class<?> c = part.getClass(); c != Object.class; c = c.getSuperclass())
+                index.computeIfAbsent(c, k -> new ArrayList<>()).add(part);
+        }
+        index.forEach((c, list) -> partsByType.put(c, Collections.unmodifiableList(list)));
+    }
+
     public void addModules(BaseVehicleEntity<?> entity, ModuleListBuilder modules) {
         getSubProperties().forEach(sub -> sub.addModules(entity, modules));
         getParts().forEach(sub -> sub.addModules(entity, modules));
@@ -225,10 +245,13 @@ public class ModularVehicleInfo<U extends ModularVehicleInfo<?>> extends Abstrac
     /**
      * @param clazz The class of the parts to return
      * @param <T> The type of the parts to return
-     * @return All the parts of the given type
+     * @return All the parts of the given type, in an unmodifiable list indexed when the vehicle is loaded
      */
     public <T extends BasePart<ModularVehicleInfoBuilder>> List<T> getPartsByType(Class<T> clazz) {
-        return (List<T>) this.parts.stream().filter(p -> clazz.isAssignableFrom(p.getClass())).collect(Collectors.toList());
+        List<?> found = partsByType.get(clazz);
+        if (found == null) //Interface, or type not used by this vehicle
+            found = partsByType.computeIfAbsent(clazz, c -> Collections.unmodifiableList(this.parts.stream().filter(p -> clazz.isAssignableFrom(p.getClass())).collect(Collectors.toList())));
+        return (List<T>) found;
     }
 
     /**
@@ -237,7 +260,12 @@ public class ModularVehicleInfo<U extends ModularVehicleInfo<?>> extends Abstrac
      * @return The part with the given type and the given id (wheel index for example), or null
      */
     public <T extends BasePart<ModularVehicleInfoBuilder>> T getPartByTypeAndId(Class<T> clazz, byte id) {
-        return getPartsByType(clazz).stream().filter(t -> t.getId() == id).findFirst().orElse(null);
+        List<T> found = getPartsByType(clazz);
+        for (int i = 0; i < found.size(); i++) {
+            if (found.get(i).getId() == id)
+                return found.get(i);
+        }
+        return null;
     }
 
     /**
@@ -257,6 +285,13 @@ public class ModularVehicleInfo<U extends ModularVehicleInfo<?>> extends Abstrac
         return physicsCollisionShape;
     }
 
+    /**
+     * Replaces the temporary shape of a hull shape vehicle, when the hulls are generated, see {@link fr.dynamx.utils.physics.ShapeUtils#generateComplexModelCollisions}
+     */
+    public void setPhysicsCollisionShape(CompoundCollisionShape physicsCollisionShape) {
+        this.physicsCollisionShape = physicsCollisionShape;
+    }
+
     public List<Vector3f> getCollisionShapeDebugBuffer() {
         return collisionShapeDebugBuffer;
     }
@@ -2,6 +2,7 @@ package fr.dynamx.common.contentpack.loader;
 
 import fr.aym.acslib.api.services.ErrorTrackingService;
 import fr.dynamx.api.contentpack.object.IInfoOwner;
+import fr.dynamx.api.contentpack.object.INamedObject;
 import fr.dynamx.api.contentpack.object.IShapedObject;
 import fr.dynamx.api.contentpack.object.subinfo.SubInfoTypeOwner;
 import fr.dynamx.api.contentpack.registry.SubInfoTypesRegistry;
@@ -13,8 +14,6 @@ import fr.dynamx.utils.DynamXLoadingTasks;
 import net.minecraftforge.fml.common.ProgressManager;
 
 import javax.annotation.Nonnull;
-import java.io.BufferedReader;
-import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.List;
@@ -57,19 +56,24 @@ public class BuildableInfoLoader<A extends SubInfoTypeOwner.BuildableSubInfoType
     }
 
     @Override
-    public boolean load(String loadingPack, String configName, BufferedReader inputStream, boolean hot) throws IOException {
-        if (configName.startsWith(getPrefix())) {
-            // Create the instance of the class that contains the vehicle information
-            A info = builderCreator.apply(loadingPack, configName);
-            if (vehiclesToLoad.stream().anyMatch(vInfo -> vInfo.getFullName().equals(info.getFullName())))
-                throw new IllegalArgumentException("Found a duplicated pack file " + configName + " in pack " + loadingPack + " !");
-            readInfoWithSubInfos(info, inputStream);
-            info.onComplete(hot);
-            //Add the vehicle information to the vehicles list
-            vehiclesToLoad.add(info);
-            return true;
-        }
-        return false;
+    public INamedObject parse(String loadingPack, String configName, CompiledPackFile file) {
+        if (!configName.startsWith(getPrefix()))
+            return null;
+        // Create the instance of the class that contains the vehicle information
+        A info = builderCreator.apply(loadingPack, configName);
+        readInfoWithSubInfos(info, file.cursor());
+        return info;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void register(String configName, INamedObject parsed, boolean hot) {
+        A info = (A) parsed;
+        if (vehiclesToLoad.stream().anyMatch(vInfo -> vInfo.getFullName().equals(info.getFullName())))
+            throw new IllegalArgumentException("Found a duplicated pack file " + configName + " in pack " + info.getPackName() + " !");
+        info.onComplete(hot);
+        //Add the vehicle information to the vehicles list
+        vehiclesToLoad.add(info);
     }
 
     @Override
@@ -0,0 +1,159 @@
+package fr.dynamx.common.contentpack.loader;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A .dynx file, compiled into a list of tokens : the comments and empty lines are removed, and the lines are split in properties and blocks <br>
+ * Compiling is independent of the loaders and of the loaded objects, so it can be done in parallel and cached, see {@link fr.dynamx.common.contentpack.CompiledPackCache} <br>
+ * Errors found while compiling are kept as tokens, and reported when the file is loaded by an {@link InfoLoader}
+ */
+public class CompiledPackFile
+{
+    /** A property line, the value is the trimmed line */
+    public static final byte PROPERTY = 0;
+    /** A line opening a block (containing '{'), the value is the trimmed line */
+    public static final byte BEGIN_BLOCK = 1;
+    /** A line closing a block (containing '}'), the value is the trimmed line */
+    public static final byte END_BLOCK = 2;
+    /** A multi-line comment end without comment start, the value is the trimmed line */
+    public static final byte ILLEGAL_COMMENT_END = 3;
+    /** A multi-line comment that is never closed */
+    public static final byte UNCLOSED_COMMENT = 4;
+
+    private final String fileName;
+    private byte[] types;
+    private String[] values;
+    private int size;
+
+    private CompiledPackFile(String fileName, int capacity) {
+        this.fileName = fileName;
+        this.types = new byte[capacity];
+        this.values = new String[capacity];
+    }
+
+    /**
+     * Compiles the given file
+     *
+     * @param fileName The name of the file, with its extension
+     * @param reader   The file content
+     * @return The compiled file
+     * @throws IOException If an error occurs while reading the file
+     */
+    public static CompiledPackFile compile(String fileName, BufferedReader reader) throws IOException {
+        CompiledPackFile file = new CompiledPackFile(fileName, 32);
+        String s;
+        boolean inComment = false;
+        int depth = 0;
+        while ((s = reader.readLine()) != null) {
+            s = s.trim();
+            if (s.endsWith("*/")) {
+                if (inComment)
+                    inComment = false;
+                else
+                    file.add(ILLEGAL_COMMENT_END, s);
+            } else if (inComment) {
+                if (depth > 0 && s.contains("}"))
+                    file.add(UNCLOSED_COMMENT, s);
+            } else if (!s.startsWith("//")) {
+                if (s.startsWith("/*")) {
+                    inComment = true;
+                } else if (s.contains("{")) {
+                    file.add(BEGIN_BLOCK, s);
+                    depth++;
+                } else if (s.contains("}")) {
+                    file.add(END_BLOCK, s);
+                    depth--;
+                } else if (!s.isEmpty()) {
+                    file.add(PROPERTY, s);
+                }
+            }
+        }
+        if (inComment)
+            file.add(UNCLOSED_COMMENT, "");
+        return file;
+    }
+
+    private void add(byte type, String value) {
+        if (size == types.length) {
+            types = Arrays.copyOf(types, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        types[size] = type;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * @return The name of the file, with its extension
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * @return A new cursor at the start of the file
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeUTF(fileName);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeByte(types[i]);
+            out.writeUTF(values[i]);
+        }
+    }
+
+    public static CompiledPackFile readFrom(DataInputStream in) throws IOException {
+        String fileName = in.readUTF();
+        int size = in.readInt();
+        CompiledPackFile file = new CompiledPackFile(fileName, Math.max(1, size));
+        for (int i = 0; i < size; i++)
+            file.add(in.readByte(), in.readUTF());
+        return file;
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledPackFile{" + fileName + ", " + size + " tokens}";
+    }
+
+    /**
+     * Reads the tokens of the file, one by one
+     */
+    public class Cursor
+    {
+        private int index = -1;
+
+        /**
+         * Moves to the next token
+         *
+         * @return False if the end of the file was reached
+         */
+        public boolean next() {
+            if (index < size)
+                index++;
+            return index < size;
+        }
+
+        /**
+         * @return The type of the current token
+         */
+        public byte getType() {
+            return types[index];
+        }
+
+        /**
+         * @return The value of the current token
+         */
+        public String getValue() {
+            return values[index];
+        }
+    }
+}
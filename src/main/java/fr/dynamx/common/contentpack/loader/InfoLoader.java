@@ -96,61 +96,79 @@ public class InfoLoader<T extends INamedObject, A extends ISubInfoTypeOwner<?>>
      * @throws IOException If an error occurs while reading the stream
      */
     public boolean load(String loadingPack, String configName, BufferedReader inputStream, boolean hot) throws IOException {
-        if (configName.startsWith(prefix)) {
-            T info = assetCreator.apply(loadingPack, configName);
-            if (infos.containsKey(info.getFullName()))
-                throw new IllegalArgumentException("Found a duplicated pack file " + configName + " in pack " + loadingPack + " !");
-            readInfo(inputStream, info);
-            loadItems(info, hot);
-            return true;
-        }
-        return false;
+        return load(loadingPack, configName, CompiledPackFile.compile(configName, inputStream), hot);
+    }
+
+    /**
+     * Loads a compiled file, only if the prefix matches with this object
+     *
+     * @param loadingPack The pack owning the object
+     * @param configName  The object's name
+     * @param file        The compiled object file
+     * @param hot         If it's an hot reload
+     * @return True if this InfoLoader has loaded this object
+     */
+    public boolean load(String loadingPack, String configName, CompiledPackFile file, boolean hot) {
+        INamedObject info = parse(loadingPack, configName, file);
+        if (info == null)
+            return false;
+        register(configName, info, hot);
+        return true;
+    }
+
+    /**
+     * Parses a compiled file into a new object, without registering it <br>
+     * Can be called from any thread : only the new object is modified
+     *
+     * @param loadingPack The pack owning the object
+     * @param configName  The object's name
+     * @param file        The compiled object file
+     * @return The parsed object, or null if the prefix doesn't match with this object
+     */
+    @Nullable
+    public INamedObject parse(String loadingPack, String configName, CompiledPackFile file) {
+        if (!configName.startsWith(prefix))
+            return null;
+        T info = assetCreator.apply(loadingPack, configName);
+        readInfo(file.cursor(), info);
+        return info;
+    }
+
+    /**
+     * Registers an object returned by {@link #parse(String, String, CompiledPackFile)}, on the loading thread
+     *
+     * @param configName The object's name
+     * @param info       The parsed object
+     * @param hot        If it's an hot reload
+     */
+    @SuppressWarnings("unchecked")
+    public void register(String configName, INamedObject info, boolean hot) {
+        if (infos.containsKey(info.getFullName()))
+            throw new IllegalArgumentException("Found a duplicated pack file " + configName + " in pack " + info.getPackName() + " !");
+        loadItems((T) info, hot);
     }
 
     /**
-     * Reads the inputStream into the info object
+     * Reads the file into the info object
      *
-     * @param reader The object file
+     * @param reader The object file, read until the end of the file or of the current block
      * @param info   The loading info
      */
     @SuppressWarnings("unchecked")
-    protected void readInfo(BufferedReader reader, INamedObject info) throws IOException {
+    protected void readInfo(CompiledPackFile.Cursor reader, INamedObject info) {
         if (info instanceof ISubInfoTypeOwner<?>)
             readInfoWithSubInfos((A) info, reader);
         else {
             List<PackFilePropertyData<?>> foundProperties = new ArrayList<>();
-            String s;
-            boolean inComment = false;
-            while ((s = reader.readLine()) != null) {
-                s = s.trim();
-                if (s.endsWith("*/")) {
-                    if (inComment)
-                        inComment = false;
-                    else {
-                        DynamXMain.log.error("Illegal multi-line comment end in " + info.getFullName() + " : " + s);
-                        DynamXContext.getErrorTracker().addError(DynamXLoadingTasks.PACK, info.getPackName(), info.getName(), "Illegal multi-line comment end in line " + s + ", property skipped", ErrorTrackingService.TrackedErrorLevel.HIGH);
-                    }
-                } else if (inComment && s.contains("}")) {
-                    DynamXMain.log.error("Found a never ending multi-line comment in " + info.getFullName());
-                    DynamXContext.getErrorTracker().addError(DynamXLoadingTasks.PACK, info.getPackName(), info.getName(), "Found a never ending multi-line comment, some properties may be missing in-game", ErrorTrackingService.TrackedErrorLevel.FATAL);
-                } else if (!inComment && !s.startsWith("//")) {
-                    if (s.startsWith("/*")) {
-                        inComment = true;
-                    } else if (s.contains("}")) //End of sub property
-                        break;
-                    else
-                        readLineProperty(foundProperties, info, s);
-                }
-            }
-            if (inComment) {
-                DynamXMain.log.error("Found a never ending multi-line comment in " + info.getFullName());
-                DynamXContext.getErrorTracker().addError(DynamXLoadingTasks.PACK, info.getPackName(), info.getName(), "Found a never ending multi-line comment, some properties may be missing in-game", ErrorTrackingService.TrackedErrorLevel.FATAL);
+            while (reader.next()) {
+                if (reader.getType() == CompiledPackFile.END_BLOCK) //End of sub property
+                    break;
+                else if (reader.getType() == CompiledPackFile.BEGIN_BLOCK || reader.getType() == CompiledPackFile.PROPERTY)
+                    readLineProperty(foundProperties, info, reader.getValue());
+                else
+                    reportSyntaxError(info, reader);
             }
-            SubInfoTypeAnnotationCache.getOrLoadData(info.getClass()).values().forEach(p -> {
-                if (p.isRequired() && !foundProperties.contains(p)) {
-                    DynamXContext.getErrorTracker().addError(DynamXLoadingTasks.PACK, info.getPackName(), info.getName(), "The property '" + p.getConfigFieldName() + "' is required in " + info.getName() + " !", ErrorTrackingService.TrackedErrorLevel.HIGH);
-                }
-            });
+            checkRequiredProperties(info, foundProperties);
         }
     }
 
@@ -159,46 +177,47 @@ public class InfoLoader<T extends INamedObject, A extends ISubInfoTypeOwner<?>>
      * Supports recursive loading of {@link fr.dynamx.api.contentpack.object.subinfo.SubInfoType}s
      *
      * @param obj    The object to load
-     * @param reader The data of the object
-     * @throws IOException If a reading error occurs
+     * @param reader The data of the object, read until the end of the file or of the current block
      */
-    protected void readInfoWithSubInfos(A obj, BufferedReader reader) throws IOException {
+    protected void readInfoWithSubInfos(A obj, CompiledPackFile.Cursor reader) {
         List<PackFilePropertyData<?>> foundProperties = obj.getInitiallyConfiguredProperties();
-        //Read the category
-        String s;
-        boolean inComment = false;
-        while ((s = reader.readLine()) != null) {
-            s = s.trim();
-            if (s.endsWith("*/")) {
-                if (inComment)
-                    inComment = false;
-                else {
-                    DynamXMain.log.error("Illegal multi-line comment end in " + obj.getFullName() + " : " + s);
-                    DynamXContext.getErrorTracker().addError(DynamXLoadingTasks.PACK, obj.getPackName(), obj.getName(), "Illegal multi-line comment end in line " + s + ", property skipped", ErrorTrackingService.TrackedErrorLevel.HIGH);
-                }
-            } else if (!inComment && !s.startsWith("//")) {
-                if (s.startsWith("/*")) {
-                    inComment = true;
-                } else if (s.contains("{")) { //New sub property
-                    String name = s.replace("{", "").trim();
-                    ISubInfoType<A> type = getClassForPropertyOwner(obj, name);
-                    if (type != null) { //Read all properties of type
-                        readInfo(reader, type);
-                        type.appendTo(obj);
-                    } else //Skip invalid properties
-                        while ((s = reader.readLine()) != null && !s.contains("}")) ;
-                } else if (s.contains("}")) {//End of sub property
-                    break;
-                } else {
-                    readLineProperty(foundProperties, obj, s);
-                }
+        while (reader.next()) {
+            if (reader.getType() == CompiledPackFile.BEGIN_BLOCK) { //New sub property
+                String name = reader.getValue().replace("{", "").trim();
+                ISubInfoType<A> type = getClassForPropertyOwner(obj, name);
+                if (type != null) { //Read all properties of type
+                    readInfo(reader, type);
+                    type.appendTo(obj);
+                } else //Skip invalid properties
+                    while (reader.next() && reader.getType() != CompiledPackFile.END_BLOCK) ;
+            } else if (reader.getType() == CompiledPackFile.END_BLOCK) { //End of sub property
+                break;
+            } else if (reader.getType() == CompiledPackFile.PROPERTY) {
+                readLineProperty(foundProperties, obj, reader.getValue());
+            } else {
+                reportSyntaxError(obj, reader);
             }
         }
-        if (inComment) {
+        checkRequiredProperties(obj, foundProperties);
+    }
+
+    /**
+     * Reports the syntax error found while compiling the file
+     *
+     * @param obj    The currently read object
+     * @param reader The reader, on the error token
+     */
+    protected void reportSyntaxError(INamedObject obj, CompiledPackFile.Cursor reader) {
+        if (reader.getType() == CompiledPackFile.ILLEGAL_COMMENT_END) {
+            DynamXMain.log.error("Illegal multi-line comment end in " + obj.getFullName() + " : " + reader.getValue());
+            DynamXContext.getErrorTracker().addError(DynamXLoadingTasks.PACK, obj.getPackName(), obj.getName(), "Illegal multi-line comment end in line " + reader.getValue() + ", property skipped", ErrorTrackingService.TrackedErrorLevel.HIGH);
+        } else if (reader.getType() == CompiledPackFile.UNCLOSED_COMMENT) {
             DynamXMain.log.error("Found a never ending multi-line comment in " + obj.getFullName());
             DynamXContext.getErrorTracker().addError(DynamXLoadingTasks.PACK, obj.getPackName(), obj.getName(), "Found a never ending multi-line comment, some properties may be missing in-game", ErrorTrackingService.TrackedErrorLevel.FATAL);
         }
+    }
 
+    private void checkRequiredProperties(INamedObject obj, List<PackFilePropertyData<?>> foundProperties) {
         SubInfoTypeAnnotationCache.getOrLoadData(obj.getClass()).values().forEach(p -> {
             if (p.isRequired() && !foundProperties.contains(p)) {
                 DynamXContext.getErrorTracker().addError(DynamXLoadingTasks.PACK, obj.getPackName(), obj.getName(), "The property '" + p.getConfigFieldName() + "' is required in " + obj.getName() + " !", ErrorTrackingService.TrackedErrorLevel.HIGH);
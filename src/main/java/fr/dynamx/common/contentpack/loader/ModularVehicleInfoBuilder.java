@@ -109,6 +109,10 @@ public class ModularVehicleInfoBuilder extends SubInfoTypeOwner.Vehicle implemen
      * The debug buffer for the hull shape of the vehicle (generated from the obj model)
      */
     private List<Vector3f> collisionShapeDebugBuffer;
+    /**
+     * The last built info, its shape is replaced when the hull shape is generated
+     */
+    private ModularVehicleInfo<?> builtInfo;
     /**
      * If something wrong happened building the vehicle (preventing it from loading)
      */
@@ -171,7 +175,17 @@ public class ModularVehicleInfoBuilder extends SubInfoTypeOwner.Vehicle implemen
     public void generateShape(){
         ObjModelPath modelPath = DynamXUtils.getModelPath(getPackName(), model);
         if(useHullShape)
-            physicsCollisionShape = ShapeUtils.generateComplexModelCollisions(modelPath, "chassis", scaleModifier, centerOfMass, shapeYOffset);
+            physicsCollisionShape = ShapeUtils.generateComplexModelCollisions(modelPath, "chassis", scaleModifier, centerOfMass, shapeYOffset, shape -> {
+                physicsCollisionShape = shape;
+                if (builtInfo != null)
+                    builtInfo.setPhysicsCollisionShape(shape);
+                //The debug buffer list is shared with the built ModularVehicleInfo
+                if (collisionShapeDebugBuffer != null) {
+                    List<Vector3f> debugBuffer = ShapeUtils.getDebugVectorList(shape, ShapeUtils.getDebugBuffer(shape));
+                    collisionShapeDebugBuffer.clear();
+                    collisionShapeDebugBuffer.addAll(debugBuffer);
+                }
+            });
         else {
             physicsCollisionShape = new CompoundCollisionShape();
             for (PartShape<?> partShape : getPartsByType(PartShape.class)) {
@@ -263,7 +277,7 @@ public class ModularVehicleInfoBuilder extends SubInfoTypeOwner.Vehicle implemen
                 }
             }
         }
-        return new ModularVehicleInfo(defaultName, getPackName(), getName(), description, emptyMass, dragFactor, model, centerOfMass, scaleModifier,bakedTextures, parts, partShapes, subProperties, lightSources,
+        return builtInfo = new ModularVehicleInfo<>(defaultName, getPackName(), getName(), description, emptyMass, dragFactor, model, centerOfMass, scaleModifier,bakedTextures, parts, partShapes, subProperties, lightSources,
                 frictionPoints, particleEmitters, vehicleMaxSpeed, directingWheel, itemScale, item3DRenderLocation, FMLCommonHandler.instance().getSide().isClient() ? renderedParts : null, physicsCollisionShape, collisionShapeDebugBuffer, creativeTabName, defaultZoomLevel);
     }
 
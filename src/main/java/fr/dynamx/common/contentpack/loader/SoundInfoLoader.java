@@ -8,7 +8,6 @@ import fr.dynamx.common.contentpack.type.vehicle.EngineSound;
 import fr.dynamx.common.contentpack.type.vehicle.SoundListInfo;
 import fr.dynamx.utils.DynamXLoadingTasks;
 
-import java.io.BufferedReader;
 import java.util.function.BiFunction;
 
 import static fr.dynamx.common.DynamXMain.log;
@@ -23,62 +22,63 @@ public class SoundInfoLoader extends InfoLoader<SoundListInfo, ISubInfoTypeOwner
     }
 
     @Override
-    protected void readInfo(BufferedReader inputStream, INamedObject info) {
+    protected void readInfo(CompiledPackFile.Cursor reader, INamedObject info) {
         assert info instanceof SoundListInfo : "Bad SoundInfoLoader usage";
-        final EngineSound[] readingCategory = {null};
+        EngineSound readingCategory = null;
         //Loaded sounds
-        final boolean[] interior = {false};
-        inputStream.lines().forEach(s -> {
-            if (!s.trim().startsWith("//")) {
-                if (s.contains("{")) { //Start of a property
-                    String name = s.replace("{", "").trim();
-                    switch (name) {
-                        case "":
-                            break; //Do nothing
-                        case "Engine":
-                            break; //Do nothing its the only type of sound
-                        case "Interior":
-                            //Sounds loaded after this line will be interior sounds
-                            interior[0] = true;
-                            break;
-                        case "Exterior":
-                            //Sounds loaded after this line will be exterior sounds
-                            interior[0] = false;
-                            break;
-                        case "Starting":
-                            //Starting sound
-                            readingCategory[0] = new EngineSound(info.getPackName(), new int[]{-1});
-                            readingCategory[0].setInterior(interior[0]);
-                            break;
-                        default:
-                            //Engine sounds depending on the rpm
-                            if (name.contains("-")) {
-                                String[] sp = name.split("-");
-                                //Parse min and max rpm
-                                readingCategory[0] = new EngineSound(info.getPackName(), new int[]{Integer.parseInt(sp[0]), Integer.parseInt(sp[1])});
-                                readingCategory[0].setInterior(interior[0]);
-                            } else {
-                                log.error("Invalid sound config entry : " + s + " in "+info.getFullName());
-                                DynamXContext.getErrorTracker().addError(DynamXLoadingTasks.PACK, info.getPackName(), info.getFullName(), "Invalid sound config entry : " + s, ErrorTrackingService.TrackedErrorLevel.LOW);
-                            }
-                    }
-                } else if (s.contains(":")) {
-                    //Property of a reading sound
-                    if (readingCategory[0] != null) {
-                        String[] split = s.split(":");
-                        setFieldValue(readingCategory[0], split[0].trim(), split[1].trim());
-                    }
-                } else if (s.contains("}")) { //End of a property, if it was a sound, add it to the sound list
-                    if (readingCategory[0] != null)
-                        ((SoundListInfo)info).addSound(readingCategory[0]);
-                    readingCategory[0] = null;
-                } else if (s.contains("Engine")) {
-                    //We don't care
-                } else {
-                    log.error("Unknown sound config key " + s+ " in "+info.getFullName());
-                    DynamXContext.getErrorTracker().addError(DynamXLoadingTasks.PACK, info.getPackName(), "Error in "+info.getFullName(), "Unknown sound config key " + s, ErrorTrackingService.TrackedErrorLevel.LOW);
+        boolean interior = false;
+        while (reader.next()) {
+            String s = reader.getValue();
+            if (reader.getType() == CompiledPackFile.BEGIN_BLOCK) { //Start of a property
+                String name = s.replace("{", "").trim();
+                switch (name) {
+                    case "":
+                        break; //Do nothing
+                    case "Engine":
+                        break; //Do nothing its the only type of sound
+                    case "Interior":
+                        //Sounds loaded after this line will be interior sounds
+                        interior = true;
+                        break;
+                    case "Exterior":
+                        //Sounds loaded after this line will be exterior sounds
+                        interior = false;
+                        break;
+                    case "Starting":
+                        //Starting sound
+                        readingCategory = new EngineSound(info.getPackName(), new int[]{-1});
+                        readingCategory.setInterior(interior);
+                        break;
+                    default:
+                        //Engine sounds depending on the rpm
+                        if (name.contains("-")) {
+                            String[] sp = name.split("-");
+                            //Parse min and max rpm
+                            readingCategory = new EngineSound(info.getPackName(), new int[]{Integer.parseInt(sp[0]), Integer.parseInt(sp[1])});
+                            readingCategory.setInterior(interior);
+                        } else {
+                            log.error("Invalid sound config entry : " + s + " in "+info.getFullName());
+                            DynamXContext.getErrorTracker().addError(DynamXLoadingTasks.PACK, info.getPackName(), info.getFullName(), "Invalid sound config entry : " + s, ErrorTrackingService.TrackedErrorLevel.LOW);
+                        }
                 }
+            } else if (reader.getType() == CompiledPackFile.END_BLOCK) { //End of a property, if it was a sound, add it to the sound list
+                if (readingCategory != null)
+                    ((SoundListInfo)info).addSound(readingCategory);
+                readingCategory = null;
+            } else if (reader.getType() != CompiledPackFile.PROPERTY) {
+                reportSyntaxError(info, reader);
+            } else if (s.contains(":")) {
+                //Property of a reading sound
+                if (readingCategory != null) {
+                    String[] split = s.split(":");
+                    setFieldValue(readingCategory, split[0].trim(), split[1].trim());
+                }
+            } else if (s.contains("Engine")) {
+                //We don't care
+            } else {
+                log.error("Unknown sound config key " + s+ " in "+info.getFullName());
+                DynamXContext.getErrorTracker().addError(DynamXLoadingTasks.PACK, info.getPackName(), "Error in "+info.getFullName(), "Unknown sound config key " + s, ErrorTrackingService.TrackedErrorLevel.LOW);
             }
-        });
+        }
     }
 }
@@ -12,15 +12,17 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Internal cache for loaded {@link PackFilePropertyData}
+ * Internal cache for loaded {@link PackFilePropertyData} <br>
+ * Thread-safe, the packs are parsed in parallel
  *
  * @see PackFileProperty
  */
 public class SubInfoTypeAnnotationCache
 {
-    private static final Map<Class<?>, Map<String, PackFilePropertyData<?>>> cache = new HashMap<>();
+    private static final Map<Class<?>, Map<String, PackFilePropertyData<?>>> cache = new ConcurrentHashMap<>();
 
     /**
      * Checks in the cache to find the specified property data, or loads properties of the given object's class to find it
@@ -44,9 +46,15 @@ public class SubInfoTypeAnnotationCache
     @Nonnull
     public static Map<String, PackFilePropertyData<?>> getOrLoadData(Class<?> from)
     {
-        if(!cache.containsKey(from))
-            load(from);
-        return cache.get(from);
+        Map<String, PackFilePropertyData<?>> data = cache.get(from);
+        if(data == null) {
+            synchronized (cache) {
+                if(!cache.containsKey(from))
+                    load(from);
+            }
+            data = cache.get(from);
+        }
+        return data;
     }
 
     private static void load(Class<?> toCache)
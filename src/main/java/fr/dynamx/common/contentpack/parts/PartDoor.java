@@ -9,6 +9,7 @@ import fr.dynamx.api.contentpack.registry.PackFileProperty;
 import fr.dynamx.api.entities.IModuleContainer;
 import fr.dynamx.api.entities.modules.ModuleListBuilder;
 import fr.dynamx.api.events.VehicleEntityEvent;
+import fr.dynamx.api.obj.ObjGroupIds;
 import fr.dynamx.common.contentpack.loader.ModularVehicleInfoBuilder;
 import fr.dynamx.common.entities.BaseVehicleEntity;
 import fr.dynamx.common.entities.modules.DoorsModule;
@@ -53,6 +54,7 @@ public class PartDoor extends InteractivePart<BaseVehicleEntity<?>, ModularVehic
     private boolean enabled = true;
 
     public boolean isPlayerMounting;
+    private int partGroupId = -1;
 
     public PartDoor(ModularVehicleInfoBuilder owner, String partName) {
         super(owner, partName, 0, 0);
@@ -102,6 +104,14 @@ public class PartDoor extends InteractivePart<BaseVehicleEntity<?>, ModularVehic
         super.appendTo(owner);
         owner.arrangeDoorID(this);
         owner.addRenderedParts(getPartName());
+        partGroupId = ObjGroupIds.register(getPartName());
+    }
+
+    /**
+     * @return The id of the model group of this part, resolved when the pack is loaded, see {@link ObjGroupIds}
+     */
+    public int getPartGroupId() {
+        return partGroupId;
     }
 
     @Override
@@ -7,6 +7,7 @@ import fr.dynamx.api.contentpack.object.subinfo.ISubInfoTypeOwner;
 import fr.dynamx.api.contentpack.registry.DefinitionType;
 import fr.dynamx.api.contentpack.registry.PackFileProperty;
 import fr.dynamx.api.entities.modules.ModuleListBuilder;
+import fr.dynamx.api.obj.ObjGroupIds;
 import fr.dynamx.common.contentpack.loader.ModularVehicleInfoBuilder;
 import fr.dynamx.common.entities.BaseVehicleEntity;
 import fr.dynamx.common.entities.modules.VehicleLightsModule;
@@ -39,6 +40,8 @@ public class PartLightSource implements ISubInfoType<ModularVehicleInfoBuilder>
     @PackFileProperty(configNames = "RotateDuration", required = false)
     private int rotateDuration;
 
+    private int partGroupId = -1;
+
     public PartLightSource(ISubInfoTypeOwner<ModularVehicleInfoBuilder> owner, String name) {
         this.owner = owner;
         this.name = name;
@@ -46,6 +49,7 @@ public class PartLightSource implements ISubInfoType<ModularVehicleInfoBuilder>
 
     @Override
     public void appendTo(ModularVehicleInfoBuilder owner) {
+        partGroupId = ObjGroupIds.register(getPartName());
         owner.addLightSource(this);
         owner.addRenderedParts(getPartName());
     }
@@ -79,6 +83,13 @@ public class PartLightSource implements ISubInfoType<ModularVehicleInfoBuilder>
         return partName;
     }
 
+    /**
+     * @return The id of the model group of this part, resolved when the pack is loaded, see {@link ObjGroupIds}
+     */
+    public int getPartGroupId() {
+        return partGroupId;
+    }
+
     public String[] getTextures() {
         return textures;
     }
@@ -116,10 +127,12 @@ public class PartLightSource implements ISubInfoType<ModularVehicleInfoBuilder>
     public static class CompoundLight
     {
         private final String partName;
+        private final int partGroupId;
         private final List<PartLightSource> sources = new ArrayList<>();
 
         public CompoundLight(PartLightSource part) {
             this.partName = part.getPartName();
+            this.partGroupId = part.getPartGroupId();
             addSource(part);
         }
 
@@ -131,6 +144,13 @@ public class PartLightSource implements ISubInfoType<ModularVehicleInfoBuilder>
             return partName;
         }
 
+        /**
+         * @return The id of the model group of this light, see {@link ObjGroupIds}
+         */
+        public int getPartGroupId() {
+            return partGroupId;
+        }
+
         public List<PartLightSource> getSources() {
             return sources;
         }
@@ -6,6 +6,7 @@ import fr.dynamx.api.contentpack.object.part.InteractivePart;
 import fr.dynamx.api.contentpack.registry.DefinitionType;
 import fr.dynamx.api.contentpack.registry.PackFileProperty;
 import fr.dynamx.api.entities.IModuleContainer;
+import fr.dynamx.api.obj.ObjGroupIds;
 import fr.dynamx.common.contentpack.loader.ModularVehicleInfoBuilder;
 import fr.dynamx.common.contentpack.type.PartWheelInfo;
 import fr.dynamx.common.entities.BaseVehicleEntity;
@@ -36,6 +37,7 @@ public class PartWheel extends InteractivePart<BaseVehicleEntity<?>, ModularVehi
     private Quaternion suspensionAxis = new Quaternion();
 
     private PartWheelInfo defaultWheelInfo;
+    private int mudGuardGroupId = -1;
 
     public PartWheel(ModularVehicleInfoBuilder owner, String partName){
         super(owner, partName,0.75f,0.75f);
@@ -49,8 +51,10 @@ public class PartWheel extends InteractivePart<BaseVehicleEntity<?>, ModularVehi
         else
             getRotationPoint().multLocal(getScaleModifier(owner));
         owner.arrangeWheelID(this);
-        if(getMudGuardPartName() != null)
+        if(getMudGuardPartName() != null) {
             owner.addRenderedParts(getMudGuardPartName());
+            mudGuardGroupId = ObjGroupIds.register(getMudGuardPartName());
+        }
     }
 
     @Override
@@ -115,6 +119,13 @@ public class PartWheel extends InteractivePart<BaseVehicleEntity<?>, ModularVehi
         return mudGuardPartName;
     }
 
+    /**
+     * @return The id of the model group of the mud guard, resolved when the pack is loaded, see {@link ObjGroupIds}
+     */
+    public int getMudGuardGroupId() {
+        return mudGuardGroupId;
+    }
+
     public Vector3f getRotationPoint() {
         return rotationPoint;
     }
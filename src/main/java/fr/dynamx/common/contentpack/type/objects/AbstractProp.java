@@ -19,9 +19,11 @@ import fr.dynamx.utils.physics.ShapeUtils;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public abstract class AbstractProp<T extends AbstractProp<?>> extends AbstractItemObject<T> implements IShapedObject {
@@ -39,6 +41,10 @@ public abstract class AbstractProp<T extends AbstractProp<?>> extends AbstractIt
     protected String[][] texturesArray;
 
     private final List<BasePart<?>> parts = new ArrayList<>();
+    /**
+     * The parts of each type, see {@link #getPartsByType(Class)}, cleared when a part is added
+     */
+    private final Map<Class<?>, List<?>> partsByType = new ConcurrentHashMap<>();
     private final List<MutableBoundingBox> collisionBoxes = new ArrayList<>();
     private final List<PartShape<?>> partShapes = new ArrayList<>();
     private final Map<Byte, TextureData> textures = new HashMap<>();
@@ -62,7 +68,7 @@ public abstract class AbstractProp<T extends AbstractProp<?>> extends AbstractIt
         compoundCollisionShape = new CompoundCollisionShape();
         if (getPartShapes().isEmpty()) {
             if (useHullShape) {
-                compoundCollisionShape = ShapeUtils.generateComplexModelCollisions(DynamXUtils.getModelPath(getPackName(), model), "", scaleModifier, new Vector3f(), 0);
+                compoundCollisionShape = ShapeUtils.generateComplexModelCollisions(DynamXUtils.getModelPath(getPackName(), model), "", scaleModifier, new Vector3f(), 0, this::onComplexShapeGenerated);
             } else {
                 ShapeUtils.generateModelCollisions(this, ObjModelServer.createServerObjModel(DynamXUtils.getModelPath(getPackName(), getModel())), compoundCollisionShape);
             }
@@ -84,6 +90,15 @@ public abstract class AbstractProp<T extends AbstractProp<?>> extends AbstractIt
         }
     }
 
+    /**
+     * Called on the main thread when the hull shape, generated in background, is ready to replace the temporary bounding box shape
+     *
+     * @param shape The new {@link #compoundCollisionShape}
+     */
+    protected void onComplexShapeGenerated(CompoundCollisionShape shape) {
+        compoundCollisionShape = shape;
+    }
+
     @Override
     public void onComplete(boolean hotReload) {
         textures.clear();
@@ -130,6 +145,7 @@ public abstract class AbstractProp<T extends AbstractProp<?>> extends AbstractIt
     @Override
     public void addPart(BasePart<?> tBasePart) {
         parts.add(tBasePart);
+        partsByType.clear();
     }
 
     @Override
@@ -137,8 +153,11 @@ public abstract class AbstractProp<T extends AbstractProp<?>> extends AbstractIt
         partShapes.add(partShape);
     }
 
+    /**
+     * @return The parts of exactly this class, in an unmodifiable list computed once
+     */
     public <A extends BasePart<?>> List<A> getPartsByType(Class<A> clazz) {
-        return (List<A>) this.parts.stream().filter(p -> clazz.equals(p.getClass())).collect(Collectors.toList());
+        return (List<A>) partsByType.computeIfAbsent(clazz, c -> Collections.unmodifiableList(this.parts.stream().filter(p -> clazz.equals(p.getClass())).collect(Collectors.toList())));
     }
 
     public List<BasePart<?>> getParts() {
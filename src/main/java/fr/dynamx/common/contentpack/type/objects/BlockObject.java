@@ -64,6 +64,14 @@ public class BlockObject<T extends BlockObject<?>> extends AbstractProp<T> imple
         return compoundCollisionShape;
     }
 
+    @Override
+    protected void onComplexShapeGenerated(CompoundCollisionShape shape) {
+        super.onComplexShapeGenerated(shape);
+        //The prop of this block uses the same shape
+        if (propObject != null)
+            propObject.onComplexShapeGenerated(shape);
+    }
+
     public Vector3f getRotation() {
         return rotation;
     }
@@ -112,6 +112,12 @@ public class PropObject<T extends BlockObject<?>> extends AbstractProp<T> implem
         debugBuffer = ShapeUtils.getDebugVectorList(compoundCollisionShape, ShapeUtils.getDebugBuffer(compoundCollisionShape));
     }
 
+    @Override
+    protected void onComplexShapeGenerated(CompoundCollisionShape shape) {
+        super.onComplexShapeGenerated(shape);
+        debugBuffer = ShapeUtils.getDebugVectorList(shape, ShapeUtils.getDebugBuffer(shape));
+    }
+
     public CompoundCollisionShape getCompoundCollisionShape() {
         return compoundCollisionShape;
     }
@@ -11,6 +11,7 @@ import fr.dynamx.common.entities.BaseVehicleEntity;
 import fr.dynamx.common.entities.modules.EngineModule;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -74,8 +75,13 @@ public class EngineInfo extends SubInfoTypeOwner<EngineInfo> implements ISubInfo
             else
                 soundsEngine.add(sound);
         }
+        //Sorted by rpm, so the sound matching the rpm of the engine can be found with a binary search
+        soundsEngine.sort(Comparator.comparingInt(sound -> sound.getRpmRange()[0]));
     }
 
+    /**
+     * @return The engine sounds with a rpm range, sorted by min rpm
+     */
     public List<EngineSound> getEngineSounds() {
         return soundsEngine;
     }
@@ -7,6 +7,7 @@ import fr.dynamx.api.contentpack.object.subinfo.ISubInfoTypeOwner;
 import fr.dynamx.api.contentpack.object.subinfo.SubInfoType;
 import fr.dynamx.api.contentpack.registry.DefinitionType;
 import fr.dynamx.api.contentpack.registry.PackFileProperty;
+import fr.dynamx.api.obj.ObjGroupIds;
 import fr.dynamx.common.DynamXContext;
 import fr.dynamx.common.contentpack.loader.ModularVehicleInfoBuilder;
 import fr.dynamx.utils.DynamXLoadingTasks;
@@ -25,6 +26,8 @@ public class SteeringWheelInfo extends SubInfoType<ModularVehicleInfoBuilder>
     @PackFileProperty(configNames = "Position", type = DefinitionType.DynamXDefinitionTypes.VECTOR3F_INVERSED_Y)
     private Vector3f position = new Vector3f(0.5f, 1.1f, 1);
 
+    private int partGroupId = -1;
+
     public SteeringWheelInfo(ISubInfoTypeOwner<ModularVehicleInfoBuilder> owner) {
         super(owner);
     }
@@ -34,6 +37,7 @@ public class SteeringWheelInfo extends SubInfoType<ModularVehicleInfoBuilder>
         owner.addSubProperty(this);
         getSteeringWheelPosition().multLocal(owner.getScaleModifier());
         owner.addRenderedParts(getPartName());
+        partGroupId = ObjGroupIds.register(getPartName());
     }
 
     @Override
@@ -49,6 +53,13 @@ public class SteeringWheelInfo extends SubInfoType<ModularVehicleInfoBuilder>
         return partName;
     }
 
+    /**
+     * @return The id of the model group of this part, resolved when the pack is loaded, see {@link ObjGroupIds}
+     */
+    public int getPartGroupId() {
+        return partGroupId;
+    }
+
     public Quaternion getSteeringWheelBaseRotation() {
         return steeringWheelBaseRotation;
     }
@@ -0,0 +1,33 @@
+package fr.dynamx.common.core.mixin;
+
+import fr.dynamx.client.renders.InstancedModelRenderer;
+import fr.dynamx.client.renders.ParticleBudget;
+import fr.dynamx.client.renders.model.ModelLod;
+import net.minecraft.client.renderer.RenderGlobal;
+import net.minecraft.client.renderer.culling.ICamera;
+import net.minecraft.entity.Entity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Patches the RenderGlobal to draw the batched models of the {@link InstancedModelRenderer} and to spawn the particles of the {@link ParticleBudget} at the end of the entity render pass, and to give the camera to the {@link ModelLod}
+ */
+@Mixin(RenderGlobal.class)
+public abstract class MixinRenderGlobal
+{
+    @Inject(method = "renderEntities", at = @At("HEAD"))
+    private void beginBatchedModels(Entity renderViewEntity, ICamera camera, float partialTicks, CallbackInfo ci) {
+        InstancedModelRenderer.beginCollecting();
+        ParticleBudget.beginFrame();
+        ModelLod.setCamera(camera);
+    }
+
+    @Inject(method = "renderEntities", at = @At("RETURN"))
+    private void renderBatchedModels(Entity renderViewEntity, ICamera camera, float partialTicks, CallbackInfo ci) {
+        InstancedModelRenderer.flush();
+        ParticleBudget.flush();
+        ModelLod.setCamera(null);
+    }
+}
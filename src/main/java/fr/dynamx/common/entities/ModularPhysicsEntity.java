@@ -17,7 +17,9 @@ import net.minecraftforge.fml.relauncher.Side;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Base implementation for all modular entities <br>
@@ -34,6 +36,10 @@ public abstract class ModularPhysicsEntity<T extends AbstractEntityPhysicsHandle
     protected final List<IPhysicsModule.IEntityPosUpdateListener> updateEntityPosListeners = new ArrayList<>();
     protected final List<IPhysicsModule.IPhysicsUpdateListener> updatePhysicsListeners = new ArrayList<>();
     protected final List<IPhysicsModule.IDrawableModule<?>> drawableModules = new ArrayList<>();
+    /**
+     * The first module of each class, indexed when the modules are sorted
+     */
+    private final Map<Class<?>, IPhysicsModule<?>> modulesByType = new HashMap<>();
 
     /**
      * Entity init callback
@@ -91,6 +97,9 @@ public abstract class ModularPhysicsEntity<T extends AbstractEntityPhysicsHandle
     protected void sortModules() {
         updateEntityListeners.clear();
         updatePhysicsListeners.clear();
+        modulesByType.clear();
+        for (IPhysicsModule<?> module : moduleList)
+            modulesByType.putIfAbsent(module.getClass(), module);
         moduleList.forEach(m -> {
             if(m instanceof IPhysicsModule.IEntityUpdateListener && ((IPhysicsModule.IEntityUpdateListener) m).listenEntityUpdates(world.isRemote ? Side.CLIENT : Side.SERVER))
                 updateEntityListeners.add((IPhysicsModule.IEntityUpdateListener) m);
@@ -105,12 +114,19 @@ public abstract class ModularPhysicsEntity<T extends AbstractEntityPhysicsHandle
 
     @Override
     public <Y extends IPhysicsModule<?>> Y getModuleByType(Class<Y> clazz) {
-        return (Y) moduleList.stream().filter(m -> m.getClass() == clazz).findFirst().orElse(null);
+        if (modulesByType.isEmpty()) { //The modules are being created
+            for (IPhysicsModule<?> module : moduleList) {
+                if (module.getClass() == clazz)
+                    return (Y) module;
+            }
+            return null;
+        }
+        return (Y) modulesByType.get(clazz);
     }
 
     @Override
     public boolean hasModuleOfType(Class<? extends IPhysicsModule<?>> moduleClass) {
-        return moduleList.stream().anyMatch(m -> m.getClass() == moduleClass);
+        return getModuleByType(moduleClass) != null;
     }
 
     @Override
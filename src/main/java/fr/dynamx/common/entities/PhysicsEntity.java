@@ -13,6 +13,8 @@ import fr.dynamx.api.physics.BulletShapeType;
 import fr.dynamx.api.physics.entities.EntityPhysicsState;
 import fr.dynamx.common.DynamXContext;
 import fr.dynamx.common.DynamXMain;
+import fr.dynamx.common.handlers.CollidableIndex;
+import fr.dynamx.common.handlers.PhysicsEntityIndex;
 import fr.dynamx.common.items.DynamXItemRegistry;
 import fr.dynamx.common.network.sync.vars.PosSynchronizedVariable;
 import fr.dynamx.common.physics.entities.AbstractEntityPhysicsHandler;
@@ -106,6 +108,10 @@ public abstract class PhysicsEntity<T extends AbstractEntityPhysicsHandler<?, ?>
      * Cache to avoid many heavy calculus of the entity box
      */
     private AxisAlignedBB entityBoxCache;
+    /**
+     * The chunk sections where this entity is in the {@link CollidableIndex}
+     */
+    private final CollidableIndex.IndexedArea indexedArea = new CollidableIndex.IndexedArea();
     /**
      * True if the entity uses the physics world <br>
      * I.e. it's physics handler should not be null
@@ -247,6 +253,7 @@ public abstract class PhysicsEntity<T extends AbstractEntityPhysicsHandler<?, ?>
 
         //Update visual pos
         updateMinecraftPos();
+        CollidableIndex.updateEntity(this, indexedArea);
 
         //Post the update event
         MinecraftForge.EVENT_BUS.post(world.isRemote ? new PhysicsEntityEvent.ClientPhysicsEntityUpdateEvent(this, PhysicsEntityEvent.PhysicsEntityUpdateType.POST_ENTITY_UPDATE, isRegistered == 2 && usesPhysicsWorld) :
@@ -542,9 +549,19 @@ public abstract class PhysicsEntity<T extends AbstractEntityPhysicsHandler<?, ?>
         return entityBoxCache;
     }
 
+    @Override
+    public void onAddedToWorld() {
+        super.onAddedToWorld();
+        PhysicsEntityIndex.get(world).onEntityAdded(this);
+    }
+
     @Override
     public void onRemovedFromWorld() {
         super.onRemovedFromWorld();
+        CollidableIndex.removeEntity(this, indexedArea);
+        PhysicsEntityIndex index = PhysicsEntityIndex.getExisting(world);
+        if (index != null)
+            index.onEntityRemoved(this);
         if (usesPhysicsWorld && DynamXContext.getPhysicsWorld() != null) //onRemovedFromWorld may be called before physicsWorld is loaded (in case of failing to load from nbt)
         {
             DynamXContext.getPhysicsWorld().removeBulletEntity(this);
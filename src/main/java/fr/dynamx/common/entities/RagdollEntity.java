@@ -282,7 +282,7 @@ public class RagdollEntity extends ModularPhysicsEntity<RagdollPhysics<?>> imple
 
                 if (!ItemStack.areItemStacksEqual(itemstack1, itemstack))
                 {
-                    if (!ItemStack.areItemStacksEqualUsingNBTShareTag(itemstack1, itemstack)) {
+                    if (!ItemStack.areItemStacksEqualUsingNBTShareTag(itemstack1, itemstack) && this.world instanceof WorldServer) { //Not a WorldServer in the physics replays
                         ((WorldServer) this.world).getEntityTracker().sendToTracking(this, new SPacketEntityEquipment(this.getEntityId(), entityequipmentslot, itemstack1));
                     }
 
@@ -293,7 +293,7 @@ public class DoorsModule implements IPhysicsModule<AbstractEntityPhysicsHandler<
 
                 ObjModelClient vehicleModel = DynamXContext.getObjModelRegistry().getModel(carEntity.getPackInfo().getModel());
                 GlStateManager.scale(carEntity.getPackInfo().getScaleModifier().x, carEntity.getPackInfo().getScaleModifier().y, carEntity.getPackInfo().getScaleModifier().z);
-                render.renderModelGroup(vehicleModel, door.getPartName(), carEntity, carEntity.getEntityTextureID());
+                render.renderModelGroup(vehicleModel, door.getPartGroupId(), carEntity, carEntity.getEntityTextureID());
                 GlStateManager.scale(1 / carEntity.getPackInfo().getScaleModifier().x, 1 / carEntity.getPackInfo().getScaleModifier().y, 1 / carEntity.getPackInfo().getScaleModifier().z);
 
                 GlStateManager.popMatrix();
@@ -315,7 +315,7 @@ public class DoorsModule implements IPhysicsModule<AbstractEntityPhysicsHandler<
 
                 ObjModelClient vehicleModel = DynamXContext.getObjModelRegistry().getModel(carEntity.getPackInfo().getModel());
                 GlStateManager.scale(carEntity.getPackInfo().getScaleModifier().x, carEntity.getPackInfo().getScaleModifier().y, carEntity.getPackInfo().getScaleModifier().z);
-                render.renderModelGroup(vehicleModel, door.getPartName(), carEntity, carEntity.getEntityTextureID());
+                render.renderModelGroup(vehicleModel, door.getPartGroupId(), carEntity, carEntity.getEntityTextureID());
                 GlStateManager.scale(1 / carEntity.getPackInfo().getScaleModifier().x, 1 / carEntity.getPackInfo().getScaleModifier().y, 1 / carEntity.getPackInfo().getScaleModifier().z);
 
                 GlStateManager.popMatrix();
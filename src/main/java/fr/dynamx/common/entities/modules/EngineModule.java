@@ -29,9 +29,7 @@ import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
 import javax.annotation.Nullable;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import static fr.dynamx.client.ClientProxy.SOUND_HANDLER;
 
@@ -49,6 +47,32 @@ public class EngineModule implements IEngineModule<AbstractEntityPhysicsHandler<
 
     //Handbrake on spawn
     private int controls = 2;
+    /**
+     * Binary search of the sound matching the rpm
+     *
+     * @param sounds The sounds, sorted by min rpm
+     * @return The sound with the highest min rpm containing the rpm, or null
+     */
+    @Nullable
+    private static EngineSound findSound(EngineSound[] sounds, float rpm) {
+        //Last sound starting below the rpm
+        int low = 0, high = sounds.length - 1, found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (sounds[mid].getMinRpm() <= rpm) {
+                found = mid;
+                low = mid + 1;
+            } else
+                high = mid - 1;
+        }
+        //The ranges may overlap, or have holes
+        for (int i = found; i >= 0; i--) {
+            if (sounds[i].getMaxRpm() >= rpm)
+                return sounds[i];
+        }
+        return null;
+    }
+
     /**
      * The active speed limit, or Integer.MAX_VALUE
      */
@@ -221,7 +245,10 @@ public class EngineModule implements IEngineModule<AbstractEntityPhysicsHandler<
 
     //Sounds
 
-    public final Map<Integer, EngineSound> sounds = new HashMap<>();
+    /**
+     * The interior and exterior engine sounds, sorted by min rpm
+     */
+    private EngineSound[] interiorSounds, exteriorSounds;
     private EngineSound lastVehicleSound;
     private EngineSound currentVehicleSound;
 
@@ -246,8 +273,9 @@ public class EngineModule implements IEngineModule<AbstractEntityPhysicsHandler<
         if (!MinecraftForge.EVENT_BUS.post(new VehicleEntityEvent.UpdateVehicleSoundEntityEvent(entity, this, PhysicsEntityEvent.Phase.PRE))) {
             if (entity.getPackInfo() != null) {
                 if (engineInfo != null && engineInfo.getEngineSounds() != null) {
-                    if (sounds.isEmpty()) { //Sounds are not initialized
-                        engineInfo.getEngineSounds().forEach(engineSound -> sounds.put(engineSound.id, new EngineSound(engineSound, entity, this)));
+                    if (interiorSounds == null) { //Sounds are not initialized
+                        interiorSounds = engineInfo.getEngineSounds().stream().filter(engineSound -> engineSound.isInterior()).map(engineSound -> new EngineSound(engineSound, entity, this)).toArray(EngineSound[]::new);
+                        exteriorSounds = engineInfo.getEngineSounds().stream().filter(engineSound -> !engineSound.isInterior()).map(engineSound -> new EngineSound(engineSound, entity, this)).toArray(EngineSound[]::new);
                     }
                     if (isEngineStarted()) {
                         if (engineProperties != null) {
@@ -255,11 +283,9 @@ public class EngineModule implements IEngineModule<AbstractEntityPhysicsHandler<
                             float rpm = engineProperties[VehicleEntityProperties.EnumEngineProperties.REVS.ordinal()] * engineInfo.getMaxRevs();
                             lastVehicleSound = currentVehicleSound;
                             if (currentVehicleSound == null || !currentVehicleSound.shouldPlay(rpm, forInterior)) {
-                                sounds.forEach((id, vehicleSound) -> {
-                                    if (vehicleSound.shouldPlay(rpm, forInterior)) {
-                                        this.currentVehicleSound = vehicleSound;
-                                    }
-                                });
+                                EngineSound vehicleSound = findSound(forInterior ? interiorSounds : exteriorSounds, rpm);
+                                if (vehicleSound != null)
+                                    this.currentVehicleSound = vehicleSound;
                             }
                         }
                         if (currentVehicleSound != lastVehicleSound) //if playing sound changed
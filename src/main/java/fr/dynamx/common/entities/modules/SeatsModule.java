@@ -83,6 +83,8 @@ public class SeatsModule implements ISeatsModule {
 
     @Override
     public void readFromNBT(NBTTagCompound tag) {
+        if (entity.getServer() == null) //In the physics replays, the passengers aren't there
+            return;
         for (PartSeat seat : entity.getPackInfo().getPartsByType(PartSeat.class)) {
             if (tag.hasKey("Seat" + seat.getId(), Constants.NBT.TAG_STRING)) {
                 EntityPlayer player = entity.getServer().getPlayerList().getPlayerByUUID(UUID.fromString(tag.getString("Seat" + seat.getId())));
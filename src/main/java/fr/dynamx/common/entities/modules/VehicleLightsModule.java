@@ -141,7 +141,7 @@ public class VehicleLightsModule implements IPhysicsModule<BaseVehiclePhysicsHan
                         Vector3f color = onSource.getColors()[activeStep];
                         GlStateManager.color(color.x/255, color.y/255, color.z/255, 1);
                     }
-                    render.renderModelGroup(vehicleModel, onSource.getPartName(), carEntity, texId);
+                    render.renderModelGroup(vehicleModel, onSource.getPartGroupId(), carEntity, texId);
                     GlStateManager.popMatrix();
                     GlQuaternionPool.closePool();
 
@@ -12,8 +12,11 @@ import fr.dynamx.api.events.PhysicsEntityEvent;
 import fr.dynamx.api.events.VehicleEntityEvent;
 import fr.dynamx.api.network.sync.SimulationHolder;
 import fr.dynamx.api.obj.IObjObject;
+import fr.dynamx.api.obj.ObjGroupIds;
 import fr.dynamx.api.physics.entities.IPropulsionHandler;
+import fr.dynamx.client.renders.ParticleBudget;
 import fr.dynamx.client.renders.RenderPhysicsEntity;
+import fr.dynamx.client.renders.SkidMarkManager;
 import fr.dynamx.client.renders.model.ObjModelClient;
 import fr.dynamx.client.renders.vehicle.RenderBaseVehicle;
 import fr.dynamx.client.sound.SkiddingSound;
@@ -48,6 +51,7 @@ import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
 import javax.annotation.Nullable;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -62,6 +66,8 @@ import static fr.dynamx.client.ClientProxy.SOUND_HANDLER;
  * @see WheelsPhysicsHandler
  */
 public class WheelsModule implements IPropulsionModule<BaseWheeledVehiclePhysicsHandler<?>>, IPhysicsModule.IEntityUpdateListener, IPhysicsModule.IPhysicsUpdateListener, IPhysicsModule.IDrawableModule<BaseVehicleEntity<?>> {
+    private static final int RIM_GROUP = ObjGroupIds.register("rim");
+
     protected final Map<Byte, PartWheelInfo> wheelInfos = new HashMap<>();
     /**
      * Wheels visual states, based on the physical states
@@ -301,7 +307,7 @@ public class WheelsModule implements IPropulsionModule<BaseWheeledVehiclePhysics
         /* Rendering the steering wheel */
         SteeringWheelInfo info = carEntity.getPackInfo().getSubPropertyByType(SteeringWheelInfo.class);
         if (info != null && !carEntity.getModuleByType(WheelsModule.class).getWheelInfos().isEmpty()) { //If has steering and wheels AND at least one wheel (think to loading errors)
-            IObjObject steeringWheel = vehicleModel.getObjObject(info.getPartName());
+            IObjObject steeringWheel = vehicleModel.getObjObject(info.getPartGroupId());
             if (steeringWheel != null) {
                 if (!MinecraftForge.EVENT_BUS.post(new VehicleEntityEvent.RenderVehicleEntityEvent(VehicleEntityEvent.RenderVehicleEntityEvent.Type.STEERING_WHEEL, (RenderBaseVehicle<?>) render, carEntity, PhysicsEntityEvent.Phase.PRE, partialTicks))) {
                     GlStateManager.pushMatrix();
@@ -352,7 +358,7 @@ public class WheelsModule implements IPropulsionModule<BaseWheeledVehiclePhysics
             PartWheelInfo info = getWheelInfo(partWheel.getId());
             if (info.enableRendering() && info.getSkidParticle() != null) {
                 if (((IModuleContainer.IPropulsionContainer<?>) entity).getPropulsion().getPropulsionProperties()[VehicleEntityProperties.getPropertyIndex(partWheel.getId(), VehicleEntityProperties.EnumWheelProperties.SKIDINFO)] < 0.1f) {
-                    entity.world.spawnParticle(info.getSkidParticle(), visualProperties[VehicleEntityProperties.getPropertyIndex(partWheel.getId(), VehicleEntityProperties.EnumVisualProperties.COLLISIONX)],
+                    ParticleBudget.spawn(entity, info.getSkidParticle(), ParticleBudget.DRIVING_IMPORTANCE, visualProperties[VehicleEntityProperties.getPropertyIndex(partWheel.getId(), VehicleEntityProperties.EnumVisualProperties.COLLISIONX)],
                             visualProperties[VehicleEntityProperties.getPropertyIndex(partWheel.getId(), VehicleEntityProperties.EnumVisualProperties.COLLISIONY)],
                             visualProperties[VehicleEntityProperties.getPropertyIndex(partWheel.getId(), VehicleEntityProperties.EnumVisualProperties.COLLISIONZ)],
                             0, 0, 0);
@@ -389,7 +395,7 @@ public class WheelsModule implements IPropulsionModule<BaseWheeledVehiclePhysics
                 /* Render mudguard */
                 if (partWheel.getMudGuardPartName() != null) {
                     GlStateManager.scale(entity.getPackInfo().getScaleModifier().x, entity.getPackInfo().getScaleModifier().y, entity.getPackInfo().getScaleModifier().z);
-                    DynamXContext.getObjModelRegistry().getModel(this.entity.getPackInfo().getModel()).renderGroups(partWheel.getMudGuardPartName(), wheelsTextureId[partWheel.getId()]);
+                    DynamXContext.getObjModelRegistry().getModel(this.entity.getPackInfo().getModel()).renderGroups(partWheel.getMudGuardGroupId(), wheelsTextureId[partWheel.getId()]);
                 }
             }
             GlStateManager.popMatrix();
@@ -441,7 +447,7 @@ public class WheelsModule implements IPropulsionModule<BaseWheeledVehiclePhysics
                 //Scale
                 GlStateManager.scale(info.getScaleModifier().x, info.getScaleModifier().y, info.getScaleModifier().z);
                 //If the wheel is not flattened, or the model does not supports flattening
-                if (wheelsStates[partWheel.getId()] != WheelState.ADDED_FLATTENED || !model.renderGroups("rim", wheelsTextureId[partWheel.getId()])) {
+                if (wheelsStates[partWheel.getId()] != WheelState.ADDED_FLATTENED || !model.renderGroups(RIM_GROUP, wheelsTextureId[partWheel.getId()])) {
                     render.renderModel(model, entity, wheelsTextureId[partWheel.getId()]);
                 }
             }
@@ -457,6 +463,13 @@ public class WheelsModule implements IPropulsionModule<BaseWheeledVehiclePhysics
     private int mySoundId;
     private int skiddingTime;
 
+    /** Under this skid info, the wheel leaves skid marks */
+    private static final float SKID_MARK_THRESHOLD = 0.5f;
+    /** Min and max length of a skid mark segment, longer moves (like a teleportation) are ignored */
+    private static final float SKID_MARK_MIN_LENGTH = 0.3f, SKID_MARK_MAX_LENGTH = 4;
+    /** Last ground contact point of each skidding wheel, NaN if the wheel isn't skidding */
+    private float[] skidMarkPositions;
+
     @Override
     public boolean listenEntityUpdates(Side side) {
         return side.isClient();
@@ -465,6 +478,8 @@ public class WheelsModule implements IPropulsionModule<BaseWheeledVehiclePhysics
     @Override
     @SideOnly(Side.CLIENT)
     public void updateEntity() {
+        if (SkidMarkManager.isEnabled() && entity.getPackInfo() != null && wheelProperties != null)
+            updateSkidMarks();
         // if (!MinecraftForge.EVENT_BUS.post(new VehicleEntityEvent.UpdateVehicleSoundEntityEvent(entity, this, PhysicsEntityEvent.Phase.PRE))) {
         if (entity.getPackInfo() != null && false) { //TODO ENABLE & IMPROVE
             //if (engineInfo != null && engineInfo.getEngineSounds() != null) {
@@ -524,4 +539,39 @@ public class WheelsModule implements IPropulsionModule<BaseWheeledVehiclePhysics
         //    MinecraftForge.EVENT_BUS.post(new VehicleEntityEvent.UpdateVehicleSoundEntityEvent(entity, this, PhysicsEntityEvent.Phase.POST));
         //  }
     }
+
+    /**
+     * Adds a skid mark behind each skidding wheel, from its last ground contact point to the current one
+     */
+    @SideOnly(Side.CLIENT)
+    protected void updateSkidMarks() {
+        List<PartWheel> wheels = entity.getPackInfo().getPartsByType(PartWheel.class);
+        if (skidMarkPositions == null || skidMarkPositions.length != wheels.size() * 3) {
+            skidMarkPositions = new float[wheels.size() * 3];
+            Arrays.fill(skidMarkPositions, Float.NaN);
+        }
+        for (PartWheel partWheel : wheels) {
+            byte id = partWheel.getId();
+            int i = id * 3;
+            float skidInfo = wheelProperties[getPropertyIndex(id, VehicleEntityProperties.EnumWheelProperties.SKIDINFO)];
+            if (wheelsStates[id] == WheelState.REMOVED || skidInfo >= SKID_MARK_THRESHOLD || !getWheelInfo(id).enableRendering()) {
+                skidMarkPositions[i] = Float.NaN;
+                continue;
+            }
+            float x = visualProperties[VehicleEntityProperties.getPropertyIndex(id, VehicleEntityProperties.EnumVisualProperties.COLLISIONX)];
+            float y = visualProperties[VehicleEntityProperties.getPropertyIndex(id, VehicleEntityProperties.EnumVisualProperties.COLLISIONY)];
+            float z = visualProperties[VehicleEntityProperties.getPropertyIndex(id, VehicleEntityProperties.EnumVisualProperties.COLLISIONZ)];
+            if (!Float.isNaN(skidMarkPositions[i])) {
+                float dx = x - skidMarkPositions[i], dy = y - skidMarkPositions[i + 1], dz = z - skidMarkPositions[i + 2];
+                float lengthSq = dx * dx + dy * dy + dz * dz;
+                if (lengthSq < SKID_MARK_MIN_LENGTH * SKID_MARK_MIN_LENGTH)
+                    continue; //Keep the start of the mark until the wheel has moved enough
+                if (lengthSq < SKID_MARK_MAX_LENGTH * SKID_MARK_MAX_LENGTH)
+                    SkidMarkManager.addMark(entity.world, skidMarkPositions[i], skidMarkPositions[i + 1], skidMarkPositions[i + 2], x, y, z, getWheelInfo(id).getWheelWidth(), 1 - skidInfo / SKID_MARK_THRESHOLD);
+            }
+            skidMarkPositions[i] = x;
+            skidMarkPositions[i + 1] = y;
+            skidMarkPositions[i + 2] = z;
+        }
+    }
 }
@@ -11,10 +11,9 @@ import fr.dynamx.common.contentpack.parts.PartFloat;
 import fr.dynamx.common.entities.BaseVehicleEntity;
 import fr.dynamx.common.entities.modules.*;
 import fr.dynamx.common.physics.entities.BaseVehiclePhysicsHandler;
-import fr.dynamx.utils.optimization.MutableBoundingBox;
-import fr.dynamx.utils.optimization.Vector3fPool;
-import fr.dynamx.utils.physics.DynamXPhysicsHelper;
+import fr.dynamx.common.physics.entities.parts.boat.BuoyancyPhysicsHandler;
 import net.minecraft.world.World;
+import net.minecraftforge.fml.relauncher.Side;
 
 import javax.annotation.Nonnull;
 
@@ -78,15 +77,14 @@ public class BoatEntity<T extends BoatEntity.BoatPhysicsHandler<?>> extends Base
         return DynamXObjectLoaders.BOATS.findInfo(infoName);
     }
 
-    public static Vector3f[] ntm = new Vector3f[10];
-    public static Vector3f[] ntmdrag = new Vector3f[10];
-
     public static class BoatPhysicsHandler<A extends BoatEntity<?>> extends BaseVehiclePhysicsHandler<A>
     {
+        private final BuoyancyPhysicsHandler buoyancy;
+
         public BoatPhysicsHandler(A entity) {
             super(entity);
-            //getPhysicsVehicle().setAngularFactor(0);
-            //System.out.println("Gravity is " + getPhysicsVehicle().getGravity(Vector3fPool.get()));
+            getCollisionObject().setAngularDamping(0.5f);
+            buoyancy = new BuoyancyPhysicsHandler(getPackInfo().getPartsByType(PartFloat.class), getPackInfo().getCenterOfMass());
         }
 
         @Override
@@ -94,111 +92,17 @@ public class BoatEntity<T extends BoatEntity.BoatPhysicsHandler<?>> extends Base
             return getHandledEntity().getPropulsion().getPhysicsHandler(); //BOAT ENGINE
         }
 
+        /**
+         * @return The buoyancy of the floats of this boat
+         */
+        public BuoyancyPhysicsHandler getBuoyancy() {
+            return buoyancy;
+        }
+
         @Override
         public void update() {
-            Vector3f dragForce = null;//SHOULD NOT BE COMMENTED  DynamXPhysicsHelper.getWaterDrag(getLinearVelocity(), getPackInfo().getDragFactor());
-
-            getCollisionObject().setAngularDamping(0.5f);
-            //if(getPhysicsPosition().y <= 40)
-            {
-                //forces.add(new Force(dragForce, Vector3fPool.get()));
-                int i = 0;
-                System.out.println("=== === Linear vel "+getLinearVelocity()+" === === Angular vel "+getAngularVelocity()+" === ===");
-                for(PartFloat f : packInfo.getPartsByType(PartFloat.class))
-                {
-                    MutableBoundingBox bb = new MutableBoundingBox(f.box);
-                    bb = DynamXContext.getCollisionHandler().rotateBB(Vector3fPool.get(), bb, getRotation());
-                    double dy = (float) (40-(getPosition().y+bb.minY));
-                    Vector3f p = f.getPosition();
-                    Vector3f forcer = new Vector3f();
-
-                    Vector3f drag = DynamXPhysicsHelper.getVelocityAtPoint(getLinearVelocity(), getAngularVelocity(), p);
-                    ntm[i] = drag;
-                    System.out.println("["+i+"] Speed is "+drag);
-                    if(dy > 0)
-                    {
-                        dy = Math.min(dy, Math.sqrt((bb.maxY-bb.minY)*(bb.maxY-bb.minY)));
-                        p.y = (float) bb.minY;
-                        double vol = dy * Math.sqrt((bb.maxX-bb.minX)*(bb.maxX-bb.minX)) * Math.sqrt((bb.maxZ-bb.minZ)*(bb.maxZ-bb.minZ));
-                        //System.out.println(bb+" "+vol+" "+DynamXMain.physicsWorld.getDynamicsWorld().getGravity(new Vector3f()).multLocal((float) (-1000*vol)));
-                  /*      Force fr = new Force(DynamXMain.physicsWorld.getDynamicsWorld().getGravity(new Vector3f()).multLocal((float) (-vol*1000)), p);
-                        //fr = new Force(DynamXMain.physicsWorld.getDynamicsWorld().getGravity(new Vector3f()).multLocal(-(packInfo.getEmptyMass()+10)), new Vector3f());
-                        //forces.add(fr);
-                        getRigidBody().applyForce(fr.getForce().multLocal(0.05f), fr.getPosition());
-                        forcer.set(fr.getForce());*/
-                        //SHOULD NOT BE COMMENTED drag = DynamXPhysicsHelper.getWaterDrag(drag, getPackInfo().getDragFactor());
-                    }
-                    //else
-                        //SHOULD NOT BE COMMENTED drag = DynamXPhysicsHelper.getAirDrag(drag, getPackInfo().getDragFactor());
-                    drag.multLocal(0.025f);
-                    getCollisionObject().applyImpulse(drag, p);
-                    ntmdrag[i] = drag;
-                    ntmdrag[i+5] = new Vector3f();
-                    ntmdrag[i+5].set(forcer);
-                    ntmdrag[i+5].multLocal(0.01f);
-
-                    //Vector3f dragVect = new Vector3f();
-                    //Vector3f surfVelVec = new Vector3f();
-                    //for (int i = 0; i < this.sections; i++)
-                    {
-                        /*Vector3f sectionVect = p;
-
-                        surfVelVec.set(drag.x, 0.0F, drag.z);
-                        float surfaceVel = surfVelVec.length();
-
-                        float volume = 0.0F;
-                        float area = 0.0F;
-                        float lift = 0.0F;
-                        float density = 997.0F;
-                        if (getPhysicsPosition().y+bb.maxY <= 40)
-                        {
-                            volume = (float) (Math.sqrt((bb.maxY-bb.minY)*(bb.maxY-bb.minY)) * Math.sqrt((bb.maxX-bb.minX)*(bb.maxX-bb.minX)) * Math.sqrt((bb.maxZ-bb.minZ)*(bb.maxZ-bb.minZ)));
-                            area = (float) (Math.sqrt((bb.maxX-bb.minX)*(bb.maxX-bb.minX)) * Math.sqrt((bb.maxY-bb.minY)*(bb.maxY-bb.minY)));
-                        }
-                        else if (getPhysicsPosition().y+p.y <= 40)
-                        {
-                            float capHeight = 40 - (getPhysicsPosition().y+p.y);
-                            volume = (float) (capHeight * Math.sqrt((bb.maxX-bb.minX)*(bb.maxX-bb.minX)) * Math.sqrt((bb.maxZ-bb.minZ)*(bb.maxZ-bb.minZ)));
-
-                            area = (float) (Math.sqrt((bb.maxX-bb.minX)*(bb.maxX-bb.minX)) * capHeight);
-                        }
-                        else if (getPhysicsPosition().y+bb.minY <= 40)
-                        {
-                            float capHeight = 40 - (getPhysicsPosition().y+p.y);
-                            volume = (float) (capHeight * Math.sqrt((bb.maxX-bb.minX)*(bb.maxX-bb.minX)) * Math.sqrt((bb.maxZ-bb.minZ)*(bb.maxZ-bb.minZ)));
-
-                            area = (float) (Math.sqrt((bb.maxX-bb.minX)*(bb.maxX-bb.minX)) * capHeight);
-
-                            //lift = 0.25F * density * surfaceVel * surfaceVel * packInfo.getDragFactor() * area;
-                        }
-                        float bouyancy = density * 9.81F * volume + lift;
-                        float dragc = 0.5F * density * drag.length() * packInfo.getDragFactor() * area;
-
-                        dragVect.set(drag);
-                        if (dragVect.length() > 0.0F) {
-                            dragVect.normalize();
-                        }
-                        System.out.println(area+" "+dragc);
-                        dragVect.multLocal(dragc*0.05f*0);
-                        forcer.set(0, bouyancy*0.05f, 0);
-                        getRigidBody().applyForce(forcer, p);
-                        getRigidBody().applyForce(dragVect, p);
-
-                        ntmdrag[i] = dragVect;
-                        ntmdrag[i+5] = new Vector3f();
-                        ntmdrag[i+5].set(forcer);*/
-                    }
-                    System.out.println("["+i+"] Apply force = "+forcer+" // drag = "+drag+" // at = "+p);
-                    i++;
-                }
-                //System.out.println(DynamXMain.physicsWorld.getDynamicsWorld().getGravity(Vector3fPool.get())+" "+packInfo.getEmptyMass());
-            }
-            if (!getHandledEntity().isInWater()) {
-                //SHOULD NOT BE COMMENTED dragForce = DynamXPhysicsHelper.getAirDrag(getLinearVelocity(), getPackInfo().getDragFactor());
-                //dragForce.y *= 5000;
-                //System.err.println("Apply drag force "+dragForce+" "+getLinearVelocity());
-                //forces.add(new Force(dragForce, Vector3fPool.get()));
-            }
+            buoyancy.update(getHandledEntity().world, getCollisionObject(), physicsPosition, getRotation(), getLinearVelocity(), getAngularVelocity(),
+                    getPackInfo().getDragFactor(), DynamXContext.getPhysicsSimulationMode(Side.SERVER).getTimeStep());
             super.update();
         }
     }
@@ -0,0 +1,164 @@
+package fr.dynamx.common.handlers;
+
+import fr.dynamx.common.blocks.TEDynamXBlock;
+import fr.dynamx.common.capability.DynamXChunkData;
+import fr.dynamx.common.capability.DynamXChunkDataProvider;
+import fr.dynamx.common.entities.ICollidableObject;
+import fr.dynamx.common.entities.PhysicsEntity;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Spatial index of the {@link ICollidableObject}s (DynamX blocks and physics entities), by chunk section <br>
+ * The objects are stored in the {@link DynamXChunkData} of the loaded chunks : the blocks in the section containing them, the entities in all the sections touched by their bounding box <br>
+ * Used by the {@link RotatedCollisionHandlerImpl} to find the objects colliding with the vanilla entities, without fetching the tile entity of each block or querying the world entities
+ */
+public class CollidableIndex
+{
+    /**
+     * Called when a DynamX block is loaded
+     */
+    public static void addBlock(TEDynamXBlock block) {
+        DynamXChunkData data = getData(block.getWorld(), block.getPos().getX() >> 4, block.getPos().getZ() >> 4);
+        if (data != null)
+            data.addCollidable(toSection(block.getPos().getY()), block);
+    }
+
+    /**
+     * Called when a DynamX block is removed
+     */
+    public static void removeBlock(TEDynamXBlock block) {
+        DynamXChunkData data = getData(block.getWorld(), block.getPos().getX() >> 4, block.getPos().getZ() >> 4);
+        if (data != null)
+            data.removeCollidable(toSection(block.getPos().getY()), block);
+    }
+
+    /**
+     * Moves the entity in the sections touched by its bounding box, called each tick <br>
+     * The chunk data is recreated each time a chunk is loaded, so the entity is also added again in the chunks loaded or reloaded since it was indexed
+     */
+    public static void updateEntity(PhysicsEntity<?> entity, IndexedArea area) {
+        AxisAlignedBB box = entity.getEntityBoundingBox();
+        int minX = MathHelper.floor(box.minX) >> 4, minY = toSection(MathHelper.floor(box.minY)), minZ = MathHelper.floor(box.minZ) >> 4;
+        int maxX = MathHelper.floor(box.maxX) >> 4, maxY = toSection(MathHelper.floor(box.maxY)), maxZ = MathHelper.floor(box.maxZ) >> 4;
+        if (!area.indexed || area.minX != minX || area.minY != minY || area.minZ != minZ || area.maxX != maxX || area.maxY != maxY || area.maxZ != maxZ) {
+            removeEntity(entity, area);
+            area.set(minX, minY, minZ, maxX, maxY, maxZ);
+        }
+        int i = 0;
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                DynamXChunkData data = getData(entity.world, x, z);
+                DynamXChunkData indexedData = area.chunks[i];
+                if (data != indexedData) {
+                    //The chunk was loaded, reloaded or unloaded since the entity was indexed in it
+                    if (indexedData != null) {
+                        for (int y = minY; y <= maxY; y++)
+                            indexedData.removeCollidable(y, entity);
+                    }
+                    if (data != null) {
+                        for (int y = minY; y <= maxY; y++)
+                            data.addCollidable(y, entity);
+                    }
+                    area.chunks[i] = data;
+                }
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Removes the entity from the index, called when it's removed from the world
+     */
+    public static void removeEntity(PhysicsEntity<?> entity, IndexedArea area) {
+        if (!area.indexed)
+            return;
+        for (int i = 0; i < area.chunks.length; i++) {
+            DynamXChunkData data = area.chunks[i];
+            if (data != null) {
+                for (int y = area.minY; y <= area.maxY; y++)
+                    data.removeCollidable(y, entity);
+                area.chunks[i] = null;
+            }
+        }
+        area.indexed = false;
+    }
+
+    /**
+     * Finds the collidable objects in a box : the DynamX blocks in the blocks of the box, then the physics entities intersecting it
+     *
+     * @param box The box
+     * @param out The list receiving the objects, should be empty
+     */
+    public static void collect(World world, AxisAlignedBB box, List<ICollidableObject> out) {
+        int minX = MathHelper.floor(box.minX), minY = MathHelper.floor(box.minY), minZ = MathHelper.floor(box.minZ);
+        int minSectionY = toSection(minY), maxSectionY = toSection(MathHelper.floor(box.maxY));
+        for (int pass = 0; pass < 2; pass++) {
+            for (int cx = minX >> 4; cx <= MathHelper.floor(box.maxX) >> 4; cx++) {
+                for (int cz = minZ >> 4; cz <= MathHelper.floor(box.maxZ) >> 4; cz++) {
+                    DynamXChunkData data = getData(world, cx, cz);
+                    if (data == null || !data.hasCollidables())
+                        continue;
+                    for (int section = minSectionY; section <= maxSectionY; section++) {
+                        List<ICollidableObject> collidables = data.getCollidables(section);
+                        if (collidables == null)
+                            continue;
+                        for (int i = 0; i < collidables.size(); i++) {
+                            ICollidableObject object = collidables.get(i);
+                            if (pass == 0 && object instanceof TEDynamXBlock) {
+                                //Same blocks as the ones iterated from the min to the max of the box
+                                BlockPos pos = ((TEDynamXBlock) object).getPos();
+                                if (pos.getX() >= minX && pos.getX() < box.maxX && pos.getY() >= minY && pos.getY() < box.maxY && pos.getZ() >= minZ && pos.getZ() < box.maxZ)
+                                    out.add(object);
+                            } else if (pass == 1 && object instanceof PhysicsEntity) {
+                                PhysicsEntity<?> entity = (PhysicsEntity<?>) object;
+                                if (!entity.isDead && entity.getEntityBoundingBox().intersects(box) && !out.contains(entity))
+                                    out.add(entity);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static int toSection(int y) {
+        return MathHelper.clamp(y >> 4, 0, 15);
+    }
+
+    @Nullable
+    private static DynamXChunkData getData(World world, int chunkX, int chunkZ) {
+        Chunk chunk = world.getChunkProvider().getLoadedChunk(chunkX, chunkZ);
+        return chunk != null ? chunk.getCapability(DynamXChunkDataProvider.DYNAM_X_CHUNK_DATA_CAPABILITY, null) : null;
+    }
+
+    /**
+     * The sections where an entity is indexed
+     */
+    public static class IndexedArea
+    {
+        private boolean indexed;
+        private int minX, minY, minZ, maxX, maxY, maxZ;
+        /** The data of the chunks where the entity is indexed, by x then z, null if the chunk wasn't loaded */
+        private DynamXChunkData[] chunks = new DynamXChunkData[4];
+
+        private void set(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            int chunkCount = (maxX - minX + 1) * (maxZ - minZ + 1);
+            if (chunks.length < chunkCount)
+                chunks = new DynamXChunkData[chunkCount];
+            this.indexed = true;
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.maxZ = maxZ;
+        }
+    }
+}
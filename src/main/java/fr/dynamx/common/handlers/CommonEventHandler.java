@@ -20,12 +20,15 @@ import fr.dynamx.common.items.tools.ItemSlopes;
 import fr.dynamx.common.network.packets.MessageSyncConfig;
 import fr.dynamx.common.network.sync.MessageSeatsSync;
 import fr.dynamx.common.physics.player.PlayerPhysicsHandler;
+import fr.dynamx.common.physics.replay.PhysicsRecorder;
+import fr.dynamx.common.physics.replay.PhysicsReplayer;
 import fr.dynamx.common.physics.terrain.cache.TerrainFile;
 import fr.dynamx.server.network.ServerPhysicsSyncManager;
 import fr.dynamx.utils.DynamXConfig;
 import fr.dynamx.utils.DynamXConstants;
 import fr.dynamx.utils.VerticalChunkPos;
 import fr.dynamx.utils.client.ContentPackUtils;
+import fr.dynamx.utils.debug.NetworkTrafficStats;
 import fr.dynamx.utils.optimization.QuaternionPool;
 import fr.dynamx.utils.optimization.Vector3fPool;
 import fr.dynamx.utils.physics.DynamXPhysicsHelper;
@@ -81,6 +84,7 @@ public class CommonEventHandler {
         if (FMLCommonHandler.instance().getSide().isServer()) {
             ServerPhysicsSyncManager.onDisconnect(event.player);
         }
+        NetworkTrafficStats.remove(NetworkTrafficStats.Category.PLAYER, event.player.getName());
     }
 
     @SubscribeEvent
@@ -219,6 +223,12 @@ public class CommonEventHandler {
 
     @SubscribeEvent
     public void onWorldUnload(WorldEvent.Unload e) {
+        //Also called when the server stops : the recording file must be closed, and the singleplayer replays must not continue in the next world
+        if (PhysicsRecorder.getActive() != null && PhysicsRecorder.getActive().getWorld() == e.getWorld())
+            PhysicsRecorder.getActive().stop();
+        if (PhysicsReplayer.getActive() != null && PhysicsReplayer.getActive().getServerWorld() == e.getWorld())
+            PhysicsReplayer.getActive().finish(true);
+        PhysicsEntityIndex.onWorldUnload(e.getWorld());
         try {
             if (DynamXContext.getPhysicsWorld() != null && DynamXContext.getPhysicsWorld().ownsWorld(e.getWorld())) {
                 DynamXContext.getPhysicsWorld().clearAll();
@@ -0,0 +1,101 @@
+package fr.dynamx.common.handlers;
+
+import fr.dynamx.common.entities.PhysicsEntity;
+import net.minecraft.world.World;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Index of the loaded physics entities of a world, by persistent id (uuid) <br>
+ * Maintained when the entities join and leave the world, it replaces the searches in the loaded entity list of the world <br>
+ * Waiters can be registered to be notified when an entity is loaded, for example to restore the joints of an entity loaded before its partner <br>
+ * The index of a world should only be used from the thread of this world, and is removed when the world is unloaded
+ */
+public class PhysicsEntityIndex
+{
+    /** Not weak : the indexed entities and waiters reference the world, the indices are removed in {@link #onWorldUnload(World)} */
+    private static final Map<World, PhysicsEntityIndex> INDICES = Collections.synchronizedMap(new HashMap<>());
+
+    private final Map<UUID, PhysicsEntity<?>> entities = new HashMap<>();
+    private final Map<UUID, List<Consumer<PhysicsEntity<?>>>> waiters = new HashMap<>();
+
+    /**
+     * @return The index of the world, created if needed
+     */
+    public static PhysicsEntityIndex get(World world) {
+        return INDICES.computeIfAbsent(world, w -> new PhysicsEntityIndex());
+    }
+
+    /**
+     * @return The index of the world, or null if it doesn't have one : used to remove entities without re-creating the index of an unloaded world
+     */
+    @Nullable
+    public static PhysicsEntityIndex getExisting(World world) {
+        return INDICES.get(world);
+    }
+
+    /**
+     * Removes the index of the world, and forgets its entities and waiters <br>
+     * The entities of an unloaded world aren't always removed one by one (for example when the client disconnects)
+     */
+    public static void onWorldUnload(World world) {
+        PhysicsEntityIndex index = INDICES.remove(world);
+        if (index != null) {
+            index.entities.clear();
+            index.waiters.clear();
+        }
+    }
+
+    /**
+     * Called when an entity joins the world, notifies the waiters of this entity
+     */
+    public void onEntityAdded(PhysicsEntity<?> entity) {
+        entities.put(entity.getPersistentID(), entity);
+        List<Consumer<PhysicsEntity<?>>> entityWaiters = waiters.remove(entity.getPersistentID());
+        if (entityWaiters != null)
+            entityWaiters.forEach(waiter -> waiter.accept(entity));
+    }
+
+    /**
+     * Called when an entity leaves the world
+     */
+    public void onEntityRemoved(PhysicsEntity<?> entity) {
+        entities.remove(entity.getPersistentID(), entity);
+    }
+
+    /**
+     * @return The loaded entity with this persistent id, or null
+     */
+    @Nullable
+    public PhysicsEntity<?> getEntity(UUID id) {
+        return entities.get(id);
+    }
+
+    /**
+     * Registers a waiter notified when the entity with this persistent id is loaded, or immediately if it's already loaded <br>
+     * The waiter is notified only once
+     */
+    public void waitFor(UUID id, Consumer<PhysicsEntity<?>> waiter) {
+        PhysicsEntity<?> entity = entities.get(id);
+        if (entity != null)
+            waiter.accept(entity);
+        else
+            waiters.computeIfAbsent(id, i -> new ArrayList<>(1)).add(waiter);
+    }
+
+    /**
+     * Removes a waiter registered with {@link #waitFor(UUID, Consumer)}, if it wasn't notified
+     */
+    public void cancelWait(UUID id, Consumer<PhysicsEntity<?>> waiter) {
+        List<Consumer<PhysicsEntity<?>>> entityWaiters = waiters.get(id);
+        if (entityWaiters != null && entityWaiters.remove(waiter) && entityWaiters.isEmpty())
+            waiters.remove(id);
+    }
+}
@@ -4,6 +4,7 @@ import com.jme3.math.Quaternion;
 import com.jme3.math.Vector3f;
 import fr.dynamx.api.physics.IRotatedCollisionHandler;
 import fr.dynamx.common.DynamXContext;
+import fr.dynamx.common.blocks.TEDynamXBlock;
 import fr.dynamx.common.capability.DynamXChunkData;
 import fr.dynamx.common.capability.DynamXChunkDataProvider;
 import fr.dynamx.common.contentpack.parts.PartShape;
@@ -20,16 +21,11 @@ import fr.dynamx.utils.optimization.*;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.entity.player.EntityPlayer;
-import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.AxisAlignedBB;
-import net.minecraft.util.math.BlockPos;
-import net.minecraft.world.World;
-import net.minecraft.world.chunk.Chunk;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Provides helper methods for rotated collisions and handles collisions with entities <br>
@@ -342,27 +338,10 @@ public class RotatedCollisionHandlerImpl implements IRotatedCollisionHandler
         return a;
     }
 
-    private PooledHashMap<Vector3f, ICollidableObject> getCollidableTileEntities(World world, AxisAlignedBB inBox) {
-        PooledHashMap<Vector3f, ICollidableObject> entities = HashMapPool.get();
-        BlockPos.MutableBlockPos pos = BlockPos.PooledMutableBlockPos.retain();
-        Chunk lastChunk = null;
-        for(int x = (int) Math.floor(inBox.minX); x < inBox.maxX ; x++) {
-            for(int y = (int) Math.floor(inBox.minY); y < inBox.maxY ; y++) {
-                for(int z = (int) Math.floor(inBox.minZ); z < inBox.maxZ ; z++) {
-                    pos.setPos(x, y, z);
-                    if(lastChunk == null || lastChunk.x != (x >> 4) || lastChunk.z != (z >> 4)) {
-                        lastChunk = world.getChunk(pos);
-                        //data = lastChunk.getCapability(DynamXChunkDataProvider.DYNAM_X_CHUNK_DATA_CAPABILITY, null);
-                    }
-                    TileEntity e = lastChunk.getTileEntity(pos, Chunk.EnumCreateEntityType.CHECK);
-                    if(e instanceof ICollidableObject) {
-                        entities.put(Vector3fPool.get(pos.getX(), pos.getY(), pos.getZ()), (ICollidableObject) e);
-                    }
-                }
-            }
-        }
-        return entities;
-    }
+    /**
+     * The collidable objects near the moving entity, one list per thread (the client and the server threads may use this handler at the same time in solo)
+     */
+    private static final ThreadLocal<List<ICollidableObject>> nearCollidables = ThreadLocal.withInitial(ArrayList::new);
 
     private boolean motionChanged;
 
@@ -417,40 +396,23 @@ public class RotatedCollisionHandlerImpl implements IRotatedCollisionHandler
         }
 
         motionChanged = false;
-        if(entity instanceof EntityLivingBase) // && !(entity instanceof PhysicsEntity))
+        if(!(entity instanceof EntityLivingBase)) // && !(entity instanceof PhysicsEntity))
+            return new double[] {nx, ny, nz};
+        List<ICollidableObject> collidables = nearCollidables.get();
+        CollidableIndex.collect(entity.world, entity.getEntityBoundingBox().grow(icollidableCheckRadius), collidables);
+        if(collidables.isEmpty()) //Nothing to collide with : the motion is the vanilla one
+            return new double[] {nx, ny, nz};
+        try
         {
-            PooledHashMap<Vector3f, ICollidableObject> collidableEntities = getCollidableTileEntities(entity.world, entity.getEntityBoundingBox().grow(icollidableCheckRadius));
-            for (Map.Entry<Vector3f, ICollidableObject> e : collidableEntities.entrySet()) {
-                //System.out.println("Input "+mx+" "+my+" "+mz+" "+nx+" "+ny+" "+nz+" "+entity.onGround+" "+entity.collidedVertically+" "+e.physicsPosition);
-                Vector3fPool.openPool();
-                QuaternionPool.openPool();
-                float castx = (float) nx, casty = (float) ny, castz = (float) nz;
-                Vector3f n = collideWith(entity, e.getValue(), e.getKey(), castx, casty, castz);
-                if(castx != n.x) {
-                    nx = n.x;
-                    motionChanged = true;
-                }
-                if(casty != n.y) {
-                    motionChanged = true;
-                    ny = n.y;
-                }
-                if(castz != n.z)
-                {
-                    motionChanged = true;
-                    nz = n.z;
-                }
-                QuaternionPool.closePool();
-                Vector3fPool.closePool();
-            }
-            collidableEntities.release();
-            List<PhysicsEntity> entities = entity.world.getEntitiesWithinAABB(PhysicsEntity.class, entity.getEntityBoundingBox().grow(icollidableCheckRadius));
-            for (PhysicsEntity e : entities) {
-                if (!DynamXContext.getPlayerPickingObjects().containsValue(e.getEntityId())) {
+            for (ICollidableObject e : collidables) {
+                boolean isEntity = e instanceof PhysicsEntity;
+                if (!isEntity || !DynamXContext.getPlayerPickingObjects().containsValue(((PhysicsEntity<?>) e).getEntityId())) {
                     //System.out.println("Input "+mx+" "+my+" "+mz+" "+nx+" "+ny+" "+nz+" "+entity.onGround+" "+entity.collidedVertically+" "+e.physicsPosition);
                     Vector3fPool.openPool();
                     QuaternionPool.openPool();
                     float castx = (float) nx, casty = (float) ny, castz = (float) nz;
-                    Vector3f n = collideWith(entity, e, e.physicsPosition, castx, casty, castz);
+                    Vector3f withPosition = isEntity ? ((PhysicsEntity<?>) e).physicsPosition : Vector3fPool.get(((TEDynamXBlock) e).getPos().getX(), ((TEDynamXBlock) e).getPos().getY(), ((TEDynamXBlock) e).getPos().getZ());
+                    Vector3f n = collideWith(entity, e, withPosition, castx, casty, castz);
                     if(castx != n.x) {
                         nx = n.x;
                         motionChanged = true;
@@ -469,6 +431,10 @@ public class RotatedCollisionHandlerImpl implements IRotatedCollisionHandler
                 }
             }
         }
+        finally
+        {
+            collidables.clear();
+        }
         //if(entity.world.isRemote && entity instanceof EntityPlayer)
         //System.out.println("Got motiin "+nx+" "+ny+" "+nz);
         my = ny;
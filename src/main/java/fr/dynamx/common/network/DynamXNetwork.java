@@ -15,6 +15,7 @@ import fr.dynamx.common.network.packets.*;
 import fr.dynamx.common.network.sync.MessageMultiPhysicsEntitySync;
 import fr.dynamx.common.network.sync.MessagePhysicsEntitySync;
 import fr.dynamx.common.network.sync.MessageSeatsSync;
+import fr.dynamx.common.network.sync.MessageSyncAck;
 import fr.dynamx.common.network.udp.auth.MessageDynamXUdpSettings;
 import fr.dynamx.server.network.DynamXServerNetworkSystem;
 import fr.dynamx.utils.DynamXConfig;
@@ -52,6 +53,7 @@ public class DynamXNetwork {
 
         //To server
         registerMessageWithUDP(channel, MessageRequestFullEntitySync.class, MessageRequestFullEntitySync.class, Side.SERVER);
+        registerMessageWithUDP(channel, MessageSyncAck.class, MessageSyncAck.class, Side.SERVER);
 
         //Standard packets
 
@@ -72,6 +74,7 @@ public class DynamXNetwork {
         registerMessage(channel, MessageSwitchAutoSlopesMode.Handler.class, MessageSwitchAutoSlopesMode.class, Side.CLIENT);
         registerMessage(channel, MessageCollisionDebugDraw.class, MessageCollisionDebugDraw.class, Side.CLIENT);
         registerMessage(channel, MessageCollisionDebugDraw.class, MessageCollisionDebugDraw.class, Side.CLIENT);
+        registerMessage(channel, MessagePerformanceStats.class, MessagePerformanceStats.class, Side.CLIENT);
 
         //To server
         registerMessage(channel, MessagePacksHashs.HandlerServer.class, MessagePacksHashs.class, Side.SERVER);
@@ -11,7 +11,7 @@ import fr.dynamx.common.entities.PhysicsEntity;
 import fr.dynamx.common.network.packets.MessageJoints;
 import fr.dynamx.common.network.packets.PhysicsEntityMessage;
 import fr.dynamx.common.network.sync.MessageSeatsSync;
-import fr.dynamx.common.network.sync.vars.EntityPhysicsState;
+import fr.dynamx.common.network.sync.vars.EntityPhysicsStateBuffer;
 import fr.dynamx.common.physics.joints.EntityJoint;
 import fr.dynamx.common.physics.joints.EntityJointsHandler;
 import fr.dynamx.utils.debug.Profiler;
@@ -198,7 +198,7 @@ public class SPPhysicsEntityNetHandler<T extends PhysicsEntity<?>> extends Physi
     }
 
     @Override
-    public Map<Integer, EntityPhysicsState> getOldStates() {
+    public EntityPhysicsStateBuffer getOldStates() {
         throw new IllegalStateException("Solo network");
     }
 
@@ -11,12 +11,19 @@ import net.minecraft.server.MinecraftServer;
 import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.network.NetworkRegistry;
 import net.minecraftforge.fml.common.network.simpleimpl.SimpleNetworkWrapper;
+import net.minecraftforge.fml.relauncher.Side;
 
 import javax.annotation.Nullable;
 
 public class VanillaNetworkHandler implements IDnxNetworkHandler {
     public final SimpleNetworkWrapper HANDLER = NetworkRegistry.INSTANCE.newSimpleChannel(DynamXConstants.ID);
 
+    public VanillaNetworkHandler() {
+        //Traffic stats, see VanillaTrafficCounter
+        for (Side side : Side.values())
+            NetworkRegistry.INSTANCE.getChannel(DynamXConstants.ID, side).pipeline().addAfter("fml:outbound", VanillaTrafficCounter.NAME, new VanillaTrafficCounter());
+    }
+
     @Override
     public <T> void sendPacket(IDnxPacket packet, EnumPacketTarget<T> targetType, @Nullable T target) {
         if (EnumPacketTarget.SERVER == targetType) {
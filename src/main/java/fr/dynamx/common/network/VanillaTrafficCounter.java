@@ -0,0 +1,49 @@
+package fr.dynamx.common.network;
+
+import fr.dynamx.api.network.EnumNetworkType;
+import fr.dynamx.utils.debug.NetworkTrafficStats;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.network.NetHandlerPlayServer;
+import net.minecraftforge.fml.common.network.FMLOutboundHandler;
+import net.minecraftforge.fml.common.network.internal.FMLProxyPacket;
+
+/**
+ * Counts the DynamX packets of the vanilla network in the {@link NetworkTrafficStats} <br>
+ * Placed between the packet codec and the fml outbound handler of the channel, so it sees the encoded packets
+ *
+ * @see VanillaNetworkHandler
+ */
+class VanillaTrafficCounter extends ChannelDuplexHandler
+{
+    static final String NAME = "dynamx:traffic_counter";
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof FMLProxyPacket) {
+            int bytes = ((FMLProxyPacket) msg).payload().readableBytes();
+            NetworkTrafficStats.recordSent(NetworkTrafficStats.Category.TRANSPORT, EnumNetworkType.VANILLA_TCP, bytes);
+            //Only single-player targets are counted per player, broadcasts are only counted in the transport
+            if (ctx.channel().attr(FMLOutboundHandler.FML_MESSAGETARGET).get() == FMLOutboundHandler.OutboundTarget.PLAYER) {
+                Object target = ctx.channel().attr(FMLOutboundHandler.FML_MESSAGETARGETARGS).get();
+                if (target instanceof EntityPlayerMP)
+                    NetworkTrafficStats.recordSent(NetworkTrafficStats.Category.PLAYER, ((EntityPlayerMP) target).getName(), bytes);
+            }
+        }
+        super.write(ctx, msg, promise);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof FMLProxyPacket) {
+            FMLProxyPacket packet = (FMLProxyPacket) msg;
+            int bytes = packet.payload().readableBytes();
+            NetworkTrafficStats.recordReceived(NetworkTrafficStats.Category.TRANSPORT, EnumNetworkType.VANILLA_TCP, bytes);
+            if (packet.handler() instanceof NetHandlerPlayServer)
+                NetworkTrafficStats.recordReceived(NetworkTrafficStats.Category.PLAYER, ((NetHandlerPlayServer) packet.handler()).player.getName(), bytes);
+        }
+        super.channelRead(ctx, msg);
+    }
+}
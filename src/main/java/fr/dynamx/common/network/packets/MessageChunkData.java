@@ -99,7 +99,7 @@ public class MessageChunkData implements IDnxPacket
                 ((RemoteTerrainCache) DynamXContext.getPhysicsWorld().getTerrainManager().getCache()).receiveChunkData(message.pos, message.dataType[0], message.dataType[1], message.data);
                 profiler.end(Profiler.Profiles.TERRAIN_LOADER_TICK);
                 profiler.update();
-                if(profiler.isActive()) //Profiling
+                if(profiler.isActive() && Profiler.isPrintingData()) //Profiling
                 {
                     List<String> st = profiler.getData();
                     if(!st.isEmpty()) {
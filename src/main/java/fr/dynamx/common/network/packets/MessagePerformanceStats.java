@@ -0,0 +1,55 @@
+package fr.dynamx.common.network.packets;
+
+import fr.dynamx.api.network.EnumNetworkType;
+import fr.dynamx.api.network.IDnxPacket;
+import fr.dynamx.utils.debug.PerformanceMonitor;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.client.Minecraft;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+
+/**
+ * Sends the last samples of the server {@link PerformanceMonitor} to the operators using the performance overlay <br>
+ * The samples are encoded once, then the same message is sent to all the operators
+ */
+public class MessagePerformanceStats implements IDnxPacket, IMessageHandler<MessagePerformanceStats, IMessage>
+{
+    private byte[] samples;
+
+    public MessagePerformanceStats() {}
+
+    /**
+     * @param monitor The monitor to send
+     * @param sampleCount The number of samples to send (the newest ones)
+     */
+    public MessagePerformanceStats(PerformanceMonitor monitor, int sampleCount) {
+        ByteBuf buf = Unpooled.buffer();
+        monitor.writeLastSamples(buf, sampleCount);
+        samples = new byte[buf.readableBytes()];
+        buf.readBytes(samples);
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf) {
+        buf.writeBytes(samples);
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf) {
+        samples = new byte[buf.readableBytes()];
+        buf.readBytes(samples);
+    }
+
+    @Override
+    public IMessage onMessage(MessagePerformanceStats message, MessageContext ctx) {
+        Minecraft.getMinecraft().addScheduledTask(() -> PerformanceMonitor.SERVER.readSamples(Unpooled.wrappedBuffer(message.samples)));
+        return null;
+    }
+
+    @Override
+    public EnumNetworkType getPreferredNetwork() {
+        return EnumNetworkType.VANILLA_TCP;
+    }
+}
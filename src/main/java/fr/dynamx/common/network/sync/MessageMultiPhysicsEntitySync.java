@@ -2,6 +2,8 @@ package fr.dynamx.common.network.sync;
 
 import fr.dynamx.api.network.EnumNetworkType;
 import fr.dynamx.api.network.IDnxPacket;
+import fr.dynamx.client.network.ClientPhysicsSyncManager;
+import fr.dynamx.utils.debug.JfrEvents;
 import io.netty.buffer.ByteBuf;
 import net.minecraft.client.Minecraft;
 import net.minecraft.entity.player.EntityPlayer;
@@ -14,14 +16,22 @@ import net.minecraftforge.fml.relauncher.SideOnly;
 import java.util.ArrayList;
 import java.util.Collection;
 
+/**
+ * Groups the syncs of several entities in one packet <br>
+ * The sequence is acknowledged by the client with a {@link MessageSyncAck}
+ *
+ * @see fr.dynamx.server.network.PlayerSyncBuffer
+ */
 public class MessageMultiPhysicsEntitySync implements IDnxPacket, IMessageHandler<MessageMultiPhysicsEntitySync, IMessage>
 {
     private Collection<MessagePhysicsEntitySync<?>> syncs;
+    private int sequence;
 
     public MessageMultiPhysicsEntitySync() {}
 
-    public MessageMultiPhysicsEntitySync(Collection<MessagePhysicsEntitySync<?>> syncs) {
+    public MessageMultiPhysicsEntitySync(Collection<MessagePhysicsEntitySync<?>> syncs, int sequence) {
         this.syncs = syncs;
+        this.sequence = sequence;
     }
 
     @Override
@@ -31,6 +41,7 @@ public class MessageMultiPhysicsEntitySync implements IDnxPacket, IMessageHandle
 
     @Override
     public void fromBytes(ByteBuf buf) {
+        sequence = buf.readInt();
         int size = buf.readInt();
         syncs = new ArrayList<>();
         for (int i = 0; i < size; i++) {
@@ -42,8 +53,12 @@ public class MessageMultiPhysicsEntitySync implements IDnxPacket, IMessageHandle
 
     @Override
     public void toBytes(ByteBuf buf) {
+        Object jfrEvent = JfrEvents.SYNC_ENCODE.begin();
+        int start = buf.writerIndex();
+        buf.writeInt(sequence);
         buf.writeInt(syncs.size());
         syncs.forEach(s -> s.toBytes(buf));
+        JfrEvents.SYNC_ENCODE.commit(jfrEvent, syncs.size(), buf.writerIndex() - start);
     }
 
     @Override
@@ -55,13 +70,16 @@ public class MessageMultiPhysicsEntitySync implements IDnxPacket, IMessageHandle
 
     @Override
     public void handleUDPReceive(EntityPlayer context, Side side) {
+        if(side.isClient())
+            ClientPhysicsSyncManager.onSyncReceived(sequence);
         syncs.forEach(s -> s.handleUDPReceive(context, side));
     }
 
     @Override
     public String toString() {
         return "MessageMultiPhysicsEntitySync{" +
-                "syncs=" + syncs +
+                "sequence=" + sequence +
+                ", syncs=" + syncs +
                 '}';
     }
 }
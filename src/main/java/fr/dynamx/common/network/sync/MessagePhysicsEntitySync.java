@@ -5,9 +5,11 @@ import fr.dynamx.api.network.sync.SynchronizedVariable;
 import fr.dynamx.api.network.sync.SynchronizedVariablesRegistry;
 import fr.dynamx.common.entities.PhysicsEntity;
 import fr.dynamx.common.network.packets.PhysicsEntityMessage;
+import fr.dynamx.utils.debug.NetworkTrafficStats;
 import fr.dynamx.utils.optimization.HashMapPool;
 import fr.dynamx.utils.optimization.PooledHashMap;
 import io.netty.buffer.ByteBuf;
+import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
@@ -33,6 +35,10 @@ public class MessagePhysicsEntitySync<T extends PhysicsEntity<?>> extends Physic
     private int simulationTimeClient;
 
     private boolean doSizeTrack = false;
+    /**
+     * Size of the received packet, for the {@link NetworkTrafficStats}
+     */
+    private int encodedSize;
     private SyncType syncType;
     private T targetEntity;
 
@@ -66,6 +72,7 @@ public class MessagePhysicsEntitySync<T extends PhysicsEntity<?>> extends Physic
             SynchronizedVariable<T> v = entry.getValue();
             if (log[0])
                 System.out.println("Write var " + v.getClass() + " at " + j[0] + " /" + i + " " + entityId);
+            int varStart = buf.writerIndex();
             buf.writeInt(i);
             switch (syncType) {
                 case UDP_SYNC:
@@ -78,6 +85,7 @@ public class MessagePhysicsEntitySync<T extends PhysicsEntity<?>> extends Physic
                     v.writeEntityValues(targetEntity, buf);
                     break;
             }
+            NetworkTrafficStats.recordSent(NetworkTrafficStats.Category.VARIABLE, v.getClass(), buf.writerIndex() - varStart);
             if (doSizeTrack) {
                 size = buf.writerIndex() - size;
                 buf.writeInt(size);
@@ -85,6 +93,8 @@ public class MessagePhysicsEntitySync<T extends PhysicsEntity<?>> extends Physic
             }
             j[0]++;
         }
+        if (targetEntity != null)
+            NetworkTrafficStats.recordSent(NetworkTrafficStats.Category.ENTITY, targetEntity.getClass(), buf.writerIndex() - index);
         if (varsToSync instanceof PooledHashMap) {
             ((PooledHashMap<Integer, SynchronizedVariable<T>>) varsToSync).release();
         }
@@ -100,6 +110,7 @@ public class MessagePhysicsEntitySync<T extends PhysicsEntity<?>> extends Physic
 
     @Override
     public void fromBytes(ByteBuf buf) {
+        int index = buf.readerIndex();
         super.fromBytes(buf);
         simulationTimeClient = buf.readInt();
         varsToSync = HashMapPool.get();
@@ -114,11 +125,13 @@ public class MessagePhysicsEntitySync<T extends PhysicsEntity<?>> extends Physic
             //  System.out.println("Read var at "+j[0]+" "+entityId);
             SynchronizedVariable<T> v = null;
             try {
+                int varStart = buf.readerIndex();
                 int id = buf.readInt();
                 v = (SynchronizedVariable<T>) SynchronizedVariablesRegistry.instantiate(id);
                 if (log[0])
                     System.out.println("Read var at " + j[0] + " " + entityId + " " + v);
                 v.read(buf);
+                NetworkTrafficStats.recordReceived(NetworkTrafficStats.Category.VARIABLE, v.getClass(), buf.readerIndex() - varStart);
                 varsToSync.put(id, v);
                 if (doSizeTrack) {
                     sized = buf.readerIndex() - sized;
@@ -132,9 +145,18 @@ public class MessagePhysicsEntitySync<T extends PhysicsEntity<?>> extends Physic
                 throw new RuntimeException("Error reading sync packet for " + entityId + " has read " + varsToSync + " reading " + j[0] + " out of " + size + ". Var is " + v, e);
             }
         }
+        encodedSize = buf.readerIndex() - index;
         //System.out.println("Rcv "+simulationTimeClient);
     }
 
+    @Override
+    protected void processMessage(PhysicsEntityMessage<?> message, EntityPlayer player) {
+        Entity entity = player.world.getEntityByID(entityId);
+        if (entity instanceof PhysicsEntity)
+            NetworkTrafficStats.recordReceived(NetworkTrafficStats.Category.ENTITY, entity.getClass(), encodedSize);
+        super.processMessage(message, player);
+    }
+
     @Override
     public int getMessageId() {
         return 1;
@@ -0,0 +1,71 @@
+package fr.dynamx.common.network.sync;
+
+import fr.dynamx.api.network.EnumNetworkType;
+import fr.dynamx.api.network.IDnxPacket;
+import fr.dynamx.server.network.ClientBandwidthBudget;
+import fr.dynamx.server.network.ServerPhysicsSyncManager;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.relauncher.Side;
+
+/**
+ * Acknowledges the {@link MessageMultiPhysicsEntitySync}s received by a client <br>
+ * Contains the last received sequence, and a bit field of the {@link #ACK_WINDOW} previous sequences : bit i is set if sequence (ackSequence - 1 - i) was received
+ *
+ * @see ClientBandwidthBudget
+ */
+public class MessageSyncAck implements IDnxPacket, IMessageHandler<MessageSyncAck, IMessage>
+{
+    /** Number of sequences acknowledged by the bit field, before the last received one */
+    public static final int ACK_WINDOW = 32;
+
+    private int ackSequence;
+    private int ackBits;
+
+    public MessageSyncAck() {}
+
+    public MessageSyncAck(int ackSequence, int ackBits) {
+        this.ackSequence = ackSequence;
+        this.ackBits = ackBits;
+    }
+
+    @Override
+    public EnumNetworkType getPreferredNetwork() {
+        return EnumNetworkType.DYNAMX_UDP;
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf) {
+        buf.writeInt(ackSequence);
+        buf.writeInt(ackBits);
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf) {
+        ackSequence = buf.readInt();
+        ackBits = buf.readInt();
+    }
+
+    @Override
+    public IMessage onMessage(MessageSyncAck message, MessageContext ctx) {
+        message.handleUDPReceive(ctx.getServerHandler().player, Side.SERVER);
+        return null;
+    }
+
+    @Override
+    public void handleUDPReceive(EntityPlayer context, Side side) {
+        if (side.isServer())
+            ServerPhysicsSyncManager.onSyncAck(context, ackSequence, ackBits);
+    }
+
+    @Override
+    public String toString() {
+        return "MessageSyncAck{" +
+                "ackSequence=" + ackSequence +
+                ", ackBits=" + Integer.toBinaryString(ackBits) +
+                '}';
+    }
+}
@@ -2,12 +2,10 @@ package fr.dynamx.common.network.sync.vars;
 
 import com.jme3.math.Quaternion;
 import com.jme3.math.Vector3f;
-import fr.dynamx.api.network.sync.PhysicsEntityNetHandler;
 import fr.dynamx.client.network.ClientPhysicsSyncManager;
 import fr.dynamx.common.entities.PhysicsEntity;
 import fr.dynamx.common.physics.utils.RigidBodyTransform;
 import fr.dynamx.utils.maths.DynamXGeometry;
-import fr.dynamx.utils.optimization.Vector3fPool;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -27,15 +25,15 @@ public class AttachBodyPhysicsState extends EntityPhysicsState
 
     protected void addToOlders(byte part, Vector3f offsetn, Quaternion offsetQuat, float step)
     {
-        Vector3f finalOffsetn = Vector3fPool.get(offsetn);
-        PhysicsEntityNetHandler<? extends PhysicsEntity<?>> h = entityIn.getNetwork();
-        h.getOldStates().forEach((i, s) -> {
-            if(i < ClientPhysicsSyncManager.simulationTime)
-            {
-                ((AttachBodyPhysicsState)s).transforms.get(part).getPosition().addLocal(finalOffsetn);
-                DynamXGeometry.slerp(((AttachBodyPhysicsState)s).transforms.get(part).getRotation(), offsetQuat, ((AttachBodyPhysicsState)s).transforms.get(part).getRotation(), step);
+        EntityPhysicsStateBuffer states = entityIn.getNetwork().getOldStates();
+        for (int i = 0; i < EntityPhysicsStateBuffer.CAPACITY; i++) {
+            AttachBodyPhysicsState s = (AttachBodyPhysicsState) states.getOlder(i, ClientPhysicsSyncManager.simulationTime);
+            if (s != null) {
+                RigidBodyTransform transform = s.transforms.get(part);
+                transform.getPosition().addLocal(offsetn);
+                DynamXGeometry.slerp(transform.getRotation(), offsetQuat, transform.getRotation(), step);
             }
-        });
+        }
     }
 
     public void interpolateDeltas(byte part, RigidBodyTransform transform, int step, int pass)
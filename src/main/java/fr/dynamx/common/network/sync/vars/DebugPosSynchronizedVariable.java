@@ -13,6 +13,7 @@ import fr.dynamx.common.network.packets.MessageForcePlayerPos;
 import fr.dynamx.common.network.sync.MessagePhysicsEntitySync;
 import fr.dynamx.common.physics.entities.AbstractEntityPhysicsHandler;
 import fr.dynamx.server.command.CmdNetworkConfig;
+import fr.dynamx.server.network.DriverMoveValidator;
 import fr.dynamx.server.network.ServerPhysicsSyncManager;
 import fr.dynamx.utils.DynamXConstants;
 import fr.dynamx.utils.DynamXUtils;
@@ -83,10 +84,9 @@ public class DebugPosSynchronizedVariable implements SynchronizedVariable<Physic
         return changed ? (side.isClient() ? SyncTarget.ALL_CLIENTS : SyncTarget.SERVER) : SyncTarget.NONE;
     }
 
-    public int ignoreFor;
-
     public void onTeleported(PhysicsEntity<?> entity, Vector3f newPos) {
-        ignoreFor = 22;
+        if (entity.getNetwork().getMoveValidator() != null)
+            entity.getNetwork().getMoveValidator().ignoreNextMoves(22);
         DynamXContext.getNetwork().sendToClient(new MessageForcePlayerPos(entity, newPos, entity.physicsRotation, entity.physicsHandler.getLinearVelocity(), entity.physicsHandler.getAngularVelocity()), EnumPacketTarget.PLAYER, (EntityPlayerMP) entity.getControllingPassenger());
     }
 
@@ -118,15 +118,20 @@ public class DebugPosSynchronizedVariable implements SynchronizedVariable<Physic
         }
         else //Server side
         {
-            if(ignoreFor <= 0) {
-                Vector3f pos = Vector3fPool.get(posX, posY, posZ);
+            Vector3f pos = Vector3fPool.get(posX, posY, posZ);
 
-                //System.out.println("RCV SET "+msg.getSimulationTimeClient());
-                //System.out.println("Syncing ! "+Math.abs(vehicleEntity.posX - posX)+" "+Math.abs(vehicleEntity.posY - posY)+" "+Math.abs(vehicleEntity.posZ - posZ)+" "+simulationTimeServer+" "+vehicleEntity.ticksExisted);
-                if (CmdNetworkConfig.SERVER_NET_DEBUG > 1)
-                    System.out.println("Packet received, time is " + msg.getSimulationTimeClient() + " for entity " + entity.getEntityId() + " rcv at ticks existed " + entity.ticksExisted + " " + pos);
-                //System.out.println("Sync received pos "+Vector3fPool.get(posX, posY, posZ)+" while cure is "+ entity.physicEntity.getRelativePosition());
+            //System.out.println("RCV SET "+msg.getSimulationTimeClient());
+            //System.out.println("Syncing ! "+Math.abs(vehicleEntity.posX - posX)+" "+Math.abs(vehicleEntity.posY - posY)+" "+Math.abs(vehicleEntity.posZ - posZ)+" "+simulationTimeServer+" "+vehicleEntity.ticksExisted);
+            if (CmdNetworkConfig.SERVER_NET_DEBUG > 1)
+                System.out.println("Packet received, time is " + msg.getSimulationTimeClient() + " for entity " + entity.getEntityId() + " rcv at ticks existed " + entity.ticksExisted + " " + pos);
+            //System.out.println("Sync received pos "+Vector3fPool.get(posX, posY, posZ)+" while cure is "+ entity.physicsEntity.getRelativePosition());
 
+            //Same checks as the PosSynchronizedVariable
+            DriverMoveValidator validator = network.getMoveValidator();
+            if (validator != null) {
+                if (!validator.consumeIgnoredMove())
+                    checkDriverMove(entity, validator, msg, pos, rotation, linearVel, rotationalVel);
+            } else {
                 float delta = entity.physicsPosition.subtract(pos).length();
                 if (delta > CRITIC1) {
                     if(delta > CRITIC1warn)
@@ -136,7 +141,6 @@ public class DebugPosSynchronizedVariable implements SynchronizedVariable<Physic
                     } else if(entity.getControllingPassenger() instanceof EntityPlayerMP) {
                         if (delta > CRITIC3) {
                             //Resync
-                            ignoreFor = 20;
                             DynamXContext.getNetwork().sendToClient(new MessageForcePlayerPos(entity, entity.physicsPosition, entity.physicsRotation, entity.physicsHandler.getLinearVelocity(), entity.physicsHandler.getAngularVelocity()), EnumPacketTarget.PLAYER, (EntityPlayerMP) entity.getControllingPassenger());
                         }
                         else
@@ -148,9 +152,6 @@ public class DebugPosSynchronizedVariable implements SynchronizedVariable<Physic
                     entity.physicsHandler.updatePhysicsStateFromNet(pos, rotation, linearVel, rotationalVel);
                 }
             }
-            else {
-                ignoreFor--;
-            }
 
             //Update stored driver's simulation time
             if(entity.getControllingPassenger() instanceof EntityPlayer)
@@ -2,12 +2,12 @@ package fr.dynamx.common.network.sync.vars;
 
 import com.jme3.math.Quaternion;
 import com.jme3.math.Vector3f;
-import fr.dynamx.api.network.sync.PhysicsEntityNetHandler;
 import fr.dynamx.client.network.ClientPhysicsSyncManager;
 import fr.dynamx.common.entities.PhysicsEntity;
 import fr.dynamx.utils.debug.SyncTracker;
 import fr.dynamx.utils.maths.DynamXGeometry;
 import fr.dynamx.utils.maths.DynamXMath;
+import fr.dynamx.utils.optimization.QuaternionPool;
 import fr.dynamx.utils.optimization.Vector3fPool;
 
 /**
@@ -24,22 +24,39 @@ public class EntityPhysicsState
     public EntityPhysicsState(PhysicsEntity<?> entityIn)
     {
         this.entityIn = entityIn;
+        capture(ClientPhysicsSyncManager.simulationTime);
+    }
+
+    /**
+     * Captures the current state of the entity into this instance, used by the {@link EntityPhysicsStateBuffer} to reuse the states
+     *
+     * @param simulationTime The current simulation time
+     */
+    public void capture(int simulationTime)
+    {
         pos.set(entityIn.physicsHandler.getPosition());
         rotation.set(entityIn.physicsHandler.getRotation());
-        simulationTime = ClientPhysicsSyncManager.simulationTime;
+        this.simulationTime = simulationTime;
+    }
+
+    /**
+     * Sets this state between the two given states
+     *
+     * @param from The first state
+     * @param to The second state
+     * @param step The interpolation step, can be outside [0, 1] to extrapolate
+     * @param simulationTime The simulation time of this state
+     */
+    public void interpolate(EntityPhysicsState from, EntityPhysicsState to, float step, int simulationTime)
+    {
+        pos.interpolateLocal(from.pos, to.pos, step);
+        DynamXGeometry.slerp(from.rotation, to.rotation, rotation, step);
+        this.simulationTime = simulationTime;
     }
 
     public void addToOlders(Vector3f offsetn, Quaternion offsetQuat, float step)
     {
-        Vector3f finalOffsetn = Vector3fPool.get(offsetn);
-        PhysicsEntityNetHandler<? extends PhysicsEntity<?>> h = entityIn.getNetwork();
-        h.getOldStates().forEach((i, s) -> {
-            if(i < ClientPhysicsSyncManager.simulationTime)
-            {
-                s.pos.addLocal(finalOffsetn);
-                DynamXGeometry.slerp(s.rotation, offsetQuat, s.rotation, step);
-            }
-        });
+        entityIn.getNetwork().getOldStates().offsetOlders(ClientPhysicsSyncManager.simulationTime, offsetn, offsetQuat, step);
     }
 
     public void interpolateDeltas(Vector3f with, Quaternion quaternion, boolean bodyActive, int step, int pass)
@@ -57,7 +74,7 @@ public class EntityPhysicsState
             nPos.addLocal(sub.x, sub.y, sub.z);
             entityIn.physicsHandler.setPhysicsPosition(nPos);
 
-            Quaternion nQ = DynamXGeometry.slerp(rotation, quaternion, 1f / step);
+            Quaternion nQ = DynamXGeometry.slerp(rotation, quaternion, QuaternionPool.get(), 1f / step);
             addToOlders(sub, rotation, 1f / step);
             entityIn.physicsHandler.setPhysicsRotation(nQ);
         }
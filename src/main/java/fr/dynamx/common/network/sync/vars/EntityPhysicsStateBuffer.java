@@ -0,0 +1,203 @@
+package fr.dynamx.common.network.sync.vars;
+
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import fr.dynamx.common.entities.PhysicsEntity;
+import fr.dynamx.utils.debug.PerformanceMonitor;
+import fr.dynamx.utils.maths.DynamXGeometry;
+
+/**
+ * Fixed-capacity history of the {@link EntityPhysicsState}s of an entity, indexed by simulation time <br>
+ * States are created once per slot and reused, insertion and lookup are O(1) and don't allocate anything <br>
+ * States missing in the history (not recorded ticks) are interpolated or extrapolated from the buffered states
+ */
+public class EntityPhysicsStateBuffer
+{
+    /** Number of remembered ticks, must be a power of two */
+    public static final int CAPACITY = 64;
+    private static final int MASK = CAPACITY - 1;
+
+    private final PhysicsEntity<?> entity;
+    private final EntityPhysicsState[] states = new EntityPhysicsState[CAPACITY];
+    private final int[] times = new int[CAPACITY];
+    private final boolean[] valid = new boolean[CAPACITY];
+    /**
+     * Instance of the interpolated and extrapolated states, not in the ring : the slots are cleared and reused by {@link #record(int)} while the state is still used for the interpolation <br>
+     * Only one missing state is used at a time, see {@link PosSynchronizedVariable#interpolate}
+     */
+    private EntityPhysicsState missingState;
+    /** Time of the most recent recorded state, only meaningful if the buffer is not empty */
+    private int newestTime;
+    private int size;
+
+    public EntityPhysicsStateBuffer(PhysicsEntity<?> entity) {
+        this.entity = entity;
+    }
+
+    /**
+     * Captures the current state of the entity
+     *
+     * @param simulationTime The current simulation time
+     * @return The recorded state
+     */
+    public EntityPhysicsState record(int simulationTime) {
+        EntityPhysicsState state = getSlot(simulationTime);
+        state.capture(simulationTime);
+        return state;
+    }
+
+    /**
+     * @return The state at this simulation time, or null if it isn't in the history
+     */
+    public EntityPhysicsState get(int simulationTime) {
+        int slot = simulationTime & MASK;
+        return valid[slot] && times[slot] == simulationTime ? states[slot] : null;
+    }
+
+    /**
+     * Returns the {@link EntityPhysicsState} of the entity at the given time, and removes all older (<=) entries <br>
+     * If this state wasn't recorded, it's interpolated between the closest states (or extrapolated from the two latest states), in an instance owned by the buffer and reused by the next missing state
+     *
+     * @param simulationTime The time of the state to get
+     * @return The {@link EntityPhysicsState} matching this time, or null if it can't be computed
+     */
+    public EntityPhysicsState getAndClearOlders(int simulationTime) {
+        EntityPhysicsState state = get(simulationTime);
+        if (state == null)
+            state = computeMissingState(simulationTime);
+        else
+            recordLookup(PerformanceMonitor.StateLookup.EXACT);
+        clearOlders(simulationTime);
+        return state;
+    }
+
+    /**
+     * Interpolates or extrapolates a state that wasn't recorded
+     */
+    private EntityPhysicsState computeMissingState(int simulationTime) {
+        if (size == 0 || newestTime - simulationTime >= CAPACITY) {
+            recordLookup(PerformanceMonitor.StateLookup.MISSED);
+            return null;
+        }
+        //Closest states before and after the time
+        int before = simulationTime - 1, after = simulationTime + 1;
+        //Don't go further than one capacity before the time, so the states we read can't be in the slot we write
+        int oldestTime = Math.max(newestTime, simulationTime) - CAPACITY + 1;
+        while (before >= oldestTime && get(before) == null)
+            before--;
+        while (after <= newestTime && get(after) == null)
+            after++;
+        EntityPhysicsState from, to;
+        float step;
+        if (before >= oldestTime && after <= newestTime) {
+            from = get(before);
+            to = get(after);
+            step = (float) (simulationTime - before) / (after - before);
+            recordLookup(PerformanceMonitor.StateLookup.INTERPOLATED);
+        } else if (before >= oldestTime) {
+            //Extrapolate from the two latest states
+            int previous = before - 1;
+            while (previous >= oldestTime && get(previous) == null)
+                previous--;
+            if (previous < oldestTime) {
+                recordLookup(PerformanceMonitor.StateLookup.MISSED);
+                return null;
+            }
+            from = get(previous);
+            to = get(before);
+            step = (float) (simulationTime - previous) / (before - previous);
+            recordLookup(PerformanceMonitor.StateLookup.EXTRAPOLATED);
+        } else {
+            recordLookup(PerformanceMonitor.StateLookup.MISSED);
+            return null;
+        }
+        if (missingState == null)
+            missingState = entity.createStateSnapshot();
+        missingState.interpolate(from, to, step, simulationTime);
+        return missingState;
+    }
+
+    private void recordLookup(PerformanceMonitor.StateLookup result) {
+        PerformanceMonitor monitor = PerformanceMonitor.get(entity.world.isRemote);
+        if (monitor.isSampling())
+            monitor.recordStateLookup(result);
+    }
+
+    /**
+     * Marks the slot of this time as used, and returns its state instance
+     */
+    private EntityPhysicsState getSlot(int simulationTime) {
+        int slot = simulationTime & MASK;
+        if (states[slot] == null)
+            states[slot] = entity.createStateSnapshot();
+        if (!valid[slot])
+            size++;
+        valid[slot] = true;
+        times[slot] = simulationTime;
+        if (size == 1 || simulationTime > newestTime)
+            newestTime = simulationTime;
+        return states[slot];
+    }
+
+    /**
+     * Removes all states with a time lower or equal to the given time
+     */
+    public void clearOlders(int simulationTime) {
+        for (int i = 0; i < CAPACITY && size > 0; i++) {
+            if (valid[i] && times[i] <= simulationTime) {
+                valid[i] = false;
+                size--;
+            }
+        }
+    }
+
+    /**
+     * Moves all the states older than the given time, see {@link EntityPhysicsState#addToOlders}
+     *
+     * @param simulationTime The current simulation time
+     * @param offset The position offset to add
+     * @param offsetRotation The rotation to interpolate to
+     * @param step The rotation interpolation step
+     */
+    public void offsetOlders(int simulationTime, Vector3f offset, Quaternion offsetRotation, float step) {
+        for (int i = 0; i < CAPACITY; i++) {
+            if (valid[i] && times[i] < simulationTime) {
+                states[i].pos.addLocal(offset);
+                DynamXGeometry.slerp(states[i].rotation, offsetRotation, states[i].rotation, step);
+            }
+        }
+    }
+
+    /**
+     * Gives the states older than the given time, without allocation : iterate the slots from 0 to {@link #CAPACITY}
+     *
+     * @param slot The slot index
+     * @return The state of the slot if it's older than the given time, or null
+     */
+    public EntityPhysicsState getOlder(int slot, int simulationTime) {
+        return valid[slot] && times[slot] < simulationTime ? states[slot] : null;
+    }
+
+    /**
+     * Removes all states
+     */
+    public void clear() {
+        for (int i = 0; i < CAPACITY; i++)
+            valid[i] = false;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("StateBuffer{");
+        for (int i = 0; i < CAPACITY; i++) {
+            if (valid[i])
+                builder.append(times[i]).append(' ');
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -12,6 +12,7 @@ import fr.dynamx.common.entities.PhysicsEntity;
 import fr.dynamx.common.network.packets.MessageForcePlayerPos;
 import fr.dynamx.common.network.sync.MessagePhysicsEntitySync;
 import fr.dynamx.common.physics.entities.AbstractEntityPhysicsHandler;
+import fr.dynamx.server.network.DriverMoveValidator;
 import fr.dynamx.server.network.ServerPhysicsSyncManager;
 import fr.dynamx.utils.DynamXConstants;
 import fr.dynamx.utils.DynamXUtils;
@@ -77,13 +78,16 @@ public class PosSynchronizedVariable implements SynchronizedVariable<PhysicsEnti
         return changed ? (side.isClient() ? SyncTarget.ALL_CLIENTS : SyncTarget.SERVER) : SyncTarget.NONE;
     }
 
-    public int ignoreFor;
-
     public void onTeleported(PhysicsEntity<?> entity, Vector3f newPos) {
-        ignoreFor = 22;
+        if (entity.getNetwork().getMoveValidator() != null)
+            entity.getNetwork().getMoveValidator().ignoreNextMoves(22);
         DynamXContext.getNetwork().sendToClient(new MessageForcePlayerPos(entity, newPos, entity.physicsRotation, entity.physicsHandler.getLinearVelocity(), entity.physicsHandler.getAngularVelocity()), EnumPacketTarget.PLAYER, (EntityPlayerMP) entity.getControllingPassenger());
     }
 
+    /**
+     * Static move thresholds, only used when the net handler has no {@link DriverMoveValidator} <br>
+     * CRITIC2 is always used : the driver is kicked if its entity is further than this from the server's entity
+     */
     public static int CRITIC1 = 30, CRITIC1warn = 100, CRITIC2 = 400, CRITIC3 = 50;
 
     @Override
@@ -106,7 +110,11 @@ public class PosSynchronizedVariable implements SynchronizedVariable<PhysicsEnti
             }
         } else //Server side
         {
-            if (ignoreFor <= 0) {
+            DriverMoveValidator validator = network.getMoveValidator();
+            if (validator != null) {
+                if (!validator.consumeIgnoredMove())
+                    checkDriverMove(entity, validator, msg, Vector3fPool.get(posX, posY, posZ), rotation, linearVel, rotationalVel);
+            } else {
                 Vector3f pos = Vector3fPool.get(posX, posY, posZ);
 
                 float delta = entity.physicsPosition.subtract(pos).length();
@@ -118,7 +126,6 @@ public class PosSynchronizedVariable implements SynchronizedVariable<PhysicsEnti
                     } else if (entity.getControllingPassenger() instanceof EntityPlayerMP) {
                         if (delta > CRITIC3) {
                             //Resync
-                            ignoreFor = 20;
                             DynamXContext.getNetwork().sendToClient(new MessageForcePlayerPos(entity, entity.physicsPosition, entity.physicsRotation, entity.physicsHandler.getLinearVelocity(), entity.physicsHandler.getAngularVelocity()), EnumPacketTarget.PLAYER, (EntityPlayerMP) entity.getControllingPassenger());
                         } else
                             entity.physicsHandler.updatePhysicsState(pos, rotation, linearVel, rotationalVel);
@@ -128,8 +135,6 @@ public class PosSynchronizedVariable implements SynchronizedVariable<PhysicsEnti
                     //Update entity pos
                     entity.physicsHandler.updatePhysicsStateFromNet(pos, rotation, linearVel, rotationalVel);
                 }
-            } else {
-                ignoreFor--;
             }
 
             //Update stored driver's simulation time
@@ -139,6 +144,28 @@ public class PosSynchronizedVariable implements SynchronizedVariable<PhysicsEnti
         }
     }
 
+    /**
+     * Applies the state sent by the driver if the {@link DriverMoveValidator} considers it reachable, or corrects the driver's entity <br>
+     * Also used by the {@link DebugPosSynchronizedVariable}
+     */
+    static void checkDriverMove(PhysicsEntity<?> entity, DriverMoveValidator validator, MessagePhysicsEntitySync msg, Vector3f pos, Quaternion rotation, Vector3f linearVel, Vector3f rotationalVel) {
+        if (!(entity.getControllingPassenger() instanceof EntityPlayerMP)) {
+            DynamXMain.log.error(entity + " lost his player for sync. ");
+            return;
+        }
+        EntityPlayerMP driver = (EntityPlayerMP) entity.getControllingPassenger();
+        if (entity.physicsPosition.distance(pos) > CRITIC2) {
+            driver.connection.disconnect(new TextComponentString("Invalid physics entity move packet"));
+        } else if (validator.checkMove(entity, msg.getSimulationTimeClient(), pos, linearVel)) {
+            //Update entity pos
+            entity.physicsHandler.updatePhysicsStateFromNet(pos, rotation, linearVel, rotationalVel);
+        } else {
+            //Resync
+            validator.onViolation(entity, driver, 20);
+            DynamXContext.getNetwork().sendToClient(new MessageForcePlayerPos(entity, entity.physicsPosition, entity.physicsRotation, entity.physicsHandler.getLinearVelocity(), entity.physicsHandler.getAngularVelocity()), EnumPacketTarget.PLAYER, driver);
+        }
+    }
+
     @Override
     public void interpolate(PhysicsEntity<?> entity, PhysicsEntityNetHandler<PhysicsEntity<?>> network, Profiler profiler, MessagePhysicsEntitySync msg, int step) {
         if (DynamXMain.proxy.ownsSimulation(entity)) //If we are simulating this entity
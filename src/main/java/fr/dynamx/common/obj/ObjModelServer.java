@@ -2,6 +2,7 @@ package fr.dynamx.common.obj;
 
 import com.jme3.math.Vector3f;
 import fr.aym.acslib.api.services.mps.ModProtectionContainer;
+import fr.aym.mps.IMpsClassLoader;
 import fr.dynamx.api.obj.IObjObject;
 import fr.dynamx.api.obj.ObjModelPath;
 import fr.dynamx.common.contentpack.ContentPackLoader;
@@ -28,9 +29,27 @@ public class ObjModelServer {
     }
 
     public static ObjModelServer createServerObjModel(ObjModelPath location) {
+        return createServerObjModel(location, readServerObjModelContent(location));
+    }
+
+    /**
+     * Parses a model file read with {@link #readServerObjModelContent(ObjModelPath)}
+     */
+    public static ObjModelServer createServerObjModel(ObjModelPath location, byte[] content) {
+        return new TessellatorModelServer(getSecureLoader(location), location, content);
+    }
+
+    /**
+     * Reads the content of a model file, without parsing it
+     */
+    public static byte[] readServerObjModelContent(ObjModelPath location) {
+        return TessellatorModelServer.readContent(getSecureLoader(location), location);
+    }
+
+    private static IMpsClassLoader getSecureLoader(ObjModelPath location) {
         ModProtectionContainer container = ContentPackLoader.getProtectedResources().get(location.getPackName());
         //System.out.println("Search loader " + ContentPackLoader.getProtectedResources() + " : " + location.getPackName());
-        return new TessellatorModelServer(container == null ? null : container.getSecureLoader(), location);
+        return container == null ? null : container.getSecureLoader();
     }
 
     public float[] getVerticesPos() {
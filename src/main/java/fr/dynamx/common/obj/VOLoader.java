@@ -1,20 +1,100 @@
 package fr.dynamx.common.obj;
 
+import net.minecraft.client.renderer.OpenGlHelper;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL15;
-import org.lwjgl.opengl.GL20;
 import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GLContext;
 
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Creates, and frees, the vertex array objects and vertex buffers of a mesh <br>
+ * The vertices are interleaved : position (3 floats), texture coordinates (2 floats, v flipped like the tessellator did) and normal (3 floats) <br>
+ * The vertex arrays use the fixed-function client states, so they're drawn like the display lists, with the current gl state
+ */
 public class VOLoader {
-    private List<Integer> vaos = new ArrayList<>();
-    private List<Integer> vbos = new ArrayList<>();
-    private List<Integer> textures = new ArrayList<>();
+    /** Size of a vertex in the buffer, in bytes */
+    public static final int VERTEX_SIZE = (3 + 2 + 3) * 4;
 
+    private final List<Integer> vaos = new ArrayList<>();
+    private final List<Integer> vbos = new ArrayList<>();
 
+    /**
+     * @return True if vertex array objects and vertex buffer objects are supported by the graphic card
+     */
+    public static boolean isSupported() {
+        return OpenGlHelper.vboSupported && GLContext.getCapabilities().OpenGL30;
+    }
+
+    /**
+     * Creates a vertex array object containing the vertices and the indices of the mesh
+     *
+     * @return The id of the vertex array object
+     */
+    public int loadMesh(Mesh mesh) {
+        return loadMesh(mesh, mesh.indices);
+    }
+
+    /**
+     * Creates a vertex array object containing the vertices of the mesh, and the given indices
+     *
+     * @param indexData The indices, can contain several versions of the mesh (like levels of detail)
+     * @return The id of the vertex array object
+     */
+    public int loadMesh(Mesh mesh, int[] indexData) {
+        FloatBuffer vertices = BufferUtils.createFloatBuffer(mesh.vertices.length * VERTEX_SIZE / 4);
+        for (Vertex vertex : mesh.vertices) {
+            vertices.put(vertex.getPos().x).put(vertex.getPos().y).put(vertex.getPos().z);
+            vertices.put(vertex.getTexCoords().x).put(1f - vertex.getTexCoords().y);
+            vertices.put(vertex.getNormal().x).put(vertex.getNormal().y).put(vertex.getNormal().z);
+        }
+        vertices.flip();
+        IntBuffer indices = BufferUtils.createIntBuffer(indexData.length);
+        indices.put(indexData).flip();
+
+        int vao = GL30.glGenVertexArrays();
+        vaos.add(vao);
+        GL30.glBindVertexArray(vao);
+
+        createBuffer(GL15.GL_ARRAY_BUFFER);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, vertices, GL15.GL_STATIC_DRAW);
+        GL11.glVertexPointer(3, GL11.GL_FLOAT, VERTEX_SIZE, 0);
+        GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+        OpenGlHelper.setClientActiveTexture(OpenGlHelper.defaultTexUnit);
+        GL11.glTexCoordPointer(2, GL11.GL_FLOAT, VERTEX_SIZE, 3 * 4);
+        GL11.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+        GL11.glNormalPointer(GL11.GL_FLOAT, VERTEX_SIZE, 5 * 4);
+        GL11.glEnableClientState(GL11.GL_NORMAL_ARRAY);
+
+        //The element buffer binding is stored in the vertex array
+        createBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER);
+        GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, indices, GL15.GL_STATIC_DRAW);
+
+        GL30.glBindVertexArray(0);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        return vao;
+    }
+
+    private void createBuffer(int target) {
+        int vbo = GL15.glGenBuffers();
+        vbos.add(vbo);
+        GL15.glBindBuffer(target, vbo);
+    }
+
+    /**
+     * Frees all the vertex arrays and buffers created by this loader
+     */
+    public void cleanUp() {
+        for (int vao : vaos)
+            GL30.glDeleteVertexArrays(vao);
+        for (int vbo : vbos)
+            GL15.glDeleteBuffers(vbo);
+        vaos.clear();
+        vbos.clear();
+    }
 }
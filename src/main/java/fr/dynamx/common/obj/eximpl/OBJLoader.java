@@ -1,19 +1,20 @@
 package fr.dynamx.common.obj.eximpl;
 
 import fr.dynamx.api.obj.IObjObject;
-import fr.dynamx.common.obj.HashMapWithDefault;
-import fr.dynamx.common.obj.IndexedModel;
 import fr.dynamx.common.obj.Material;
 import fr.dynamx.utils.DynamXUtils;
 import fr.dynamx.utils.RegistryNameSetter;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.resources.IResource;
 
-import javax.vecmath.Vector2f;
-import javax.vecmath.Vector3f;
+import javax.annotation.Nullable;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 
+/**
+ * Obj model parser <br>
+ * The file is read in a single pass over its chars, without splitting the lines, and the indexed mesh is written in primitive arrays, see {@link ObjModelData}
+ */
 public class OBJLoader {
 
     private static final String COMMENT = "#";
@@ -25,11 +26,16 @@ public class OBJLoader {
     private static final String NEW_GROUP = "g";
     private static final String USE_MATERIAL = "usemtl";
     private static final String NEW_MATERIAL = "mtllib";
-    
+
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    /**
+     * Enables the {@link ObjModelCache} for client models
+     */
+    public static boolean USE_MODEL_CACHE = true;
+
     private static final List<MtlMaterialLib> materialLibs = new ArrayList<>();
 
-    private boolean hasNormals = false;
-    private boolean hasTexCoords = false;
     private final List<IObjObject> objObjects;
 
     public OBJLoader(List<IObjObject> objects) {
@@ -39,7 +45,7 @@ public class OBJLoader {
     public static List<MtlMaterialLib> getMaterialLibs() {
         return materialLibs;
     }
-    
+
     public static String[] trim(String[] split) {
         ArrayList<String> strings = new ArrayList<String>();
         for (String s : split)
@@ -50,204 +56,445 @@ public class OBJLoader {
 
     /**
      * Reads an obj models, ignoring mtl files
-     * 
+     *
      * @param objContent Content of the obj file
      */
     public void loadModelServer(IObjObject.ObjObjectProvider objectProvider, String objContent) {
-        loadModelClient(objectProvider, null, objContent);
+        loadModelClient(objectProvider, null, objContent, null);
     }
+
     /**
      * Reads an obj models, including mtl files
      *
      * @param startPath Path of the obj model directory
      * @param objContent Content of the obj file
      */
-    public void loadModelClient(IObjObject.ObjObjectProvider objectProvider, String startPath, String objContent)
-    {
+    public void loadModelClient(IObjObject.ObjObjectProvider objectProvider, String startPath, String objContent) {
+        loadModelClient(objectProvider, startPath, objContent, null);
+    }
+
+    /**
+     * Reads an obj models, including mtl files
+     *
+     * @param startPath Path of the obj model directory, or null to ignore mtl files and texture coordinates
+     * @param objContent Content of the obj file
+     * @param cacheKey The key of the model in the {@link ObjModelCache}, null to not use the cache
+     */
+    public void loadModelClient(IObjObject.ObjObjectProvider objectProvider, @Nullable String startPath, String objContent, @Nullable String cacheKey) {
         try {
-            hasNormals = true;
-            hasTexCoords = true;
-            IndexedModel result = new IndexedModel();
-            IndexedModel normalModel = new IndexedModel();
-            String lines[] = objContent.split("\n|\r");
-
-            int posOffset = 0;
-            int indicesOffset = 0;
-            int texOffset = 0;
-            int normOffset = 0;
-            ArrayList<Vector3f> positions = new ArrayList<>();
-            ArrayList<Vector2f> texCoords = new ArrayList<>();
-            ArrayList<Vector3f> normals = new ArrayList<>();
-            ArrayList<IndexedModel.OBJIndex> indices = new ArrayList<>();
-            ArrayList<Material> indicedMaterials = new ArrayList<>();
-
-            ArrayList<Material> materials = new ArrayList<>();
-            HashMapWithDefault<IndexedModel.OBJIndex, Integer> resultIndexMap = new HashMapWithDefault<IndexedModel.OBJIndex, Integer>();
-            HashMapWithDefault<Integer, Integer> normalIndexMap = new HashMapWithDefault<Integer, Integer>();
-            HashMapWithDefault<Integer, Integer> indexMap = new HashMapWithDefault<Integer, Integer>();
-            resultIndexMap.setDefault(-1);
-            normalIndexMap.setDefault(-1);
-            indexMap.setDefault(-1);
-
-            HashMap<IObjObject, IndexedModel> map = new HashMap<IObjObject, IndexedModel>();
-
-            Material currentMaterial = null;
-            HashMap<IObjObject, IndexedModel[]> objects = new HashMap<IObjObject, IndexedModel[]>();
-            objects.put(objectProvider.createObject("main"), new IndexedModel[]{result, normalModel});
-            for (int j = 0, linesLength = lines.length; j < linesLength; j++) {
-                try {
-                    String line = lines[j];
-                    if (line != null && !line.trim().equals("")) {
-                        String[] parts = trim(line.split(" "));
-                        if (parts.length == 0)
-                            continue;
-                        if (parts[0].equals(COMMENT)) {
-                            continue;
-                        } else if (parts[0].equals(POSITION)) {
-                            positions.add(new Vector3f(Float.parseFloat(parts[1]), Float.parseFloat(parts[2]), Float.parseFloat(parts[3])));
-                        } else if (parts[0].equals(FACE)) {
-                            for (int i = 0; i < parts.length - 3; i++) {
-                                indicedMaterials.add(currentMaterial);
-                                indices.add(parseOBJIndex(parts[1], posOffset, texOffset, normOffset));
-                                indices.add(parseOBJIndex(parts[2 + i], posOffset, texOffset, normOffset));
-                                indices.add(parseOBJIndex(parts[3 + i], posOffset, texOffset, normOffset));
-                            }
-                        } else if (parts[0].equals(NORMAL)) {
-                            normals.add(new Vector3f(Float.parseFloat(parts[1]), Float.parseFloat(parts[2]), Float.parseFloat(parts[3])));
-                        } else if (parts[0].equals(TEX_COORDS) && startPath != null) {
-                            texCoords.add(new Vector2f(Float.parseFloat(parts[1]), Float.parseFloat(parts[2])));
-                        } else if (parts[0].equals(NEW_MATERIAL) && startPath != null) {
-                            String path = startPath + parts[1];
-                            IResource resp = Minecraft.getMinecraft().getResourceManager().getResource(RegistryNameSetter.getResourceLocationWithDynamXDefault(path));
-                            MtlMaterialLib material = new MtlMaterialLib();
-                            material.parse(startPath, new String(DynamXUtils.readInputStream(resp.getInputStream()), StandardCharsets.UTF_8));
-                            materials.addAll(material.getMaterials());
-                            materialLibs.add(material);
-                        } else if (parts[0].equals(USE_MATERIAL) && startPath != null) {
-                            currentMaterial = getMaterial(materials, parts[1]);
-                        } else if (parts[0].equals(NEW_OBJECT) || parts[0].equals(NEW_GROUP)) {
-                            result.getObjIndices().addAll(indices);
-                            result.getMaterials().addAll(indicedMaterials);
-                            normalModel.getObjIndices().addAll(indices);
-                            result = new IndexedModel();
-                            normalModel = new IndexedModel();
-                            indices.clear();
-                            indicedMaterials.clear();
-                            objects.put(objectProvider.createObject(parts[1]), new IndexedModel[]{result, normalModel});
-                        }
-                    }
-                } catch (Exception e) {
-                    throw new RuntimeException("Error at line "+j, e);
+            boolean useCache = cacheKey != null && USE_MODEL_CACHE;
+            long hash = useCache ? ObjModelCache.hash(objContent) : 0;
+            ObjModelData data = useCache ? ObjModelCache.read(cacheKey, hash, startPath != null) : null;
+            if (data == null) {
+                data = parse(objContent.toCharArray(), startPath != null);
+                if (useCache)
+                    ObjModelCache.write(cacheKey, hash, data);
+            }
+            List<Material> materials = new ArrayList<>();
+            if (startPath != null) {
+                for (String lib : data.getMaterialLibs()) {
+                    IResource resp = Minecraft.getMinecraft().getResourceManager().getResource(RegistryNameSetter.getResourceLocationWithDynamXDefault(startPath + lib));
+                    MtlMaterialLib material = new MtlMaterialLib();
+                    material.parse(startPath, new String(DynamXUtils.readInputStream(resp.getInputStream()), StandardCharsets.UTF_8));
+                    materials.addAll(material.getMaterials());
+                    materialLibs.add(material);
                 }
             }
-            result.getObjIndices().addAll(indices);
-            result.getMaterials().addAll(indicedMaterials);
-            normalModel.getObjIndices().addAll(indices);
-
-            Iterator<IObjObject> it = objects.keySet().iterator();
-            while (it.hasNext()) {
-                IObjObject object = it.next();
-                result = objects.get(object)[0];
-                normalModel = objects.get(object)[1];
-                indices = result.getObjIndices();
-                map.put(object, result);
-                object.setCenter(result.computeCenter());
-                for (int i = 0; i < indices.size(); i++) {
-                    IndexedModel.OBJIndex current = indices.get(i);
-                    Vector3f pos = positions.get(current.positionIndex);
-                    Vector2f texCoord;
-                    if (hasTexCoords && startPath != null) {
-                        texCoord = texCoords.get(current.texCoordsIndex);
-                    } else {
-                        texCoord = new Vector2f();
+            objObjects.clear();
+            data.createObjects(objectProvider, materials, objObjects);
+        } catch (Exception e) {
+            throw new RuntimeException("Error while loading obj model", e);
+        }
+    }
+
+    /**
+     * Parses an obj file <br>
+     * Faces are triangulated, and each object gets its own indexed vertices
+     *
+     * @param content The obj file
+     * @param readTexCoords If the texture coordinates should be read
+     * @return The parsed model
+     */
+    public static ObjModelData parse(char[] content, boolean readTexCoords) {
+        Parser parser = new Parser(content);
+        FloatArray positions = new FloatArray(3 * 1024);
+        FloatArray texCoords = new FloatArray(readTexCoords ? 2 * 1024 : 0);
+        FloatArray normals = new FloatArray(3 * 1024);
+        List<String> libs = new ArrayList<>();
+        List<String> materialNames = new ArrayList<>();
+        Map<String, Integer> materialIds = new HashMap<>();
+        List<ObjectBuilder> objects = new ArrayList<>();
+        ObjectBuilder current = new ObjectBuilder("main");
+        objects.add(current);
+        int currentMaterial = -1;
+        IntArray face = new IntArray(3 * 8);
+
+        int line = 0;
+        while (parser.nextLine()) {
+            line++;
+            try {
+                if (!parser.nextToken() || parser.tokenIs(COMMENT))
+                    continue;
+                if (parser.tokenIs(POSITION)) {
+                    positions.add(parser.nextFloat());
+                    positions.add(parser.nextFloat());
+                    positions.add(parser.nextFloat());
+                } else if (parser.tokenIs(FACE)) {
+                    face.size = 0;
+                    while (parser.nextToken()) {
+                        parser.readFaceVertex(face, positions.size / 3, texCoords.size / 2, normals.size / 3);
                     }
-                    Vector3f normal;
-                    if (hasNormals) {
-                        try {
-                            normal = normals.get(current.normalIndex);
-                        } catch (Exception e) {
-                            normal = new Vector3f();
-                        }
-                    } else {
-                        normal = new Vector3f();
+                    int vertexCount = face.size / 3;
+                    if (vertexCount < 3) //Not a face, ignored as before
+                        continue;
+                    int first = current.addVertex(face.data[0], face.data[1], face.data[2]);
+                    int previous = current.addVertex(face.data[3], face.data[4], face.data[5]);
+                    for (int i = 2; i < vertexCount; i++) {
+                        int next = current.addVertex(face.data[i * 3], face.data[i * 3 + 1], face.data[i * 3 + 2]);
+                        current.indices.add(first);
+                        current.indices.add(previous);
+                        current.indices.add(next);
+                        current.materials.add(currentMaterial);
+                        previous = next;
                     }
+                } else if (parser.tokenIs(NORMAL)) {
+                    normals.add(parser.nextFloat());
+                    normals.add(parser.nextFloat());
+                    normals.add(parser.nextFloat());
+                } else if (parser.tokenIs(TEX_COORDS)) {
+                    if (readTexCoords) {
+                        texCoords.add(parser.nextFloat());
+                        texCoords.add(parser.nextFloat());
+                    }
+                } else if (parser.tokenIs(NEW_MATERIAL)) {
+                    libs.add(parser.nextString());
+                } else if (parser.tokenIs(USE_MATERIAL)) {
+                    String name = parser.nextString();
+                    Integer id = materialIds.get(name);
+                    if (id == null) {
+                        id = materialNames.size();
+                        materialNames.add(name);
+                        materialIds.put(name, id);
+                    }
+                    currentMaterial = id;
+                } else if (parser.tokenIs(NEW_OBJECT) || parser.tokenIs(NEW_GROUP)) {
+                    current = new ObjectBuilder(parser.nextString());
+                    objects.add(current);
+                }
+            } catch (Exception e) {
+                throw new RuntimeException("Error at line " + line, e);
+            }
+        }
 
-                    int modelVertexIndex = resultIndexMap.get(current);
-                    if (modelVertexIndex == -1) {
-                        resultIndexMap.put(current, result.getPositions().size());
-                        modelVertexIndex = result.getPositions().size();
+        ObjModelData.ObjectData[] objectsData = new ObjModelData.ObjectData[objects.size()];
+        for (int i = 0; i < objectsData.length; i++)
+            objectsData[i] = objects.get(i).build(positions, texCoords, normals);
+        return new ObjModelData(readTexCoords, libs.toArray(new String[0]), materialNames.toArray(new String[0]), objectsData);
+    }
 
-                        result.getPositions().add(pos);
-                        result.getTexCoords().add(texCoord);
-                        if (hasNormals)
-                            result.getNormals().add(normal);
-                        result.getTangents().add(new Vector3f());
-                    }
+    /**
+     * Reads the lines and the space-separated tokens of an obj file
+     */
+    private static class Parser {
+        private final char[] content;
+        private int lineEnd = -1;
+        private int tokenStart, tokenEnd;
 
-                    int normalModelIndex = normalIndexMap.get(current.positionIndex);
+        private Parser(char[] content) {
+            this.content = content;
+        }
 
-                    if (normalModelIndex == -1) {
-                        normalModelIndex = normalModel.getPositions().size();
-                        normalIndexMap.put(current.positionIndex, normalModelIndex);
+        /**
+         * Moves to the next line
+         *
+         * @return False if the end of the file was reached
+         */
+        private boolean nextLine() {
+            int start = lineEnd + 1;
+            if (start >= content.length)
+                return false;
+            int end = start;
+            while (end < content.length && content[end] != '\n' && content[end] != '\r')
+                end++;
+            lineEnd = end;
+            tokenEnd = start;
+            return true;
+        }
 
-                        normalModel.getPositions().add(pos);
-                        normalModel.getTexCoords().add(texCoord);
-                        normalModel.getNormals().add(normal);
-                        normalModel.getTangents().add(new Vector3f());
-                    }
+        /**
+         * Moves to the next token of the current line
+         *
+         * @return False if the end of the line was reached
+         */
+        private boolean nextToken() {
+            int start = tokenEnd;
+            while (start < lineEnd && (content[start] == ' ' || content[start] == '\t'))
+                start++;
+            if (start == lineEnd)
+                return false;
+            int end = start;
+            while (end < lineEnd && content[end] != ' ' && content[end] != '\t')
+                end++;
+            tokenStart = start;
+            tokenEnd = end;
+            return true;
+        }
 
-                    //result.getMaterials().add(current.material);
+        private boolean tokenIs(String keyword) {
+            if (tokenEnd - tokenStart != keyword.length())
+                return false;
+            for (int i = 0; i < keyword.length(); i++)
+                if (content[tokenStart + i] != keyword.charAt(i))
+                    return false;
+            return true;
+        }
 
-                    result.getIndices().add(modelVertexIndex);
-                    normalModel.getIndices().add(normalModelIndex);
-                    indexMap.put(modelVertexIndex, normalModelIndex);
-                }
+        private void requireToken() {
+            if (!nextToken())
+                throw new IllegalArgumentException("Missing value");
+        }
 
-                if (!hasNormals) {
-                    normalModel.computeNormals();
+        private String nextString() {
+            requireToken();
+            return new String(content, tokenStart, tokenEnd - tokenStart);
+        }
 
-                    for (int i = 0; i < result.getNormals().size(); i++) {
-                        result.getNormals().add(normalModel.getNormals().get(indexMap.get(i)));
-                    }
+        private float nextFloat() {
+            requireToken();
+            return parseFloat(content, tokenStart, tokenEnd);
+        }
+
+        /**
+         * Reads a face vertex (v, v/vt, v//vn or v/vt/vn) from the current token <br>
+         * Negative (relative) indices are supported, missing indices are set to -1
+         */
+        private void readFaceVertex(IntArray out, int positionCount, int texCoordsCount, int normalCount) {
+            int slash1 = indexOf('/', tokenStart, tokenEnd);
+            int slash2 = slash1 == -1 ? -1 : indexOf('/', slash1 + 1, tokenEnd);
+            int posEnd = slash1 == -1 ? tokenEnd : slash1;
+            out.add(toIndex(parseInt(content, tokenStart, posEnd), positionCount));
+            if (slash1 != -1 && slash1 + 1 < (slash2 == -1 ? tokenEnd : slash2))
+                out.add(toIndex(parseInt(content, slash1 + 1, slash2 == -1 ? tokenEnd : slash2), texCoordsCount));
+            else
+                out.add(-1);
+            if (slash2 != -1 && slash2 + 1 < tokenEnd)
+                out.add(toIndex(parseInt(content, slash2 + 1, tokenEnd), normalCount));
+            else
+                out.add(-1);
+        }
+
+        private int indexOf(char c, int start, int end) {
+            for (int i = start; i < end; i++)
+                if (content[i] == c)
+                    return i;
+            return -1;
+        }
+
+        private static int toIndex(int objIndex, int count) {
+            return objIndex < 0 ? count + objIndex : objIndex - 1;
+        }
+    }
+
+    private static int parseInt(char[] chars, int start, int end) {
+        boolean negative = false;
+        int i = start;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+        if (i == end)
+            throw new NumberFormatException("Invalid integer '" + new String(chars, start, end - start) + "'");
+        int value = 0;
+        for (; i < end; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9)
+                throw new NumberFormatException("Invalid integer '" + new String(chars, start, end - start) + "'");
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a decimal float without allocating anything <br>
+     * Falls back to {@link Float#parseFloat(String)} for the unusual formats (NaN, infinity, hexadecimal...)
+     */
+    private static float parseFloat(char[] chars, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int exponent = 0;
+        int significantDigits = 0;
+        boolean hasDigits = false;
+        for (; i < end && chars[i] >= '0' && chars[i] <= '9'; i++) {
+            hasDigits = true;
+            if (significantDigits < 18) {
+                mantissa = mantissa * 10 + (chars[i] - '0');
+                if (mantissa != 0)
+                    significantDigits++;
+            } else
+                exponent++;
+        }
+        if (i < end && chars[i] == '.') {
+            for (i++; i < end && chars[i] >= '0' && chars[i] <= '9'; i++) {
+                hasDigits = true;
+                if (significantDigits < 18) {
+                    mantissa = mantissa * 10 + (chars[i] - '0');
+                    exponent--;
+                    if (mantissa != 0)
+                        significantDigits++;
                 }
+            }
+        }
+        if (hasDigits && i < end && (chars[i] == 'e' || chars[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+                negativeExponent = chars[i] == '-';
+                i++;
+            }
+            int value = 0;
+            boolean hasExponentDigits = false;
+            for (; i < end && chars[i] >= '0' && chars[i] <= '9'; i++) {
+                hasExponentDigits = true;
+                if (value < 1000)
+                    value = value * 10 + (chars[i] - '0');
+            }
+            if (!hasExponentDigits)
+                hasDigits = false;
+            exponent += negativeExponent ? -value : value;
+        }
+        if (!hasDigits || i != end)
+            return Float.parseFloat(new String(chars, start, end - start));
+        double value = mantissa;
+        if (exponent > 0)
+            value *= exponent < POWERS_OF_TEN.length ? POWERS_OF_TEN[exponent] : Math.pow(10, exponent);
+        else if (exponent < 0)
+            value /= -exponent < POWERS_OF_TEN.length ? POWERS_OF_TEN[-exponent] : Math.pow(10, -exponent);
+        return (float) (negative ? -value : value);
+    }
+
+    /**
+     * Collects the faces of an object, and indexes its vertices
+     */
+    private static class ObjectBuilder {
+        private final String name;
+        /** Position, texture coordinates and normal indices of each vertex */
+        private final IntArray vertices = new IntArray(3 * 256);
+        private final IntArray indices = new IntArray(3 * 256);
+        private final IntArray materials = new IntArray(256);
+        /** Open addressing table from vertex attributes to vertex index */
+        private int[] table = newTable(512);
+
+        private ObjectBuilder(String name) {
+            this.name = name;
+        }
+
+        private static int[] newTable(int size) {
+            int[] table = new int[size];
+            Arrays.fill(table, -1);
+            return table;
+        }
+
+        private static int hash(int position, int texCoords, int normal) {
+            int hash = 31 * (31 * (527 + position) + texCoords) + normal;
+            return hash ^ (hash >>> 16);
+        }
 
-                object.setCenter(result.computeCenter());
+        /**
+         * @return The index of the vertex with the given attributes, added if needed
+         */
+        private int addVertex(int position, int texCoords, int normal) {
+            int mask = table.length - 1;
+            int slot = hash(position, texCoords, normal) & mask;
+            int vertex;
+            while ((vertex = table[slot]) != -1) {
+                int i = vertex * 3;
+                if (vertices.data[i] == position && vertices.data[i + 1] == texCoords && vertices.data[i + 2] == normal)
+                    return vertex;
+                slot = (slot + 1) & mask;
             }
+            vertex = vertices.size / 3;
+            vertices.add(position);
+            vertices.add(texCoords);
+            vertices.add(normal);
+            table[slot] = vertex;
+            if ((vertex + 1) * 2 > table.length)
+                rehash();
+            return vertex;
+        }
 
-            objObjects.clear();
-            Set<IObjObject> keys = map.keySet();
-            for (IObjObject object : keys) {
-                objObjects.add(object);
-                map.get(object).toMesh(object.getMesh());
+        private void rehash() {
+            int[] newTable = newTable(table.length * 2);
+            int mask = newTable.length - 1;
+            for (int vertex = 0; vertex < vertices.size / 3; vertex++) {
+                int slot = hash(vertices.data[vertex * 3], vertices.data[vertex * 3 + 1], vertices.data[vertex * 3 + 2]) & mask;
+                while (newTable[slot] != -1)
+                    slot = (slot + 1) & mask;
+                newTable[slot] = vertex;
             }
-        } catch (Exception e) {
-            throw new RuntimeException("Error while loading obj model", e);
+            table = newTable;
+        }
+
+        /**
+         * Resolves the vertex attributes <br>
+         * Missing texture coordinates and normals are set to zero
+         */
+        private ObjModelData.ObjectData build(FloatArray positions, FloatArray texCoords, FloatArray normals) {
+            int vertexCount = vertices.size / 3;
+            float[] pos = new float[vertexCount * 3];
+            float[] tex = new float[vertexCount * 2];
+            float[] norm = new float[vertexCount * 3];
+            for (int i = 0; i < vertexCount; i++) {
+                int p = vertices.data[i * 3];
+                if (p < 0 || p * 3 >= positions.size)
+                    throw new IllegalArgumentException("Invalid vertex index " + (p + 1) + " in object " + name);
+                System.arraycopy(positions.data, p * 3, pos, i * 3, 3);
+                int t = vertices.data[i * 3 + 1];
+                if (t >= 0 && t * 2 < texCoords.size)
+                    System.arraycopy(texCoords.data, t * 2, tex, i * 2, 2);
+                int n = vertices.data[i * 3 + 2];
+                if (n >= 0 && n * 3 < normals.size)
+                    System.arraycopy(normals.data, n * 3, norm, i * 3, 3);
+            }
+            return new ObjModelData.ObjectData(name, pos, tex, norm, indices.toArray(), materials.toArray());
         }
     }
 
-    private Material getMaterial(ArrayList<Material> materials, String id) {
-        for (Material mat : materials) {
-            if (mat.getName().equals(id))
-                return mat;
+    private static class FloatArray {
+        private float[] data;
+        private int size;
+
+        private FloatArray(int capacity) {
+            data = new float[Math.max(capacity, 4)];
+        }
+
+        private void add(float value) {
+            if (size == data.length)
+                data = Arrays.copyOf(data, size * 2);
+            data[size++] = value;
         }
-        return null;
     }
 
-    private IndexedModel.OBJIndex parseOBJIndex(String token, int posOffset, int texCoordsOffset, int normalOffset) {
-        IndexedModel.OBJIndex index = new IndexedModel.OBJIndex();
-        String[] values = token.split("/");
+    private static class IntArray {
+        private int[] data;
+        private int size;
 
-        index.positionIndex = Integer.parseInt(values[0]) - 1 - posOffset;
-        if (values.length > 1) {
-            if (values[1] != null && !values[1].equals("")) {
-                index.texCoordsIndex = Integer.parseInt(values[1]) - 1 - texCoordsOffset;
-            }
-            hasTexCoords = true;
-            if (values.length > 2) {
-                index.normalIndex = Integer.parseInt(values[2]) - 1 - normalOffset;
-                hasNormals = true;
-            }
+        private IntArray(int capacity) {
+            data = new int[Math.max(capacity, 4)];
+        }
+
+        private void add(int value) {
+            if (size == data.length)
+                data = Arrays.copyOf(data, size * 2);
+            data[size++] = value;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(data, size);
         }
-        return index;
     }
 }
@@ -0,0 +1,94 @@
+package fr.dynamx.common.obj.eximpl;
+
+import fr.dynamx.common.DynamXMain;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import static fr.dynamx.common.DynamXMain.log;
+
+/**
+ * Binary cache of the parsed obj models, stored in the dynamx_cache/models directory <br>
+ * Each file contains the {@link ObjModelData} of one model, and the hash of the obj file it comes from : it's reused while the obj file doesn't change <br>
+ * Only used for client models, the server models may come from protected packs
+ */
+public class ObjModelCache
+{
+    /** Increment when the {@link ObjModelData} format changes */
+    private static final int CACHE_VERSION = 1;
+
+    /**
+     * @return A 64-bit FNV-1a hash of the obj file content
+     */
+    public static long hash(String content) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0, length = content.length(); i < length; i++) {
+            hash ^= content.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    @Nullable
+    private static File getCacheFile(String key, boolean texCoords) {
+        if (DynamXMain.resDir == null)
+            return null;
+        File dir = new File(DynamXMain.resDir.getAbsoluteFile().getParentFile(), "dynamx_cache/models");
+        return new File(dir, key.replaceAll("[^a-zA-Z0-9._-]", "_") + (texCoords ? "" : "_notex") + ".bin");
+    }
+
+    /**
+     * Reads a cached model
+     *
+     * @param key       The model identifier, its resource location
+     * @param hash      The {@link #hash(String)} of the obj file
+     * @param texCoords If the texture coordinates are needed
+     * @return The cached model, or null if it's not cached or if the obj file changed
+     */
+    @Nullable
+    public static ObjModelData read(String key, long hash, boolean texCoords) {
+        File file = getCacheFile(key, texCoords);
+        if (file == null || !file.exists())
+            return null;
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+            if (buffer.getInt() != CACHE_VERSION || buffer.getLong() != hash)
+                return null;
+            ObjModelData data = ObjModelData.readFrom(buffer);
+            return data.hasTexCoords() == texCoords ? data : null;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Corrupted model cache " + file + ", the model will be parsed again", e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes a model in the cache
+     *
+     * @param key  The model identifier, its resource location
+     * @param hash The {@link #hash(String)} of the obj file
+     * @param data The parsed model
+     */
+    public static void write(String key, long hash, ObjModelData data) {
+        File file = getCacheFile(key, data.hasTexCoords());
+        if (file == null)
+            return;
+        if (!file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
+            log.warn("Cannot create the model cache directory " + file.getParentFile());
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 8 + data.getSerializedSize());
+        buffer.putInt(CACHE_VERSION);
+        buffer.putLong(hash);
+        data.writeTo(buffer);
+        try {
+            Files.write(file.toPath(), buffer.array());
+        } catch (IOException e) {
+            log.warn("Cannot write the model cache " + file, e);
+            file.delete();
+        }
+    }
+}
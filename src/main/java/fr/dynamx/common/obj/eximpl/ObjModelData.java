@@ -0,0 +1,215 @@
+package fr.dynamx.common.obj.eximpl;
+
+import fr.dynamx.api.obj.IObjObject;
+import fr.dynamx.common.obj.Material;
+import fr.dynamx.common.obj.Mesh;
+import fr.dynamx.common.obj.Vertex;
+
+import javax.vecmath.Vector2f;
+import javax.vecmath.Vector3f;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Indexed mesh data of an obj model, stored in primitive arrays <br>
+ * Produced by the {@link OBJLoader} and stored in the {@link ObjModelCache}, then converted into {@link IObjObject}s
+ */
+public class ObjModelData
+{
+    private final boolean texCoords;
+    private final String[] materialLibs;
+    private final String[] materialNames;
+    private final ObjectData[] objects;
+
+    /**
+     * @param texCoords     If the texture coordinates were read (false for server models)
+     * @param materialLibs  The mtl files of the model, relative to the model directory
+     * @param materialNames The materials used by the faces
+     * @param objects       The objects of the model
+     */
+    public ObjModelData(boolean texCoords, String[] materialLibs, String[] materialNames, ObjectData[] objects) {
+        this.texCoords = texCoords;
+        this.materialLibs = materialLibs;
+        this.materialNames = materialNames;
+        this.objects = objects;
+    }
+
+    public boolean hasTexCoords() {
+        return texCoords;
+    }
+
+    public String[] getMaterialLibs() {
+        return materialLibs;
+    }
+
+    /**
+     * Creates the {@link IObjObject}s of this model, and their {@link Mesh}
+     *
+     * @param objectProvider The object factory
+     * @param materials      The loaded materials, the faces using an unknown material will have a null material
+     * @param out            The list where the objects are added
+     */
+    public void createObjects(IObjObject.ObjObjectProvider objectProvider, List<Material> materials, List<IObjObject> out) {
+        Material[] resolved = new Material[materialNames.length];
+        for (int i = 0; i < materialNames.length; i++) {
+            for (Material material : materials) {
+                if (material.getName().equals(materialNames[i])) {
+                    resolved[i] = material;
+                    break;
+                }
+            }
+        }
+        for (ObjectData data : objects) {
+            IObjObject object = objectProvider.createObject(data.name);
+            int vertexCount = data.positions.length / 3;
+            Vertex[] vertices = new Vertex[vertexCount];
+            float x = 0, y = 0, z = 0;
+            for (int i = 0; i < vertexCount; i++) {
+                Vector3f pos = new Vector3f(data.positions[i * 3], data.positions[i * 3 + 1], data.positions[i * 3 + 2]);
+                x += pos.x;
+                y += pos.y;
+                z += pos.z;
+                vertices[i] = new Vertex(pos, new Vector2f(data.texCoords[i * 2], data.texCoords[i * 2 + 1]),
+                        new Vector3f(data.normals[i * 3], data.normals[i * 3 + 1], data.normals[i * 3 + 2]), new Vector3f());
+            }
+            Material[] faceMaterials = new Material[data.materials.length];
+            for (int i = 0; i < faceMaterials.length; i++)
+                faceMaterials[i] = data.materials[i] == -1 ? null : resolved[data.materials[i]];
+            Mesh mesh = object.getMesh();
+            mesh.vertices = vertices;
+            mesh.indices = data.indices;
+            mesh.materials = faceMaterials;
+            //Average of all vertices, as before
+            object.setCenter(new Vector3f(x / vertexCount, y / vertexCount, z / vertexCount));
+            out.add(object);
+        }
+    }
+
+    /**
+     * @return The size of this model written with {@link #writeTo(ByteBuffer)}
+     */
+    public int getSerializedSize() {
+        int size = 1 + 4 + 4;
+        for (String lib : materialLibs)
+            size += 2 + lib.getBytes(StandardCharsets.UTF_8).length;
+        for (String name : materialNames)
+            size += 2 + name.getBytes(StandardCharsets.UTF_8).length;
+        size += 4;
+        for (ObjectData object : objects) {
+            size += 2 + object.name.getBytes(StandardCharsets.UTF_8).length;
+            size += 3 * 4 + 4 * (object.positions.length + object.texCoords.length + object.normals.length + object.indices.length + object.materials.length);
+        }
+        return size;
+    }
+
+    public void writeTo(ByteBuffer buffer) {
+        buffer.put((byte) (texCoords ? 1 : 0));
+        buffer.putInt(materialLibs.length);
+        for (String lib : materialLibs)
+            writeString(buffer, lib);
+        buffer.putInt(materialNames.length);
+        for (String name : materialNames)
+            writeString(buffer, name);
+        buffer.putInt(objects.length);
+        for (ObjectData object : objects) {
+            writeString(buffer, object.name);
+            buffer.putInt(object.positions.length / 3);
+            buffer.asFloatBuffer().put(object.positions).put(object.texCoords).put(object.normals);
+            buffer.position(buffer.position() + 4 * (object.positions.length + object.texCoords.length + object.normals.length));
+            buffer.putInt(object.indices.length);
+            buffer.asIntBuffer().put(object.indices);
+            buffer.position(buffer.position() + 4 * object.indices.length);
+            buffer.putInt(object.materials.length);
+            buffer.asIntBuffer().put(object.materials);
+            buffer.position(buffer.position() + 4 * object.materials.length);
+        }
+    }
+
+    public static ObjModelData readFrom(ByteBuffer buffer) {
+        boolean texCoords = buffer.get() == 1;
+        String[] materialLibs = new String[buffer.getInt()];
+        for (int i = 0; i < materialLibs.length; i++)
+            materialLibs[i] = readString(buffer);
+        String[] materialNames = new String[buffer.getInt()];
+        for (int i = 0; i < materialNames.length; i++)
+            materialNames[i] = readString(buffer);
+        ObjectData[] objects = new ObjectData[buffer.getInt()];
+        for (int i = 0; i < objects.length; i++) {
+            String name = readString(buffer);
+            int vertexCount = buffer.getInt();
+            float[] positions = readFloats(buffer, vertexCount * 3);
+            float[] texCoordsData = readFloats(buffer, vertexCount * 2);
+            float[] normals = readFloats(buffer, vertexCount * 3);
+            int[] indices = readInts(buffer, buffer.getInt());
+            int[] materials = readInts(buffer, buffer.getInt());
+            objects[i] = new ObjectData(name, positions, texCoordsData, normals, indices, materials);
+        }
+        return new ObjModelData(texCoords, materialLibs, materialNames, objects);
+    }
+
+    private static void writeString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static float[] readFloats(ByteBuffer buffer, int length) {
+        float[] values = new float[length];
+        buffer.asFloatBuffer().get(values);
+        buffer.position(buffer.position() + length * 4);
+        return values;
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int length) {
+        int[] values = new int[length];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + length * 4);
+        return values;
+    }
+
+    /**
+     * An indexed object (or group) of the model
+     */
+    public static class ObjectData
+    {
+        private final String name;
+        /** x, y, z of each vertex */
+        private final float[] positions;
+        /** u, v of each vertex */
+        private final float[] texCoords;
+        /** x, y, z of each vertex */
+        private final float[] normals;
+        /** Three vertex indices per triangle */
+        private final int[] indices;
+        /** Material index of each triangle, -1 if none */
+        private final int[] materials;
+
+        public ObjectData(String name, float[] positions, float[] texCoords, float[] normals, int[] indices, int[] materials) {
+            this.name = name;
+            this.positions = positions;
+            this.texCoords = texCoords;
+            this.normals = normals;
+            this.indices = indices;
+            this.materials = materials;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public float[] getPositions() {
+            return positions;
+        }
+
+        public int[] getIndices() {
+            return indices;
+        }
+    }
+}
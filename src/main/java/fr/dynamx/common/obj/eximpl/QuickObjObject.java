@@ -2,13 +2,16 @@ package fr.dynamx.common.obj.eximpl;
 
 import fr.aym.acslib.api.services.ErrorTrackingService;
 import fr.dynamx.api.obj.IObjObject;
+import fr.dynamx.client.renders.model.ModelLod;
 import fr.dynamx.client.renders.model.ObjModelClient;
 import fr.dynamx.common.DynamXContext;
 import fr.dynamx.common.obj.Material;
 import fr.dynamx.common.obj.Mesh;
+import fr.dynamx.common.obj.VOLoader;
 import fr.dynamx.common.obj.Vertex;
 import fr.dynamx.common.obj.texture.MaterialTexture;
 import fr.dynamx.common.obj.texture.TextureData;
+import fr.dynamx.utils.DynamXConfig;
 import fr.dynamx.utils.DynamXLoadingTasks;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.BufferBuilder;
@@ -16,10 +19,15 @@ import net.minecraft.client.renderer.GlStateManager;
 import net.minecraft.client.renderer.Tessellator;
 import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
 import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL30;
 
 import javax.vecmath.Vector3f;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.IntPredicate;
 
 import static fr.dynamx.common.DynamXMain.log;
 
@@ -43,12 +51,36 @@ public class QuickObjObject implements IObjObject
         bindTexture = -1;
     }
 
+    /**
+     * The levels of detail are only generated for the parts having more triangles
+     */
+    private static final int MIN_LOD_TRIANGLES = 64;
+    /**
+     * Number of cells in the diameter of the part, used to generate each level of detail
+     */
+    private static final int[] LOD_RESOLUTIONS = {0, 24, 8};
+
     private final Mesh mesh = new Mesh();
     private Vector3f center;
     private final String name;
 
     private final Map<Byte, Integer> modelDisplayList = new HashMap<>();
 
+    /**
+     * Vertex buffers, used instead of the display lists if {@link DynamXConfig#useVboRenderer} is enabled and supported
+     */
+    private VOLoader vertexObjects;
+    private int vao;
+    /**
+     * Material ranges of each level of detail. The lower levels are generated by {@link #simplify(int, List)}, and stored after the full detail indices
+     */
+    private MaterialRanges[] lodRanges;
+    /**
+     * Gl texture of each material range of each level of detail, for each texture data. -1 keeps the previous texture
+     */
+    private final Map<Byte, int[][]> rangeTextures = new HashMap<>();
+    private float radius = -1;
+
     public QuickObjObject(String name) {
         this.name = name;
     }
@@ -73,6 +105,13 @@ public class QuickObjObject implements IObjObject
         return mesh;
     }
 
+    @Override
+    public float getRadius() {
+        if (radius == -1)
+            radius = IObjObject.super.getRadius();
+        return radius;
+    }
+
     @Override
     public void clearDisplayLists() {
         if (!modelDisplayList.isEmpty()) {
@@ -82,6 +121,170 @@ public class QuickObjObject implements IObjObject
             });
             modelDisplayList.clear();
         }
+        if (vertexObjects != null) {
+            vertexObjects.cleanUp();
+            vertexObjects = null;
+            vao = 0;
+            lodRanges = null;
+        }
+        rangeTextures.clear();
+    }
+
+    private boolean useVertexObjects() {
+        return DynamXConfig.useVboRenderer && VOLoader.isSupported();
+    }
+
+    /**
+     * Uploads the mesh in a vertex array, with its generated levels of detail, and splits it in material ranges like the tessellator rendering does
+     */
+    private void createVertexObjects(ObjModelClient model) {
+        if (vao != 0)
+            return;
+        int[][] lodIndices = new int[ModelLod.LEVELS][];
+        Material[][] lodMaterials = new Material[ModelLod.LEVELS][];
+        lodIndices[0] = mesh.indices;
+        lodMaterials[0] = mesh.materials;
+        int totalIndices = mesh.indices.length;
+        for (int level = 1; level < ModelLod.LEVELS; level++) {
+            lodIndices[level] = lodIndices[level - 1];
+            lodMaterials[level] = lodMaterials[level - 1];
+            if (mesh.indices.length / 3 < MIN_LOD_TRIANGLES)
+                continue;
+            List<Material> materials = new ArrayList<>();
+            int[] indices = simplify(LOD_RESOLUTIONS[level], materials);
+            //Only keep the level if it really removes triangles
+            if (indices != null && indices.length > 0 && indices.length < lodIndices[level - 1].length * 0.8f) {
+                lodIndices[level] = indices;
+                lodMaterials[level] = materials.toArray(new Material[0]);
+                totalIndices += indices.length;
+            }
+        }
+        int[] allIndices = new int[totalIndices];
+        lodRanges = new MaterialRanges[ModelLod.LEVELS];
+        int offset = 0;
+        for (int level = 0; level < ModelLod.LEVELS; level++) {
+            if (level > 0 && lodIndices[level] == lodIndices[level - 1]) {
+                lodRanges[level] = lodRanges[level - 1];
+                continue;
+            }
+            System.arraycopy(lodIndices[level], 0, allIndices, offset, lodIndices[level].length);
+            lodRanges[level] = computeRanges(model, lodIndices[level].length, lodMaterials[level], offset);
+            offset += lodIndices[level].length;
+        }
+        vertexObjects = new VOLoader();
+        vao = vertexObjects.loadMesh(mesh, allIndices);
+    }
+
+    /**
+     * Splits the triangles in ranges using the same material, like the tessellator rendering does
+     *
+     * @param indexCount The number of indices
+     * @param materials  The material of each triangle
+     * @param offset     The position of the first index in the index buffer
+     */
+    private MaterialRanges computeRanges(ObjModelClient model, int indexCount, Material[] materials, int offset) {
+        int[] starts = new int[materials.length];
+        int[] counts = new int[materials.length];
+        Material[] rangeMaterials = new Material[materials.length];
+        int ranges = 0;
+        Material bind = mesh.materials[0];
+        for (int i = 0; i < indexCount; i += 3) {
+            Material material = materials[i / 3];
+            boolean valid = isMaterialValid(model, material);
+            if (ranges == 0 || (valid && material != bind)) {
+                if (valid)
+                    bind = material;
+                starts[ranges] = offset + i;
+                rangeMaterials[ranges] = bind;
+                ranges++;
+            }
+            counts[ranges - 1] += 3;
+        }
+        return new MaterialRanges(Arrays.copyOf(starts, ranges), Arrays.copyOf(counts, ranges), Arrays.copyOf(rangeMaterials, ranges));
+    }
+
+    /**
+     * Generates a lower detail mesh by clustering the vertices on a grid : the vertices in the same cell are merged into the first one, and the flattened triangles are removed
+     *
+     * @param resolution The number of cells in the diameter of the part
+     * @param materials  Filled with the material of each kept triangle
+     * @return The indices of the kept triangles, or null if the part has no size
+     */
+    private int[] simplify(int resolution, List<Material> materials) {
+        float cellSize = 2 * getRadius() / resolution;
+        if (cellSize <= 0 || center == null)
+            return null;
+        Map<Long, Integer> cells = new HashMap<>();
+        int[] merged = new int[mesh.vertices.length];
+        for (int i = 0; i < mesh.vertices.length; i++) {
+            Vector3f pos = mesh.vertices[i].getPos();
+            long cx = (long) Math.floor((pos.x - center.x) / cellSize) & 0x1FFFFF;
+            long cy = (long) Math.floor((pos.y - center.y) / cellSize) & 0x1FFFFF;
+            long cz = (long) Math.floor((pos.z - center.z) / cellSize) & 0x1FFFFF;
+            long key = (cx << 42) | (cy << 21) | cz;
+            Integer vertex = cells.get(key);
+            if (vertex == null) {
+                cells.put(key, i);
+                merged[i] = i;
+            } else
+                merged[i] = vertex;
+        }
+        int[] indices = new int[mesh.indices.length];
+        int count = 0;
+        for (int i = 0; i < mesh.indices.length; i += 3) {
+            int a = merged[mesh.indices[i]];
+            int b = merged[mesh.indices[i + 1]];
+            int c = merged[mesh.indices[i + 2]];
+            if (a == b || b == c || a == c)
+                continue;
+            indices[count++] = a;
+            indices[count++] = b;
+            indices[count++] = c;
+            materials.add(mesh.materials[i / 3]);
+        }
+        return Arrays.copyOf(indices, count);
+    }
+
+    /**
+     * Resolves the gl textures of each material range, for each level of detail
+     */
+    private int[][] createRangeTextures(ObjModelClient model, String useDefault, String textureName) {
+        int[][] lodTextures = new int[lodRanges.length][];
+        for (int level = 0; level < lodRanges.length; level++) {
+            if (level > 0 && lodRanges[level] == lodRanges[level - 1]) {
+                lodTextures[level] = lodTextures[level - 1];
+                continue;
+            }
+            Material[] rangeMaterials = lodRanges[level].materials;
+            int[] textures = new int[rangeMaterials.length];
+            for (int i = 0; i < textures.length; i++) {
+                MaterialTexture texture = rangeMaterials[i].diffuseTexture.get(getExistingTexture(rangeMaterials[i], textureName, useDefault));
+                if (texture != null) {
+                    textures[i] = texture.getGlTextureId();
+                } else {
+                    textures[i] = -1;
+                    if (level == 0)
+                        log.error("Failed to load Default texture of " + getName() + " in " + model.getLocation() + " in material " + rangeMaterials[i].getName());
+                }
+            }
+            lodTextures[level] = textures;
+        }
+        return lodTextures;
+    }
+
+    private void renderVertexObjects(int[][] textures, int lodLevel) {
+        if (textures == null) //Not created, the materials are invalid
+            return;
+        MaterialRanges ranges = lodRanges[lodLevel];
+        int[] levelTextures = textures[lodLevel];
+        startDrawing();
+        GL30.glBindVertexArray(vao);
+        for (int i = 0; i < ranges.starts.length; i++) {
+            if (levelTextures[i] != -1)
+                bindTexture(levelTextures[i]);
+            GL11.glDrawElements(GL11.GL_TRIANGLES, ranges.counts[i], GL11.GL_UNSIGNED_INT, ranges.starts[i] * 4L);
+        }
+        GL30.glBindVertexArray(0);
     }
 
     @Override
@@ -97,7 +300,12 @@ public class QuickObjObject implements IObjObject
                 }
             }
         }
-        if(isCustom)
+        if(isCustom && useVertexObjects())
+        {
+            createVertexObjects(model);
+            rangeTextures.put(textureData.getId(), createRangeTextures(model, useDefault.getName(), textureData.getName()));
+        }
+        else if(isCustom)
         {
             // Create an empty display list
             int id =  GlStateManager.glGenLists(1);
@@ -114,7 +322,10 @@ public class QuickObjObject implements IObjObject
         {
             if(logIfNotFound)
                 log.error("Failed to find custom texture for skin "+textureData.getName()+" of "+model.getLocation()+" in part "+getName());
-            modelDisplayList.put(textureData.getId(), modelDisplayList.get(useDefault.getId()));
+            if(useVertexObjects())
+                rangeTextures.put(textureData.getId(), rangeTextures.get(useDefault.getId()));
+            else
+                modelDisplayList.put(textureData.getId(), modelDisplayList.get(useDefault.getId()));
         }
     }
 
@@ -122,6 +333,11 @@ public class QuickObjObject implements IObjObject
     public void createDefaultList(ObjModelClient model) {
         if(!isMaterialValid(model, mesh.materials[0]))
             return;
+        if(useVertexObjects()) {
+            createVertexObjects(model);
+            rangeTextures.put((byte) 0, createRangeTextures(model, "Default", "Default"));
+            return;
+        }
         // Create an empty display list
         int id =  GlStateManager.glGenLists(1);
         // Start the compilation of the list, this will fill the list with every vertex rendered onwards
@@ -136,9 +352,27 @@ public class QuickObjObject implements IObjObject
 
     @Override
     public void render(ObjModelClient model, byte textureDataId) {
+        render(model, textureDataId, 0);
+    }
+
+    /**
+     * The levels of detail are only generated for the vertex buffers, the display lists are always rendered at full detail
+     */
+    @Override
+    public void render(ObjModelClient model, byte textureDataId, int lodLevel) {
         if(mesh.materials.length == 0 || !isMaterialValid(model, mesh.materials[0]))
             return;
-        if(!modelDisplayList.containsKey(textureDataId)) {
+        if(vao != 0) {
+            int[][] textures = rangeTextures.get(textureDataId);
+            if(textures == null) {
+                GlStateManager.color(1, 0, 0);
+                renderVertexObjects(rangeTextures.get((byte) 0), lodLevel);
+                GlStateManager.color(1, 1, 1);
+            }
+            else
+                renderVertexObjects(textures, lodLevel);
+        }
+        else if(!modelDisplayList.containsKey(textureDataId)) {
             GlStateManager.color(1, 0, 0);
             GlStateManager.callList(modelDisplayList.get((byte) 0));
             GlStateManager.color(1, 1, 1);
@@ -149,6 +383,37 @@ public class QuickObjObject implements IObjObject
         GlStateManager.bindTexture(Minecraft.getMinecraft().getTextureMapBlocks().getGlTextureId()); //Confirm to mc that used texture has changed
     }
 
+    /**
+     * Binds the vertex array and each texture only once, then draws all instances
+     */
+    @Override
+    public void renderInstances(ObjModelClient model, byte textureDataId, int lodLevel, int count, IntPredicate applyInstance) {
+        if(vao == 0 || !rangeTextures.containsKey(textureDataId)) {
+            //Display lists, or missing texture (rendered in red)
+            IObjObject.super.renderInstances(model, textureDataId, lodLevel, count, applyInstance);
+            return;
+        }
+        if(!isMaterialValid(model, mesh.materials[0]))
+            return;
+        int[][] textures = rangeTextures.get(textureDataId);
+        if (textures == null) //Not created, the materials are invalid
+            return;
+        MaterialRanges ranges = lodRanges[lodLevel];
+        int[] levelTextures = textures[lodLevel];
+        startDrawing();
+        GL30.glBindVertexArray(vao);
+        for (int i = 0; i < ranges.starts.length; i++) {
+            if (levelTextures[i] != -1)
+                bindTexture(levelTextures[i]);
+            for (int j = 0; j < count; j++) {
+                if (applyInstance.test(j))
+                    GL11.glDrawElements(GL11.GL_TRIANGLES, ranges.counts[i], GL11.GL_UNSIGNED_INT, ranges.starts[i] * 4L);
+            }
+        }
+        GL30.glBindVertexArray(0);
+        GlStateManager.bindTexture(Minecraft.getMinecraft().getTextureMapBlocks().getGlTextureId()); //Confirm to mc that used texture has changed
+    }
+
     private String getExistingTexture(Material material, String first, String second) {
         return material.diffuseTexture.containsKey(first) ? first : material.diffuseTexture.containsKey(second) ? second : "Default";
     }
@@ -228,4 +493,19 @@ public class QuickObjObject implements IObjObject
         }
         return true;
     }
+
+    /**
+     * Start (in the indices) and length of each range of triangles using the same material
+     */
+    private static class MaterialRanges
+    {
+        private final int[] starts, counts;
+        private final Material[] materials;
+
+        private MaterialRanges(int[] starts, int[] counts, Material[] materials) {
+            this.starts = starts;
+            this.counts = counts;
+            this.materials = materials;
+        }
+    }
 }
@@ -6,12 +6,15 @@ import fr.dynamx.api.events.DynamXRenderEvent;
 import fr.dynamx.api.events.EventStage;
 import fr.dynamx.api.obj.IModelTextureSupplier;
 import fr.dynamx.api.obj.IObjObject;
+import fr.dynamx.api.obj.ObjGroupIds;
+import fr.dynamx.client.renders.model.ModelLod;
 import fr.dynamx.client.renders.model.ObjModelClient;
 import fr.dynamx.common.DynamXContext;
 import fr.dynamx.common.blocks.DynamXBlock;
 import fr.dynamx.common.obj.texture.TextureData;
 import fr.dynamx.utils.DynamXLoadingTasks;
 import fr.dynamx.utils.DynamXUtils;
+import fr.dynamx.utils.EventListenerChecker;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.resources.IResource;
 import net.minecraft.util.ResourceLocation;
@@ -21,8 +24,12 @@ import net.minecraftforge.common.MinecraftForge;
 import javax.annotation.Nullable;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static fr.dynamx.common.DynamXMain.log;
 
@@ -31,10 +38,60 @@ import static fr.dynamx.common.DynamXMain.log;
  */
 public class TessellatorModelClient extends ObjModelClient {
     private final IModelTextureSupplier customTextures;
+    /**
+     * Lower detail objects declared in the model (named 'object_lod1', 'object_lod2'...), by full detail object
+     */
+    private final Map<IObjObject, IObjObject[]> declaredLods = new HashMap<>();
+    private final Set<IObjObject> lodObjects = new HashSet<>();
+    /**
+     * The 'main' objects, never drawn
+     */
+    private final Set<IObjObject> mainObjects = new HashSet<>();
+    /**
+     * The objects drawn by {@link #renderModel(byte)}, and by {@link #renderMainParts(byte)}, computed once
+     */
+    private final IObjObject[] renderedObjects;
+    private IObjObject[] mainParts;
 
     private TessellatorModelClient(ResourceLocation location, List<IObjObject> objObjects, @Nullable IModelTextureSupplier customTextures) {
         super(location, objObjects);
         this.customTextures = customTextures;
+        for (IObjObject object : objObjects) {
+            int index = object.getName().toLowerCase().lastIndexOf("_lod");
+            if (index <= 0)
+                continue;
+            int level;
+            try {
+                level = Integer.parseInt(object.getName().substring(index + 4));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            IObjObject fullDetail = getObjObject(object.getName().substring(0, index));
+            if (fullDetail != null && level > 0 && level < ModelLod.LEVELS) {
+                declaredLods.computeIfAbsent(fullDetail, o -> new IObjObject[ModelLod.LEVELS])[level] = object;
+                lodObjects.add(object);
+            }
+        }
+        List<IObjObject> rendered = new ArrayList<>();
+        for (IObjObject object : objObjects) {
+            if (object.getName().equals("main"))
+                mainObjects.add(object);
+            if (!lodObjects.contains(object))
+                rendered.add(object);
+        }
+        renderedObjects = rendered.toArray(new IObjObject[0]);
+    }
+
+    /**
+     * @return The objects allowed by {@link IModelTextureSupplier#canRenderPart(String)}
+     */
+    private IObjObject[] computeMainParts() {
+        List<IObjObject> parts = new ArrayList<>();
+        for (IObjObject object : renderedObjects) {
+            if (getCustomTextures().canRenderPart(object.getName()))
+                parts.add(object);
+        }
+        return parts.toArray(new IObjObject[0]);
     }
 
     public static TessellatorModelClient loadObjModel(ResourceLocation location, @Nullable IModelTextureSupplier customTextures) {
@@ -46,7 +103,7 @@ public class TessellatorModelClient extends ObjModelClient {
             content = new String(DynamXUtils.readInputStream(res.getInputStream()), StandardCharsets.UTF_8);
             startPath = location.getPath().substring(0, location.getPath().lastIndexOf("/") + 1);
             List<IObjObject> objObjects = new ArrayList<>();
-            new OBJLoader(objObjects).loadModelClient(QuickObjObject::new, startPath, content);
+            new OBJLoader(objObjects).loadModelClient(QuickObjObject::new, startPath, content, location.toString());
             return new TessellatorModelClient(location, objObjects, customTextures);
         } catch (Exception e) {
             log.error(" Model " + location + " cannot be loaded !", e);
@@ -64,10 +121,11 @@ public class TessellatorModelClient extends ObjModelClient {
     }
 
     /**
-     * Creates display list for each {@link IObjObject}
+     * Creates the vertex buffers, or the display lists, of each {@link IObjObject}
      */
     @Override
     public void setupModel() {
+        mainParts = getCustomTextures() != null ? computeMainParts() : null;
         if (!objObjects.isEmpty()) { //No error while loading the model
             hasNoneMaterials = false;
             //System.out.println("Custom texs of " + getLocation() + " are " + customTextures);
@@ -102,32 +160,30 @@ public class TessellatorModelClient extends ObjModelClient {
 
     @Override
     public void renderModel(byte textureDataId) {
-        objObjects.sort((a, b) -> {
-            Vec3d v = Minecraft.getMinecraft().getRenderViewEntity() != null ? Minecraft.getMinecraft().getRenderViewEntity().getPositionVector() : new Vec3d(0, 0, 0);
-            double aDist = v.distanceTo(new Vec3d(a.getCenter().x, a.getCenter().y, a.getCenter().z));
-            double bDist = v.distanceTo(new Vec3d(b.getCenter().x, b.getCenter().y, b.getCenter().z));
+        Vec3d v = Minecraft.getMinecraft().getRenderViewEntity() != null ? Minecraft.getMinecraft().getRenderViewEntity().getPositionVector() : Vec3d.ZERO;
+        Arrays.sort(renderedObjects, (a, b) -> {
+            double aDist = v.squareDistanceTo(a.getCenter().x, a.getCenter().y, a.getCenter().z);
+            double bDist = v.squareDistanceTo(b.getCenter().x, b.getCenter().y, b.getCenter().z);
             return Double.compare(aDist, bDist);
         });
-        if(!MinecraftForge.EVENT_BUS.post(new DynamXRenderEvent.RenderModel(EventStage.PRE, getLocation(), "main")))
+        boolean postEvents = EventListenerChecker.hasListeners(DynamXRenderEvent.RenderModel.class);
+        if(!postEvents || !MinecraftForge.EVENT_BUS.post(new DynamXRenderEvent.RenderModel(EventStage.PRE, getLocation(), "main")))
         {
-            for (IObjObject object : objObjects) {
+            for (IObjObject object : renderedObjects) {
                 //System.out.println("DO render "+object.getName()+" "+textureDataId+" "+object.modelDisplayList+" "+location);
-                renderGroup(object, textureDataId);
+                renderGroup(object, textureDataId, true);
             }
         }
-        MinecraftForge.EVENT_BUS.post(new DynamXRenderEvent.RenderModel(EventStage.POST, getLocation(), "main"));
+        if(postEvents)
+            MinecraftForge.EVENT_BUS.post(new DynamXRenderEvent.RenderModel(EventStage.POST, getLocation(), "main"));
     }
 
+    /**
+     * Prefer {@link #renderGroups(int, byte)} in render loops
+     */
     @Override
     public boolean renderGroups(String group, byte textureDataId) {
-        boolean drawn = false;
-        for (IObjObject object : objObjects) {
-            if (object.getName().equalsIgnoreCase(group)) {
-                renderGroup(object, textureDataId);
-                drawn = true;
-            }
-        }
-        return drawn;
+        return renderGroups(ObjGroupIds.get(group), textureDataId);
     }
 
     @Override
@@ -135,33 +191,67 @@ public class TessellatorModelClient extends ObjModelClient {
         if(getCustomTextures() == null) {
             throw new IllegalStateException("Cannot determine the parts to render !");
         }
-        boolean drawn = false;
-        for (IObjObject object : objObjects) {
-            if (getCustomTextures().canRenderPart(object.getName())) {
-                renderGroup(object, textureDataId);
-                drawn = true;
-            }
+        if(mainParts == null)
+            mainParts = computeMainParts();
+        for (IObjObject object : mainParts) {
+            renderGroup(object, textureDataId, true);
         }
-        return drawn;
+        return mainParts.length > 0;
     }
 
     @Override
     public void renderGroup(IObjObject obj, byte textureDataId) {
-        if(!MinecraftForge.EVENT_BUS.post(new DynamXRenderEvent.RenderModel(EventStage.PRE, getLocation(), obj.getName())))
+        renderGroup(obj, textureDataId, false);
+    }
+
+    /**
+     * Renders the group with the level of detail selected by {@link ModelLod}
+     *
+     * @param modelSpace True if the group is rendered at its position in the model, used to cull it if it's out of the screen
+     */
+    private void renderGroup(IObjObject obj, byte textureDataId, boolean modelSpace) {
+        boolean postEvents = EventListenerChecker.hasListeners(DynamXRenderEvent.RenderModel.class);
+        if(!postEvents || !MinecraftForge.EVENT_BUS.post(new DynamXRenderEvent.RenderModel(EventStage.PRE, getLocation(), obj.getName())))
         {
-            if (!obj.getName().equals("main")) {
-                obj.render(this, textureDataId);
+            if (!mainObjects.contains(obj)) {
+                int lodLevel = ModelLod.select(obj, modelSpace);
+                if (lodLevel != ModelLod.CULLED) {
+                    IObjObject lodObject = getLodObject(obj, lodLevel);
+                    if (lodObject != null)
+                        lodObject.render(this, textureDataId);
+                    else
+                        obj.render(this, textureDataId, lodLevel);
+                }
             }
         }
-        MinecraftForge.EVENT_BUS.post(new DynamXRenderEvent.RenderModel(EventStage.POST, getLocation(), obj.getName()));
+        if(postEvents)
+            MinecraftForge.EVENT_BUS.post(new DynamXRenderEvent.RenderModel(EventStage.POST, getLocation(), obj.getName()));
     }
 
     @Override
-    public IObjObject getObjObject(String groupName) {
-        for (IObjObject o : objObjects) {
-            if (o.getName().equalsIgnoreCase(groupName))
-                return o;
+    public boolean isLodObject(IObjObject object) {
+        return lodObjects.contains(object);
+    }
+
+    @Nullable
+    @Override
+    public IObjObject getLodObject(IObjObject object, int lodLevel) {
+        IObjObject[] lods = declaredLods.get(object);
+        if (lods == null)
+            return null;
+        //Use the nearest declared level
+        for (int i = lodLevel; i > 0; i--) {
+            if (lods[i] != null)
+                return lods[i];
         }
         return null;
     }
+
+    /**
+     * Prefer {@link #getObjObject(int)} in render loops
+     */
+    @Override
+    public IObjObject getObjObject(String groupName) {
+        return getObjObject(ObjGroupIds.get(groupName));
+    }
 }
@@ -22,11 +22,29 @@ public class TessellatorModelServer extends ObjModelServer {
     private final IMpsClassLoader mpsClassLoader;
 
     public TessellatorModelServer(IMpsClassLoader mpsClassLoader, ObjModelPath path) {
+        this(mpsClassLoader, path, readContent(mpsClassLoader, path));
+    }
+
+    /**
+     * @param content The content of the model file, see {@link #readContent(IMpsClassLoader, ObjModelPath)}
+     */
+    public TessellatorModelServer(IMpsClassLoader mpsClassLoader, ObjModelPath path, byte[] content) {
         super(path);
         this.mpsClassLoader = mpsClassLoader;
         try {
-            String content = new String(DynamXUtils.readInputStream(FMLCommonHandler.instance().getSide().isClient() ? client(path) : server(path)), StandardCharsets.UTF_8);
-            new OBJLoader(objObjects).loadModelServer(SimpleObjObject::new, content);
+            new OBJLoader(objObjects).loadModelServer(SimpleObjObject::new, new String(content, StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            //Don't remove the throw - Aym
+            throw new RuntimeException("Model " + path + " cannot be loaded ! Has secure loader: "+(mpsClassLoader != null), e);
+        }
+    }
+
+    /**
+     * Reads the content of the model file, without parsing it
+     */
+    public static byte[] readContent(IMpsClassLoader mpsClassLoader, ObjModelPath path) {
+        try (InputStream in = FMLCommonHandler.instance().getSide().isClient() ? client(path) : server(mpsClassLoader, path)) {
+            return DynamXUtils.readInputStream(in);
         } catch (Exception e) {
             //Don't remove the throw - Aym
             throw new RuntimeException("Model " + path + " cannot be loaded ! Has secure loader: "+(mpsClassLoader != null), e);
@@ -34,12 +52,12 @@ public class TessellatorModelServer extends ObjModelServer {
     }
 
     @SideOnly(Side.CLIENT)
-    private InputStream client(ObjModelPath path) throws IOException {
+    private static InputStream client(ObjModelPath path) throws IOException {
         IResource res = Minecraft.getMinecraft().getResourceManager().getResource(path.getModelPath());
         return res.getInputStream();
     }
 
-    private InputStream server(ObjModelPath path) throws IOException {
+    private static InputStream server(IMpsClassLoader mpsClassLoader, ObjModelPath path) throws IOException {
         if (mpsClassLoader != null) {
             InputStream protectedd = mpsClassLoader.getResourceAsStream("assets/" + path.getModelPath().getNamespace() + "/" + path.getModelPath().getPath());
             //System.out.println("Search " + "assets/" + path.getModelPath().getNamespace() + "/" + path.getModelPath().getPath() + " " + path + " : " + protectedd);
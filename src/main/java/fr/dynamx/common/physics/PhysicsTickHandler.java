@@ -5,9 +5,13 @@ import fr.dynamx.common.DynamXContext;
 import fr.dynamx.common.DynamXMain;
 import fr.dynamx.common.handlers.TaskScheduler;
 import fr.dynamx.common.network.packets.MessageCollisionDebugDraw;
+import fr.dynamx.common.network.packets.MessagePerformanceStats;
+import fr.dynamx.common.physics.replay.PhysicsRecorder;
+import fr.dynamx.common.physics.replay.PhysicsReplayer;
 import fr.dynamx.server.command.CmdNetworkConfig;
 import fr.dynamx.utils.DynamXLoadingTasks;
 import fr.dynamx.utils.debug.DynamXDebugOptions;
+import fr.dynamx.utils.debug.PerformanceMonitor;
 import fr.dynamx.utils.debug.Profiler;
 import fr.dynamx.utils.optimization.QuaternionPool;
 import fr.dynamx.utils.optimization.TransformPool;
@@ -29,12 +33,17 @@ import java.util.Map;
 public class PhysicsTickHandler {
     private static long lastTickTimeMs;
     public static final Map<EntityPlayer, Integer> requestedDebugInfo = new HashMap<>();
+    /** Operators using the performance overlay, with the tick of their last request : they're forgotten after {@link #OVERLAY_TIMEOUT} ticks without request */
+    private static final Map<EntityPlayerMP, Integer> performanceOverlayRequests = new HashMap<>();
+    private static final int OVERLAY_TIMEOUT = PerformanceMonitor.SEND_INTERVAL * 4;
+    /** Sample count of the server monitor when the last samples were sent */
+    private static int lastSentSample;
 
     @SideOnly(Side.CLIENT)
     @SubscribeEvent(priority = EventPriority.LOWEST)
     public void tickClient(TickEvent.ClientTickEvent event) {
         if (canTickClient(Minecraft.getMinecraft())) {
-            tickPhysics(event.phase);
+            tickPhysics(event.phase, false);
         }
 
         if (event.phase == TickEvent.Phase.START) {
@@ -70,7 +79,13 @@ public class PhysicsTickHandler {
     @SubscribeEvent
     public void tickServer(TickEvent.ServerTickEvent event) {
         if (canTickServer(FMLCommonHandler.instance().getMinecraftServerInstance())) {
-            tickPhysics(event.phase);
+            tickPhysics(event.phase, true);
+            if (event.phase == TickEvent.Phase.END) {
+                if (PhysicsRecorder.getActive() != null)
+                    PhysicsRecorder.getActive().tickEnd();
+                if (PhysicsReplayer.getActive() != null)
+                    PhysicsReplayer.getActive().run(PhysicsReplayer.TICK_BUDGET);
+            }
         }
 
         if (event.phase == TickEvent.Phase.START) {
@@ -80,6 +95,7 @@ public class PhysicsTickHandler {
                 DynamXLoadingTasks.tick();
             }
         } else {
+            PerformanceMonitor.SERVER.sample(DynamXContext.getPhysicsWorld());
             sendClientsDebug();
             Profiler.get().update();
             TaskScheduler.tick();
@@ -92,7 +108,7 @@ public class PhysicsTickHandler {
         return server.getWorld(0) != null && DynamXMain.proxy.shouldUseBulletSimulation(server.getWorld(0)) && DynamXContext.getPhysicsWorld() != null;
     }
 
-    private void tickPhysics(TickEvent.Phase phase) {
+    private void tickPhysics(TickEvent.Phase phase, boolean server) {
         if (phase == TickEvent.Phase.START) {
             try {
                 Profiler.get().start(Profiler.Profiles.TICK);
@@ -108,17 +124,12 @@ public class PhysicsTickHandler {
             float deltaTimeSecond = getDeltaTimeMilliseconds() * 1.0E-3F;
             if (deltaTimeSecond > 0.5f) // game was paused ?
                 deltaTimeSecond = 0.05f;
+            if (server && PhysicsRecorder.getActive() != null)
+                PhysicsRecorder.getActive().onStepSimulation(deltaTimeSecond);
 
             Profiler.get().start(Profiler.Profiles.STEP_SIMULATION);
             DynamXContext.getPhysicsWorld().stepSimulation(deltaTimeSecond);
             Profiler.get().end(Profiler.Profiles.STEP_SIMULATION);
-
-            DynamXContext.getPhysicsWorld().getDynamicsWorld().getJointList().forEach(joint -> {
-                if ((joint.getBodyA() != null && !DynamXContext.getPhysicsWorld().getDynamicsWorld().contains(joint.getBodyA()))
-                        || (joint.getBodyB() != null && !DynamXContext.getPhysicsWorld().getDynamicsWorld().contains(joint.getBodyB()))) {
-                    DynamXContext.getPhysicsWorld().removeJoint(joint);
-                }
-            });
         } else {
             DynamXContext.getPhysicsWorld().tickEnd();
 
@@ -130,6 +141,24 @@ public class PhysicsTickHandler {
         }
     }
 
+    /**
+     * Samples the server monitor while operators use the performance overlay, and sends them the new samples once a full window of {@link PerformanceMonitor#SEND_INTERVAL} samples is taken <br>
+     * The operators are kept between their requests, so the sampling (and the history of the clients) isn't reset by the timing of the requests
+     */
+    private void sendPerformanceStats(int tick) {
+        performanceOverlayRequests.entrySet().removeIf(e -> e.getKey().hasDisconnected() || tick - e.getValue() > OVERLAY_TIMEOUT);
+        PerformanceMonitor.SERVER.setSampling(!performanceOverlayRequests.isEmpty());
+        int sampleCount = PerformanceMonitor.SERVER.getSampleCount();
+        if (sampleCount < lastSentSample) //The history was cleared
+            lastSentSample = 0;
+        if (performanceOverlayRequests.isEmpty() || sampleCount - lastSentSample < PerformanceMonitor.SEND_INTERVAL)
+            return;
+        MessagePerformanceStats message = new MessagePerformanceStats(PerformanceMonitor.SERVER, sampleCount - lastSentSample);
+        for (EntityPlayerMP player : performanceOverlayRequests.keySet())
+            DynamXContext.getNetwork().sendToClient(message, EnumPacketTarget.PLAYER, player);
+        lastSentSample = sampleCount;
+    }
+
     private void sendClientsDebug() {
         boolean profiling;
         if (DynamXMain.proxy.getServerWorld().getMinecraftServer().isDedicatedServer()) { //If integrated server, the vars are already shared
@@ -151,9 +180,14 @@ public class PhysicsTickHandler {
                 } else if (DynamXDebugOptions.WHEEL_ADVANCED_DATA.matchesNetMask(e.getValue())) {
                     wheelData = true;
                 }
+                //The debug requests are only accepted from operators, see MessageDebugRequest
+                if (DynamXDebugOptions.PERFORMANCE_OVERLAY.matchesNetMask(e.getValue()))
+                    performanceOverlayRequests.put((EntityPlayerMP) e.getKey(), DynamXMain.proxy.getServerWorld().getMinecraftServer().getTickCounter());
             }
-            if (DynamXMain.proxy.getServerWorld().getMinecraftServer().getTickCounter() % 5 == 0) //requestedDebugInfo is sent all 5 ticks
+            sendPerformanceStats(DynamXMain.proxy.getServerWorld().getMinecraftServer().getTickCounter());
+            if (DynamXMain.proxy.getServerWorld().getMinecraftServer().getTickCounter() % PerformanceMonitor.SEND_INTERVAL == 0) { //requestedDebugInfo is sent all 5 ticks
                 requestedDebugInfo.clear();
+            }
             if (networkDebug != DynamXDebugOptions.FULL_NETWORK_DEBUG.isActive()) {
                 System.out.println("Setting FULL_NETWORK_DEBUG active : " + networkDebug);
                 if (networkDebug)
@@ -170,6 +204,7 @@ public class PhysicsTickHandler {
             }
         } else {
             profiling = DynamXDebugOptions.PROFILING.isActive();
+            PerformanceMonitor.SERVER.setSampling(DynamXDebugOptions.PERFORMANCE_OVERLAY.isActive());
         }
         if (profiling) {
             if (DynamXMain.proxy.getTickTime() % 20 == 0) {
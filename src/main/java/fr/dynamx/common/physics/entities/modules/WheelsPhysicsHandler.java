@@ -7,6 +7,7 @@ import com.jme3.math.Vector3f;
 import fr.dynamx.api.entities.modules.IEngineModule;
 import fr.dynamx.api.physics.entities.IEnginePhysicsHandler;
 import fr.dynamx.api.physics.entities.IPropulsionHandler;
+import fr.dynamx.common.DynamXContext;
 import fr.dynamx.common.contentpack.parts.PartWheel;
 import fr.dynamx.common.contentpack.type.PartWheelInfo;
 import fr.dynamx.common.entities.BaseVehicleEntity;
@@ -86,8 +87,13 @@ public class WheelsPhysicsHandler implements IPropulsionHandler {
         wheelIDByPartID.put(partWheel.getId(), index);
     }
 
+    /**
+     * Submits the wheels to the {@link fr.dynamx.common.physics.entities.parts.wheel.TireForceSolver} of the physics world, solved before the bullet step
+     */
     public void update() {
-        pacejkaMagicFormula.update();
+        //No physics world on the clients without prediction, and while unloading the world
+        if (DynamXContext.getPhysicsWorld() != null)
+            pacejkaMagicFormula.update(DynamXContext.getPhysicsWorld().getTireSolver());
     }
 
     public void removeWheel(byte partID) {
@@ -0,0 +1,221 @@
+package fr.dynamx.common.physics.entities.parts.boat;
+
+import com.jme3.bullet.objects.PhysicsRigidBody;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import fr.dynamx.common.contentpack.parts.PartFloat;
+import net.minecraft.block.BlockLiquid;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Computes the buoyancy and the water drag of a boat, from sample points placed under its {@link PartFloat}s <br>
+ * The samples are computed once, and stored with their results in preallocated float arrays owned by the boat : there is no shared state, so several boats can be simulated in parallel <br>
+ * The fluid height of each block column is read once per tick, then cached : the samples of the same column share the world lookup
+ */
+public class BuoyancyPhysicsHandler {
+    /** Samples per float, in a 2x2 grid under the float */
+    private static final int SAMPLES_PER_FLOAT = 4;
+    private static final float WATER_DENSITY = 1000;
+    private static final float GRAVITY = 9.81f;
+    /** Blocks searched under and above the boat to find the fluid surface */
+    private static final int SEARCH_DOWN = 4, SEARCH_UP = 3;
+
+    private final int sampleCount;
+    //Sample points, relative to the rigid body, and their size
+    private final float[] localX, localY, localZ;
+    /** Position of the samples in the model, for the debug */
+    private final float[] modelX, modelY, modelZ;
+    private final float[] height, area;
+    //Per tick results
+    private final float[] worldX, worldY, worldZ;
+    private final float[] submersion;
+    /** Buoyancy and drag forces of the samples, in model space, for the debug */
+    private final float[] debugForces;
+
+    //Fluid height cache, open addressing by block column
+    private final long[] columnKeys;
+    private final float[] columnHeights;
+    private final int[] columnStamps;
+    private int stamp;
+
+    private final Vector3f point = new Vector3f();
+    private final Vector3f impulse = new Vector3f();
+
+    public BuoyancyPhysicsHandler(List<PartFloat> floats, Vector3f centerOfMass) {
+        sampleCount = floats.size() * SAMPLES_PER_FLOAT;
+        localX = new float[sampleCount];
+        localY = new float[sampleCount];
+        localZ = new float[sampleCount];
+        modelX = new float[sampleCount];
+        modelY = new float[sampleCount];
+        modelZ = new float[sampleCount];
+        height = new float[sampleCount];
+        area = new float[sampleCount];
+        worldX = new float[sampleCount];
+        worldY = new float[sampleCount];
+        worldZ = new float[sampleCount];
+        submersion = new float[sampleCount];
+        debugForces = new float[sampleCount * 6];
+        int i = 0;
+        for (PartFloat f : floats) {
+            float sizeX = (float) (f.box.maxX - f.box.minX), sizeZ = (float) (f.box.maxZ - f.box.minZ);
+            for (int s = 0; s < SAMPLES_PER_FLOAT; s++) {
+                //Center of each quarter of the bottom face of the float
+                modelX[i] = (float) f.box.minX + sizeX * ((s & 1) == 0 ? 0.25f : 0.75f);
+                modelY[i] = (float) f.box.minY;
+                modelZ[i] = (float) f.box.minZ + sizeZ * ((s & 2) == 0 ? 0.25f : 0.75f);
+                localX[i] = modelX[i] + centerOfMass.x;
+                localY[i] = modelY[i] + centerOfMass.y;
+                localZ[i] = modelZ[i] + centerOfMass.z;
+                height[i] = (float) (f.box.maxY - f.box.minY);
+                area[i] = sizeX * sizeZ / SAMPLES_PER_FLOAT;
+                i++;
+            }
+        }
+        int cacheSize = Integer.highestOneBit(Math.max(sampleCount, 4) * 4);
+        columnKeys = new long[cacheSize];
+        columnHeights = new float[cacheSize];
+        columnStamps = new int[cacheSize];
+    }
+
+    /**
+     * Applies the buoyancy and the water drag impulses of this tick
+     *
+     * @param world      The world containing the water
+     * @param body       The rigid body of the boat
+     * @param position   The position of the rigid body
+     * @param rotation   The rotation of the rigid body
+     * @param linearVel  The velocity of the rigid body
+     * @param angularVel The angular velocity of the rigid body
+     * @param dragFactor The drag coefficient of the boat
+     * @param timeStep   The duration of the tick, in seconds
+     */
+    public void update(World world, PhysicsRigidBody body, Vector3f position, Quaternion rotation, Vector3f linearVel, Vector3f angularVel, float dragFactor, float timeStep) {
+        stamp++;
+        //Rotation matrix of the body
+        float qx = rotation.getX(), qy = rotation.getY(), qz = rotation.getZ(), qw = rotation.getW();
+        float m00 = 1 - 2 * (qy * qy + qz * qz), m01 = 2 * (qx * qy - qz * qw), m02 = 2 * (qx * qz + qy * qw);
+        float m10 = 2 * (qx * qy + qz * qw), m11 = 1 - 2 * (qx * qx + qz * qz), m12 = 2 * (qy * qz - qx * qw);
+        float m20 = 2 * (qx * qz - qy * qw), m21 = 2 * (qy * qz + qx * qw), m22 = 1 - 2 * (qx * qx + qy * qy);
+
+        //Sample positions and submersion
+        int searchBase = MathHelper.floor(position.y);
+        for (int i = 0; i < sampleCount; i++) {
+            float ox = m00 * localX[i] + m01 * localY[i] + m02 * localZ[i];
+            float oy = m10 * localX[i] + m11 * localY[i] + m12 * localZ[i];
+            float oz = m20 * localX[i] + m21 * localY[i] + m22 * localZ[i];
+            worldX[i] = ox;
+            worldY[i] = oy;
+            worldZ[i] = oz;
+            float surface = getFluidHeight(world, MathHelper.floor(position.x + ox), MathHelper.floor(position.z + oz), searchBase);
+            submersion[i] = Float.isNaN(surface) ? 0 : MathHelper.clamp(surface - (position.y + oy), 0, height[i]);
+        }
+
+        //Forces
+        float maxDragImpulse = body.getMass() / Math.max(1, sampleCount);
+        Arrays.fill(debugForces, 0);
+        for (int i = 0; i < sampleCount; i++) {
+            if (submersion[i] <= 0)
+                continue;
+            point.set(worldX[i], worldY[i], worldZ[i]);
+            //Archimedes
+            float buoyancy = WATER_DENSITY * GRAVITY * submersion[i] * area[i] * timeStep;
+            impulse.set(0, buoyancy, 0);
+            body.applyImpulse(impulse, point);
+
+            //Quadratic drag, with the velocity of the sample
+            float vx = linearVel.x + angularVel.y * worldZ[i] - angularVel.z * worldY[i];
+            float vy = linearVel.y + angularVel.z * worldX[i] - angularVel.x * worldZ[i];
+            float vz = linearVel.z + angularVel.x * worldY[i] - angularVel.y * worldX[i];
+            float speed = (float) Math.sqrt(vx * vx + vy * vy + vz * vz);
+            float drag = 0;
+            if (speed > 1.0E-4f) {
+                float wetArea = area[i] * submersion[i] / height[i];
+                //Don't reverse the velocity of the sample
+                drag = Math.min(0.5f * WATER_DENSITY * speed * speed * dragFactor * wetArea * timeStep, maxDragImpulse * speed);
+                impulse.set(-vx / speed * drag, -vy / speed * drag, -vz / speed * drag);
+                body.applyImpulse(impulse, point);
+            }
+
+            //Forces in model space, for the debug renderer
+            int d = i * 6;
+            debugForces[d] = m10 * buoyancy * 0.01f;
+            debugForces[d + 1] = m11 * buoyancy * 0.01f;
+            debugForces[d + 2] = m12 * buoyancy * 0.01f;
+            if (drag > 0) {
+                debugForces[d + 3] = (m00 * impulse.x + m10 * impulse.y + m20 * impulse.z) * 0.01f;
+                debugForces[d + 4] = (m01 * impulse.x + m11 * impulse.y + m21 * impulse.z) * 0.01f;
+                debugForces[d + 5] = (m02 * impulse.x + m12 * impulse.y + m22 * impulse.z) * 0.01f;
+            }
+        }
+    }
+
+    /**
+     * Finds the fluid surface of a block column around the boat, using the cache of this tick
+     *
+     * @return The height of the surface, or NaN if there is no fluid
+     */
+    private float getFluidHeight(World world, int x, int z, int searchBase) {
+        long key = ((long) x << 32) ^ (z & 0xFFFFFFFFL);
+        int mask = columnKeys.length - 1;
+        int slot = (int) (key ^ (key >>> 29)) * 0x9E3779B9 >>> 16 & mask;
+        while (columnStamps[slot] == stamp) {
+            if (columnKeys[slot] == key)
+                return columnHeights[slot];
+            slot = (slot + 1) & mask;
+        }
+        float surface = computeFluidHeight(world, x, z, searchBase);
+        columnKeys[slot] = key;
+        columnHeights[slot] = surface;
+        columnStamps[slot] = stamp;
+        return surface;
+    }
+
+    private static float computeFluidHeight(World world, int x, int z, int searchBase) {
+        //Don't load chunks from the physics thread
+        Chunk chunk = world.getChunkProvider().getLoadedChunk(x >> 4, z >> 4);
+        if (chunk == null)
+            return Float.NaN;
+        //The first liquid block from the top is the surface
+        for (int y = Math.min(255, searchBase + SEARCH_UP); y >= Math.max(0, searchBase - SEARCH_DOWN); y--) {
+            IBlockState state = chunk.getBlockState(x, y, z);
+            if (state.getMaterial().isLiquid())
+                return state.getBlock() instanceof BlockLiquid ? y + 1 - BlockLiquid.getLiquidHeightPercent(state.getValue(BlockLiquid.LEVEL)) : y + 1;
+        }
+        return Float.NaN;
+    }
+
+    /**
+     * @return The number of sample points
+     */
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * @return The position of the sample in the model
+     */
+    public Vector3f getSampleModelPosition(int sample, Vector3f store) {
+        return store.set(modelX[sample], modelY[sample], modelZ[sample]);
+    }
+
+    /**
+     * @return The submerged height of the sample, at the last tick
+     */
+    public float getSubmersion(int sample) {
+        return submersion[sample];
+    }
+
+    /**
+     * @return The buoyancy (3 first floats) and drag (3 last floats) impulses of each sample, in model space and scaled for the debug
+     */
+    public float[] getDebugForces() {
+        return debugForces;
+    }
+}
@@ -6,11 +6,13 @@ import fr.dynamx.common.physics.entities.modules.WheelsPhysicsHandler;
 import fr.dynamx.utils.maths.DynamXGeometry;
 import fr.dynamx.utils.optimization.QuaternionPool;
 import fr.dynamx.utils.optimization.Vector3fPool;
+import fr.dynamx.utils.physics.DynamXPhysicsHelper;
 
 import static fr.dynamx.utils.maths.DynamXMath.clamp;
 
 public class PacejkaMagicFormula {
     private final WheelsPhysicsHandler wheelsPhysics;
+    /** Lateral and longitudinal forces of each wheel, in N, computed by the {@link TireForceSolver} */
     public final float[] lateral = new float[10];
     public final float[] longitudinal = new float[10];
 
@@ -18,27 +20,26 @@ public class PacejkaMagicFormula {
         this.wheelsPhysics = wheelsPhysics;
     }
 
-    public void update() {
+    /**
+     * Submits the slip angles and the load of the wheels to the solver, the forces and the friction are set by {@link TireForceSolver#solve()}
+     */
+    public void update(TireForceSolver solver) {
+        float mass = wheelsPhysics.getHandler().getPhysicsVehicle().getMass();
+        float weight = mass * -DynamXPhysicsHelper.GRAVITY.y;
         for (int i = 0; i < wheelsPhysics.getNumWheels(); i++) {
             WheelPhysicsHandler wheelPhysicsHandler = wheelsPhysics.getWheel(i);
 
             // the angle between the dir of the wheel and the dir the vehicle is travelling.
             float lateralSlip = calculateLateralSlipAngle(wheelPhysicsHandler);
-            float load = 10000;
-            wheelPhysicsHandler.getTireModel().setLoad(load);
-
-            // returns the amount of force in N on the tyre.
-            // this model allows max 10,000 (this is determined by the tyre).
-            lateral[i] = wheelPhysicsHandler.getTireModel().calcLateralTireForce(lateralSlip);
-
             // the slip angle for this is how much force is being applied to the tyre (acceleration force).
             float longSlip = calculateLongitudinalSlipAngle(wheelPhysicsHandler);
-            longitudinal[i] = wheelPhysicsHandler.getTireModel().calcLongtitudeTireForce(longSlip);
+            // the load is limited by the tyre (10,000 N for the default one).
+            float load = clamp(wheelPhysicsHandler.getSuspension().getLoad(mass), 0, wheelPhysicsHandler.getTireModel().getMaxLoad());
+            wheelPhysicsHandler.getTireModel().setLoad(load);
 
-            float friction = 1.0f - ((lateral[i] / 10000) - (longitudinal[i] / 10000));
-            friction *= 2.0;
-            friction *= wheelPhysicsHandler.getGrip();
-            wheelPhysicsHandler.setFriction(friction);
+            // the part of the weight of the vehicle carried by this wheel at rest, at least 1 N.
+            float staticLoad = Math.max(1, Math.min(weight / wheelsPhysics.getNumWheels(), wheelPhysicsHandler.getTireModel().getMaxLoad()));
+            solver.submit(this, i, wheelPhysicsHandler, lateralSlip, longSlip, load, staticLoad);
         }
     }
 
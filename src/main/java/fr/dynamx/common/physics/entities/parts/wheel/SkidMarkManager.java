@@ -1,5 +0,0 @@
-package fr.dynamx.common.physics.entities.parts.wheel;
-
-public class SkidMarkManager {
-
-}
@@ -67,4 +67,17 @@ public class SuspensionPhysicsHandler {
         this.restLength = restLength;
         vehicleWheel.setRestLength(restLength);
     }
+
+    /**
+     * Computes the load on the wheel from the compression of the suspension, like the suspension force of bullet (without the damping)
+     *
+     * @param chassisMass The mass of the vehicle
+     * @return The load, in N, or 0 if the wheel doesn't touch the ground
+     */
+    public float getLoad(float chassisMass) {
+        float compression = vehicleWheel.getRestLength() - vehicleWheel.getSuspensionLength();
+        if (compression <= 0)
+            return 0;
+        return Math.min(stiffness * compression * chassisMass, maxForce);
+    }
 }
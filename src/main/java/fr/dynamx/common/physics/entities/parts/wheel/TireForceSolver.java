@@ -0,0 +1,189 @@
+package fr.dynamx.common.physics.entities.parts.wheel;
+
+import fr.dynamx.common.physics.entities.parts.wheel.tyre.PajeckaTireModel;
+import fr.dynamx.common.physics.entities.parts.wheel.tyre.TyreSettings;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Computes the tire forces of all the wheels of a physics world in one pass <br>
+ * Each {@link PacejkaMagicFormula} submits the slip angles and the suspension load of its wheels during the pre-tick of the entities, then the physics world calls {@link #solve()} before the bullet step <br>
+ * The wheels are stored in primitive arrays (structure of arrays), so the Magic Formula is computed in tight loops, without going through the tire models of each wheel <br>
+ * <br>
+ * The forces are divided by the static load of each wheel (its part of the weight of the vehicle) to compute its friction : like with the old fixed load model, the friction doesn't depend on the mass of the vehicle, but the weight transfer changes it
+ */
+public class TireForceSolver {
+    /**
+     * Load of the old fixed load model, the max load of the default tire, used by the benchmark
+     */
+    public static final float DEFAULT_LOAD = 10000;
+
+    private int count;
+    //Inputs
+    private float[] lateralSlip = new float[0];
+    private float[] longitudinalSlip = new float[0];
+    private float[] load = new float[0];
+    private float[] staticLoad = new float[0];
+    private float[] grip = new float[0];
+    /** B, C, E, KA, KB of the lateral and longitudinal tire settings */
+    private float[] latB = new float[0], latC = new float[0], latE = new float[0], latKA = new float[0], latKB = new float[0];
+    private float[] longB = new float[0], longC = new float[0], longE = new float[0], longKA = new float[0], longKB = new float[0];
+    //Outputs
+    private float[] lateral = new float[0];
+    private float[] longitudinal = new float[0];
+    private float[] friction = new float[0];
+    //Owners, to give back the results
+    private WheelPhysicsHandler[] wheels = new WheelPhysicsHandler[0];
+    private PacejkaMagicFormula[] formulas = new PacejkaMagicFormula[0];
+    private int[] wheelIndices = new int[0];
+
+    /**
+     * Adds a wheel to the next solve
+     *
+     * @param formula          The formula receiving the forces
+     * @param index            The index of the wheel in the vehicle
+     * @param wheel            The wheel receiving the friction
+     * @param lateralSlip      The lateral slip angle, in radians
+     * @param longitudinalSlip The longitudinal slip angle, in radians
+     * @param load             The load on the tire, in N
+     * @param staticLoad       The load on the tire when the vehicle is at rest, in N, the forces are divided by this load to compute the friction
+     */
+    public void submit(PacejkaMagicFormula formula, int index, WheelPhysicsHandler wheel, float lateralSlip, float longitudinalSlip, float load, float staticLoad) {
+        ensureCapacity(count + 1);
+        PajeckaTireModel tire = wheel.getTireModel();
+        int i = count;
+        this.lateralSlip[i] = lateralSlip;
+        this.longitudinalSlip[i] = longitudinalSlip;
+        this.load[i] = load;
+        this.staticLoad[i] = staticLoad;
+        this.grip[i] = wheel.getGrip();
+        setCoefficients(i, tire.getLateral(), tire.getLongitudinal());
+        wheels[i] = wheel;
+        formulas[i] = formula;
+        wheelIndices[i] = index;
+        count++;
+    }
+
+    private void setCoefficients(int i, TyreSettings lat, TyreSettings lng) {
+        latB[i] = lat.getSlipAngleCoefficientB();
+        latC[i] = lat.getSlipAngleCoefficientC();
+        latE[i] = lat.getSlipAngleCoefficientE();
+        latKA[i] = lat.getLoadCoefficientKA();
+        latKB[i] = lat.getLoadCoefficientKB();
+        longB[i] = lng.getSlipAngleCoefficientB();
+        longC[i] = lng.getSlipAngleCoefficientC();
+        longE[i] = lng.getSlipAngleCoefficientE();
+        longKA[i] = lng.getLoadCoefficientKA();
+        longKB[i] = lng.getLoadCoefficientKB();
+    }
+
+    /**
+     * Computes the forces of the submitted wheels, and applies the friction to the wheels <br>
+     * Called once per physics tick, the submitted wheels are then cleared
+     */
+    public void solve() {
+        compute();
+        for (int i = 0; i < count; i++) {
+            formulas[i].lateral[wheelIndices[i]] = lateral[i];
+            formulas[i].longitudinal[wheelIndices[i]] = longitudinal[i];
+            wheels[i].setFriction(friction[i]);
+        }
+        clear();
+    }
+
+    /**
+     * Computes the Magic Formula of all the submitted wheels : <br>
+     * force = sin(C * atan(B * slip - E * (B * slip - atan(B * slip)))) * KA * (1 - KB * load) * load
+     */
+    private void compute() {
+        final int n = count;
+        for (int i = 0; i < n; i++) {
+            float bx = latB[i] * lateralSlip[i];
+            float loadForce = latKA[i] * (1 - latKB[i] * load[i]) * load[i];
+            lateral[i] = (float) Math.sin(latC[i] * Math.atan(bx - latE[i] * (bx - Math.atan(bx)))) * loadForce;
+        }
+        for (int i = 0; i < n; i++) {
+            float bx = longB[i] * longitudinalSlip[i];
+            float loadForce = longKA[i] * (1 - longKB[i] * load[i]) * load[i];
+            longitudinal[i] = (float) Math.sin(longC[i] * Math.atan(bx - longE[i] * (bx - Math.atan(bx)))) * loadForce;
+        }
+        for (int i = 0; i < n; i++) {
+            friction[i] = (1 - (lateral[i] - longitudinal[i]) / staticLoad[i]) * 2 * grip[i];
+        }
+    }
+
+    /**
+     * Forgets the submitted wheels, keeping the buffers
+     */
+    public void clear() {
+        Arrays.fill(wheels, 0, count, null);
+        Arrays.fill(formulas, 0, count, null);
+        count = 0;
+    }
+
+    /**
+     * @return The number of wheels submitted since the last solve
+     */
+    public int getCount() {
+        return count;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= wheels.length)
+            return;
+        int size = Math.max(16, Integer.highestOneBit(capacity) * 2);
+        lateralSlip = Arrays.copyOf(lateralSlip, size);
+        longitudinalSlip = Arrays.copyOf(longitudinalSlip, size);
+        load = Arrays.copyOf(load, size);
+        staticLoad = Arrays.copyOf(staticLoad, size);
+        grip = Arrays.copyOf(grip, size);
+        latB = Arrays.copyOf(latB, size);
+        latC = Arrays.copyOf(latC, size);
+        latE = Arrays.copyOf(latE, size);
+        latKA = Arrays.copyOf(latKA, size);
+        latKB = Arrays.copyOf(latKB, size);
+        longB = Arrays.copyOf(longB, size);
+        longC = Arrays.copyOf(longC, size);
+        longE = Arrays.copyOf(longE, size);
+        longKA = Arrays.copyOf(longKA, size);
+        longKB = Arrays.copyOf(longKB, size);
+        lateral = Arrays.copyOf(lateral, size);
+        longitudinal = Arrays.copyOf(longitudinal, size);
+        friction = Arrays.copyOf(friction, size);
+        wheels = Arrays.copyOf(wheels, size);
+        formulas = Arrays.copyOf(formulas, size);
+        wheelIndices = Arrays.copyOf(wheelIndices, size);
+    }
+
+    /**
+     * Measures the throughput of the solver with random wheels using the default tire, see the tirebench command
+     *
+     * @param wheelCount The number of wheels
+     * @param iterations The number of solves
+     * @return The mean time of a solve, in nanoseconds
+     */
+    public static long benchmark(int wheelCount, int iterations) {
+        TireForceSolver solver = new TireForceSolver();
+        solver.ensureCapacity(wheelCount);
+        TyreSettings lat = new TyreSettings(1.54f, 18.86f, 0.27f, 2.0f, 0.000058f);
+        TyreSettings lng = new TyreSettings(1.52f, 30.0f, -1.6f, 2.14f, 0.000055f);
+        Random random = new Random(42);
+        for (int i = 0; i < wheelCount; i++) {
+            solver.lateralSlip[i] = random.nextFloat() * (float) (0.25f * Math.PI);
+            solver.longitudinalSlip[i] = random.nextFloat() * (float) (Math.PI * 2);
+            solver.load[i] = random.nextFloat() * DEFAULT_LOAD;
+            solver.staticLoad[i] = DEFAULT_LOAD / 4;
+            solver.grip[i] = 1;
+            solver.setCoefficients(i, lat, lng);
+        }
+        solver.count = wheelCount;
+        //Warm up, so the jit compiles the loops
+        for (int i = 0; i < Math.min(iterations, 100); i++)
+            solver.compute();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+            solver.compute();
+        return (System.nanoTime() - start) / Math.max(1, iterations);
+    }
+}
@@ -10,6 +10,7 @@ import fr.dynamx.api.network.sync.SimulationHolder;
 import fr.dynamx.common.DynamXContext;
 import fr.dynamx.common.DynamXMain;
 import fr.dynamx.common.entities.PhysicsEntity;
+import fr.dynamx.common.handlers.PhysicsEntityIndex;
 import fr.dynamx.common.network.SPPhysicsEntityNetHandler;
 import fr.dynamx.common.network.packets.MessageJoints;
 import fr.dynamx.common.physics.entities.AbstractEntityPhysicsHandler;
@@ -21,7 +22,10 @@ import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.common.util.Constants;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Base implementation of {@link IEntityJoints}
@@ -33,6 +37,10 @@ public class EntityJointsHandler implements IPhysicsModule<AbstractEntityPhysics
     private final PhysicsEntity<?> entity;
     private final List<EntityJoint<?>> joints = new ArrayList<>();
     private List<EntityJoint.CachedJoint> queuedRestorations;
+    /** Saved joints whose partner isn't loaded yet, waiting in the {@link PhysicsEntityIndex} */
+    private final List<JointWaiter> waitingRestorations = new ArrayList<>(0);
+    /** Saved joints whose partner has been loaded, restored once the partner is initialized */
+    private final List<JointWaiter> resolvedRestorations = new ArrayList<>(0);
     private int restoreCooldown = -1;
     private boolean dirty;
     private boolean restoringJoints;
@@ -65,6 +73,24 @@ public class EntityJointsHandler implements IPhysicsModule<AbstractEntityPhysics
                 queuedRestorations.remove(rm);
             }
         }
+        if (!restoringJoints && (!waitingRestorations.isEmpty() || !resolvedRestorations.isEmpty()))
+            DynamXMain.proxy.scheduleTask(entity.world, () -> cancelRestorations(target.getPersistentID()));
+    }
+
+    /**
+     * Cancels the restorations of the saved joints with the given entity
+     */
+    private void cancelRestorations(UUID target) {
+        resolvedRestorations.removeIf(w -> w.joint.getId().equals(target));
+        PhysicsEntityIndex index = PhysicsEntityIndex.getExisting(entity.world);
+        waitingRestorations.removeIf(w -> {
+            if (w.joint.getId().equals(target)) {
+                if (index != null)
+                    index.cancelWait(target, w);
+                return true;
+            }
+            return false;
+        });
     }
 
     @Override //done in physics thread
@@ -215,40 +241,20 @@ public class EntityJointsHandler implements IPhysicsModule<AbstractEntityPhysics
             if (restoreCooldown > 0) {
                 restoreCooldown--;
                 if (restoreCooldown == 0) {
-                    restoringJoints = true;
-                    i:
+                    //Wait for the partners of the joints, most of them are already loaded
+                    PhysicsEntityIndex index = PhysicsEntityIndex.get(entity.world);
                     for (EntityJoint.CachedJoint j : queuedRestorations) {
-                        boolean found = false;
-                        for (Entity e : entity.world.loadedEntityList) {
-                            if (e.getPersistentID().equals(j.getId())) {
-                                found = true;
-                                if (e instanceof PhysicsEntity<?>) {
-                                    JointHandler<?, ?, ?> jointHandler = JointHandlerRegistry.getHandlerUnsafe(j.getType());
-                                    if (jointHandler != null) {
-                                        for (EntityJoint<?> joint : joints) {
-                                            if (joint.getJointId() == j.getJid() && j.getType().equals(joint.getType()) && (joint.getEntity1() == e || joint.getEntity2() == e)) {
-                                                DynamXMain.log.warn("TRYING TO ADD DUPLICATED JOINT " + j + " " + entity + " " + joints + " " + e + ". Sync cancelled");
-                                                continue i;
-                                            }
-                                        }
-                                        jointHandler.createJoint(entity, (PhysicsEntity<?>) e, j.getJid());
-                                    } else {
-                                        DynamXMain.log.warn("[Joints NBT Load] Failed to re attach " + entity + " to " + e + " : joint handler " + j.getType() + " not found !");
-                                    }
-                                } else
-                                    DynamXMain.log.warn("[Joints NBT Load] Failed to re attach " + entity + " to entity with uuid " + j.getId() + " : wrong entity type : " + e);
-                                break;
-                            }
-                        }
-                        if (!found)
-                            DynamXMain.log.warn("[Joints NBT Load] Failed to re attach " + entity + " to entity with uuid " + j.getId() + " : not found");
+                        JointWaiter waiter = new JointWaiter(j);
+                        waitingRestorations.add(waiter);
+                        index.waitFor(j.getId(), waiter);
                     }
-                    restoringJoints = false;
                     queuedRestorations.clear();
                     queuedRestorations = null;
                     restoreCooldown = -1;
                 }
             }
+            if (!resolvedRestorations.isEmpty())
+                restoreResolvedJoints();
             joints.removeIf(j -> { //in common thread
                 //Broken joint (by the physics engine)
                 if (j.getJoint() != null && !j.getJoint().isEnabled()) {
@@ -285,6 +291,41 @@ public class EntityJointsHandler implements IPhysicsModule<AbstractEntityPhysics
         }
     }
 
+    /**
+     * Re-creates the saved joints whose partner is loaded and initialized
+     */
+    private void restoreResolvedJoints() {
+        restoringJoints = true;
+        Iterator<JointWaiter> it = resolvedRestorations.iterator();
+        i:
+        while (it.hasNext()) {
+            JointWaiter waiter = it.next();
+            EntityJoint.CachedJoint j = waiter.joint;
+            PhysicsEntity<?> e = waiter.partner;
+            if (e.isDead) {
+                it.remove();
+                DynamXMain.log.warn("[Joints NBT Load] Failed to re attach " + entity + " to entity with uuid " + j.getId() + " : entity removed before the restoration");
+                continue;
+            }
+            if (e.initialized != 2) //wait for the physics of the partner
+                continue;
+            it.remove();
+            JointHandler<?, ?, ?> jointHandler = JointHandlerRegistry.getHandlerUnsafe(j.getType());
+            if (jointHandler != null) {
+                for (EntityJoint<?> joint : joints) {
+                    if (joint.getJointId() == j.getJid() && j.getType().equals(joint.getType()) && (joint.getEntity1() == e || joint.getEntity2() == e)) {
+                        DynamXMain.log.warn("TRYING TO ADD DUPLICATED JOINT " + j + " " + entity + " " + joints + " " + e + ". Sync cancelled");
+                        continue i;
+                    }
+                }
+                jointHandler.createJoint(entity, e, j.getJid());
+            } else {
+                DynamXMain.log.warn("[Joints NBT Load] Failed to re attach " + entity + " to " + e + " : joint handler " + j.getType() + " not found !");
+            }
+        }
+        restoringJoints = false;
+    }
+
     /**
      * Internal function for the sync of the joints
      */
@@ -300,6 +341,13 @@ public class EntityJointsHandler implements IPhysicsModule<AbstractEntityPhysics
     public void onRemovedFromWorld() {
         joints.forEach(this::onRemoveJoint);
         joints.clear();
+        PhysicsEntityIndex index = PhysicsEntityIndex.getExisting(entity.world);
+        if (index != null) {
+            for (JointWaiter waiter : waitingRestorations)
+                index.cancelWait(waiter.joint.getId(), waiter);
+        }
+        waitingRestorations.clear();
+        resolvedRestorations.clear();
     }
 
     @Override
@@ -335,4 +383,23 @@ public class EntityJointsHandler implements IPhysicsModule<AbstractEntityPhysics
     protected void setDirty(boolean dirty) {
         this.dirty = dirty;
     }
+
+    /**
+     * A saved joint waiting for its partner entity
+     */
+    private class JointWaiter implements Consumer<PhysicsEntity<?>> {
+        private final EntityJoint.CachedJoint joint;
+        private PhysicsEntity<?> partner;
+
+        private JointWaiter(EntityJoint.CachedJoint joint) {
+            this.joint = joint;
+        }
+
+        @Override
+        public void accept(PhysicsEntity<?> partner) {
+            this.partner = partner;
+            waitingRestorations.remove(this);
+            resolvedRestorations.add(this);
+        }
+    }
 }
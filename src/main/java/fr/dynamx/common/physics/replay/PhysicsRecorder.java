@@ -0,0 +1,226 @@
+package fr.dynamx.common.physics.replay;
+
+import com.jme3.math.Vector3f;
+import fr.dynamx.common.DynamXContext;
+import fr.dynamx.common.DynamXMain;
+import fr.dynamx.common.entities.ModularPhysicsEntity;
+import fr.dynamx.common.entities.PhysicsEntity;
+import fr.dynamx.common.entities.modules.EngineModule;
+import fr.dynamx.common.physics.joints.EntityJoint;
+import fr.dynamx.common.physics.terrain.cache.FileTerrainCache;
+import fr.dynamx.common.physics.terrain.cache.VirtualTerrainFile;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.EntitySelectors;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Records the physics of a world in a {@link PhysicsRecording}, started with the replay command <br>
+ * The changes are detected at the end of each server tick, by comparing the loaded physics entities, their engine controls and their joints with the previous tick : this way all the sources of changes (players, chunk loading, addons) are recorded <br>
+ * The chunk sections around the physics entities are recorded the first time an entity comes close to them : the changes of the blocks after that aren't recorded <br>
+ * The frames are directly written to the file, so the recordings can be long
+ *
+ * @see PhysicsReplayer
+ */
+public class PhysicsRecorder
+{
+    private static PhysicsRecorder active;
+
+    private final World world;
+    private final File file;
+    private final DataOutputStream out;
+    private int tickCount;
+    private float deltaTime;
+
+    private final Set<UUID> knownEntities = new HashSet<>();
+    private final Map<UUID, PhysicsRecording.Controls> knownControls = new HashMap<>();
+    private final Set<PhysicsRecording.Joint> knownJoints = new HashSet<>();
+    /** The recorded chunk sections, see {@link PhysicsRecording#takeSection(World, int, int, int, VirtualTerrainFile)} */
+    private final Set<Long> recordedSections = new HashSet<>();
+
+    private PhysicsRecorder(World world, File file) throws IOException {
+        this.world = world;
+        this.file = file;
+        file.getParentFile().mkdirs();
+        out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(file))));
+
+        PhysicsRecording.Header header = new PhysicsRecording.Header(world.provider.getDimension());
+        for (PhysicsEntity<?> entity : getPhysicsEntities()) {
+            NBTTagCompound tag = new NBTTagCompound();
+            if (entity.writeToNBTOptional(tag)) {
+                header.getEntities().add(tag);
+                knownEntities.add(entity.getPersistentID());
+            }
+        }
+        PhysicsRecording.writeHeader(out, header);
+        //The initial joints are saved in the entities nbt, but not the terrain and the controls : they are written in the initial frame, applied before the first step
+        PhysicsRecording.Frame initialFrame = new PhysicsRecording.Frame(0);
+        detectChanges(initialFrame);
+        PhysicsRecording.writeFrame(out, initialFrame);
+    }
+
+    /**
+     * Starts a recording of the physics of this world
+     *
+     * @throws IllegalStateException If a recording is already running
+     */
+    public static PhysicsRecorder start(World world, File file) throws IOException {
+        if (active != null)
+            throw new IllegalStateException("A physics recording is already running");
+        active = new PhysicsRecorder(world, file);
+        DynamXMain.log.info("Started physics recording to " + file);
+        return active;
+    }
+
+    /**
+     * @return The running recorder, or null
+     */
+    public static PhysicsRecorder getActive() {
+        return active;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<PhysicsEntity<?>> getPhysicsEntities() {
+        return (List<PhysicsEntity<?>>) (List<?>) world.getEntities(PhysicsEntity.class, EntitySelectors.IS_ALIVE);
+    }
+
+    /**
+     * Called before each physics step of the server, with the simulated time
+     */
+    public void onStepSimulation(float deltaTime) {
+        this.deltaTime = deltaTime;
+    }
+
+    /**
+     * Called at the end of each server tick, writes the frame of this tick
+     */
+    public void tickEnd() {
+        PhysicsRecording.Frame frame = new PhysicsRecording.Frame(deltaTime);
+        detectChanges(frame);
+        try {
+            PhysicsRecording.writeFrame(out, frame);
+            tickCount++;
+        } catch (IOException e) {
+            DynamXMain.log.error("Failed to write physics recording " + file + ", stopping", e);
+            stop();
+        }
+    }
+
+    /**
+     * Adds the changes since the last tick to the frame, and the positions of the entities
+     */
+    private void detectChanges(PhysicsRecording.Frame frame) {
+        Set<UUID> loadedEntities = new HashSet<>();
+        Set<PhysicsRecording.Joint> joints = new HashSet<>();
+        for (PhysicsEntity<?> entity : getPhysicsEntities()) {
+            UUID id = entity.getPersistentID();
+            if (!knownEntities.contains(id)) {
+                NBTTagCompound tag = new NBTTagCompound();
+                if (!entity.writeToNBTOptional(tag))
+                    continue;
+                frame.getEvents().add(new PhysicsRecording.Spawn(tag));
+                knownEntities.add(id);
+            }
+            loadedEntities.add(id);
+            frame.getPositions().put(id, new Vector3f(entity.physicsPosition));
+            recordTerrain(frame, entity.getPosition());
+
+            EngineModule engine = entity instanceof ModularPhysicsEntity ? ((ModularPhysicsEntity<?>) entity).getModuleByType(EngineModule.class) : null;
+            if (engine != null) {
+                PhysicsRecording.Controls last = knownControls.get(id);
+                if (last == null || last.getControls() != engine.getControls() || last.getSpeedLimit() != engine.getSpeedLimit()) {
+                    PhysicsRecording.Controls controls = new PhysicsRecording.Controls(id, engine.getControls(), engine.getSpeedLimit());
+                    frame.getEvents().add(controls);
+                    knownControls.put(id, controls);
+                }
+            }
+            if (entity.getJointsHandler() != null) {
+                for (EntityJoint<?> joint : entity.getJointsHandler().getJoints()) {
+                    //Each joint is in the handlers of its two entities
+                    if (joint.getEntity1() == entity)
+                        joints.add(new PhysicsRecording.Joint(true, id, joint.getEntity2().getPersistentID(), joint.getType(), joint.getJointId()));
+                }
+            }
+        }
+        for (UUID id : knownEntities) {
+            if (!loadedEntities.contains(id))
+                frame.getEvents().add(new PhysicsRecording.Despawn(id));
+        }
+        knownEntities.retainAll(loadedEntities);
+        knownControls.keySet().retainAll(loadedEntities);
+
+        for (PhysicsRecording.Joint joint : joints) {
+            if (!knownJoints.contains(joint))
+                frame.getEvents().add(joint);
+        }
+        for (PhysicsRecording.Joint joint : knownJoints) {
+            if (!joints.contains(joint))
+                frame.getEvents().add(joint.withAdded(false));
+        }
+        knownJoints.clear();
+        knownJoints.addAll(joints);
+    }
+
+    /**
+     * Adds the 3*3*3 chunk sections around this position to the frame, if they weren't recorded yet <br>
+     * The sections of the chunks not loaded by Minecraft aren't recorded : they don't have any collision in the physics world
+     */
+    private void recordTerrain(PhysicsRecording.Frame frame, BlockPos pos) {
+        VirtualTerrainFile slopesFile = DynamXContext.getPhysicsWorld() != null && DynamXContext.getPhysicsWorld().getTerrainManager().getCache() instanceof FileTerrainCache ?
+                ((FileTerrainCache) DynamXContext.getPhysicsWorld().getTerrainManager().getCache()).getSlopesFile() : null;
+        for (int sx = -1; sx <= 1; sx++) {
+            for (int sy = -1; sy <= 1; sy++) {
+                for (int sz = -1; sz <= 1; sz++) {
+                    int x = (pos.getX() >> 4) + sx, y = (pos.getY() >> 4) + sy, z = (pos.getZ() >> 4) + sz;
+                    long key = new BlockPos(x, y, z).toLong();
+                    if (y < 0 || y > 15 || recordedSections.contains(key))
+                        continue;
+                    PhysicsRecording.TerrainSection section = PhysicsRecording.takeSection(world, x, y, z, slopesFile);
+                    if (section != null) {
+                        frame.getEvents().add(section);
+                        recordedSections.add(key);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the recording and closes the file
+     */
+    public void stop() {
+        active = null;
+        try {
+            PhysicsRecording.writeEnd(out);
+            out.close();
+            DynamXMain.log.info("Stopped physics recording " + file + " after " + tickCount + " ticks");
+        } catch (IOException e) {
+            DynamXMain.log.error("Failed to close physics recording " + file, e);
+        }
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getTickCount() {
+        return tickCount;
+    }
+}
@@ -0,0 +1,474 @@
+package fr.dynamx.common.physics.replay;
+
+import com.jme3.math.Vector3f;
+import fr.dynamx.common.physics.terrain.cache.VirtualTerrainFile;
+import fr.dynamx.utils.VerticalChunkPos;
+import net.minecraft.block.Block;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import javax.annotation.Nullable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * File format of the physics recordings, written by the {@link PhysicsRecorder} and read by the {@link PhysicsReplayer} <br>
+ * A recording is a gzip stream containing a {@link Header} (initial entities), an initial {@link Frame} (initial terrain, controls and joints, with no simulated time), then one {@link Frame} per server tick, and an end marker <br>
+ * The frames only contain the changes (terrain sections, spawns, despawns, controls, joints) and the positions used to check the divergence of the replay <br>
+ * The terrain is recorded by chunk sections, when the physics entities come close to them : the blocks, the tile entities and the slopes of the section are saved, so the replay doesn't need the recorded world <br>
+ * The blocks are saved with their state ids : a recording can only be replayed with the same mods
+ */
+public class PhysicsRecording
+{
+    private static final int MAGIC = 0x444e5852; //DNXR
+    private static final int VERSION = 4;
+
+    /** Allowed recording names, so the files stay in the replays directory */
+    private static final Pattern NAME_PATTERN = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private static final byte END = 0, FRAME = 1;
+    private static final byte SPAWN = 0, DESPAWN = 1, CONTROLS = 2, JOINT_ADDED = 3, JOINT_REMOVED = 4, TERRAIN = 5;
+    /** Blocks in a chunk section */
+    private static final int SECTION_BLOCKS = 16 * 16 * 16;
+
+    /**
+     * @return True if the name only contains letters, digits, '_' and '-'
+     */
+    public static boolean isValidName(String name) {
+        return NAME_PATTERN.matcher(name).matches();
+    }
+
+    /**
+     * @return The directory of the recordings
+     */
+    public static File getDirectory(MinecraftServer server) {
+        return server.getFile("dynamx_replays");
+    }
+
+    /**
+     * @return The file of the recording with this name
+     * @throws IllegalArgumentException If the name is not valid, see {@link #isValidName(String)}
+     */
+    public static File getFile(MinecraftServer server, String name) {
+        if (!isValidName(name))
+            throw new IllegalArgumentException("Invalid recording name " + name);
+        return new File(getDirectory(server), name + ".dnxr");
+    }
+
+    public static void writeHeader(DataOutputStream out, Header header) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(header.dimension);
+        out.writeInt(header.entities.size());
+        for (NBTTagCompound tag : header.entities)
+            CompressedStreamTools.write(tag, out);
+    }
+
+    public static Header readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC)
+            throw new IOException("Not a DynamX physics recording");
+        int version = in.readInt();
+        if (version != VERSION)
+            throw new IOException("Unsupported recording version " + version);
+        Header header = new Header(in.readInt());
+        int size = in.readInt();
+        for (int i = 0; i < size; i++)
+            header.entities.add(CompressedStreamTools.read(in));
+        return header;
+    }
+
+    public static void writeFrame(DataOutputStream out, Frame frame) throws IOException {
+        out.writeByte(FRAME);
+        out.writeFloat(frame.deltaTime);
+        out.writeInt(frame.events.size());
+        for (Event event : frame.events)
+            event.write(out);
+        out.writeInt(frame.positions.size());
+        for (Map.Entry<UUID, Vector3f> e : frame.positions.entrySet()) {
+            writeUUID(out, e.getKey());
+            out.writeFloat(e.getValue().x);
+            out.writeFloat(e.getValue().y);
+            out.writeFloat(e.getValue().z);
+        }
+    }
+
+    public static void writeEnd(DataOutputStream out) throws IOException {
+        out.writeByte(END);
+    }
+
+    /**
+     * @return The next frame, or null at the end of the recording
+     */
+    public static Frame readFrame(DataInputStream in) throws IOException {
+        if (in.readByte() == END)
+            return null;
+        Frame frame = new Frame(in.readFloat());
+        int size = in.readInt();
+        for (int i = 0; i < size; i++)
+            frame.events.add(readEvent(in));
+        size = in.readInt();
+        for (int i = 0; i < size; i++)
+            frame.positions.put(readUUID(in), new Vector3f(in.readFloat(), in.readFloat(), in.readFloat()));
+        return frame;
+    }
+
+    private static Event readEvent(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case SPAWN:
+                return new Spawn(CompressedStreamTools.read(in));
+            case DESPAWN:
+                return new Despawn(readUUID(in));
+            case CONTROLS:
+                return new Controls(readUUID(in), in.readInt(), in.readFloat());
+            case JOINT_ADDED:
+            case JOINT_REMOVED:
+                return new Joint(type == JOINT_ADDED, readUUID(in), readUUID(in), new ResourceLocation(in.readUTF()), in.readByte());
+            case TERRAIN:
+                return TerrainSection.read(in);
+            default:
+                throw new IOException("Unknown recording event " + type);
+        }
+    }
+
+    private static void writeUUID(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readUUID(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    /**
+     * Takes the terrain of a chunk section of the world
+     *
+     * @param x The x coordinate of the section, in chunks
+     * @param y The y coordinate of the section, from 0 to 15
+     * @param z The z coordinate of the section, in chunks
+     * @param slopesFile The custom slopes of the world, or null
+     * @return The terrain of the section, or null if its chunk isn't loaded
+     */
+    @Nullable
+    public static TerrainSection takeSection(World world, int x, int y, int z, @Nullable VirtualTerrainFile slopesFile) {
+        Chunk chunk = world.getChunkProvider().getLoadedChunk(x, z);
+        if (chunk == null)
+            return null;
+        ExtendedBlockStorage storage = chunk.getBlockStorageArray()[y];
+        int[] blocks = null;
+        if (storage != null && !storage.isEmpty()) {
+            blocks = new int[SECTION_BLOCKS];
+            int i = 0;
+            for (int bx = 0; bx < 16; bx++) {
+                for (int by = 0; by < 16; by++) {
+                    for (int bz = 0; bz < 16; bz++)
+                        blocks[i++] = Block.getStateId(storage.get(bx, by, bz));
+                }
+            }
+        }
+        byte[] slopes = slopesFile != null ? slopesFile.getRawChunkData(new VerticalChunkPos(x, y, z)) : null;
+        TerrainSection section = new TerrainSection(new BlockPos(x, y, z).toLong(), blocks, slopes);
+        for (TileEntity tileEntity : chunk.getTileEntityMap().values()) {
+            if (tileEntity.getPos().getY() >> 4 == y)
+                section.getTileEntities().add(tileEntity.writeToNBT(new NBTTagCompound()));
+        }
+        return section;
+    }
+
+    /**
+     * The state of the world when the recording started
+     */
+    public static class Header
+    {
+        private final int dimension;
+        /** NBT of the physics entities, with their entity id */
+        private final List<NBTTagCompound> entities = new ArrayList<>();
+
+        public Header(int dimension) {
+            this.dimension = dimension;
+        }
+
+        public int getDimension() {
+            return dimension;
+        }
+
+        public List<NBTTagCompound> getEntities() {
+            return entities;
+        }
+    }
+
+    /**
+     * The changes and the positions of one server tick <br>
+     * The physics step of the tick comes first (with the delta time), then the changes : they are used by the step of the next tick
+     */
+    public static class Frame
+    {
+        private final float deltaTime;
+        private final List<Event> events = new ArrayList<>();
+        /** Positions of the physics entities at the end of the tick, by persistent id */
+        private final Map<UUID, Vector3f> positions = new LinkedHashMap<>();
+
+        public Frame(float deltaTime) {
+            this.deltaTime = deltaTime;
+        }
+
+        public float getDeltaTime() {
+            return deltaTime;
+        }
+
+        public List<Event> getEvents() {
+            return events;
+        }
+
+        public Map<UUID, Vector3f> getPositions() {
+            return positions;
+        }
+    }
+
+    public static abstract class Event
+    {
+        protected abstract void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * A physics entity joined the world
+     */
+    public static class Spawn extends Event
+    {
+        private final NBTTagCompound entity;
+
+        public Spawn(NBTTagCompound entity) {
+            this.entity = entity;
+        }
+
+        public NBTTagCompound getEntity() {
+            return entity;
+        }
+
+        @Override
+        protected void write(DataOutputStream out) throws IOException {
+            out.writeByte(SPAWN);
+            CompressedStreamTools.write(entity, out);
+        }
+    }
+
+    /**
+     * A physics entity left the world
+     */
+    public static class Despawn extends Event
+    {
+        private final UUID entity;
+
+        public Despawn(UUID entity) {
+            this.entity = entity;
+        }
+
+        public UUID getEntity() {
+            return entity;
+        }
+
+        @Override
+        protected void write(DataOutputStream out) throws IOException {
+            out.writeByte(DESPAWN);
+            writeUUID(out, entity);
+        }
+    }
+
+    /**
+     * The controls of a vehicle engine have changed, see {@link fr.dynamx.common.entities.modules.EngineModule#getControls()}
+     */
+    public static class Controls extends Event
+    {
+        private final UUID entity;
+        private final int controls;
+        private final float speedLimit;
+
+        public Controls(UUID entity, int controls, float speedLimit) {
+            this.entity = entity;
+            this.controls = controls;
+            this.speedLimit = speedLimit;
+        }
+
+        public UUID getEntity() {
+            return entity;
+        }
+
+        public int getControls() {
+            return controls;
+        }
+
+        public float getSpeedLimit() {
+            return speedLimit;
+        }
+
+        @Override
+        protected void write(DataOutputStream out) throws IOException {
+            out.writeByte(CONTROLS);
+            writeUUID(out, entity);
+            out.writeInt(controls);
+            out.writeFloat(speedLimit);
+        }
+    }
+
+    /**
+     * A joint was added or removed
+     */
+    public static class Joint extends Event
+    {
+        private final boolean added;
+        private final UUID entity1, entity2;
+        private final ResourceLocation type;
+        private final byte jointId;
+
+        public Joint(boolean added, UUID entity1, UUID entity2, ResourceLocation type, byte jointId) {
+            this.added = added;
+            this.entity1 = entity1;
+            this.entity2 = entity2;
+            this.type = type;
+            this.jointId = jointId;
+        }
+
+        public boolean isAdded() {
+            return added;
+        }
+
+        public UUID getEntity1() {
+            return entity1;
+        }
+
+        public UUID getEntity2() {
+            return entity2;
+        }
+
+        public ResourceLocation getType() {
+            return type;
+        }
+
+        public byte getJointId() {
+            return jointId;
+        }
+
+        /**
+         * @return The same joint, added or removed
+         */
+        public Joint withAdded(boolean added) {
+            return new Joint(added, entity1, entity2, type, jointId);
+        }
+
+        @Override
+        protected void write(DataOutputStream out) throws IOException {
+            out.writeByte(added ? JOINT_ADDED : JOINT_REMOVED);
+            writeUUID(out, entity1);
+            writeUUID(out, entity2);
+            out.writeUTF(type.toString());
+            out.writeByte(jointId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Joint)) return false;
+            Joint joint = (Joint) o;
+            return jointId == joint.jointId && entity1.equals(joint.entity1) && entity2.equals(joint.entity2) && type.equals(joint.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * (31 * entity1.hashCode() + entity2.hashCode()) + type.hashCode()) + jointId;
+        }
+    }
+
+    /**
+     * The terrain of a chunk section, recorded when a physics entity came close to it
+     */
+    public static class TerrainSection extends Event
+    {
+        /** Packed position of the section, in chunks, see {@link BlockPos#toLong()} */
+        private final long section;
+        /** State ids of the blocks, by x, y then z, or null if the section is empty */
+        @Nullable
+        private final int[] blocks;
+        /** Custom slopes of the section, in the terrain file format, or null */
+        @Nullable
+        private final byte[] slopes;
+        private final List<NBTTagCompound> tileEntities = new ArrayList<>();
+
+        public TerrainSection(long section, @Nullable int[] blocks, @Nullable byte[] slopes) {
+            this.section = section;
+            this.blocks = blocks;
+            this.slopes = slopes;
+        }
+
+        public BlockPos getSection() {
+            return BlockPos.fromLong(section);
+        }
+
+        @Nullable
+        public int[] getBlocks() {
+            return blocks;
+        }
+
+        @Nullable
+        public byte[] getSlopes() {
+            return slopes;
+        }
+
+        public List<NBTTagCompound> getTileEntities() {
+            return tileEntities;
+        }
+
+        @Override
+        protected void write(DataOutputStream out) throws IOException {
+            out.writeByte(TERRAIN);
+            out.writeLong(section);
+            out.writeBoolean(blocks != null);
+            if (blocks != null) {
+                //The state ids fit in a short : there are at most 4096 blocks with 16 states
+                for (int block : blocks)
+                    out.writeShort(block);
+            }
+            out.writeInt(slopes != null ? slopes.length : -1);
+            if (slopes != null)
+                out.write(slopes);
+            out.writeInt(tileEntities.size());
+            for (NBTTagCompound tag : tileEntities)
+                CompressedStreamTools.write(tag, out);
+        }
+
+        private static TerrainSection read(DataInputStream in) throws IOException {
+            long section = in.readLong();
+            int[] blocks = null;
+            if (in.readBoolean()) {
+                blocks = new int[SECTION_BLOCKS];
+                for (int i = 0; i < SECTION_BLOCKS; i++)
+                    blocks[i] = in.readUnsignedShort();
+            }
+            int size = in.readInt();
+            byte[] slopes = null;
+            if (size >= 0) {
+                slopes = new byte[size];
+                in.readFully(slopes);
+            }
+            TerrainSection terrain = new TerrainSection(section, blocks, slopes);
+            size = in.readInt();
+            for (int i = 0; i < size; i++)
+                terrain.tileEntities.add(CompressedStreamTools.read(in));
+            return terrain;
+        }
+    }
+}
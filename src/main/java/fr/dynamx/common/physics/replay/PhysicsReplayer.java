@@ -0,0 +1,408 @@
+package fr.dynamx.common.physics.replay;
+
+import com.jme3.math.Vector3f;
+import fr.dynamx.api.physics.IPhysicsWorld;
+import fr.dynamx.common.DynamXContext;
+import fr.dynamx.common.DynamXMain;
+import fr.dynamx.common.entities.ModularPhysicsEntity;
+import fr.dynamx.common.entities.PhysicsEntity;
+import fr.dynamx.common.entities.modules.EngineModule;
+import fr.dynamx.common.handlers.PhysicsEntityIndex;
+import fr.dynamx.common.physics.joints.EntityJoint;
+import fr.dynamx.common.physics.joints.JointHandler;
+import fr.dynamx.common.physics.joints.JointHandlerRegistry;
+import fr.dynamx.utils.VerticalChunkPos;
+import fr.dynamx.utils.debug.LatencyHistogram;
+import fr.dynamx.utils.debug.Profiler;
+import fr.dynamx.utils.debug.ProfilingData;
+import fr.dynamx.utils.optimization.QuaternionPool;
+import fr.dynamx.utils.optimization.TransformPool;
+import fr.dynamx.utils.optimization.Vector3fPool;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.entity.Entity;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.storage.AnvilChunkLoader;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Replays a {@link PhysicsRecording} headless, in a standalone {@link ReplayPhysicsWorld} simulating a {@link ReplayWorld} built from the recorded terrain sections <br>
+ * The loaded worlds and their entities aren't touched : the recorded entities are spawned in the replay world, and each physics step is simulated with the recorded time <br>
+ * The recorded controls, spawns, despawns, joints and terrain sections of a tick are applied at its end, after checking the positions : like in the recording, they are used by the next physics step <br>
+ * The replay isn't tied to the server ticks : it runs for {@link #TICK_BUDGET} ms each server tick, or in one go (for benchmarks and automated checks), see {@link #run(long)} <br>
+ * At the end, it reports the divergence of the positions from the recording (a deterministic simulation has none), and the timings of each phase of the replayed physics
+ *
+ * @see PhysicsRecorder
+ */
+public class PhysicsReplayer
+{
+    /** Positions further than this from the recording are counted as divergent, in blocks */
+    public static final float DIVERGENCE_THRESHOLD = 0.01f;
+    /** Time replayed each server tick, in milliseconds */
+    public static final long TICK_BUDGET = 40;
+
+    private static PhysicsReplayer active;
+
+    private final World serverWorld;
+    private final File file;
+    private final DataInputStream in;
+    private final PhysicsRecording.Header header;
+    private final ICommandSender listener;
+
+    private final Profiler profiler = Profiler.createStandalone("Physics replay");
+    private final ReplayWorld world;
+    private final ReplayTerrainCache terrainCache = new ReplayTerrainCache();
+    private final ReplayPhysicsWorld physicsWorld;
+
+    private boolean started;
+    private final List<PhysicsRecording.Joint> pendingJoints = new ArrayList<>();
+
+    private int tickCount, terrainSections;
+    private float simulatedTime;
+    private long replayTime;
+    private double maxDivergence, totalDivergence;
+    private long comparedPositions, missingPositions;
+    private int maxDivergenceTick = -1, firstDivergentTick = -1;
+    private UUID maxDivergenceEntity;
+
+    private PhysicsReplayer(World serverWorld, File file, ICommandSender listener) throws IOException {
+        this.serverWorld = serverWorld;
+        this.file = file;
+        this.listener = listener;
+        in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))));
+        try {
+            header = PhysicsRecording.readHeader(in);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        world = new ReplayWorld(serverWorld, header.getDimension());
+        IPhysicsWorld serverPhysicsWorld = DynamXContext.getPhysicsWorld();
+        try {
+            physicsWorld = new ReplayPhysicsWorld(world, terrainCache, profiler);
+        } finally {
+            //The BasePhysicsWorld constructor sets itself as the physics world of the context
+            DynamXContext.setPhysicsWorld(serverPhysicsWorld);
+        }
+    }
+
+    /**
+     * Starts the replay of a recording <br>
+     * Nothing is replayed before the next call to {@link #run(long)}
+     *
+     * @param serverWorld The world giving the world info of the replay world, it isn't modified
+     * @param listener Receives the report at the end of the replay
+     * @throws IllegalStateException If a replay is already running
+     */
+    public static PhysicsReplayer start(World serverWorld, File file, ICommandSender listener) throws IOException {
+        if (active != null)
+            throw new IllegalStateException("A physics replay is already running");
+        active = new PhysicsReplayer(serverWorld, file, listener);
+        DynamXMain.log.info("Started physics replay of " + file);
+        return active;
+    }
+
+    /**
+     * @return The running replayer, or null
+     */
+    public static PhysicsReplayer getActive() {
+        return active;
+    }
+
+    /**
+     * Replays the next ticks of the recording, and finishes the replay at its end <br>
+     * Should be called by the server thread : the physics world of the replay replaces the one of the server during the call, so the entities of the replay use it
+     *
+     * @param budget The max duration of the call in milliseconds, or -1 to replay the whole recording
+     */
+    public void run(long budget) {
+        long start = System.nanoTime();
+        long end = start + budget * 1000000;
+        IPhysicsWorld serverPhysicsWorld = DynamXContext.getPhysicsWorld();
+        DynamXContext.setPhysicsWorld(physicsWorld);
+        boolean ended = false, interrupted = false;
+        try {
+            if (!started) {
+                loadInitialState();
+                started = true;
+            }
+            while (budget == -1 || System.nanoTime() < end) {
+                if (!replayTick()) {
+                    ended = true;
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            DynamXMain.log.error("Failed to replay physics recording " + file + " at tick " + tickCount + ", stopping", e);
+            ended = interrupted = true;
+        } finally {
+            DynamXContext.setPhysicsWorld(serverPhysicsWorld);
+            replayTime += System.nanoTime() - start;
+        }
+        if (ended)
+            finish(interrupted);
+    }
+
+    private void loadInitialState() throws IOException {
+        //The initial frame contains the terrain and the changes before the first step
+        PhysicsRecording.Frame frame = PhysicsRecording.readFrame(in);
+        if (frame == null)
+            throw new IOException("The recording has no initial frame");
+        loadTerrain(frame);
+        for (NBTTagCompound tag : header.getEntities())
+            applyEvent(new PhysicsRecording.Spawn(tag));
+        applyChanges(frame);
+    }
+
+    /**
+     * Reads and simulates the next tick of the recording
+     *
+     * @return False at the end of the recording
+     */
+    private boolean replayTick() throws IOException {
+        PhysicsRecording.Frame frame = PhysicsRecording.readFrame(in);
+        if (frame == null)
+            return false;
+        createPendingJoints();
+
+        profiler.start(Profiler.Profiles.TICK);
+        TransformPool.getPool().openSubPool();
+        QuaternionPool.openPool();
+        Vector3fPool.openPool();
+        {
+            profiler.start(Profiler.Profiles.STEP_SIMULATION);
+            physicsWorld.stepSimulation(frame.getDeltaTime());
+            profiler.end(Profiler.Profiles.STEP_SIMULATION);
+
+            profiler.start(Profiler.Profiles.TICK_ENTITIES);
+            world.updateEntities();
+            world.setTotalWorldTime(world.getTotalWorldTime() + 1);
+            profiler.end(Profiler.Profiles.TICK_ENTITIES);
+        }
+        Vector3fPool.closePool();
+        QuaternionPool.closePool();
+        TransformPool.getPool().closeSubPool();
+        profiler.end(Profiler.Profiles.TICK);
+
+        comparePositions(frame);
+        simulatedTime += frame.getDeltaTime();
+        tickCount++;
+        loadTerrain(frame);
+        applyChanges(frame);
+        profiler.update();
+        return true;
+    }
+
+    private void comparePositions(PhysicsRecording.Frame frame) {
+        PhysicsEntityIndex index = PhysicsEntityIndex.get(world);
+        for (Map.Entry<UUID, Vector3f> e : frame.getPositions().entrySet()) {
+            PhysicsEntity<?> entity = index.getEntity(e.getKey());
+            if (entity == null || entity.isDead) {
+                missingPositions++;
+                continue;
+            }
+            double divergence = entity.physicsPosition.distance(e.getValue());
+            totalDivergence += divergence;
+            comparedPositions++;
+            if (divergence > maxDivergence) {
+                maxDivergence = divergence;
+                maxDivergenceTick = tickCount;
+                maxDivergenceEntity = e.getKey();
+            }
+            if (divergence > DIVERGENCE_THRESHOLD && firstDivergentTick == -1)
+                firstDivergentTick = tickCount;
+        }
+    }
+
+    /**
+     * Loads the recorded terrain sections of a frame, and reloads their collisions before the next step
+     */
+    private void loadTerrain(PhysicsRecording.Frame frame) {
+        boolean changed = false;
+        for (PhysicsRecording.Event event : frame.getEvents()) {
+            if (!(event instanceof PhysicsRecording.TerrainSection))
+                continue;
+            PhysicsRecording.TerrainSection section = (PhysicsRecording.TerrainSection) event;
+            BlockPos pos = section.getSection();
+            VerticalChunkPos chunkPos = new VerticalChunkPos(pos.getX(), pos.getY(), pos.getZ());
+            world.loadSection(section);
+            if (section.getSlopes() != null)
+                terrainCache.putSlopes(chunkPos, section.getSlopes());
+            physicsWorld.getTerrainManager().onChunkChanged(chunkPos);
+            terrainSections++;
+            changed = true;
+        }
+        if (changed)
+            physicsWorld.receiveLoadedTerrain();
+    }
+
+    private void applyChanges(PhysicsRecording.Frame frame) {
+        for (PhysicsRecording.Event event : frame.getEvents())
+            applyEvent(event);
+        createPendingJoints();
+    }
+
+    private void applyEvent(PhysicsRecording.Event event) {
+        PhysicsEntityIndex index = PhysicsEntityIndex.get(world);
+        if (event instanceof PhysicsRecording.Spawn) {
+            NBTTagCompound tag = ((PhysicsRecording.Spawn) event).getEntity();
+            if (AnvilChunkLoader.readWorldEntity(tag, world, true) == null)
+                DynamXMain.log.warn("[Physics Replay] Failed to spawn entity " + tag.getString("id") + " at tick " + tickCount);
+        } else if (event instanceof PhysicsRecording.Despawn) {
+            PhysicsEntity<?> entity = index.getEntity(((PhysicsRecording.Despawn) event).getEntity());
+            if (entity != null)
+                entity.setDead();
+        } else if (event instanceof PhysicsRecording.Controls) {
+            PhysicsRecording.Controls controls = (PhysicsRecording.Controls) event;
+            PhysicsEntity<?> entity = index.getEntity(controls.getEntity());
+            EngineModule engine = entity instanceof ModularPhysicsEntity ? ((ModularPhysicsEntity<?>) entity).getModuleByType(EngineModule.class) : null;
+            if (engine != null) {
+                engine.setControls(controls.getControls());
+                engine.setSpeedLimit(controls.getSpeedLimit());
+            }
+        } else if (event instanceof PhysicsRecording.Joint) {
+            PhysicsRecording.Joint joint = (PhysicsRecording.Joint) event;
+            if (joint.isAdded()) {
+                pendingJoints.add(joint);
+            } else if (!pendingJoints.remove(joint)) {
+                PhysicsEntity<?> entity1 = index.getEntity(joint.getEntity1());
+                PhysicsEntity<?> entity2 = index.getEntity(joint.getEntity2());
+                if (entity1 != null && entity2 != null && findJoint(entity1, entity2, joint) != null)
+                    entity1.getJointsHandler().removeJointWith(entity2, joint.getType(), joint.getJointId());
+            }
+        }
+    }
+
+    /**
+     * Creates the recorded joints, once the physics of their entities is initialized
+     */
+    private void createPendingJoints() {
+        PhysicsEntityIndex index = PhysicsEntityIndex.get(world);
+        Iterator<PhysicsRecording.Joint> it = pendingJoints.iterator();
+        while (it.hasNext()) {
+            PhysicsRecording.Joint joint = it.next();
+            PhysicsEntity<?> entity1 = index.getEntity(joint.getEntity1());
+            PhysicsEntity<?> entity2 = index.getEntity(joint.getEntity2());
+            if (entity1 == null || entity2 == null || entity1.initialized != 2 || entity2.initialized != 2)
+                continue;
+            it.remove();
+            //The joints saved in the nbt of the entities are restored by their handler
+            if (findJoint(entity1, entity2, joint) != null)
+                continue;
+            JointHandler<?, ?, ?> handler = JointHandlerRegistry.getHandlerUnsafe(joint.getType());
+            if (handler != null)
+                handler.createJoint(entity1, entity2, joint.getJointId());
+            else
+                DynamXMain.log.warn("[Physics Replay] Joint handler " + joint.getType() + " not found !");
+        }
+    }
+
+    private EntityJoint<?> findJoint(PhysicsEntity<?> entity1, PhysicsEntity<?> entity2, PhysicsRecording.Joint joint) {
+        if (entity1.getJointsHandler() == null)
+            return null;
+        for (EntityJoint<?> j : entity1.getJointsHandler().getJoints()) {
+            if (j.getJointId() == joint.getJointId() && j.getType().equals(joint.getType()) && j.getOtherEntity(entity1) == entity2)
+                return j;
+        }
+        return null;
+    }
+
+    /**
+     * Stops the replay, unloads the replay world and sends the report
+     *
+     * @param interrupted True if the end of the recording wasn't reached
+     */
+    public void finish(boolean interrupted) {
+        active = null;
+        try {
+            in.close();
+        } catch (IOException e) {
+            DynamXMain.log.error("Failed to close physics recording " + file, e);
+        }
+        IPhysicsWorld serverPhysicsWorld = DynamXContext.getPhysicsWorld();
+        DynamXContext.setPhysicsWorld(physicsWorld);
+        try {
+            for (Entity entity : new ArrayList<>(world.loadedEntityList))
+                world.removeEntityDangerously(entity);
+            physicsWorld.clearAll();
+        } catch (Exception e) {
+            DynamXMain.log.error("Failed to unload the physics replay world", e);
+        } finally {
+            //clearAll also removes the physics world of the context
+            DynamXContext.setPhysicsWorld(serverPhysicsWorld);
+        }
+        PhysicsEntityIndex.onWorldUnload(world);
+        writeReport(createReport(interrupted));
+    }
+
+    private void writeReport(List<String> report) {
+        File reportFile = new File(file.getParentFile(), file.getName().replace(".dnxr", "") + "_report.txt");
+        try (Writer writer = new FileWriter(reportFile)) {
+            for (String line : report)
+                writer.write(line + "\n");
+        } catch (IOException e) {
+            DynamXMain.log.error("Failed to write the replay report " + reportFile, e);
+        }
+        DynamXMain.log.info("Physics replay of " + file + " finished, report written to " + reportFile);
+        for (String line : report)
+            listener.sendMessage(new TextComponentString(line));
+    }
+
+    private List<String> createReport(boolean interrupted) {
+        List<String> report = new ArrayList<>();
+        report.add("== Physics replay of " + file.getName() + (interrupted ? " (interrupted)" : "") + " ==");
+        report.add(String.format("%d ticks, %.2f s simulated in %.2f s of replay", tickCount, simulatedTime, replayTime / 1e9));
+        report.add(terrainSections + " recorded chunk sections");
+        if (comparedPositions > 0) {
+            report.add(String.format("Divergence : max= %.5f blocks (entity %s at tick %d), mean= %.5f blocks on %d positions", maxDivergence, maxDivergenceEntity, maxDivergenceTick,
+                    totalDivergence / comparedPositions, comparedPositions));
+        }
+        report.add(firstDivergentTick == -1 ? "No divergence above " + DIVERGENCE_THRESHOLD + " blocks" : "First divergence above " + DIVERGENCE_THRESHOLD + " blocks at tick " + firstDivergentTick);
+        if (missingPositions > 0)
+            report.add(missingPositions + " recorded positions of missing entities");
+        report.add("== Timings ==");
+        for (Profiler.Profiles profile : Profiler.Profiles.values()) {
+            ProfilingData data = profiler.getData(profile);
+            if (data == null || data.getHistogram().getCount() == 0)
+                continue;
+            LatencyHistogram h = data.getHistogram();
+            report.add(String.format("%s : p50= %.3f ms, p99= %.3f ms, max= %.3f ms on %d spans", profile.name(),
+                    h.getValueAtPercentile(50) / 1e6, h.getValueAtPercentile(99) / 1e6, h.getMax() / 1e6, h.getCount()));
+        }
+        return report;
+    }
+
+    /**
+     * @return The world given to {@link #start(World, File, ICommandSender)}, the replay is stopped when it's unloaded
+     */
+    public World getServerWorld() {
+        return serverWorld;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getTickCount() {
+        return tickCount;
+    }
+
+    public double getMaxDivergence() {
+        return maxDivergence;
+    }
+}
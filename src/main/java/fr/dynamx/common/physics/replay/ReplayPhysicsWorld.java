@@ -0,0 +1,85 @@
+package fr.dynamx.common.physics.replay;
+
+import fr.dynamx.common.DynamXMain;
+import fr.dynamx.common.physics.CollisionsHandler;
+import fr.dynamx.common.physics.terrain.PhysicsWorldTerrain;
+import fr.dynamx.common.physics.world.BasePhysicsWorld;
+import fr.dynamx.utils.debug.Profiler;
+import fr.dynamx.utils.optimization.BoundingBoxPool;
+import fr.dynamx.utils.optimization.TransformPool;
+import fr.dynamx.utils.optimization.Vector3fPool;
+
+/**
+ * The physics world of the {@link PhysicsReplayer}, simulating a {@link ReplayWorld} <br>
+ * It isn't the {@link fr.dynamx.common.DynamXContext#getPhysicsWorld()} of the server : the replayer only sets it while it steps it <br>
+ * After each step, the terrain requested by the entities is loaded before the next step : the replays don't depend on the speed of the terrain loader thread
+ */
+public class ReplayPhysicsWorld extends BasePhysicsWorld {
+    /** Max time waited for the terrain loader after a step, in milliseconds */
+    private static final long TERRAIN_TIMEOUT = 5000;
+
+    private final Thread physicsThread;
+    private final Profiler profiler;
+
+    /**
+     * @param profiler Records the timings of the steps
+     */
+    public ReplayPhysicsWorld(ReplayWorld world, ReplayTerrainCache terrainCache, Profiler profiler) {
+        super(world, terrainCache);
+        //The pools opened by the super constructor are for the whole session, but this world only lives during the replay (and nothing pooled was created)
+        BoundingBoxPool.getPool().closeSubPool();
+        TransformPool.getPool().closeSubPool();
+        Vector3fPool.closePool();
+        this.physicsThread = Thread.currentThread();
+        this.profiler = profiler;
+    }
+
+    @Override
+    public void stepSimulation(float deltaTime) {
+        Vector3fPool.openPool();
+        TransformPool.getPool().openSubPool();
+        BoundingBoxPool.getPool().openSubPool();
+        {
+            stepSimulationImpl(profiler);
+            CollisionsHandler.tick();
+        }
+        TransformPool.getPool().closeSubPool();
+        Vector3fPool.closePool();
+        BoundingBoxPool.getPool().closeSubPool();
+
+        profiler.start(Profiler.Profiles.TICK_TERRAIN);
+        waitTerrainLoader();
+        manager.tickTerrain();
+        profiler.end(Profiler.Profiles.TICK_TERRAIN);
+    }
+
+    /**
+     * Waits for the terrain loader, then adds the loaded chunks to the physics world <br>
+     * Used after changing the terrain, so the next step uses the new terrain
+     */
+    public void receiveLoadedTerrain() {
+        waitTerrainLoader();
+        manager.notifyWillChange();
+    }
+
+    private void waitTerrainLoader() {
+        long timeout = System.currentTimeMillis() + TERRAIN_TIMEOUT;
+        while (((PhysicsWorldTerrain) manager).isLoaderBusy()) {
+            if (System.currentTimeMillis() > timeout) {
+                DynamXMain.log.warn("[Physics Replay] The terrain loader took more than " + TERRAIN_TIMEOUT + " ms, the replay may not be reproducible");
+                return;
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public Thread getPhysicsThread() {
+        return physicsThread;
+    }
+}
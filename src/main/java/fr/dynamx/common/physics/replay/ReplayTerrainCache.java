@@ -0,0 +1,64 @@
+package fr.dynamx.common.physics.replay;
+
+import fr.dynamx.api.physics.terrain.ITerrainCache;
+import fr.dynamx.api.physics.terrain.ITerrainElement;
+import fr.dynamx.common.physics.terrain.cache.VirtualTerrainFile;
+import fr.dynamx.common.physics.terrain.chunk.ChunkCollisions;
+import fr.dynamx.common.physics.terrain.chunk.ChunkLoadingTicket;
+import fr.dynamx.common.physics.terrain.chunk.ChunkTerrain;
+import fr.dynamx.utils.VerticalChunkPos;
+import fr.dynamx.utils.debug.Profiler;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * The {@link ITerrainCache} of the {@link ReplayPhysicsWorld} <br>
+ * It only contains the recorded slopes : the other collisions are always computed from the blocks of the {@link ReplayWorld}, and nothing is saved
+ */
+public class ReplayTerrainCache implements ITerrainCache
+{
+    private final VirtualTerrainFile slopesFile = new VirtualTerrainFile();
+
+    /**
+     * Adds the recorded slopes of a chunk section
+     *
+     * @param data The slopes, in the terrain file format
+     */
+    public void putSlopes(VerticalChunkPos pos, byte[] data) {
+        slopesFile.putData(pos, data);
+    }
+
+    @Override
+    public void invalidate(VerticalChunkPos pos, boolean changed, boolean syncChanges) {
+    }
+
+    @Override
+    public void invalidate(ChunkLoadingTicket pos, boolean changed, boolean syncChanges) {
+    }
+
+    @Override
+    public void clear() {
+    }
+
+    @Override
+    public void tick() {
+    }
+
+    @Override
+    public void addChunkToSave(ChunkLoadingTicket loadingTicket, ChunkCollisions collisions) {
+    }
+
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public ChunkTerrain load(ChunkLoadingTicket ticket, Profiler profiler) {
+        List<?> slopes = slopesFile.loadChunk(ticket.getPos(), this);
+        return slopes != null ? new ChunkTerrain((List<ITerrainElement.IPersistentTerrainElement>) slopes) : null;
+    }
+
+    @Override
+    public boolean isRemoteCache() {
+        return false;
+    }
+}
@@ -0,0 +1,120 @@
+package fr.dynamx.common.physics.replay;
+
+import net.minecraft.block.Block;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.EmptyChunk;
+import net.minecraft.world.chunk.IChunkProvider;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import net.minecraft.world.storage.WorldInfo;
+import net.minecraftforge.common.DimensionManager;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A standalone {@link World} containing the terrain of a {@link PhysicsRecording}, simulated by the {@link PhysicsReplayer} <br>
+ * It isn't registered in the {@link DimensionManager}, isn't ticked by the server and has no server : the loaded worlds aren't affected by the replays <br>
+ * Its chunks only contain the recorded sections, see {@link #loadSection(PhysicsRecording.TerrainSection)}, the other sections and chunks are empty
+ */
+public class ReplayWorld extends World
+{
+    /**
+     * @param serverWorld The world giving the world info, the replay world is never saved
+     * @param dimension The recorded dimension
+     */
+    public ReplayWorld(World serverWorld, int dimension) {
+        super(serverWorld.getSaveHandler(), new WorldInfo(serverWorld.getWorldInfo().cloneNBTCompound(null)), DimensionManager.createProviderFor(dimension), new net.minecraft.profiler.Profiler(), false);
+        provider.setWorld(this);
+        chunkProvider = createChunkProvider();
+        initCapabilities();
+    }
+
+    @Override
+    protected IChunkProvider createChunkProvider() {
+        return new ReplayChunkProvider(this);
+    }
+
+    @Override
+    protected boolean isChunkLoaded(int x, int z, boolean allowEmpty) {
+        return allowEmpty || chunkProvider.isChunkGeneratedAt(x, z);
+    }
+
+    /**
+     * Replaces the blocks and the tile entities of a chunk section by the recorded ones <br>
+     * Should be called by the replay thread, while the physics world of the replay is the current one : the tile entities are loaded
+     */
+    public void loadSection(PhysicsRecording.TerrainSection section) {
+        BlockPos pos = section.getSection();
+        Chunk chunk = ((ReplayChunkProvider) chunkProvider).getOrCreateChunk(pos.getX(), pos.getZ());
+        ExtendedBlockStorage storage = null;
+        int[] blocks = section.getBlocks();
+        if (blocks != null) {
+            storage = new ExtendedBlockStorage(pos.getY() << 4, provider.hasSkyLight());
+            int i = 0;
+            for (int bx = 0; bx < 16; bx++) {
+                for (int by = 0; by < 16; by++) {
+                    for (int bz = 0; bz < 16; bz++)
+                        storage.set(bx, by, bz, Block.getStateById(blocks[i++]));
+                }
+            }
+        }
+        chunk.getBlockStorageArray()[pos.getY()] = storage;
+        for (NBTTagCompound tag : section.getTileEntities()) {
+            TileEntity tileEntity = TileEntity.create(this, tag);
+            if (tileEntity != null)
+                chunk.addTileEntity(tileEntity);
+        }
+    }
+
+    /**
+     * The chunks of the recorded sections <br>
+     * The terrain loader thread reads them while the replay adds sections
+     */
+    private static class ReplayChunkProvider implements IChunkProvider
+    {
+        private final World world;
+        private final Map<Long, Chunk> chunks = new ConcurrentHashMap<>();
+        private final Map<Long, Chunk> emptyChunks = new ConcurrentHashMap<>();
+
+        private ReplayChunkProvider(World world) {
+            this.world = world;
+        }
+
+        private Chunk getOrCreateChunk(int x, int z) {
+            return chunks.computeIfAbsent(ChunkPos.asLong(x, z), pos -> new Chunk(world, x, z));
+        }
+
+        @Nullable
+        @Override
+        public Chunk getLoadedChunk(int x, int z) {
+            return chunks.get(ChunkPos.asLong(x, z));
+        }
+
+        @Override
+        public Chunk provideChunk(int x, int z) {
+            Chunk chunk = getLoadedChunk(x, z);
+            return chunk != null ? chunk : emptyChunks.computeIfAbsent(ChunkPos.asLong(x, z), pos -> new EmptyChunk(world, x, z));
+        }
+
+        @Override
+        public boolean tick() {
+            return false;
+        }
+
+        @Override
+        public String makeString() {
+            return "ReplayChunkProvider: " + chunks.size();
+        }
+
+        @Override
+        public boolean isChunkGeneratedAt(int x, int z) {
+            return chunks.containsKey(ChunkPos.asLong(x, z));
+        }
+    }
+}
@@ -15,6 +15,8 @@ import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 /**
  * Async loader for quicker loading of {@link ChunkCollisions}
@@ -25,6 +27,14 @@ public class PhysicsTerrainLoader
     private final ExecutorService POOL = Executors.newFixedThreadPool(1, factory);
     private final PhysicsWorldTerrain manager;
     private final Profiler profiler = new Profiler();
+    /**
+     * Number of queued chunks, by priority of their request
+     */
+    private final AtomicIntegerArray queueSizes = new AtomicIntegerArray(ChunkLoadingTicket.TicketPriority.values().length);
+    /**
+     * Number of queued chunks, and of the chunk being loaded
+     */
+    private final AtomicInteger pendingChunks = new AtomicInteger();
 
     protected PhysicsTerrainLoader(PhysicsWorldTerrain manager)
     {
@@ -38,10 +48,36 @@ public class PhysicsTerrainLoader
     {
         //System.out.println("Async load. status "+POOL.isTerminated()+" "+chunk.getTicket()+" "+chunk.getSnapIndex());
         if(!POOL.isTerminated()) {
-            POOL.submit(() -> loadChunk(chunk));
+            int priority = chunk.getTicket().getPriority().ordinal();
+            queueSizes.incrementAndGet(priority);
+            pendingChunks.incrementAndGet();
+            POOL.submit(() -> {
+                queueSizes.decrementAndGet(priority);
+                try {
+                    loadChunk(chunk);
+                } finally {
+                    pendingChunks.decrementAndGet();
+                }
+            });
         }
     }
 
+    /**
+     * @return The number of chunks waiting in the queue, requested with this priority
+     */
+    public int getQueueSize(ChunkLoadingTicket.TicketPriority priority)
+    {
+        return queueSizes.get(priority.ordinal());
+    }
+
+    /**
+     * @return True if chunks are queued or being loaded
+     */
+    public boolean isLoading()
+    {
+        return pendingChunks.get() > 0;
+    }
+
     /**
      * Stops any thread and clears queues
      */
@@ -86,7 +122,7 @@ public class PhysicsTerrainLoader
             else {
                 //System.err.println("C NOT VALID "+lookingAt+" "+chk.getTicket()+" "+chk.getSnapIndex());
             }
-            if(profiler.isActive()) //Profiling
+            if(profiler.isActive() && Profiler.isPrintingData()) //Profiling
             {
                 List<String> st = profiler.getData();
                 if(!st.isEmpty()) {
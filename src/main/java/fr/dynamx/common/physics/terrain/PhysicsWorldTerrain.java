@@ -18,6 +18,7 @@ import fr.dynamx.common.physics.terrain.element.TerrainElementType;
 import fr.dynamx.utils.DynamXConfig;
 import fr.dynamx.utils.VerticalChunkPos;
 import fr.dynamx.utils.debug.ChunkGraph;
+import fr.dynamx.utils.debug.PerformanceMonitor;
 import fr.dynamx.utils.debug.Profiler;
 import fr.dynamx.utils.optimization.Vector3fPool;
 import net.minecraft.world.World;
@@ -64,9 +65,13 @@ public class PhysicsWorldTerrain implements ITerrainManager {
     private final boolean isDebug;
 
     public PhysicsWorldTerrain(IPhysicsWorld physicsWorld, World world, boolean isRemoteWorld) {
+        this(physicsWorld, world, isRemoteWorld ? new RemoteTerrainCache() : new FileTerrainCache());
+    }
+
+    public PhysicsWorldTerrain(IPhysicsWorld physicsWorld, World world, ITerrainCache terrainCache) {
         this.physicsWorld = physicsWorld;
         this.world = world;
-        this.terrainCache = isRemoteWorld ? new RemoteTerrainCache() : new FileTerrainCache();
+        this.terrainCache = terrainCache;
         this.isDebug = DynamXConfig.enableDebugTerrainManager;
     }
 
@@ -84,7 +89,8 @@ public class PhysicsWorldTerrain implements ITerrainManager {
      * @return True if this chunk is loaded in the given world
      */
     private boolean isChunkLoaded(World world, int x, int z) {
-        return world.isRemote ? world.isChunkGeneratedAt(x, z) : ((ChunkProviderServer) world.getChunkProvider()).chunkExists(x, z);
+        //The worlds of the physics replays aren't server worlds, but they don't generate chunks either
+        return world.getChunkProvider() instanceof ChunkProviderServer ? ((ChunkProviderServer) world.getChunkProvider()).chunkExists(x, z) : world.isChunkGeneratedAt(x, z);
     }
 
     @Override
@@ -289,6 +295,7 @@ public class PhysicsWorldTerrain implements ITerrainManager {
     @Override
     public ChunkCollisions loadChunkCollisionsNow(ChunkLoadingTicket ticket, Profiler profiler) {
         profiler.start(Profiler.Profiles.EMERGENCY_CHUNK_LOAD);
+        PerformanceMonitor.get(world.isRemote).recordSyncTerrainLoad();
         VerticalChunkPos pos = ticket.getPos();
         ChunkCollisions coll = isDebug ? new DebugChunkCollisions(getWorld(), pos, getPhysicsWorld()) : new ChunkCollisions(getWorld(), pos);
         if (isDebug)
@@ -309,6 +316,27 @@ public class PhysicsWorldTerrain implements ITerrainManager {
         terrainLoader.asyncLoadChunk(ticket.snapshot());
     }
 
+    /**
+     * @return The number of chunks waiting in the async loader, requested with this priority
+     */
+    public int getLoaderQueueSize(ChunkLoadingTicket.TicketPriority priority) {
+        return terrainLoader.getQueueSize(priority);
+    }
+
+    /**
+     * @return True if the async loader has chunks to load : they will be in the async loaded chunks once loaded
+     */
+    public boolean isLoaderBusy() {
+        return terrainLoader.isLoading();
+    }
+
+    /**
+     * @return The number of async loaded chunks waiting to be added to the physics world
+     */
+    public int getAsyncLoadedQueueSize() {
+        return asyncLoadedQueue.size();
+    }
+
     @Override
     public void offerLoadedChunk(ChunkLoadingTicket.AsyncLoadedChunk chunk) {
         asyncLoadedQueue.add(chunk);
@@ -13,6 +13,7 @@ import fr.dynamx.common.physics.terrain.chunk.ChunkTerrain;
 import fr.dynamx.utils.DynamXConfig;
 import fr.dynamx.utils.VerticalChunkPos;
 import fr.dynamx.utils.debug.ChunkGraph;
+import fr.dynamx.utils.debug.JfrEvents;
 import fr.dynamx.utils.debug.Profiler;
 import fr.dynamx.utils.optimization.Vector3fPool;
 import net.minecraft.util.math.ChunkPos;
@@ -212,7 +213,9 @@ public class FileTerrainCache implements ITerrainCache
             try {
                 FILE = new TerrainFile(f);
                 terrainFiles.put(pos, FILE);
+                Object jfrEvent = JfrEvents.TERRAIN_REGION_READ.begin();
                 FILE.load();
+                JfrEvents.TERRAIN_REGION_READ.commit(jfrEvent, pos.x, pos.z, f.length());
             } catch (IOException | ClassNotFoundException e) {
                 e.printStackTrace();
                 f.delete(); //reset
@@ -273,7 +276,9 @@ public class FileTerrainCache implements ITerrainCache
             ChunkPos cpos = terrainFileSaveQueue.remove();
             TerrainFile FILE = getFileAt(cpos);
             try {
+                Object jfrEvent = JfrEvents.TERRAIN_REGION_WRITE.begin();
                 FILE.save();
+                JfrEvents.TERRAIN_REGION_WRITE.commit(jfrEvent, cpos.x, cpos.z, FILE.getFile().length());
             } catch (IOException e) {
                 throw new RuntimeException("Chunk save failed", e);
             }
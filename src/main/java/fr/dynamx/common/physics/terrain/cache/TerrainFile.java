@@ -53,6 +53,13 @@ public class TerrainFile extends VirtualTerrainFile
         super.lock(pos);
     }
 
+    /**
+     * @return The file containing the data
+     */
+    public File getFile() {
+        return container;
+    }
+
     public int getVersion() {
         return version;
     }
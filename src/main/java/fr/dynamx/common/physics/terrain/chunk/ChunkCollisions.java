@@ -19,6 +19,7 @@ import fr.dynamx.utils.DynamXReflection;
 import fr.dynamx.utils.VerticalChunkPos;
 import fr.dynamx.utils.debug.ChunkGraph;
 import fr.dynamx.utils.debug.DynamXDebugOptions;
+import fr.dynamx.utils.debug.PerformanceMonitor;
 import fr.dynamx.utils.debug.Profiler;
 import fr.dynamx.utils.optimization.BoundingBoxPool;
 import fr.dynamx.utils.optimization.QuaternionPool;
@@ -383,6 +384,7 @@ public class ChunkCollisions implements VerticalChunkPos.VerticalChunkPosContain
 
         boolean shouldSave = false;
         if(type != TerrainElementType.PERSISTENT_ELEMENTS) {
+            PerformanceMonitor.get(mcWorld.isRemote).recordTerrainCacheLookup(cachedElements != null && !cachedElements.getElements().isEmpty());
             if (cachedElements == null || cachedElements.getElements().isEmpty()) {
                 this.elements.getElements().addAll(TerrainCollisionsCalculator.computeCollisionFaces(myPos, mcWorld, profiler, false));
                 ChunkGraph.addToGrah(getPos(), ChunkGraph.ChunkActions.LOAD_INTERNAL_DOING, ChunkGraph.ActionLocation.UNKNOWN, this, "DONE WITH  "+this.elements.getElements().size());
@@ -4,6 +4,7 @@ import fr.dynamx.api.physics.terrain.IBlockCollisionBehavior;
 import fr.dynamx.api.physics.terrain.ITerrainElement;
 import fr.dynamx.common.DynamXMain;
 import fr.dynamx.utils.VerticalChunkPos;
+import fr.dynamx.utils.debug.JfrEvents;
 import fr.dynamx.utils.debug.Profiler;
 import fr.dynamx.utils.optimization.QuaternionPool;
 import fr.dynamx.utils.optimization.Vector3fPool;
@@ -56,6 +57,7 @@ public class TerrainCollisionsCalculator {
      */
     public static List<ITerrainElement> computeCollisionFaces(VerticalChunkPos myPos, World mcWorld, Profiler profiler, boolean debug) {
         profiler.start(Profiler.Profiles.CHUNK_BLOCK_COLLS_COMPUTE);
+        Object jfrEvent = JfrEvents.TERRAIN_COMPUTE.begin();
         int x = myPos.x * 16;
         int y = myPos.y * 16;
         int z = myPos.z * 16;
@@ -73,6 +75,7 @@ public class TerrainCollisionsCalculator {
 
         //And return all TerrainElements
         List<ITerrainElement> result = boxBuilder.getTerrainElements();
+        JfrEvents.TERRAIN_COMPUTE.commit(jfrEvent, myPos.x, myPos.y, myPos.z, result.size());
         profiler.end(Profiler.Profiles.CHUNK_BLOCK_COLLS_COMPUTE);
         return result;
     }
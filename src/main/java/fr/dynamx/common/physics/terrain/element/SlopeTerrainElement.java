@@ -170,8 +170,11 @@ public class SlopeTerrainElement implements ITerrainElement
 		shape = null;
 		body = null;
 		slopes.clear();
-		if(poolId != 0)
+		if(poolId != 0) {
+			Vector3fPool.getPool(poolId, "ste").closeSubPool();
 			Vector3fPool.disposePool(poolId);
+			poolId = 0;
+		}
 	}
 
 	@Override
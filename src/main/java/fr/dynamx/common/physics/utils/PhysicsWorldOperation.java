@@ -73,6 +73,14 @@ public class PhysicsWorldOperation<A>
                 if(rigidbodies.contains(object)) {
                     dynamicsWorld.removeCollisionObject((PhysicsCollisionObject) object);
                     rigidbodies.remove(object);
+                    //Remove the joints attached to the removed body
+                    joints.removeIf(joint -> {
+                        if(joint.getBodyA() == object || joint.getBodyB() == object) {
+                            dynamicsWorld.removeJoint(joint);
+                            return true;
+                        }
+                        return false;
+                    });
                 }
                 break;
             case ADD_ENTITY:
@@ -7,22 +7,29 @@ import com.jme3.bullet.collision.PhysicsCollisionEvent;
 import com.jme3.bullet.collision.PhysicsCollisionListener;
 import com.jme3.bullet.collision.PhysicsCollisionObject;
 import com.jme3.bullet.joints.PhysicsJoint;
+import com.jme3.bullet.objects.PhysicsRigidBody;
 import com.jme3.bullet.objects.PhysicsVehicle;
 import com.jme3.math.Vector3f;
 import fr.dynamx.api.events.PhysicsEvent;
 import fr.dynamx.api.physics.BulletShapeType;
 import fr.dynamx.api.physics.IPhysicsWorld;
 import fr.dynamx.api.physics.entities.EntityPhysicsState;
+import fr.dynamx.api.physics.terrain.ITerrainCache;
 import fr.dynamx.api.physics.terrain.ITerrainManager;
 import fr.dynamx.client.network.ClientPhysicsSyncManager;
 import fr.dynamx.common.DynamXContext;
 import fr.dynamx.common.DynamXMain;
 import fr.dynamx.common.entities.PhysicsEntity;
 import fr.dynamx.common.physics.CollisionsHandler;
+import fr.dynamx.common.physics.entities.parts.wheel.TireForceSolver;
 import fr.dynamx.common.physics.terrain.PhysicsWorldTerrain;
+import fr.dynamx.common.physics.terrain.cache.FileTerrainCache;
+import fr.dynamx.common.physics.terrain.cache.RemoteTerrainCache;
 import fr.dynamx.common.physics.utils.PhysicsWorldOperation;
 import fr.dynamx.server.network.ServerPhysicsSyncManager;
 import fr.dynamx.utils.PhysicsEntityException;
+import fr.dynamx.utils.debug.JfrEvents;
+import fr.dynamx.utils.debug.PerformanceMonitor;
 import fr.dynamx.utils.debug.Profiler;
 import fr.dynamx.utils.optimization.BoundingBoxPool;
 import fr.dynamx.utils.optimization.QuaternionPool;
@@ -51,6 +58,7 @@ public abstract class BasePhysicsWorld implements IPhysicsWorld {
     protected final Set<PhysicsVehicle> vehicles = new HashSet<>();
     protected final Set<PhysicsJoint> joints = new HashSet<>();
     protected final List<PhysicsEntity<?>> entities = new ArrayList<>();
+    protected final TireForceSolver tireSolver = new TireForceSolver();
 
     protected final ConcurrentLinkedQueue<Runnable> scheduledTasks = new ConcurrentLinkedQueue<>();
     protected final ConcurrentLinkedQueue<PhysicsWorldOperation<?>> operations = new ConcurrentLinkedQueue<>();
@@ -58,6 +66,13 @@ public abstract class BasePhysicsWorld implements IPhysicsWorld {
     private final AtomicBoolean scheduledTasksLock = new AtomicBoolean();
 
     public BasePhysicsWorld(World world, boolean isRemoteWorld) {
+        this(world, isRemoteWorld ? new RemoteTerrainCache() : new FileTerrainCache());
+    }
+
+    /**
+     * @param terrainCache The cache of the terrain of this world
+     */
+    public BasePhysicsWorld(World world, ITerrainCache terrainCache) {
         Vector3fPool.openPool(); //Open a pool for the whole session, the Vector3f created here may be used forever
         TransformPool.getPool().openSubPool();
         BoundingBoxPool.getPool().openSubPool();
@@ -83,7 +98,7 @@ public abstract class BasePhysicsWorld implements IPhysicsWorld {
             @Override
             public void onContactEnded(long manifoldId) {}
         };
-        manager = new PhysicsWorldTerrain(this, mcWorld, isRemoteWorld);
+        manager = new PhysicsWorldTerrain(this, mcWorld, terrainCache);
     }
 
     /**
@@ -122,6 +137,7 @@ public abstract class BasePhysicsWorld implements IPhysicsWorld {
      * @param profiler The current profiler
      */
     protected void stepSimulationImpl(Profiler profiler) {
+        long stepStart = System.nanoTime();
         Vector3fPool.openPool();
         //Process pending operations
         flushOperations(profiler);
@@ -170,16 +186,22 @@ public abstract class BasePhysicsWorld implements IPhysicsWorld {
         });
         profiler.end(Profiler.Profiles.PHYSICS_TICK_ENTITIES_PRE);
 
+        //Compute the tire forces of the wheels submitted during the pre-tick
+        profiler.start(Profiler.Profiles.TIRE_FORCES);
+        tireSolver.solve();
+        profiler.end(Profiler.Profiles.TIRE_FORCES);
+
         //Update sync system
         if (mcWorld.isRemote) {
             ClientPhysicsSyncManager.tick();
-        } else if (mcWorld.getMinecraftServer().isDedicatedServer()) {
+        } else if (mcWorld.getMinecraftServer() != null && mcWorld.getMinecraftServer().isDedicatedServer()) { //No server in the physics replays
             ServerPhysicsSyncManager.tick(profiler);
         }
 
         //Tick the physics engine
         //long pre = System.currentTimeMillis();
         profiler.start(Profiler.Profiles.BULLET_STEP_SIM);
+        Object jfrEvent = JfrEvents.PHYSICS_STEP.begin();
         DynamXContext.getPhysicsSimulationMode(Side.SERVER).updatePhysicsWorld(dynamicsWorld);
 
         //Post-tick each entity after the physics engine tick
@@ -201,7 +223,28 @@ public abstract class BasePhysicsWorld implements IPhysicsWorld {
         // if (false && CmdNetworkConfig.sync_buff)
         //   System.out.println("Took " + (System.currentTimeMillis() - pre) + " ms");
         MinecraftForge.EVENT_BUS.post(new PhysicsEvent.StepSimulationEvent(this, DynamXContext.getPhysicsSimulationMode(Side.SERVER).getTimeStep()));
+        JfrEvents.PHYSICS_STEP.commit(jfrEvent, entities.size(), collisionObjects.size(), joints.size());
         profiler.end(Profiler.Profiles.BULLET_STEP_SIM);
+
+        PerformanceMonitor monitor = PerformanceMonitor.get(mcWorld.isRemote);
+        if (monitor.isSampling())
+            recordPerformance(monitor, System.nanoTime() - stepStart);
+    }
+
+    /**
+     * Records the step time and the body counts in the performance overlay (the vehicles are also in the collision objects)
+     */
+    private void recordPerformance(PerformanceMonitor monitor, long stepNanos) {
+        int active = 0, sleeping = 0;
+        for (PhysicsCollisionObject object : collisionObjects) {
+            if (object instanceof PhysicsRigidBody && !object.isStatic()) {
+                if (object.isActive())
+                    active++;
+                else
+                    sleeping++;
+            }
+        }
+        monitor.recordPhysicsStep(stepNanos, collisionObjects.size(), active, sleeping);
     }
 
     @Override
@@ -240,6 +283,11 @@ public abstract class BasePhysicsWorld implements IPhysicsWorld {
         return entities.size();
     }
 
+    @Override
+    public TireForceSolver getTireSolver() {
+        return tireSolver;
+    }
+
     @Override
     public PhysicsSoftSpace getDynamicsWorld() {
         return this.dynamicsWorld;
@@ -256,6 +304,7 @@ public abstract class BasePhysicsWorld implements IPhysicsWorld {
         vehicles.clear();
         collisionObjects.clear();
         entities.clear();
+        tireSolver.clear();
         getTerrainManager().onWorldUnload();
         DynamXContext.setPhysicsWorld(null);
     }
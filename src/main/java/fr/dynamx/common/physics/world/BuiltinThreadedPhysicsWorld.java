@@ -79,7 +79,7 @@ public class BuiltinThreadedPhysicsWorld extends BasePhysicsWorld implements Run
                 //System.out.println("Phi tick start " + GlobalPhysicsTickHandler.tickCounter);
                 //System.out.println("Mais wtf");
                 if (ticksLate.get() > 1) {
-                    if (profiler.isActive()) {
+                    if (profiler.isActive() && Profiler.isPrintingData()) {
                         profiler.printData("Physics thread");
                         profiler.reset();
                         //System.out.println("Profiler est actif !");
@@ -87,7 +87,7 @@ public class BuiltinThreadedPhysicsWorld extends BasePhysicsWorld implements Run
                     DynamXMain.log.warn("Too slow server, physics will skip " + (ticksLate.get() - 1) + " simulation ticks !");
                     ticksLate.set(1);
                 } else {
-                    if (profiler.isActive() && DynamXMain.proxy.getTickTime() % 20 == 0) {
+                    if (profiler.isActive() && Profiler.isPrintingData() && DynamXMain.proxy.getTickTime() % 20 == 0) {
                         profiler.printData("Physics thread");
                         profiler.reset();
                         //System.out.println("Profiler est actif !");
@@ -5,7 +5,10 @@ import fr.dynamx.common.DynamXContext;
 import fr.dynamx.common.contentpack.ContentPackLoader;
 import fr.dynamx.common.network.packets.MessageSyncConfig;
 import fr.dynamx.common.network.sync.vars.PosSynchronizedVariable;
+import fr.dynamx.server.network.ClientBandwidthBudget;
+import fr.dynamx.server.network.DriverMoveValidator;
 import fr.dynamx.server.network.PlayerSyncBuffer;
+import fr.dynamx.server.network.ServerPhysicsSyncManager;
 import fr.dynamx.utils.DynamXConfig;
 import fr.dynamx.utils.debug.SyncTracker;
 import net.minecraft.command.CommandException;
@@ -19,6 +22,7 @@ import net.minecraftforge.fml.relauncher.Side;
 import java.util.List;
 
 import static java.lang.Float.parseFloat;
+import static net.minecraft.command.CommandBase.parseDouble;
 import static net.minecraft.command.CommandBase.parseInt;
 
 public class CmdNetworkConfig implements ISubCommand
@@ -36,7 +40,7 @@ public class CmdNetworkConfig implements ISubCommand
 
     @Override
     public String getUsage() {
-        return getName()+" <doTrackSync|syncCrit|sync_buff|syncDelay|SMOOTHY|epsilon|printNetDebug> - for Aym'";
+        return getName()+" <doTrackSync|syncCrit|sync_buff|syncDelay|SMOOTHY|epsilon|printNetDebug|syncBudget|moveCheck> - for Aym'";
     }
 
     @Override
@@ -50,6 +54,8 @@ public class CmdNetworkConfig implements ISubCommand
             r.add("SMOOTHY");
             r.add("epsilon");
             r.add("printNetDebug");
+            r.add("syncBudget");
+            r.add("moveCheck");
         }
     }
 
@@ -99,6 +105,20 @@ public class CmdNetworkConfig implements ISubCommand
             if (CmdNetworkConfig.SERVER_NET_DEBUG > 2)
                 CmdNetworkConfig.SERVER_NET_DEBUG = 0;
             sender.sendMessage(new TextComponentString("SERVER_NET_DEBUG is " + CmdNetworkConfig.SERVER_NET_DEBUG + ", may be laggy"));
+        } else if (args[0].equalsIgnoreCase("syncBudget")) {
+            if (args.length == 4) {
+                ClientBandwidthBudget.MIN_BUDGET = parseInt(args[1], 1);
+                ClientBandwidthBudget.MAX_BUDGET = parseInt(args[2], ClientBandwidthBudget.MIN_BUDGET);
+            }
+            sender.sendMessage(new TextComponentString("syncBudget is " + ClientBandwidthBudget.MIN_BUDGET + " " + ClientBandwidthBudget.MAX_BUDGET + " [min] [max]"));
+            sender.sendMessage(new TextComponentString(ServerPhysicsSyncManager.toDebugString()));
+        } else if (args[0].equalsIgnoreCase("moveCheck")) {
+            if (args.length == 3) {
+                DriverMoveValidator.BASE_TOLERANCE = (float) parseDouble(args[1], 0);
+                DriverMoveValidator.MAX_GRIP_ACCELERATION = (float) parseDouble(args[2], 0);
+            }
+            sender.sendMessage(new TextComponentString("moveCheck is " + DriverMoveValidator.BASE_TOLERANCE + " " + DriverMoveValidator.MAX_GRIP_ACCELERATION + " [base_tolerance] [max_grip_acceleration]"));
+            sender.sendMessage(new TextComponentString("Refused driver moves : " + DriverMoveValidator.getTotalViolations()));
         }
         else
             throw new WrongUsageException(getRootCommandUsage() + getUsage());
@@ -0,0 +1,83 @@
+package fr.dynamx.server.command;
+
+import fr.dynamx.common.DynamXMain;
+import fr.dynamx.utils.debug.NetworkTrafficStats;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.util.text.TextFormatting;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Displays and exports the {@link NetworkTrafficStats}
+ */
+public class CmdNetworkStats implements ISubCommand {
+    /** Number of entries displayed per category */
+    private static final int DISPLAYED_ENTRIES = 8;
+
+    @Override
+    public String getName() {
+        return "netstats";
+    }
+
+    @Override
+    public String getUsage() {
+        return getName() + " <show [transport|player|entity|variable]|reset|export>";
+    }
+
+    @Override
+    public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException {
+        if (args.length < 2)
+            throw new WrongUsageException(getUsage());
+        if (args[1].equalsIgnoreCase("show")) {
+            float seconds = NetworkTrafficStats.getElapsedSeconds();
+            sender.sendMessage(new TextComponentString(TextFormatting.GOLD + "DynamX network traffic over the last " + (int) seconds + " seconds :"));
+            for (NetworkTrafficStats.Category category : NetworkTrafficStats.Category.values()) {
+                if (args.length > 2 && !category.name().equalsIgnoreCase(args[2]))
+                    continue;
+                sender.sendMessage(new TextComponentString(TextFormatting.GREEN + "== " + category.name() + " =="));
+                List<NetworkTrafficStats.Entry> entries = NetworkTrafficStats.getEntries(category);
+                for (int i = 0; i < entries.size() && i < DISPLAYED_ENTRIES; i++)
+                    sender.sendMessage(new TextComponentString(entries.get(i).toString()));
+                if (entries.size() > DISPLAYED_ENTRIES)
+                    sender.sendMessage(new TextComponentString("... and " + (entries.size() - DISPLAYED_ENTRIES) + " more, use export to see all entries"));
+            }
+        } else if (args[1].equalsIgnoreCase("reset")) {
+            NetworkTrafficStats.reset();
+            sender.sendMessage(new TextComponentString("Network stats have been reset"));
+        } else if (args[1].equalsIgnoreCase("export")) {
+            File file = server.getFile("dynamx_netstats_" + new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date()) + ".csv");
+            try (Writer writer = new FileWriter(file)) {
+                NetworkTrafficStats.exportCsv(writer);
+                sender.sendMessage(new TextComponentString("Network stats exported to " + file.getName()));
+            } catch (IOException e) {
+                DynamXMain.log.error("Failed to export network stats to " + file, e);
+                sender.sendMessage(new TextComponentString(TextFormatting.RED + "Failed to export network stats : " + e.getMessage()));
+            }
+        } else
+            throw new WrongUsageException(getUsage());
+    }
+
+    @Override
+    public void getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, @Nullable BlockPos targetPos, List<String> r) {
+        if (args.length == 2) {
+            r.add("show");
+            r.add("reset");
+            r.add("export");
+        } else if (args.length == 3 && args[1].equalsIgnoreCase("show")) {
+            for (NetworkTrafficStats.Category category : NetworkTrafficStats.Category.values())
+                r.add(category.name().toLowerCase());
+        }
+    }
+}
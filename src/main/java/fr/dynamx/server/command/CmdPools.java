@@ -0,0 +1,79 @@
+package fr.dynamx.server.command;
+
+import fr.dynamx.utils.optimization.PoolDebugger;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.util.text.TextFormatting;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Controls the {@link PoolDebugger} and displays the pool stats of each thread
+ */
+public class CmdPools implements ISubCommand {
+    @Override
+    public String getName() {
+        return "pools";
+    }
+
+    @Override
+    public String getUsage() {
+        return getName() + " <debug <on|off>|show|leaks|events|reset>";
+    }
+
+    @Override
+    public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException {
+        if (args.length < 2)
+            throw new WrongUsageException(getUsage());
+        if (args[1].equalsIgnoreCase("debug")) {
+            if (args.length < 3 || !(args[2].equalsIgnoreCase("on") || args[2].equalsIgnoreCase("off")))
+                throw new WrongUsageException(getUsage());
+            PoolDebugger.setEnabled(args[2].equalsIgnoreCase("on"));
+            sender.sendMessage(new TextComponentString("Pool debug mode " + (PoolDebugger.isEnabled() ? "enabled, this may produce lag" : "disabled")));
+        } else if (args[1].equalsIgnoreCase("show")) {
+            sender.sendMessage(new TextComponentString(TextFormatting.GOLD + "DynamX pools" + (PoolDebugger.isEnabled() ? "" : " (debug mode disabled)") + " :"));
+            String owner = null;
+            for (PoolDebugger.PoolStats stats : PoolDebugger.getPoolStats()) {
+                if (!stats.getOwner().equals(owner)) {
+                    owner = stats.getOwner();
+                    sender.sendMessage(new TextComponentString(TextFormatting.GREEN + "== " + owner + " =="));
+                }
+                sender.sendMessage(new TextComponentString((stats.getGrowths() > 0 || stats.getUnbalancedCloses() > 0 || stats.getLeaks() > 0 ? TextFormatting.RED : TextFormatting.RESET) + stats.toString()));
+            }
+        } else if (args[1].equalsIgnoreCase("leaks")) {
+            sender.sendMessage(new TextComponentString(TextFormatting.GOLD + "Sub-pools open since more than " + PoolDebugger.LEAK_AGE_MS / 1000 + " seconds :"));
+            for (PoolDebugger.PoolStats stats : PoolDebugger.getPoolStats()) {
+                for (PoolDebugger.OpenSite site : stats.getPossibleLeaks())
+                    sender.sendMessage(new TextComponentString(stats.getOwner() + " " + stats.getPoolName() + " : " + site + ", open since " + site.getAgeMs() / 1000 + " s"));
+            }
+        } else if (args[1].equalsIgnoreCase("events")) {
+            List<String> events = PoolDebugger.getEvents();
+            sender.sendMessage(new TextComponentString(TextFormatting.GOLD + "Last pool growths and leaks (" + events.size() + ") :"));
+            for (String event : events)
+                sender.sendMessage(new TextComponentString(event));
+        } else if (args[1].equalsIgnoreCase("reset")) {
+            PoolDebugger.reset();
+            sender.sendMessage(new TextComponentString("Pool stats have been reset"));
+        } else
+            throw new WrongUsageException(getUsage());
+    }
+
+    @Override
+    public void getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, @Nullable BlockPos targetPos, List<String> r) {
+        if (args.length == 2) {
+            r.add("debug");
+            r.add("show");
+            r.add("leaks");
+            r.add("events");
+            r.add("reset");
+        } else if (args.length == 3 && args[1].equalsIgnoreCase("debug")) {
+            r.add("on");
+            r.add("off");
+        }
+    }
+}
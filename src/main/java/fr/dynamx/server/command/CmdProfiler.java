@@ -0,0 +1,101 @@
+package fr.dynamx.server.command;
+
+import fr.dynamx.common.DynamXMain;
+import fr.dynamx.utils.debug.LatencyHistogram;
+import fr.dynamx.utils.debug.Profiler;
+import fr.dynamx.utils.debug.ProfilingData;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.util.text.TextFormatting;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Records the {@link Profiler} of all threads, then displays or dumps the latency histograms
+ */
+public class CmdProfiler implements ISubCommand {
+    @Override
+    public String getName() {
+        return "profiler";
+    }
+
+    @Override
+    public String getUsage() {
+        return getName() + " <start|stop|reset|show|dump <json|csv>>";
+    }
+
+    @Override
+    public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException {
+        if (args.length < 2)
+            throw new WrongUsageException(getUsage());
+        if (args[1].equalsIgnoreCase("start")) {
+            Profiler.resetAll();
+            Profiler.setRecording(true);
+            sender.sendMessage(new TextComponentString("Profiler started"));
+        } else if (args[1].equalsIgnoreCase("stop")) {
+            Profiler.setRecording(false);
+            sender.sendMessage(new TextComponentString("Profiler stopped, use dump to export the data"));
+        } else if (args[1].equalsIgnoreCase("reset")) {
+            Profiler.resetAll();
+            sender.sendMessage(new TextComponentString("Profiler data has been reset"));
+        } else if (args[1].equalsIgnoreCase("show")) {
+            sender.sendMessage(new TextComponentString(TextFormatting.GOLD + "DynamX profiler" + (Profiler.isRecording() ? " (recording, the data may be inconsistent)" : "") + " :"));
+            for (Profiler profiler : Profiler.getProfilers()) {
+                if (!profiler.hasData())
+                    continue;
+                sender.sendMessage(new TextComponentString(TextFormatting.GREEN + "== " + profiler.getThreadName() + " =="));
+                for (Profiler.Profiles profile : Profiler.Profiles.values()) {
+                    ProfilingData data = profiler.getData(profile);
+                    if (data == null || data.getHistogram().getCount() == 0)
+                        continue;
+                    LatencyHistogram h = data.getHistogram();
+                    sender.sendMessage(new TextComponentString(String.format("%s : p50= %.3f ms, p99= %.3f ms, max= %.3f ms on %d spans", profile.name(),
+                            h.getValueAtPercentile(50) / 1e6, h.getValueAtPercentile(99) / 1e6, h.getMax() / 1e6, h.getCount())));
+                }
+            }
+        } else if (args[1].equalsIgnoreCase("dump")) {
+            boolean json = args.length < 3 || args[2].equalsIgnoreCase("json");
+            if (!json && !args[2].equalsIgnoreCase("csv"))
+                throw new WrongUsageException(getUsage());
+            File file = server.getFile("dynamx_profiler_" + new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date()) + (json ? ".json" : ".csv"));
+            try (Writer writer = new FileWriter(file)) {
+                if (json)
+                    Profiler.exportJson(writer);
+                else
+                    Profiler.exportCsv(writer);
+                sender.sendMessage(new TextComponentString("Profiler data dumped to " + file.getName()));
+                if (Profiler.isRecording())
+                    sender.sendMessage(new TextComponentString(TextFormatting.GOLD + "The profiler is still recording : the data may be inconsistent, stop it before dumping"));
+            } catch (IOException e) {
+                DynamXMain.log.error("Failed to dump profiler data to " + file, e);
+                sender.sendMessage(new TextComponentString(TextFormatting.RED + "Failed to dump profiler data : " + e.getMessage()));
+            }
+        } else
+            throw new WrongUsageException(getUsage());
+    }
+
+    @Override
+    public void getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, @Nullable BlockPos targetPos, List<String> r) {
+        if (args.length == 2) {
+            r.add("start");
+            r.add("stop");
+            r.add("reset");
+            r.add("show");
+            r.add("dump");
+        } else if (args.length == 3 && args[1].equalsIgnoreCase("dump")) {
+            r.add("json");
+            r.add("csv");
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package fr.dynamx.server.command;
+
+import fr.dynamx.common.DynamXMain;
+import fr.dynamx.common.physics.replay.PhysicsRecorder;
+import fr.dynamx.common.physics.replay.PhysicsRecording;
+import fr.dynamx.common.physics.replay.PhysicsReplayer;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.util.text.TextFormatting;
+import net.minecraft.world.World;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Records the physics of the server and replays the recordings, see {@link PhysicsRecorder} and {@link PhysicsReplayer}
+ */
+public class CmdReplay implements ISubCommand {
+    @Override
+    public String getName() {
+        return "replay";
+    }
+
+    @Override
+    public String getUsage() {
+        return getName() + " <record <name>|play <name> [all]|stop|status>";
+    }
+
+    @Override
+    public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException {
+        if (args.length < 2)
+            throw new WrongUsageException(getUsage());
+        World world = DynamXMain.proxy.getServerWorld();
+        if (args[1].equalsIgnoreCase("record") || args[1].equalsIgnoreCase("play")) {
+            if (args.length < 3)
+                throw new WrongUsageException(getUsage());
+            //The replays are simulated in their own physics world
+            if (args[1].equalsIgnoreCase("record") && !DynamXMain.proxy.shouldUseBulletSimulation(world)) {
+                sender.sendMessage(new TextComponentString(TextFormatting.RED + "The physics isn't simulated by the server"));
+                return;
+            }
+            if (!PhysicsRecording.isValidName(args[2])) {
+                sender.sendMessage(new TextComponentString(TextFormatting.RED + "The name can only contain letters, digits, '_' and '-'"));
+                return;
+            }
+            File file = PhysicsRecording.getFile(server, args[2]);
+            try {
+                if (args[1].equalsIgnoreCase("record")) {
+                    PhysicsRecorder.start(world, file);
+                    sender.sendMessage(new TextComponentString("Recording the physics to " + file.getName()));
+                } else {
+                    if (!file.exists()) {
+                        sender.sendMessage(new TextComponentString(TextFormatting.RED + "Recording " + file.getName() + " not found"));
+                        return;
+                    }
+                    PhysicsReplayer replayer = PhysicsReplayer.start(world, file, sender);
+                    if (args.length >= 4 && args[3].equalsIgnoreCase("all")) {
+                        //Replays the whole recording now, blocking the server until the report
+                        replayer.run(-1);
+                    } else
+                        sender.sendMessage(new TextComponentString("Replaying " + file.getName() + " in a separate physics world"));
+                }
+            } catch (IllegalStateException | IOException e) {
+                DynamXMain.log.error("Failed to start the physics " + args[1], e);
+                sender.sendMessage(new TextComponentString(TextFormatting.RED + "Failed to start : " + e.getMessage()));
+            }
+        } else if (args[1].equalsIgnoreCase("stop")) {
+            if (PhysicsRecorder.getActive() != null) {
+                PhysicsRecorder recorder = PhysicsRecorder.getActive();
+                recorder.stop();
+                sender.sendMessage(new TextComponentString("Recorded " + recorder.getTickCount() + " ticks to " + recorder.getFile().getName()));
+            } else if (PhysicsReplayer.getActive() != null)
+                PhysicsReplayer.getActive().finish(true);
+            else
+                sender.sendMessage(new TextComponentString("Nothing to stop"));
+        } else if (args[1].equalsIgnoreCase("status")) {
+            if (PhysicsRecorder.getActive() != null)
+                sender.sendMessage(new TextComponentString("Recording " + PhysicsRecorder.getActive().getFile().getName() + " : " + PhysicsRecorder.getActive().getTickCount() + " ticks"));
+            else if (PhysicsReplayer.getActive() != null) {
+                PhysicsReplayer replayer = PhysicsReplayer.getActive();
+                sender.sendMessage(new TextComponentString("Replaying " + replayer.getFile().getName() + String.format(" : %d ticks, max divergence %.5f blocks", replayer.getTickCount(), replayer.getMaxDivergence())));
+            } else
+                sender.sendMessage(new TextComponentString("No physics recording or replay"));
+        } else
+            throw new WrongUsageException(getUsage());
+    }
+
+    @Override
+    public void getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, @Nullable BlockPos targetPos, List<String> r) {
+        if (args.length == 2) {
+            r.add("record");
+            r.add("play");
+            r.add("stop");
+            r.add("status");
+        } else if (args.length == 3 && args[1].equalsIgnoreCase("play")) {
+            File[] files = PhysicsRecording.getDirectory(server).listFiles((dir, name) -> name.endsWith(".dnxr"));
+            if (files != null) {
+                for (File file : files)
+                    r.add(file.getName().replace(".dnxr", ""));
+            }
+        } else if (args.length == 4 && args[1].equalsIgnoreCase("play")) {
+            r.add("all");
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package fr.dynamx.server.command;
+
+import fr.dynamx.common.physics.entities.parts.wheel.TireForceSolver;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.text.TextComponentString;
+
+/**
+ * Measures the throughput of the {@link TireForceSolver} with random wheels
+ */
+public class CmdTireBenchmark implements ISubCommand {
+    @Override
+    public String getName() {
+        return "tirebench";
+    }
+
+    @Override
+    public String getUsage() {
+        return getName() + " [wheels] [iterations]";
+    }
+
+    @Override
+    public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException {
+        if (args.length > 3)
+            throw new WrongUsageException(getUsage());
+        int wheels = args.length > 1 ? CommandBase.parseInt(args[1], 1, 1000000) : 4000;
+        int iterations = args.length > 2 ? CommandBase.parseInt(args[2], 1, 100000) : 1000;
+        long nanos = TireForceSolver.benchmark(wheels, iterations);
+        sender.sendMessage(new TextComponentString(String.format("Solved %d wheels in %.3f ms (%.1f wheels/ms), mean of %d iterations",
+                wheels, nanos / 1e6, wheels / Math.max(nanos / 1e6, 1e-6), iterations)));
+    }
+}
@@ -37,10 +37,15 @@ public class DynamXCommands extends CommandBase
         addCommand(new CmdReloadConfig());
         addCommand(new CmdRefreshChunks());
         addCommand(new CmdNetworkConfig());
+        addCommand(new CmdNetworkStats());
         addCommand(new CmdChunkControl());
         addCommand(new CmdSpawnObjects());
         addCommand(new CmdKillEntities());
         addCommand(new CmdOpenDebugGui());
+        addCommand(new CmdTireBenchmark());
+        addCommand(new CmdProfiler());
+        addCommand(new CmdPools());
+        addCommand(new CmdReplay());
         addCommand(new ISubCommand() {
             @Override
             public String getName() {
@@ -0,0 +1,202 @@
+package fr.dynamx.server.network;
+
+import fr.dynamx.common.network.sync.MessageMultiPhysicsEntitySync;
+import fr.dynamx.common.network.sync.MessageSyncAck;
+
+/**
+ * Congestion control of the sync packets sent to one client <br>
+ * Estimates the round trip time and the packet loss from the {@link MessageSyncAck}s sent back by the client, and adapts the number of entities that can be synced each tick with an AIMD rule :
+ * the budget grows by {@link #ADDITIVE_INCREASE} each round trip without loss, and is multiplied by {@link #MULTIPLICATIVE_DECREASE} on congestion <br>
+ * Acks are received on the udp thread, so all accesses are synchronized
+ *
+ * @see PlayerSyncBuffer
+ */
+public class ClientBandwidthBudget
+{
+    /** Minimum number of entities synced per tick, even on a very bad connection, modifiable via /dynamx command */
+    public static int MIN_BUDGET = 4;
+    /** Maximum number of entities synced per tick, modifiable via /dynamx command */
+    public static int MAX_BUDGET = 120;
+    /** Number of entities added to the budget each round trip without loss */
+    public static float ADDITIVE_INCREASE = 2;
+    /** Budget multiplier when a congestion is detected */
+    public static float MULTIPLICATIVE_DECREASE = 0.7f;
+    /** Delay added to the lowest measured round trip time above which we consider that packets are queued in the network, in ms */
+    public static int RTT_CONGESTION_THRESHOLD = 150;
+
+    /** Number of sent packets remembered, must be a power of two and bigger than {@link MessageSyncAck#ACK_WINDOW} */
+    private static final int HISTORY_SIZE = 1024;
+    /** Weight of a new sample in the loss rate average */
+    private static final float LOSS_SMOOTHING = 0.05f;
+
+    private final int[] sentSequences = new int[HISTORY_SIZE];
+    private final long[] sendTimes = new long[HISTORY_SIZE];
+    private final boolean[] acked = new boolean[HISTORY_SIZE];
+
+    private int nextSequence;
+    /** Highest sequence acknowledged by the client, -1 if nothing was acknowledged */
+    private int lastAckSequence = -1;
+    /** Sequences lower than this are already counted in the loss rate */
+    private int lossCheckSequence;
+    /** A congestion detected on packets sent before this sequence is already handled */
+    private int nextDecreaseSequence;
+    /** The budget can grow again once this sequence is acknowledged */
+    private int nextIncreaseSequence;
+    private boolean budgetLimited;
+
+    /** Smoothed round trip time in ms, -1 if not measured yet */
+    private float smoothedRtt = -1;
+    private float rttVariation;
+    private float minRtt = Float.MAX_VALUE;
+    private float lossRate;
+    private float budget;
+
+    public ClientBandwidthBudget(int initialBudget) {
+        this.budget = initialBudget;
+        for (int i = 0; i < HISTORY_SIZE; i++)
+            sentSequences[i] = -1;
+    }
+
+    /**
+     * Registers a sync packet sent to the client
+     *
+     * @return The sequence of the packet, to put in the {@link MessageMultiPhysicsEntitySync}
+     */
+    public synchronized int onPacketSent() {
+        int sequence = nextSequence++;
+        int slot = sequence & (HISTORY_SIZE - 1);
+        sentSequences[slot] = sequence;
+        sendTimes[slot] = System.nanoTime();
+        acked[slot] = false;
+        return sequence;
+    }
+
+    /**
+     * Handles a {@link MessageSyncAck} : updates the rtt and loss estimations, and adapts the budget
+     *
+     * @param ackSequence The last sequence received by the client
+     * @param ackBits     The bit field of the previously received sequences
+     */
+    public synchronized void onAck(int ackSequence, int ackBits) {
+        if (ackSequence >= nextSequence || ackSequence <= lastAckSequence - HISTORY_SIZE)
+            return; //Invalid or too old
+        long now = System.nanoTime();
+        acknowledge(ackSequence, now);
+        for (int i = 0; i < MessageSyncAck.ACK_WINDOW; i++) {
+            if ((ackBits & (1 << i)) != 0 && ackSequence - 1 - i >= 0)
+                acknowledge(ackSequence - 1 - i, now);
+        }
+        if (ackSequence > lastAckSequence)
+            lastAckSequence = ackSequence;
+
+        //Packets out of the ack window cannot be acknowledged anymore : they are lost
+        boolean congestion = false;
+        int lossLimit = lastAckSequence - MessageSyncAck.ACK_WINDOW;
+        for (; lossCheckSequence < lossLimit; lossCheckSequence++) {
+            int slot = lossCheckSequence & (HISTORY_SIZE - 1);
+            if (sentSequences[slot] == lossCheckSequence) {
+                boolean lost = !acked[slot];
+                lossRate += ((lost ? 1 : 0) - lossRate) * LOSS_SMOOTHING;
+                if (lost && lossCheckSequence >= nextDecreaseSequence)
+                    congestion = true;
+            }
+        }
+        //Packets waiting in the network queues also mean congestion
+        if (smoothedRtt > minRtt + RTT_CONGESTION_THRESHOLD && lastAckSequence >= nextDecreaseSequence)
+            congestion = true;
+
+        if (congestion)
+            decrease();
+        else if (lastAckSequence >= nextIncreaseSequence) {
+            //Only grow if the budget was really used, or we would accumulate a huge budget on idle connections
+            if (budgetLimited)
+                budget = Math.min(MAX_BUDGET, budget + ADDITIVE_INCREASE);
+            budgetLimited = false;
+            nextIncreaseSequence = nextSequence;
+        }
+    }
+
+    private void acknowledge(int sequence, long now) {
+        int slot = sequence & (HISTORY_SIZE - 1);
+        if (sentSequences[slot] != sequence || acked[slot])
+            return;
+        acked[slot] = true;
+        float sample = (now - sendTimes[slot]) / 1000000f;
+        if (smoothedRtt < 0) {
+            smoothedRtt = sample;
+            rttVariation = sample / 2;
+        } else {
+            rttVariation = 0.75f * rttVariation + 0.25f * Math.abs(smoothedRtt - sample);
+            smoothedRtt = 0.875f * smoothedRtt + 0.125f * sample;
+        }
+        minRtt = Math.min(minRtt, sample);
+    }
+
+    private void decrease() {
+        budget = Math.max(MIN_BUDGET, budget * MULTIPLICATIVE_DECREASE);
+        nextDecreaseSequence = nextSequence;
+        nextIncreaseSequence = nextSequence;
+        budgetLimited = false;
+    }
+
+    /**
+     * Called each tick before sending the syncs, detects a client that doesn't ack anything anymore
+     */
+    public synchronized void update() {
+        if (smoothedRtt < 0)
+            return; //No ack ever received (tcp client)
+        //Only check packets sent after the last decrease, so a client that doesn't respond is slowed once per timeout
+        int oldestUnacked = Math.max(lastAckSequence + 1, nextDecreaseSequence);
+        if (oldestUnacked >= nextSequence)
+            return;
+        int slot = oldestUnacked & (HISTORY_SIZE - 1);
+        long timeout = (long) Math.max(1000, smoothedRtt + 4 * rttVariation) * 1000000L;
+        if (sentSequences[slot] == oldestUnacked && !acked[slot] && System.nanoTime() - sendTimes[slot] > timeout)
+            decrease();
+    }
+
+    /**
+     * Called when the sync buffer had more entities to sync than its budget
+     */
+    public synchronized void onBudgetLimited() {
+        budgetLimited = true;
+    }
+
+    /**
+     * @return The number of entities that can be synced this tick
+     */
+    public synchronized int getSendBudget() {
+        return (int) budget;
+    }
+
+    /**
+     * @return True if the budget is lower than the initial limits of the {@link PlayerSyncBuffer}
+     */
+    public synchronized boolean isCongested() {
+        return budget < PlayerSyncBuffer.NEW_SENDS_LIMIT + PlayerSyncBuffer.DELAYED_SENDS_LIMIT;
+    }
+
+    /**
+     * @return The smoothed round trip time in ms, or -1 if not measured yet
+     */
+    public synchronized float getSmoothedRtt() {
+        return smoothedRtt;
+    }
+
+    /**
+     * @return The smoothed packet loss rate, between 0 and 1
+     */
+    public synchronized float getLossRate() {
+        return lossRate;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Budget{" +
+                "budget=" + (int) budget +
+                ", rtt=" + (int) smoothedRtt +
+                ", minRtt=" + (minRtt == Float.MAX_VALUE ? -1 : (int) minRtt) +
+                ", loss=" + (int) (lossRate * 100) + "%" +
+                '}';
+    }
+}
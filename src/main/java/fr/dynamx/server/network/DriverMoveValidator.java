@@ -0,0 +1,272 @@
+package fr.dynamx.server.network;
+
+import com.jme3.math.Vector3f;
+import fr.dynamx.api.entities.IModuleContainer;
+import fr.dynamx.api.network.sync.SimulationHolder;
+import fr.dynamx.common.DynamXMain;
+import fr.dynamx.common.contentpack.ModularVehicleInfo;
+import fr.dynamx.common.contentpack.parts.PartWheel;
+import fr.dynamx.common.contentpack.type.vehicle.EngineInfo;
+import fr.dynamx.common.entities.BaseVehicleEntity;
+import fr.dynamx.common.entities.PhysicsEntity;
+import fr.dynamx.common.entities.modules.EngineModule;
+import fr.dynamx.common.network.sync.vars.PosSynchronizedVariable;
+import fr.dynamx.common.network.sync.vars.VehicleSynchronizedVariables;
+import fr.dynamx.utils.optimization.Vector3fPool;
+import net.minecraft.entity.player.EntityPlayer;
+
+/**
+ * Server-side verification of the states sent by the driver of an entity, in {@link SimulationHolder#DRIVER} mode <br>
+ * Keeps a short history of the accepted states and of the driver's controls (see {@link VehicleSynchronizedVariables.Controls}). <br>
+ * A new state is checked against the last accepted state before its simulation time, with a cheap forward simulation of the controls :
+ * the entity can continue at its speed, slow down (brakes, crashes), and gain at most the acceleration of its engine, its grip and the gravity. <br>
+ * The position and the speed are checked separately. The tolerances are shared by the states of the last second, so small errors cannot add up from packet to packet. <br>
+ * Only unreachable states are refused (and corrected on the client), this replaces the static thresholds of {@link PosSynchronizedVariable}
+ */
+public class DriverMoveValidator
+{
+    /** Distance error tolerated over {@link #DRIFT_WINDOW_TICKS}, in blocks, modifiable via /dynamx command */
+    public static float BASE_TOLERANCE = 1.5f;
+    /** Maximum acceleration given by the grip of the vehicle (brakes and turns), in m/s², modifiable via /dynamx command */
+    public static float MAX_GRIP_ACCELERATION = 12;
+    /** Acceleration of the entities without engine info, in m/s² */
+    public static float DEFAULT_ENGINE_ACCELERATION = 10;
+    /** Multiplier of the max speed of the vehicles, above which the engine cannot accelerate */
+    public static float SPEED_TOLERANCE = 1.2f;
+    /** Additional ticks allowed between the client and server times, to absorb the network jitter */
+    public static int LATENCY_TICKS = 5;
+    /** Speed gain tolerated over {@link #DRIFT_WINDOW_TICKS}, in m/s */
+    public static float BASE_SPEED_TOLERANCE = 2;
+
+    /** Number of accepted states remembered, must be a power of two */
+    private static final int HISTORY_SIZE = 32;
+    /** Maximum forward simulation duration, in ticks, longer gaps are checked as if they lasted this time */
+    private static final int MAX_CHECKED_TICKS = 40;
+    /** Duration, in ticks, over which the errors of the accepted states are added up */
+    private static final int DRIFT_WINDOW_TICKS = 20;
+    private static final float TICK_DURATION = 0.05f;
+    private static final float GRAVITY = 9.81f;
+
+    private static int totalViolations;
+
+    private final int[] clientTimes = new int[HISTORY_SIZE];
+    private final int[] serverTicks = new int[HISTORY_SIZE];
+    private final int[] controls = new int[HISTORY_SIZE];
+    private final float[] positions = new float[HISTORY_SIZE * 3];
+    private final float[] velocities = new float[HISTORY_SIZE * 3];
+    /** Part of the distance tolerance used by each accepted state */
+    private final float[] positionDrifts = new float[HISTORY_SIZE];
+    /** Part of the speed tolerance used by each accepted state */
+    private final float[] speedDrifts = new float[HISTORY_SIZE];
+    private int size;
+    private int head;
+
+    /** Number of client states to ignore, after a correction (the client may have sent them before receiving it) */
+    private int ignoreFor;
+    private int violations;
+    private float maxPositionError, maxSpeedError;
+    /** Errors of the last checked state, in blocks and in m/s */
+    private float lastPositionError, lastSpeedError;
+
+    /**
+     * Forgets the history, when the driver changes or after a correction
+     */
+    public void reset() {
+        size = 0;
+    }
+
+    /**
+     * Ignores the next client states, because the entity was moved by the server
+     *
+     * @param packets The number of sync packets to ignore
+     */
+    public void ignoreNextMoves(int packets) {
+        ignoreFor = packets;
+        reset();
+    }
+
+    /**
+     * @return True if the current client state should be ignored, decrements the ignored packets counter
+     */
+    public boolean consumeIgnoredMove() {
+        if (ignoreFor > 0) {
+            ignoreFor--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the client state can be reached from the previous accepted state, and records it if it's the case
+     *
+     * @param entity     The driven entity
+     * @param clientTime The client simulation time of the state
+     * @param pos        The position sent by the client
+     * @param linearVel  The linear velocity sent by the client
+     * @return True if the state is reachable, false if it should be corrected
+     */
+    public boolean checkMove(PhysicsEntity<?> entity, int clientTime, Vector3f pos, Vector3f linearVel) {
+        int currentControls = getControls(entity);
+        Vector3f refPos, refVel;
+        int ticks, refControls;
+        int ref = findReference(clientTime);
+        if (ref == -1) {
+            //No usable history : the server state is the reference, it's authoritative since no client state was applied
+            refPos = entity.physicsPosition;
+            refVel = entity.physicsHandler.getLinearVelocity();
+            refControls = currentControls;
+            ticks = Math.max(entity.getSyncTickRate(), 1) + LATENCY_TICKS;
+        } else {
+            refPos = Vector3fPool.get(positions[ref * 3], positions[ref * 3 + 1], positions[ref * 3 + 2]);
+            refVel = Vector3fPool.get(velocities[ref * 3], velocities[ref * 3 + 1], velocities[ref * 3 + 2]);
+            refControls = controls[ref];
+            //The client cannot have simulated more time than elapsed on the server
+            ticks = Math.min(clientTime - clientTimes[ref], entity.ticksExisted - serverTicks[ref] + LATENCY_TICKS);
+        }
+        ticks = Math.max(1, Math.min(ticks, MAX_CHECKED_TICKS));
+        float dt = ticks * TICK_DURATION;
+
+        float horizontalAcceleration = MAX_GRIP_ACCELERATION;
+        if (isAccelerating(refControls) || isAccelerating(currentControls)) {
+            float refSpeed = (float) Math.sqrt(refVel.x * refVel.x + refVel.z * refVel.z);
+            if (refSpeed < getMaxSpeed(entity) * SPEED_TOLERANCE)
+                horizontalAcceleration += getEngineAcceleration(entity);
+        }
+        float acceleration = horizontalAcceleration + GRAVITY;
+
+        //Distance to the segment [refPos, refPos + refVel * dt] : the entity can keep its speed or slow down
+        Vector3f travel = refVel.mult(dt, Vector3fPool.get());
+        Vector3f toPos = pos.subtract(refPos, Vector3fPool.get());
+        float travelLength = travel.lengthSquared();
+        float t = travelLength > 0 ? Math.max(0, Math.min(1, toPos.dot(travel) / travelLength)) : 0;
+        float distance = toPos.subtractLocal(travel.multLocal(t)).length();
+        float positionDrift = Math.max(0, distance - 0.5f * acceleration * dt * dt);
+
+        //The speed can only increase by the available acceleration
+        float speedGain = linearVel.length() - refVel.length();
+        float speedDrift = Math.max(0, speedGain - acceleration * dt);
+
+        //The tolerances are shared with the states accepted in the drift window
+        float windowPositionDrift = positionDrift, windowSpeedDrift = speedDrift;
+        for (int i = 0; i < size; i++) {
+            int index = (head - 1 - i) & (HISTORY_SIZE - 1);
+            if (entity.ticksExisted - serverTicks[index] >= DRIFT_WINDOW_TICKS)
+                break;
+            windowPositionDrift += positionDrifts[index];
+            windowSpeedDrift += speedDrifts[index];
+        }
+        lastPositionError = windowPositionDrift - BASE_TOLERANCE;
+        lastSpeedError = windowSpeedDrift - BASE_SPEED_TOLERANCE;
+        if (lastPositionError > 0 || lastSpeedError > 0)
+            return false;
+        record(entity, clientTime, pos, linearVel, currentControls, positionDrift, speedDrift);
+        return true;
+    }
+
+    /**
+     * Counts and logs a refused state, the history is cleared and the next client states will be ignored while the correction reaches the client
+     *
+     * @param entity      The driven entity
+     * @param driver      The driver that sent the state
+     * @param ignoreMoves The number of client states to ignore
+     */
+    public void onViolation(PhysicsEntity<?> entity, EntityPlayer driver, int ignoreMoves) {
+        violations++;
+        totalViolations++;
+        maxPositionError = Math.max(maxPositionError, lastPositionError);
+        maxSpeedError = Math.max(maxSpeedError, lastSpeedError);
+        DynamXMain.log.warn("Physics entity " + entity + " driven by " + driver.getName() + " sent an unreachable state : " + String.format("%.2f", Math.max(0, lastPositionError)) + " blocks too far, " + String.format("%.2f", Math.max(0, lastSpeedError)) + " m/s too fast. Violations : " + violations
+                + " (max errors " + String.format("%.2f", maxPositionError) + " blocks, " + String.format("%.2f", maxSpeedError) + " m/s)");
+        ignoreNextMoves(ignoreMoves);
+    }
+
+    /**
+     * @return The index of the latest accepted state before the client time, or -1
+     */
+    private int findReference(int clientTime) {
+        for (int i = 0; i < size; i++) {
+            int index = (head - 1 - i) & (HISTORY_SIZE - 1);
+            if (clientTimes[index] < clientTime)
+                return index;
+        }
+        return -1;
+    }
+
+    private void record(PhysicsEntity<?> entity, int clientTime, Vector3f pos, Vector3f linearVel, int currentControls, float positionDrift, float speedDrift) {
+        int index = head;
+        head = (head + 1) & (HISTORY_SIZE - 1);
+        if (size < HISTORY_SIZE)
+            size++;
+        clientTimes[index] = clientTime;
+        serverTicks[index] = entity.ticksExisted;
+        controls[index] = currentControls;
+        positions[index * 3] = pos.x;
+        positions[index * 3 + 1] = pos.y;
+        positions[index * 3 + 2] = pos.z;
+        velocities[index * 3] = linearVel.x;
+        velocities[index * 3 + 1] = linearVel.y;
+        velocities[index * 3 + 2] = linearVel.z;
+        positionDrifts[index] = positionDrift;
+        speedDrifts[index] = speedDrift;
+    }
+
+    private static boolean isAccelerating(int controls) {
+        //Engine started and accelerating or reversing, see EngineModule
+        return (controls & 32) != 0 && (controls & 5) != 0;
+    }
+
+    private static int getControls(PhysicsEntity<?> entity) {
+        if (entity instanceof IModuleContainer.IEngineContainer && ((IModuleContainer.IEngineContainer) entity).getEngine() instanceof EngineModule)
+            return ((EngineModule) ((IModuleContainer.IEngineContainer) entity).getEngine()).getControls();
+        return 32 | 1; //Unknown : suppose it can accelerate
+    }
+
+    /**
+     * @return The max speed of the vehicle in m/s (not the speed limit, that is chosen by the client)
+     */
+    private static float getMaxSpeed(PhysicsEntity<?> entity) {
+        if (entity instanceof BaseVehicleEntity && ((BaseVehicleEntity<?>) entity).getPackInfo() != null)
+            return ((BaseVehicleEntity<?>) entity).getPackInfo().getVehicleMaxSpeed() / 3.6f;
+        return Float.MAX_VALUE;
+    }
+
+    /**
+     * Estimates the maximum engine acceleration like the WheelsPhysicsHandler : each driving wheel receives twice the engine power, against the empty mass of the vehicle
+     */
+    private static float getEngineAcceleration(PhysicsEntity<?> entity) {
+        if (!(entity instanceof BaseVehicleEntity) || !(entity instanceof IModuleContainer.IEngineContainer) || !(((IModuleContainer.IEngineContainer) entity).getEngine() instanceof EngineModule))
+            return DEFAULT_ENGINE_ACCELERATION;
+        ModularVehicleInfo<?> info = ((BaseVehicleEntity<?>) entity).getPackInfo();
+        EngineInfo engineInfo = ((EngineModule) ((IModuleContainer.IEngineContainer) entity).getEngine()).getEngineInfo();
+        if (info == null || engineInfo == null || info.getEmptyMass() <= 0)
+            return DEFAULT_ENGINE_ACCELERATION;
+        int drivingWheels = 0;
+        for (PartWheel wheel : info.getPartsByType(PartWheel.class)) {
+            if (wheel.isDrivingWheel())
+                drivingWheels++;
+        }
+        return engineInfo.getPower() * 2 * Math.max(1, drivingWheels) / info.getEmptyMass();
+    }
+
+    public int getViolations() {
+        return violations;
+    }
+
+    /**
+     * @return The number of refused states since the server start
+     */
+    public static int getTotalViolations() {
+        return totalViolations;
+    }
+
+    @Override
+    public String toString() {
+        return "DriverMoveValidator{" +
+                "history=" + size +
+                ", ignoreFor=" + ignoreFor +
+                ", violations=" + violations +
+                ", maxPositionError=" + maxPositionError +
+                ", maxSpeedError=" + maxSpeedError +
+                '}';
+    }
+}
@@ -9,6 +9,7 @@ import fr.dynamx.common.network.sync.MessageMultiPhysicsEntitySync;
 import fr.dynamx.common.network.sync.MessagePhysicsEntitySync;
 import fr.dynamx.common.network.sync.vars.EntityPhysicsState;
 import fr.dynamx.server.command.CmdNetworkConfig;
+import fr.dynamx.utils.debug.JfrEvents;
 import fr.dynamx.utils.optimization.PooledHashMap;
 import net.minecraft.entity.player.EntityPlayerMP;
 
@@ -22,6 +23,9 @@ import java.util.*;
  */
 public class PlayerSyncBuffer
 {
+    /** Orders packets from the highest to the lowest priority */
+    private static final Comparator<SyncItem<?>> PRIORITY_ORDER = Comparator.comparingDouble(s -> s.priority);
+
     /** Limit of packets sent for one tick, except delayed ones, modifiable via /dynamx command */
     public static int NEW_SENDS_LIMIT = 20;
     /** Limit of delayed packets sent for one tick, modifiable via /dynamx command */
@@ -41,6 +45,10 @@ public class PlayerSyncBuffer
     private final Queue<SyncItem<?>> queuedPackets = Queues.newArrayDeque();
     /** Packets delayed the last ticks */
     private final List<SyncItem<?>> delayedPackets = new ArrayList<>();
+    /** Packets sorted by priority, when there is too much to send */
+    private final List<SyncItem<?>> scheduledPackets = new ArrayList<>();
+    /** Adapts the number of packets sent to the connection of the player */
+    private final ClientBandwidthBudget bandwidthBudget = new ClientBandwidthBudget(NEW_SENDS_LIMIT + DELAYED_SENDS_LIMIT);
     /** Sync time used for driving synchronisation, see {@link EntityPhysicsState} */
     private int syncTime;
 
@@ -76,7 +84,8 @@ public class PlayerSyncBuffer
     }
 
     /**
-     * Updates buffers, and send data that need to be sent
+     * Updates buffers, and send data that need to be sent <br>
+     * If there is more data than the {@link ClientBandwidthBudget} of the player, the closest entities are sent first, and the others are delayed
      */
     public void update() {
         /*if(DynamXCommands.sync_buff)
@@ -84,8 +93,11 @@ public class PlayerSyncBuffer
           //  System.out.println("AT");
            System.out.println(this.toString());
         }*/
+        Object jfrEvent = JfrEvents.SYNC_SEND.begin();
         final Queue<MessagePhysicsEntitySync<?>> sendQueue = new ArrayDeque<>();
-        if(queuedPackets.size() <= NEW_SENDS_LIMIT && delayedPackets.size() <= DELAYED_SENDS_LIMIT)
+        bandwidthBudget.update();
+        int budget = bandwidthBudget.getSendBudget();
+        if(queuedPackets.size() + delayedPackets.size() <= budget)
         {
             if(!delayedPackets.isEmpty())
             {
@@ -97,40 +109,41 @@ public class PlayerSyncBuffer
         }
         else //too much to send
         {
-            List<SyncItem<?>> keep = new ArrayList<>();
+            bandwidthBudget.onBudgetLimited();
+            //When the client is congested, close entities are also limited by the budget
+            boolean congested = bandwidthBudget.isCongested();
             if(!delayedPackets.isEmpty()) {
                 delayedPackets.forEach(s -> {
-                    if (s.entity.getDistanceSq(playerIn) > SECOND_RADIUS && s.skip())
-                        keep.add(s);
-                    else {
+                    if (s.isUrgent(SECOND_RADIUS, congested))
                         s.send(sendQueue);
-                    }
+                    else
+                        scheduledPackets.add(s);
                 });
                 delayedPackets.clear();
             }
             queuedPackets.forEach(s -> {
-                if (s.entity.getDistanceSq(playerIn) > FIRST_RADIUS && s.skip())
-                    keep.add(s);
-                else {
+                if (s.isUrgent(FIRST_RADIUS, congested))
                     s.send(sendQueue);
-                }
+                else
+                    scheduledPackets.add(s);
             });
             queuedPackets.clear();
 
+            //Lower priority entities are delayed first
+            scheduledPackets.sort(PRIORITY_ORDER);
             //System.out.println("FC "+count[0]);
-            while(!keep.isEmpty() && sendQueue.size() <= NEW_SENDS_LIMIT + DELAYED_SENDS_LIMIT)
+            for(SyncItem<?> s : scheduledPackets)
             {
-                SyncItem<?> s = keep.remove(0);
-                s.send(sendQueue);
+                if(sendQueue.size() < budget || !s.skip())
+                    s.send(sendQueue);
+                else
+                    delayedPackets.add(s);
             }
+            scheduledPackets.clear();
             //System.out.println("FA "+count[0]);
-            if (!keep.isEmpty()) {
-                delayedPackets.addAll(keep);
-                //System.out.println("Delay "+delayedPackets+" "+keep);
-                keep.clear();
-            }
         }
         syncTime++;
+        int sent = sendQueue.size();
         /*if(DynamXCommands.sync_buff && !delayedPackets.isEmpty())
         {
             System.out.println("PT");
@@ -140,20 +153,18 @@ public class PlayerSyncBuffer
         {
             if(CmdNetworkConfig.sync_buff && playerIn.getName().equalsIgnoreCase("aymericred"))
                 System.out.println("Send you "+sendQueue);
-            if(sendQueue.size() == 1)
-                DynamXContext.getNetwork().sendToClient(sendQueue.poll(), EnumPacketTarget.PLAYER, playerIn);
-            else {
-                while(sendQueue.size() > ENTITIES_PER_PACKETS)
-                {
-                    List<MessagePhysicsEntitySync<?>> buff = new ArrayList<>();
-                    for (int i = 0; i < ENTITIES_PER_PACKETS; i++) {
-                        buff.add(sendQueue.poll());
-                    }
-                    DynamXContext.getNetwork().sendToClient(new MessageMultiPhysicsEntitySync(buff), EnumPacketTarget.PLAYER, playerIn);
+            //Always use the multi sync, its sequence is acknowledged by the client and used by the bandwidth budget
+            while(sendQueue.size() > ENTITIES_PER_PACKETS)
+            {
+                List<MessagePhysicsEntitySync<?>> buff = new ArrayList<>();
+                for (int i = 0; i < ENTITIES_PER_PACKETS; i++) {
+                    buff.add(sendQueue.poll());
                 }
-                DynamXContext.getNetwork().sendToClient(new MessageMultiPhysicsEntitySync(sendQueue), EnumPacketTarget.PLAYER, playerIn);
+                DynamXContext.getNetwork().sendToClient(new MessageMultiPhysicsEntitySync(buff, bandwidthBudget.onPacketSent()), EnumPacketTarget.PLAYER, playerIn);
             }
+            DynamXContext.getNetwork().sendToClient(new MessageMultiPhysicsEntitySync(sendQueue, bandwidthBudget.onPacketSent()), EnumPacketTarget.PLAYER, playerIn);
         }
+        JfrEvents.SYNC_SEND.commit(jfrEvent, sent, delayedPackets.size(), budget);
     }
 
     /** Sets sync time used for driving synchronisation, see {@link EntityPhysicsState} */
@@ -166,12 +177,20 @@ public class PlayerSyncBuffer
         return syncTime;
     }
 
+    /**
+     * @return The congestion control of the player
+     */
+    public ClientBandwidthBudget getBandwidthBudget() {
+        return bandwidthBudget;
+    }
+
     /**
      * Clears buffers of entity data
      */
     public void clear() {
         queuedPackets.clear();
         delayedPackets.clear();
+        scheduledPackets.clear();
     }
 
     @Override
@@ -181,6 +200,7 @@ public class PlayerSyncBuffer
                 ", queued=" + queuedPackets.size() +
                 ", delayed=" + delayedPackets.size() +
                 ", syncT=" + syncTime +
+                ", " + bandwidthBudget +
                 '}';
     }
 
@@ -192,6 +212,8 @@ public class PlayerSyncBuffer
         private final T entity;
         private final PooledHashMap<Integer, SynchronizedVariable<T>> varsToSync;
         private int skippedSends;
+        /** Distance to the player, reduced by the number of delaying, lower is more important */
+        private double priority;
 
         private SyncItem(T entity, PooledHashMap<Integer, SynchronizedVariable<T>> varsToSync) {
             this.entity = entity;
@@ -209,6 +231,20 @@ public class PlayerSyncBuffer
             }
         }
 
+        /**
+         * Computes the priority of this packet, and checks if it should be sent without considering the budget
+         *
+         * @param safeRadius Radius in which packets are always sent, if the client is not congested
+         * @param congested If the budget of the client has shrunk
+         * @return True if this is the vehicle of the player, if it can't be delayed anymore, or if it's in the safe radius and the client isn't congested
+         */
+        private boolean isUrgent(int safeRadius, boolean congested)
+        {
+            double distance = entity.getDistanceSq(playerIn);
+            priority = distance / (1 + skippedSends);
+            return entity == playerIn.getRidingEntity() || skippedSends >= MAX_SKIP || (!congested && distance <= safeRadius);
+        }
+
         /**
          * Counts one delay for this packet
          * @return False is number of delaying has reached the maximum
@@ -41,6 +41,7 @@ public class ServerPhysicsEntityNetHandler<T extends PhysicsEntity<?>> extends P
 
     private Map<Integer, SyncTarget> varsToSync = new HashMap<>();
     private int updateCount = 0;
+    private final DriverMoveValidator moveValidator = new DriverMoveValidator();
 
     public ServerPhysicsEntityNetHandler(T entityIn) {
         super(entityIn);
@@ -51,6 +52,7 @@ public class ServerPhysicsEntityNetHandler<T extends PhysicsEntity<?>> extends P
         if (entity.physicsHandler != null)
             entity.physicsHandler.setForceActivation(true);
         ServerPhysicsSyncManager.putTime(player, 0);
+        moveValidator.reset();
         setSimulationHolder(SimulationHolder.DRIVER);
     }
 
@@ -58,9 +60,15 @@ public class ServerPhysicsEntityNetHandler<T extends PhysicsEntity<?>> extends P
     public void onPlayerStopControlling(EntityPlayer player, boolean removeControllers) {
         if (entity.physicsHandler != null)
             entity.physicsHandler.setForceActivation(false);
+        moveValidator.reset();
         setSimulationHolder(getDefaultSimulationHolder());
     }
 
+    @Override
+    public DriverMoveValidator getMoveValidator() {
+        return moveValidator;
+    }
+
     @Override
     public void onPrePhysicsTick(Profiler profiler) {
         if (!queuedPackets.isEmpty()) {
@@ -88,8 +96,10 @@ public class ServerPhysicsEntityNetHandler<T extends PhysicsEntity<?>> extends P
             profiler.end(Profiler.Profiles.PKTSEND1);
 
             profiler.start(Profiler.Profiles.PKTSEND2);
-            Set<? extends EntityPlayer> l = ((WorldServer) entity.world).getEntityTracker().getTrackingPlayers(entity);
-            l.forEach(p -> sendSyncTo(p, retainSyncVars(getOutputSyncVars(), varsToSync, p == entity.getControllingPassenger() ? SyncTarget.DRIVER : p.getRidingEntity() instanceof BaseVehicleEntity && p.getRidingEntity().getControllingPassenger() == p ? SyncTarget.SPECTATORS : SyncTarget.SPECTATORS_PEDESTRIANS)));
+            if (entity.world instanceof WorldServer) { //Not a WorldServer in the physics replays : nobody is tracking the entity
+                Set<? extends EntityPlayer> l = ((WorldServer) entity.world).getEntityTracker().getTrackingPlayers(entity);
+                l.forEach(p -> sendSyncTo(p, retainSyncVars(getOutputSyncVars(), varsToSync, p == entity.getControllingPassenger() ? SyncTarget.DRIVER : p.getRidingEntity() instanceof BaseVehicleEntity && p.getRidingEntity().getControllingPassenger() == p ? SyncTarget.SPECTATORS : SyncTarget.SPECTATORS_PEDESTRIANS)));
+            }
             profiler.end(Profiler.Profiles.PKTSEND2);
             updateCount++;
         }
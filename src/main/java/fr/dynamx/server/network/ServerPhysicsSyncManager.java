@@ -2,23 +2,25 @@ package fr.dynamx.server.network;
 
 import fr.dynamx.api.network.sync.SynchronizedVariable;
 import fr.dynamx.common.entities.PhysicsEntity;
+import fr.dynamx.common.network.sync.MessageSyncAck;
 import fr.dynamx.common.network.sync.vars.EntityPhysicsState;
 import fr.dynamx.utils.debug.Profiler;
 import fr.dynamx.utils.optimization.PooledHashMap;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Hold player physics synchronization
  */
 public class ServerPhysicsSyncManager {
     /**
-     * Holds one {@link PlayerSyncBuffer} per connected player
+     * Holds one {@link PlayerSyncBuffer} per connected player <br>
+     * Concurrent because sync acks are handled on the udp thread
      */
-    private static final Map<EntityPlayer, PlayerSyncBuffer> sendBuffers = new HashMap<>();
+    private static final Map<EntityPlayer, PlayerSyncBuffer> sendBuffers = new ConcurrentHashMap<>();
 
     /**
      * Updates player buffers, sending all sync packets
@@ -50,6 +52,15 @@ public class ServerPhysicsSyncManager {
         return 0;
     }
 
+    /**
+     * Handles a {@link MessageSyncAck} sent by the player, see {@link ClientBandwidthBudget}
+     */
+    public static void onSyncAck(EntityPlayer player, int ackSequence, int ackBits) {
+        PlayerSyncBuffer buffer = sendBuffers.get(player);
+        if (buffer != null)
+            buffer.getBandwidthBudget().onAck(ackSequence, ackBits);
+    }
+
     /**
      * Called on player disconnection to destroy its buffer
      */
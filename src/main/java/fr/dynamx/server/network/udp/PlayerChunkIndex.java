@@ -0,0 +1,85 @@
+package fr.dynamx.server.network.udp;
+
+import fr.dynamx.api.network.EnumPacketTarget;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraftforge.fml.common.network.NetworkRegistry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Chunk-indexed positions of the connected players, used to find the targets of {@link EnumPacketTarget#ALL_AROUND} packets without scanning all players for each packet <br>
+ * The index is rebuilt at most once per server tick, on first use
+ */
+public class PlayerChunkIndex
+{
+    /** Players per chunk, per dimension */
+    private final Map<Integer, Map<Long, List<EntityPlayerMP>>> playersByChunk = new HashMap<>();
+    private int indexTick = -1;
+
+    /**
+     * Calls the action for each player in the range of the target point
+     *
+     * @param server The server
+     * @param point The target point
+     * @param action The action to do with each player
+     */
+    public synchronized void forEachPlayerAround(MinecraftServer server, NetworkRegistry.TargetPoint point, Consumer<EntityPlayerMP> action) {
+        if (indexTick != server.getTickCounter())
+            rebuild(server);
+        Map<Long, List<EntityPlayerMP>> chunks = playersByChunk.get(point.dimension);
+        if (chunks == null)
+            return;
+        int minX = MathHelper.floor(point.x - point.range) >> 4;
+        int maxX = MathHelper.floor(point.x + point.range) >> 4;
+        int minZ = MathHelper.floor(point.z - point.range) >> 4;
+        int maxZ = MathHelper.floor(point.z + point.range) >> 4;
+        if ((long) (maxX - minX + 1) * (maxZ - minZ + 1) > chunks.size()) {
+            //Huge range : faster to look at all occupied chunks
+            for (List<EntityPlayerMP> players : chunks.values())
+                acceptInRange(players, point, action);
+        } else {
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    List<EntityPlayerMP> players = chunks.get(ChunkPos.asLong(x, z));
+                    if (players != null)
+                        acceptInRange(players, point, action);
+                }
+            }
+        }
+    }
+
+    private void acceptInRange(List<EntityPlayerMP> players, NetworkRegistry.TargetPoint point, Consumer<EntityPlayerMP> action) {
+        for (EntityPlayerMP player : players) {
+            double dx = point.x - player.posX;
+            double dy = point.y - player.posY;
+            double dz = point.z - player.posZ;
+            //Same test as the vanilla network
+            if (dx * dx + dy * dy + dz * dz < point.range * point.range)
+                action.accept(player);
+        }
+    }
+
+    private void rebuild(MinecraftServer server) {
+        playersByChunk.values().forEach(Map::clear);
+        for (EntityPlayerMP player : server.getPlayerList().getPlayers()) {
+            long chunk = ChunkPos.asLong(MathHelper.floor(player.posX) >> 4, MathHelper.floor(player.posZ) >> 4);
+            playersByChunk.computeIfAbsent(player.dimension, d -> new HashMap<>()).computeIfAbsent(chunk, c -> new ArrayList<>()).add(player);
+        }
+        indexTick = server.getTickCounter();
+    }
+
+    /**
+     * Removes all indexed players
+     */
+    public synchronized void clear() {
+        playersByChunk.clear();
+        indexTick = -1;
+    }
+}
@@ -1,10 +1,12 @@
 package fr.dynamx.server.network.udp;
 
+import fr.dynamx.api.network.EnumNetworkType;
 import fr.dynamx.common.DynamXMain;
 import fr.dynamx.common.network.udp.EncapsulatedUDPPacket;
 import fr.dynamx.common.network.udp.UdpTestPacket;
 import fr.dynamx.common.network.udp.auth.UDPServerAuthenticationCompletePacket;
 import fr.dynamx.utils.DynamXConfig;
+import fr.dynamx.utils.debug.NetworkTrafficStats;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import net.minecraft.entity.player.EntityPlayerMP;
@@ -60,6 +62,9 @@ public class UDPServerPacketHandler {
         final UDPClient client = this.clientNetworkMap.get(address);
         final ByteBuf in = Unpooled.wrappedBuffer(data);
         final byte id = in.readByte();
+        NetworkTrafficStats.recordReceived(NetworkTrafficStats.Category.TRANSPORT, EnumNetworkType.DYNAMX_UDP, data.length);
+        if (client != null)
+            NetworkTrafficStats.recordReceived(NetworkTrafficStats.Category.PLAYER, client.player.getName(), data.length);
 
         if (DynamXConfig.udpDebug) {
             if (client != null)
@@ -9,6 +9,7 @@ import fr.dynamx.common.DynamXMain;
 import fr.dynamx.common.network.udp.EncapsulatedUDPPacket;
 import fr.dynamx.common.network.udp.UDPPacket;
 import fr.dynamx.utils.DynamXConfig;
+import fr.dynamx.utils.debug.NetworkTrafficStats;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import net.minecraft.entity.Entity;
@@ -17,12 +18,14 @@ import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.StringUtils;
 import net.minecraft.world.WorldServer;
 import net.minecraftforge.fml.common.FMLCommonHandler;
+import net.minecraftforge.fml.common.network.NetworkRegistry;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.net.DatagramPacket;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Udp server manager, on server side
@@ -34,6 +37,7 @@ public class UdpServerNetworkHandler implements IDnxNetworkHandler {
     private UDPServerPacketHandler handler;
     public Map<Integer, UDPClient> clientMap;
     private UdpServer server;
+    private final PlayerChunkIndex playerIndex = new PlayerChunkIndex();
 
     public UdpServerNetworkHandler() {
     }
@@ -47,15 +51,30 @@ public class UdpServerNetworkHandler implements IDnxNetworkHandler {
     }
 
     public void sendPacket(UDPPacket packet, UDPClient client) {
+        sendPacket(packet.id(), encode(packet), client);
+    }
+
+    /**
+     * Writes the packet and its id in a buffer, that can then be sent to several clients
+     */
+    private ByteBuf encode(UDPPacket packet) {
         ByteBuf packetBuffer = Unpooled.buffer();
         packetBuffer.writeByte(packet.id());
         packet.write(packetBuffer);
-        byte[] data = packetBuffer.array();
+        return packetBuffer;
+    }
 
+    /**
+     * Sends an already encoded packet, see {@link #encode(UDPPacket)}
+     */
+    private void sendPacket(byte id, ByteBuf packetBuffer, UDPClient client) {
         try {
-            this.server.send(new DatagramPacket(data, data.length, client.socketAddress));
+            this.server.send(new DatagramPacket(packetBuffer.array(), packetBuffer.arrayOffset(), packetBuffer.writerIndex(), client.socketAddress));
+            NetworkTrafficStats.recordSent(NetworkTrafficStats.Category.TRANSPORT, EnumNetworkType.DYNAMX_UDP, packetBuffer.writerIndex());
+            if (client.player != null)
+                NetworkTrafficStats.recordSent(NetworkTrafficStats.Category.PLAYER, client.player.getName(), packetBuffer.writerIndex());
             if (DynamXConfig.udpDebug)
-                DynamXMain.log.info("[UDP-DEBUG] Sent the packet " + packet.id());
+                DynamXMain.log.info("[UDP-DEBUG] Sent the packet " + id);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -102,6 +121,7 @@ public class UdpServerNetworkHandler implements IDnxNetworkHandler {
             this.server.clearUdpListeners();
             this.server.stop();
             this.clientMap.clear();
+            this.playerIndex.clear();
             this.handler = null;
             this.server = null;
         }
@@ -118,25 +138,28 @@ public class UdpServerNetworkHandler implements IDnxNetworkHandler {
                 vanillaFallback(packet, (EntityPlayerMP) target);
             else
                 sendPacket(pck, client);
-        } else if (EnumPacketTarget.ALL_AROUND == targetType) {
-            throw new UnsupportedOperationException("Not implemented yet in UDP, please contact DynamX devs");
-        } else if (EnumPacketTarget.ALL_TRACKING_ENTITY == targetType) {
-            WorldServer world = (WorldServer) ((Entity) target).world;
-            world.getEntityTracker().getTrackingPlayers((Entity) target).forEach(player -> {
-                UDPClient client = clientMap.get(player.getEntityId());
-                if (client == null)
-                    vanillaFallback(packet, (EntityPlayerMP) target);
-                else
-                    sendPacket(pck, client);
-            });
-        } else if (EnumPacketTarget.ALL == targetType) {
-            FMLCommonHandler.instance().getMinecraftServerInstance().getPlayerList().getPlayers().forEach(player -> {
+        } else {
+            //Packet is encoded only once, for all targets
+            byte id = pck.id();
+            ByteBuf[] data = new ByteBuf[1];
+            Consumer<EntityPlayerMP> sender = player -> {
                 UDPClient client = clientMap.get(player.getEntityId());
                 if (client == null)
-                    vanillaFallback(packet, (EntityPlayerMP) target);
-                else
-                    sendPacket(pck, client);
-            });
+                    vanillaFallback(packet, player);
+                else {
+                    if (data[0] == null)
+                        data[0] = encode(pck);
+                    sendPacket(id, data[0], client);
+                }
+            };
+            if (EnumPacketTarget.ALL_AROUND == targetType) {
+                playerIndex.forEachPlayerAround(FMLCommonHandler.instance().getMinecraftServerInstance(), (NetworkRegistry.TargetPoint) target, sender);
+            } else if (EnumPacketTarget.ALL_TRACKING_ENTITY == targetType) {
+                WorldServer world = (WorldServer) ((Entity) target).world;
+                world.getEntityTracker().getTrackingPlayers((Entity) target).forEach(player -> sender.accept((EntityPlayerMP) player));
+            } else if (EnumPacketTarget.ALL == targetType) {
+                FMLCommonHandler.instance().getMinecraftServerInstance().getPlayerList().getPlayers().forEach(sender);
+            }
         }
     }
 
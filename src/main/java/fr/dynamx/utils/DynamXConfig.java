@@ -24,6 +24,17 @@ public class DynamXConfig
     public static int propsSyncTickRate = 2;
 
     public static int maxZoomOut = 20;
+    public static boolean useVboRenderer = true;
+    public static boolean batchEntityRendering = true;
+    public static boolean enableModelLod = true;
+    public static int lod1PixelSize = 64, lod2PixelSize = 24;
+    public static float partCullingPixelSize = 1.5f;
+    public static int particleBudget = 200;
+    public static float particleCoalesceDistance = 48;
+    public static int skidMarkCount = 2048;
+    public static float skidMarkLifetime = 30;
+    public static float skidMarkRenderDistance = 64;
+    public static int maxSoundVoices = 16;
     public static int gearChangeDelay = 5;
     public static int blockCollisionRadius = 3;
     public static int maxComplexBlockBoxes = 8;
@@ -35,6 +46,7 @@ public class DynamXConfig
 
     public static List<VerticalChunkPos> chunkDebugPoses;
     public static boolean enableDebugTerrainManager, ignoreDangerousTerrainErrors;
+    public static boolean poolDebug;
 
     public static int ragdollSpawnMinForce;
 
@@ -50,6 +62,18 @@ public class DynamXConfig
         usingProxy = cfg.getBoolean("HasProxy", "UDP", false, "If you have a proxy in front of your server");
         udpDebug = cfg.getBoolean("PrintUdpDebug", "UDP", false, "True to print debug for UDP connections");
         maxZoomOut = cfg.getInt("MaxZoomOut", "Visuals", 20, 0, 200, "Max de-zoom in F5 view");
+        useVboRenderer = cfg.getBoolean("UseVboRenderer", "Visuals", true, "Renders the models with vertex buffers instead of display lists (faster on modern graphic cards). Disable it if you have rendering issues");
+        batchEntityRendering = cfg.getBoolean("BatchEntityRendering", "Visuals", true, "Groups the vehicles and props having the same model and texture, and draws them together. Disable it if you have rendering issues with other mods");
+        enableModelLod = cfg.getBoolean("ModelLod", "Visuals", true, "Renders the far vehicle and prop parts with less details, and hides the parts too small to be seen");
+        lod1PixelSize = cfg.getInt("Lod1PixelSize", "Visuals", 64, 0, 4096, "Under this size on the screen (radius in pixels), the parts are rendered with the first level of detail");
+        lod2PixelSize = cfg.getInt("Lod2PixelSize", "Visuals", 24, 0, 4096, "Under this size on the screen (radius in pixels), the parts are rendered with the second level of detail");
+        partCullingPixelSize = cfg.getFloat("PartCullingPixelSize", "Visuals", 1.5f, 0, 100, "Under this size on the screen (radius in pixels), the parts are not rendered");
+        particleBudget = cfg.getInt("ParticleBudget", "Visuals", 200, 0, 10000, "Max number of particles spawned by the vehicles and props at each frame, the nearest and most important ones are kept. Set to 0 to disable the limit");
+        particleCoalesceDistance = cfg.getFloat("ParticleCoalesceDistance", "Visuals", 48, 0, 1024, "Beyond this distance (in blocks), each vehicle only spawns one particle of each type per frame");
+        skidMarkCount = cfg.getInt("SkidMarkCount", "Visuals", 2048, 0, 65536, "Max number of skid mark segments kept in the world, the oldest ones are replaced. Set to 0 to disable the skid marks");
+        skidMarkLifetime = cfg.getFloat("SkidMarkLifetime", "Visuals", 30, 1, 3600, "Time (in seconds) for the skid marks to fade out");
+        skidMarkRenderDistance = cfg.getFloat("SkidMarkRenderDistance", "Visuals", 64, 0, 1024, "Max distance (in blocks) of the rendered skid marks");
+        maxSoundVoices = cfg.getInt("MaxSoundVoices", "Sounds", 16, 0, 128, "Max number of sound sources shared by the vehicle sounds, the sounds of the nearest and loudest vehicles are kept. Set to 0 to disable the limit");
         allowPlayersToMoveObjects = cfg.getBoolean("AllowPlayersToMoveObjects", "Physics", true, "Allow player in survival to move ");
         ragdollSpawnMinForce = cfg.getInt("RagdollSpawnMinForce", "Physics", -1, -1, Integer.MAX_VALUE, "The minimum force of collision to spawn player ragdolls. Set to -1 to disable it.");
         blockCollisionRadius = cfg.getInt("BlockCollisionRadius2", "Physics", 3, 0, 100, "The radius of collision checking with DynamX blocks around players. Has an impact on game performance. NOTE : Renamed with a '2' to replace the old default value and stay below 30 for stable performance");
@@ -80,6 +104,7 @@ public class DynamXConfig
 
         enableDebugTerrainManager = cfg.get("Debug", "UseDebugTerrainManager", false, "Permits to debug terrain loading issues but may produce lag and instabilities").getBoolean();
         ignoreDangerousTerrainErrors = cfg.get("Debug", "IgnoreDangerousTerrainErrors", false, "Will try to prevent the game from crashing when there is a weird error in the terrain. Only enable this if you want server stability.").getBoolean();
+        poolDebug = cfg.get("Debug", "PoolDebug", false, "Records the open and close sites of the object pools (Vector3fPool, QuaternionPool...) to report the leaks and the pool growths. Slow, only use it to find a leak").getBoolean();
         disableSSLCertification = cfg.get("Debug", "DisableSSLVerification", false, "Disables ssl certificates for dynamx.fr, may be a security breach for your computer, DO NOT disable it if you don't know what you are doing").getBoolean();
         cfg.save();
     }
@@ -12,7 +12,7 @@ public class DynamXConstants
     public static final String DEFAULT_ACSGUIS_VERSION = "1.2.1-3-all";
 
     public static final String LIBBULLET_VERSION = "14.3.0";
-    /** .dc file version, only change when an update of libbullet breaks the .dc files, to regenerate them */
+    /** Version of the cached collision shapes, only change when an update of libbullet breaks the cached shapes, to regenerate them */
     public static final String DC_FILE_VERSION = "12.5.0";
 
     public static final String DYNAMX_CERT = "certs/lets-encrypt-r3.der", DYNAMX_AUX_CERT = null;
@@ -0,0 +1,81 @@
+package fr.dynamx.utils;
+
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.fml.common.eventhandler.Event;
+import net.minecraftforge.fml.common.eventhandler.EventBus;
+import net.minecraftforge.fml.common.eventhandler.EventPriority;
+import net.minecraftforge.fml.common.eventhandler.IEventListener;
+import net.minecraftforge.fml.common.eventhandler.ListenerList;
+import net.minecraftforge.fml.relauncher.ReflectionHelper;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static fr.dynamx.common.DynamXMain.log;
+
+/**
+ * Checks if an event has listeners on the {@link MinecraftForge#EVENT_BUS}, to avoid creating and posting events nobody listens to (for example in the render loop) <br>
+ * Reads the listener lists injected by forge in the event classes. If this fails, the events are always considered as listened
+ */
+public class EventListenerChecker
+{
+    private static final Map<Class<?>, Optional<Field>> listFields = new ConcurrentHashMap<>();
+    /**
+     * Listener lists of the events, only filled when the list of the event itself exists : then it never changes
+     */
+    private static final Map<Class<?>, ListenerList> resolvedLists = new ConcurrentHashMap<>();
+    private static int busID = -1;
+    private static boolean failed;
+
+    /**
+     * @param eventClass The event class
+     * @return True if at least one listener of the {@link MinecraftForge#EVENT_BUS} will receive this event
+     */
+    public static boolean hasListeners(Class<? extends Event> eventClass) {
+        if (failed)
+            return true;
+        try {
+            if (busID == -1)
+                busID = ReflectionHelper.getPrivateValue(EventBus.class, MinecraftForge.EVENT_BUS, "busID");
+            ListenerList list = resolvedLists.get(eventClass);
+            if (list == null) {
+                //The list of an event is created with its first instance, when a listener is registered or when it's posted
+                //Before, the listeners of its parents (that will receive it) are in the lists of the parent classes
+                for (Class<?> c = eventClass; c != Object.class && list == null; c = c.getSuperclass()) {
+                    list = getListenerList(c);
+                    if (list != null && c == eventClass)
+                        resolvedLists.put(eventClass, list);
+                }
+                if (list == null) //No instance created, so nothing registered
+                    return false;
+            }
+            for (IEventListener listener : list.getListeners(busID)) {
+                if (!(listener instanceof EventPriority)) //Priorities are markers added in the listeners
+                    return true;
+            }
+            return false;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Cannot check the listeners of " + eventClass + ", events will always be posted", e);
+            failed = true;
+            return true;
+        }
+    }
+
+    private static ListenerList getListenerList(Class<?> eventClass) throws IllegalAccessException {
+        Optional<Field> field = listFields.computeIfAbsent(eventClass, c -> {
+            try {
+                Field f = c.getDeclaredField("LISTENER_LIST");
+                if (!Modifier.isStatic(f.getModifiers()))
+                    return Optional.empty();
+                f.setAccessible(true);
+                return Optional.of(f);
+            } catch (NoSuchFieldException e) {
+                return Optional.empty();
+            }
+        });
+        return field.isPresent() ? (ListenerList) field.get().get(null) : null;
+    }
+}
@@ -55,7 +55,7 @@ public class DynamXRenderUtils
         /* Rendering the steering wheel */
         SteeringWheelInfo info = car.getSubPropertyByType(SteeringWheelInfo.class);
         if (info != null) {
-            IObjObject steeringWheel = vehicleModel.getObjObject(info.getPartName());
+            IObjObject steeringWheel = vehicleModel.getObjObject(info.getPartGroupId());
             if (steeringWheel != null) {
                 GlStateManager.pushMatrix();
                 Vector3f center = info.getSteeringWheelPosition();
@@ -83,7 +83,7 @@ public class DynamXRenderUtils
         if (!car.getLightSources().isEmpty()) {
             for (PartLightSource.CompoundLight source : car.getLightSources()) {
                 GlStateManager.scale(car.getScaleModifier().x, car.getScaleModifier().y, car.getScaleModifier().z);
-                vehicleModel.renderGroups(source.getPartName(), (byte) 0);
+                vehicleModel.renderGroups(source.getPartGroupId(), (byte) 0);
                 GlStateManager.scale(1 / car.getScaleModifier().x, 1 / car.getScaleModifier().y, 1 / car.getScaleModifier().z);
             }
         }
@@ -121,7 +121,7 @@ public class DynamXRenderUtils
                 pos.subtractLocal(source.getDoorAttachPoint().x, source.getDoorAttachPoint().y, source.getDoorAttachPoint().z);
                 GlStateManager.translate(pos.x, pos.y, pos.z);
                 GlStateManager.scale(car.getScaleModifier().x, car.getScaleModifier().y, car.getScaleModifier().z);
-                vehicleModel.renderGroups(source.getPartName(), textureId);
+                vehicleModel.renderGroups(source.getPartGroupId(), textureId);
             }
             GlStateManager.popMatrix();
         }
@@ -1,7 +1,11 @@
 package fr.dynamx.utils.debug;
 
 import com.jme3.bullet.objects.PhysicsRigidBody;
+import fr.dynamx.client.ClientProxy;
 import fr.dynamx.client.camera.CameraSystem;
+import fr.dynamx.client.renders.ParticleBudget;
+import fr.dynamx.client.renders.SkidMarkManager;
+import fr.dynamx.client.sound.DynamXSoundHandler;
 import fr.dynamx.common.DynamXContext;
 import fr.dynamx.common.network.packets.MessageDebugRequest;
 import fr.dynamx.common.physics.utils.RigidBodyTransform;
@@ -14,6 +18,7 @@ import fr.dynamx.utils.optimization.QuaternionPool;
 import fr.dynamx.utils.optimization.Vector3fPool;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.FontRenderer;
+import net.minecraft.client.gui.Gui;
 import net.minecraft.client.renderer.BufferBuilder;
 import net.minecraft.client.renderer.GlStateManager;
 import net.minecraft.client.renderer.Tessellator;
@@ -38,6 +43,7 @@ import java.util.*;
 @Mod.EventBusSubscriber(modid = DynamXConstants.ID, value = Side.CLIENT)
 public class ClientDebugSystem {
     private static final List<ProfilingData.Measure> physicsTicks = new ArrayList<>();
+    private static final int PERFORMANCE_GRAPH_WIDTH = PerformanceMonitor.HISTORY, PERFORMANCE_GRAPH_HEIGHT = 20;
     public static boolean enableDebugDrawing;
     public static int MOVE_DEBUG;
 
@@ -55,7 +61,6 @@ public class ClientDebugSystem {
                     for (DynamXDebugOption o : categories.getOptions()) {
                         if (o.serverRequestMask() != 0 && o.isActive()) {
                             request = request | o.serverRequestMask();
-                            break;
                         }
                     }
                 }
@@ -64,6 +69,14 @@ public class ClientDebugSystem {
                 }
             }
 
+            boolean performanceOverlay = DynamXDebugOptions.PERFORMANCE_OVERLAY.isActive() && Minecraft.getMinecraft().world != null;
+            boolean integrated = Minecraft.getMinecraft().isIntegratedServerRunning();
+            if (!integrated) //Else the integrated server samples its monitor
+                PerformanceMonitor.SERVER.setSampling(performanceOverlay);
+            PerformanceMonitor.CLIENT.setSampling(performanceOverlay);
+            //In solo, the physics world is the one of the integrated server
+            PerformanceMonitor.CLIENT.sample(integrated ? null : DynamXContext.getPhysicsWorld());
+
             if (enableDebugDrawing && DynamXDebugOptions.PHYSICS_DEBUG.isActive() && DynamXContext.getPhysicsWorld() != null) {
                 QuaternionPool.openPool();
                 Vector3fPool.openPool();
@@ -84,6 +97,9 @@ public class ClientDebugSystem {
     @SubscribeEvent
     @SideOnly(Side.CLIENT)
     public static void overlay(RenderGameOverlayEvent.Post event) {
+        if (event.getType().equals(RenderGameOverlayEvent.ElementType.TEXT) && DynamXDebugOptions.PERFORMANCE_OVERLAY.isActive()) {
+            drawPerformanceOverlay(Minecraft.getMinecraft().fontRenderer, event.getResolution().getScaledHeight());
+        }
         if (event.getType().equals(RenderGameOverlayEvent.ElementType.TEXT) && enableDebugDrawing) {
             FontRenderer fontRenderer = Minecraft.getMinecraft().fontRenderer;
             String s = "Drawing debug";
@@ -93,6 +109,19 @@ public class ClientDebugSystem {
             } else
                 s = "Not simulating...";
             fontRenderer.drawString(s, event.getResolution().getScaledWidth() - fontRenderer.getStringWidth(s) - 2, 12, 0xFFBC00);
+            if (ParticleBudget.isEnabled()) {
+                s = "Particles: " + ParticleBudget.getLastSpawned() + "/" + ParticleBudget.getLastRequested() + " (coalesced " + ParticleBudget.getLastCoalesced() + ", dropped " + ParticleBudget.getLastDropped() + ")";
+                fontRenderer.drawString(s, event.getResolution().getScaledWidth() - fontRenderer.getStringWidth(s) - 2, 22, 0xFFBC00);
+            }
+            if (SkidMarkManager.isEnabled()) {
+                s = "Skid marks: " + SkidMarkManager.getLastRendered() + "/" + SkidMarkManager.getSize();
+                fontRenderer.drawString(s, event.getResolution().getScaledWidth() - fontRenderer.getStringWidth(s) - 2, 32, 0xFFBC00);
+            }
+            if (ClientProxy.SOUND_HANDLER instanceof DynamXSoundHandler) {
+                DynamXSoundHandler soundHandler = (DynamXSoundHandler) ClientProxy.SOUND_HANDLER;
+                s = "Sounds: " + soundHandler.getPlayingSounds().size() + " (virtual " + soundHandler.getVirtualSoundCount() + ", sources " + soundHandler.getSourceCount() + ", free " + soundHandler.getIdleSourceCount() + ")";
+                fontRenderer.drawString(s, event.getResolution().getScaledWidth() - fontRenderer.getStringWidth(s) - 2, 42, 0xFFBC00);
+            }
             //fontRenderer.drawString("Physics time: " + BasePhysicsWorld.TIME +" ms", event.getResolution().getScaledWidth() - fontRenderer.getStringWidth(s) - 40, 22, 0xFFBC00);
 
             if (DynamXDebugOptions.PROFILING.isActive()) {
@@ -117,6 +146,86 @@ public class ClientDebugSystem {
         }
     }
 
+    /**
+     * Draws the graphs of the {@link PerformanceMonitor}s, in columns on the left of the screen
+     */
+    @SideOnly(Side.CLIENT)
+    private static void drawPerformanceOverlay(FontRenderer fontRenderer, int screenHeight) {
+        boolean integrated = Minecraft.getMinecraft().isIntegratedServerRunning();
+        int[] pos = new int[]{2, 2};
+        if (PerformanceMonitor.SERVER.getSampleCount() == 0) {
+            fontRenderer.drawStringWithShadow(integrated ? "Server: no data" : "Server: waiting for data (operators only)", pos[0], pos[1], 0xFFBC00);
+            pos[1] += 12;
+        } else {
+            fontRenderer.drawStringWithShadow("Server", pos[0], pos[1], 0xFFBC00);
+            pos[1] += 12;
+            //In solo, the network graphs of the server would be the ones of the client
+            drawPerformanceGraphs(PerformanceMonitor.SERVER, fontRenderer, screenHeight, pos, integrated ? EnumSet.of(PerformanceMonitor.Group.PHYSICS, PerformanceMonitor.Group.TERRAIN) :
+                    EnumSet.of(PerformanceMonitor.Group.PHYSICS, PerformanceMonitor.Group.TERRAIN, PerformanceMonitor.Group.NETWORK));
+        }
+        if (!integrated && PerformanceMonitor.CLIENT.getSampleCount() > 0) {
+            //The client starts in a new column
+            if (pos[1] > 2) {
+                pos[0] += PERFORMANCE_GRAPH_WIDTH + 8;
+                pos[1] = 2;
+            }
+            fontRenderer.drawStringWithShadow("Client", pos[0], pos[1], 0xFFBC00);
+            pos[1] += 12;
+            drawPerformanceGraphs(PerformanceMonitor.CLIENT, fontRenderer, screenHeight, pos, PerformanceMonitor.CLIENT.hasPhysicsWorld() ? EnumSet.allOf(PerformanceMonitor.Group.class) :
+                    EnumSet.of(PerformanceMonitor.Group.NETWORK, PerformanceMonitor.Group.INTERPOLATION));
+        }
+    }
+
+    /**
+     * Draws the graphs of these groups, the position is updated for the next graphs
+     */
+    @SideOnly(Side.CLIENT)
+    private static void drawPerformanceGraphs(PerformanceMonitor monitor, FontRenderer fontRenderer, int screenHeight, int[] pos, Set<PerformanceMonitor.Group> groups) {
+        for (PerformanceMonitor.Graph graph : monitor.getGraphs()) {
+            if (!groups.contains(graph.getGroup()))
+                continue;
+            if (pos[1] + PERFORMANCE_GRAPH_HEIGHT + 14 > screenHeight) {
+                pos[0] += PERFORMANCE_GRAPH_WIDTH + 8;
+                pos[1] = 14;
+            }
+            int x = pos[0], y = pos[1];
+            //Legend : the last value of each series, in the color of the series
+            String s = graph.getName() + ":";
+            fontRenderer.drawStringWithShadow(s, x, y, 0xFFFFFF);
+            int textX = x + fontRenderer.getStringWidth(s) + 3;
+            for (PerformanceMonitor.Series series : graph.getSeries()) {
+                s = String.format("%.1f", series.getLast()) + (graph.getSeries().size() > 1 ? " " + series.getName() : "");
+                fontRenderer.drawStringWithShadow(s, textX, y, series.getColor());
+                textX += fontRenderer.getStringWidth(s) + 4;
+            }
+            fontRenderer.drawStringWithShadow(graph.getUnit(), textX, y, 0xAAAAAA);
+            y += 10;
+
+            float max = Math.max(graph.getMax(), 1);
+            int bottom = y + PERFORMANCE_GRAPH_HEIGHT;
+            Gui.drawRect(x, y, x + PERFORMANCE_GRAPH_WIDTH, bottom, 0x90202020);
+            fontRenderer.drawString(String.format("%.1f", max), x + PERFORMANCE_GRAPH_WIDTH + 2, y, 0xAAAAAA);
+
+            GlStateManager.disableTexture2D();
+            GlStateManager.enableBlend();
+            Tessellator tessellator = Tessellator.getInstance();
+            BufferBuilder bufferbuilder = tessellator.getBuffer();
+            for (PerformanceMonitor.Series series : graph.getSeries()) {
+                if (series.size() < 2)
+                    continue;
+                float r = (series.getColor() >> 16 & 255) / 255f, g = (series.getColor() >> 8 & 255) / 255f, b = (series.getColor() & 255) / 255f;
+                bufferbuilder.begin(GL11.GL_LINE_STRIP, DefaultVertexFormats.POSITION_COLOR);
+                //The newest sample is on the right
+                int start = x + PERFORMANCE_GRAPH_WIDTH - series.size();
+                for (int i = 0; i < series.size(); i++)
+                    bufferbuilder.pos(start + i, bottom - series.get(i) / max * PERFORMANCE_GRAPH_HEIGHT, 0).color(r, g, b, 1).endVertex();
+                tessellator.draw();
+            }
+            GlStateManager.enableTexture2D();
+            pos[1] = bottom + 4;
+        }
+    }
+
     @SideOnly(Side.CLIENT)
     @SubscribeEvent(priority = EventPriority.HIGHEST)
     public static void worldRender(RenderWorldLastEvent event) {
@@ -11,6 +11,7 @@ public class DynamXDebugOptions
 {
     public static final DynamXDebugOption DEBUG_RENDER = DynamXDebugOption.newServerDependantOption(DebugCategories.GENERAL, "Debug renderer").withSubCategory("DynamX"),
             PROFILING = DynamXDebugOption.newServerDependantOption(DebugCategories.GENERAL, "Profiling").withDescription("Find why DynamX is lagging - prints timings in the logs. May produce lag").withSubCategory("DynamX"),
+            PERFORMANCE_OVERLAY = DynamXDebugOption.newServerDependantOption(DebugCategories.GENERAL, "Performance overlay").withDescription("Live graphs of the physics, terrain and network costs. Server graphs are only sent to operators").withSubCategory("DynamX"),
             PHYSICS_DEBUG = DynamXDebugOption.newOption(DebugCategories.GENERAL, "Bullet physics debug").withDescription("Shows complete rigid bodies and joints debug, may produce lag").withSubCategory("Physics"),
             PLAYER_TO_OBJECT_COLLISION_DEBUG = DynamXDebugOption.newOption(DebugCategories.GENERAL, "Player <-> DynamX Object collision debug").withDescription("Shows the collision boxes used for the player <-> DynamX Objects collisions").withSubCategory("Collisions"),
             DYNX_OBJECTS_COLLISION_DEBUG = DynamXDebugOption.newOption(DebugCategories.GENERAL, "DynamX Object collision debug").withDescription("Shows the collision boxes used in the physics engine for the Objects <-> Objects and Objects <-> Terrain collisions").withSubCategory("Collisions");
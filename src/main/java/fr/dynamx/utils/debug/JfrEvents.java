@@ -0,0 +1,170 @@
+package fr.dynamx.utils.debug;
+
+import fr.dynamx.common.DynamXMain;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Custom Java Flight Recorder events, to see the DynamX work in the recordings (for example with -XX:StartFlightRecording=filename=dynamx.jfr) <br>
+ * The events are created with the jdk.jfr.EventFactory, found by reflection : DynamX still compiles and runs on java 8, and the events are no-ops on the JVMs without JFR <br>
+ * Usage : <br>
+ * <code>Object event = JfrEvents.PHYSICS_STEP.begin(); <br>
+ * ... <br>
+ * JfrEvents.PHYSICS_STEP.commit(event, entityCount, bodyCount, jointCount);</code> <br>
+ * The duration of the event is the time between begin and commit, and the values are the fields of the event, in order
+ */
+public enum JfrEvents
+{
+    PHYSICS_STEP("PhysicsStep", "Physics step", "Physics", "entityCount", "bodyCount", "jointCount"),
+    TERRAIN_COMPUTE("TerrainCompute", "Terrain section compute", "Terrain", "chunkX", "chunkY", "chunkZ", "elementCount"),
+    TERRAIN_REGION_READ("TerrainRegionRead", "Terrain cache region read", "Terrain", "regionX", "regionZ", "byteSize"),
+    TERRAIN_REGION_WRITE("TerrainRegionWrite", "Terrain cache region write", "Terrain", "regionX", "regionZ", "byteSize"),
+    SYNC_ENCODE("SyncEncode", "Sync packet encode", "Network", "entityCount", "byteSize"),
+    SYNC_SEND("SyncSend", "Sync send batch", "Network", "entityCount", "delayedCount", "budget"),
+    VHACD_JOB("VhacdJob", "VHACD job", "Shapes", "vertexCount", "triangleCount", "hullCount");
+
+    private static Method newEvent, begin, end, commit, set, isEnabled;
+
+    static {
+        try {
+            Class<?> flightRecorder = Class.forName("jdk.jfr.FlightRecorder");
+            if ((boolean) flightRecorder.getMethod("isAvailable").invoke(null)) {
+                Class<?> factory = Class.forName("jdk.jfr.EventFactory");
+                Class<?> event = Class.forName("jdk.jfr.Event");
+                newEvent = factory.getMethod("newEvent");
+                begin = event.getMethod("begin");
+                end = event.getMethod("end");
+                commit = event.getMethod("commit");
+                set = event.getMethod("set", int.class, Object.class);
+                isEnabled = Class.forName("jdk.jfr.EventType").getMethod("isEnabled");
+                for (JfrEvents type : values())
+                    type.register(factory);
+            }
+        } catch (ClassNotFoundException e) {
+            //No JFR on this JVM
+        } catch (Throwable e) {
+            DynamXMain.log.warn("Failed to register the JFR events, they are disabled", e);
+            newEvent = null;
+            for (JfrEvents type : values())
+                type.factory = null;
+        }
+    }
+
+    private final String name, label, category;
+    private final String[] fields;
+    private Object factory, eventType;
+
+    JfrEvents(String name, String label, String category, String... fields) {
+        this.name = name;
+        this.label = label;
+        this.category = category;
+        this.fields = fields;
+    }
+
+    private void register(Class<?> factoryClass) throws ReflectiveOperationException {
+        Class<?> annotationElement = Class.forName("jdk.jfr.AnnotationElement");
+        Constructor<?> annotation = annotationElement.getConstructor(Class.class, Object.class);
+        List<Object> annotations = new ArrayList<>();
+        annotations.add(annotation.newInstance(Class.forName("jdk.jfr.Name"), "fr.dynamx." + name));
+        annotations.add(annotation.newInstance(Class.forName("jdk.jfr.Label"), label));
+        annotations.add(annotation.newInstance(Class.forName("jdk.jfr.Category"), new String[]{"DynamX", category}));
+        annotations.add(annotation.newInstance(Class.forName("jdk.jfr.StackTrace"), false));
+
+        Constructor<?> valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor").getConstructor(Class.class, String.class);
+        List<Object> values = new ArrayList<>();
+        for (String field : fields)
+            values.add(valueDescriptor.newInstance(long.class, field));
+
+        factory = factoryClass.getMethod("create", List.class, List.class).invoke(null, annotations, values);
+        eventType = factoryClass.getMethod("getEventType").invoke(factory);
+    }
+
+    /**
+     * @return True if the event is enabled in the current recording
+     */
+    public boolean isEnabled() {
+        if (factory == null)
+            return false;
+        try {
+            return (boolean) isEnabled.invoke(eventType);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Starts an event
+     *
+     * @return The event, to give to the commit function, or null if the event is disabled
+     */
+    @Nullable
+    public Object begin() {
+        if (!isEnabled())
+            return null;
+        try {
+            Object event = newEvent.invoke(factory);
+            begin.invoke(event);
+            return event;
+        } catch (ReflectiveOperationException e) {
+            disable(e);
+            return null;
+        }
+    }
+
+    public void commit(@Nullable Object event) {
+        if (event != null)
+            commitValues(event);
+    }
+
+    public void commit(@Nullable Object event, long value1) {
+        if (event != null)
+            commitValues(event, value1);
+    }
+
+    public void commit(@Nullable Object event, long value1, long value2) {
+        if (event != null)
+            commitValues(event, value1, value2);
+    }
+
+    public void commit(@Nullable Object event, long value1, long value2, long value3) {
+        if (event != null)
+            commitValues(event, value1, value2, value3);
+    }
+
+    public void commit(@Nullable Object event, long value1, long value2, long value3, long value4) {
+        if (event != null)
+            commitValues(event, value1, value2, value3, value4);
+    }
+
+    private void commitValues(Object event, long... values) {
+        if (factory == null)
+            return;
+        if (values.length != fields.length)
+            throw new IllegalArgumentException("Event " + name + " has the fields " + Arrays.toString(fields) + ", got " + values.length + " values");
+        try {
+            for (int i = 0; i < values.length; i++)
+                set.invoke(event, i, values[i]);
+            end.invoke(event);
+            commit.invoke(event);
+        } catch (ReflectiveOperationException e) {
+            disable(e);
+        }
+    }
+
+    private void disable(Exception e) {
+        DynamXMain.log.warn("Failed to emit the JFR event " + name + ", it is disabled", e);
+        factory = null;
+    }
+
+    /**
+     * @return True if the JFR events are supported by this JVM
+     */
+    public static boolean isSupported() {
+        return newEvent != null;
+    }
+}
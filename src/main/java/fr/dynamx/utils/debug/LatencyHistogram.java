@@ -0,0 +1,97 @@
+package fr.dynamx.utils.debug;
+
+import java.util.Arrays;
+
+/**
+ * A latency histogram with a fixed memory size, in the style of the HdrHistogram <br>
+ * The values (in nanoseconds) are stored in buckets growing with the powers of two, each power being split in {@link #SUB_BUCKET_COUNT} buckets : the recorded values keep a relative precision of about 3% from 1 ns to 18 minutes <br>
+ * Recording a value is only a few bit operations, without allocation
+ */
+public class LatencyHistogram
+{
+    /** Bits of precision of the values */
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /** The values are clamped below 2^MAX_EXPONENT ns */
+    private static final int MAX_EXPONENT = 40;
+    private static final long MAX_VALUE = (1L << MAX_EXPONENT) - 1;
+
+    private final long[] counts = new long[SUB_BUCKET_COUNT + (MAX_EXPONENT - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT];
+    private long count;
+    private long total;
+    private long max;
+
+    /**
+     * Records a value
+     *
+     * @param value The value, in nanoseconds
+     */
+    public void record(long value) {
+        if (value < 0)
+            value = 0;
+        counts[getIndex(Math.min(value, MAX_VALUE))]++;
+        count++;
+        total += value;
+        if (value > max)
+            max = value;
+    }
+
+    private static int getIndex(long value) {
+        if (value < SUB_BUCKET_COUNT)
+            return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    /**
+     * @return The highest value stored in the bucket
+     */
+    private static long getHighestValue(int index) {
+        if (index < SUB_BUCKET_COUNT)
+            return index;
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        long lowest = (long) (SUB_BUCKET_COUNT + (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * @param percentile The percentile, between 0 and 100
+     * @return The value under which are this percentage of the recorded values, in nanoseconds
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0)
+            return 0;
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target)
+                return Math.min(getHighestValue(i), max);
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The max recorded value, in nanoseconds
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return The mean of the recorded values, in nanoseconds
+     */
+    public long getMean() {
+        return count == 0 ? 0 : total / count;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = total = max = 0;
+    }
+}
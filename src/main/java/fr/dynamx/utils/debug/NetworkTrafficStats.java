@@ -0,0 +1,172 @@
+package fr.dynamx.utils.debug;
+
+import fr.dynamx.api.network.sync.SynchronizedVariable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Always-on counters of the bytes and messages sent and received by DynamX, broken down by {@link Category} <br>
+ * Keys are the objects describing the traffic (classes, player names, network types) so recording doesn't allocate anything once a key is known <br>
+ * Can be called from any thread (netty, udp, physics and server threads)
+ *
+ * @see fr.dynamx.server.command.CmdNetworkStats
+ */
+public class NetworkTrafficStats
+{
+    public enum Category
+    {
+        /** Bytes of each {@link fr.dynamx.api.network.EnumNetworkType}, including the packet headers */
+        TRANSPORT,
+        /** Bytes sent to, and received from, each connected player (server side only), by player name */
+        PLAYER,
+        /** Bytes of the sync packets, by physics entity class */
+        ENTITY,
+        /** Bytes of the sync packets, by {@link SynchronizedVariable} class */
+        VARIABLE
+    }
+
+    private static final Map<Category, Map<Object, Counter>> counters = new ConcurrentHashMap<>();
+    private static volatile long startTime = System.currentTimeMillis();
+
+    static {
+        for (Category category : Category.values())
+            counters.put(category, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Records outgoing traffic
+     *
+     * @param category The category of the key
+     * @param key      The key, classes are displayed with their simple name
+     * @param bytes    The size of the sent data
+     */
+    public static void recordSent(Category category, Object key, int bytes) {
+        Counter counter = getCounter(category, key);
+        counter.sentBytes.add(bytes);
+        counter.sentMessages.increment();
+    }
+
+    /**
+     * Records incoming traffic
+     *
+     * @param category The category of the key
+     * @param key      The key, classes are displayed with their simple name
+     * @param bytes    The size of the received data
+     */
+    public static void recordReceived(Category category, Object key, int bytes) {
+        Counter counter = getCounter(category, key);
+        counter.receivedBytes.add(bytes);
+        counter.receivedMessages.increment();
+    }
+
+    private static Counter getCounter(Category category, Object key) {
+        return counters.get(category).computeIfAbsent(key, k -> new Counter());
+    }
+
+    /**
+     * Removes the counters of this key, used to forget the players when they log out
+     */
+    public static void remove(Category category, Object key) {
+        counters.get(category).remove(key);
+    }
+
+    /**
+     * Clears all counters
+     */
+    public static void reset() {
+        counters.values().forEach(Map::clear);
+        startTime = System.currentTimeMillis();
+    }
+
+    /**
+     * @return The duration covered by the counters, in seconds
+     */
+    public static float getElapsedSeconds() {
+        return Math.max(1, System.currentTimeMillis() - startTime) / 1000f;
+    }
+
+    /**
+     * @param category The category
+     * @return The entries of this category, sorted by decreasing total bytes
+     */
+    public static List<Entry> getEntries(Category category) {
+        List<Entry> entries = new ArrayList<>();
+        counters.get(category).forEach((k, c) -> entries.add(new Entry(getName(k), c.sentBytes.sum(), c.sentMessages.sum(), c.receivedBytes.sum(), c.receivedMessages.sum())));
+        entries.sort((e1, e2) -> Long.compare(e2.getTotalBytes(), e1.getTotalBytes()));
+        return entries;
+    }
+
+    /**
+     * @return The bytes sent for this key since the last reset, without creating a snapshot of the category
+     */
+    public static long getSentBytes(Category category, Object key) {
+        Counter counter = counters.get(category).get(key);
+        return counter == null ? 0 : counter.sentBytes.sum();
+    }
+
+    /**
+     * @return The bytes received for this key since the last reset, without creating a snapshot of the category
+     */
+    public static long getReceivedBytes(Category category, Object key) {
+        Counter counter = counters.get(category).get(key);
+        return counter == null ? 0 : counter.receivedBytes.sum();
+    }
+
+    /**
+     * Writes all the counters in csv format, with one line per key
+     */
+    public static void exportCsv(Writer writer) throws IOException {
+        float seconds = getElapsedSeconds();
+        writer.write("category,key,sent_bytes,sent_messages,received_bytes,received_messages,sent_bytes_per_second,received_bytes_per_second\n");
+        for (Category category : Category.values()) {
+            for (Entry entry : getEntries(category)) {
+                writer.write(category.name() + "," + entry.name.replace(',', ' ') + "," + entry.sentBytes + "," + entry.sentMessages + "," + entry.receivedBytes + "," + entry.receivedMessages
+                        + "," + (long) (entry.sentBytes / seconds) + "," + (long) (entry.receivedBytes / seconds) + "\n");
+            }
+        }
+    }
+
+    private static String getName(Object key) {
+        return key instanceof Class ? ((Class<?>) key).getSimpleName() : String.valueOf(key);
+    }
+
+    private static class Counter
+    {
+        private final LongAdder sentBytes = new LongAdder();
+        private final LongAdder sentMessages = new LongAdder();
+        private final LongAdder receivedBytes = new LongAdder();
+        private final LongAdder receivedMessages = new LongAdder();
+    }
+
+    /**
+     * Snapshot of the counters of one key
+     */
+    public static class Entry
+    {
+        private final String name;
+        private final long sentBytes, sentMessages, receivedBytes, receivedMessages;
+
+        private Entry(String name, long sentBytes, long sentMessages, long receivedBytes, long receivedMessages) {
+            this.name = name;
+            this.sentBytes = sentBytes;
+            this.sentMessages = sentMessages;
+            this.receivedBytes = receivedBytes;
+            this.receivedMessages = receivedMessages;
+        }
+
+        public long getTotalBytes() {
+            return sentBytes + receivedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return name + " : sent " + sentBytes + " bytes (" + sentMessages + " msgs), received " + receivedBytes + " bytes (" + receivedMessages + " msgs)";
+        }
+    }
+}
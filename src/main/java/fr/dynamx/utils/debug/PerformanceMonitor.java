@@ -0,0 +1,393 @@
+package fr.dynamx.utils.debug;
+
+import fr.dynamx.api.network.EnumNetworkType;
+import fr.dynamx.api.physics.IPhysicsWorld;
+import fr.dynamx.common.physics.terrain.PhysicsWorldTerrain;
+import fr.dynamx.common.physics.terrain.chunk.ChunkLoadingTicket;
+import io.netty.buffer.ByteBuf;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live performance graphs of one side, displayed by the {@link DynamXDebugOptions#PERFORMANCE_OVERLAY} <br>
+ * The monitor takes one sample of each {@link Series} per tick, only while the overlay is used : the physics world and the terrain record their costs here, the network costs are read from the {@link NetworkTrafficStats} <br>
+ * On a dedicated server, the samples of the {@link #SERVER} monitor are streamed to the operators who enabled the overlay (see {@link fr.dynamx.common.network.packets.MessagePerformanceStats}) <br>
+ * Counters can be recorded from any thread
+ */
+public class PerformanceMonitor
+{
+    /** Number of samples kept by each series (one per tick) */
+    public static final int HISTORY = 120;
+    /** The server sends its new samples to the clients all SEND_INTERVAL ticks */
+    public static final int SEND_INTERVAL = 5;
+
+    /** Monitor of the server physics world (or of the integrated server in solo), filled by the network on the dedicated server clients */
+    public static final PerformanceMonitor SERVER = new PerformanceMonitor();
+    /** Monitor of the client, measuring the client physics world (if any) and the client sync */
+    public static final PerformanceMonitor CLIENT = new PerformanceMonitor();
+
+    public enum Group
+    {
+        PHYSICS, TERRAIN, NETWORK, INTERPOLATION
+    }
+
+    /**
+     * Result of a lookup in the {@link fr.dynamx.common.network.sync.vars.EntityPhysicsStateBuffer}
+     */
+    public enum StateLookup
+    {
+        /** The state was recorded */
+        EXACT,
+        /** The state was interpolated between two recorded states */
+        INTERPOLATED,
+        /** The state was extrapolated from the two latest states */
+        EXTRAPOLATED,
+        /** No state could be computed, the correction was skipped */
+        MISSED
+    }
+
+    private final List<Graph> graphs = new ArrayList<>();
+    private final Series stepTime, bodies, activeBodies, sleepingBodies;
+    private final Series queueLow, queueMedium, syncLoads, readyChunks, cacheHits;
+    private final Series[] sentBandwidth = new Series[EnumNetworkType.values().length];
+    private final Series[] receivedBandwidth = new Series[EnumNetworkType.values().length];
+    private final Series bufferHealth, interpolatedLookups, extrapolatedLookups, missedLookups;
+
+    //Written by the physics and terrain threads
+    private volatile long lastStepNanos;
+    private volatile int lastBodyCount, lastActiveCount, lastSleepingCount;
+    private volatile boolean hasPhysicsWorld;
+    private final LongAdder terrainCacheHits = new LongAdder(), terrainCacheMisses = new LongAdder(), syncTerrainLoads = new LongAdder();
+    private final LongAdder[] stateLookups = new LongAdder[StateLookup.values().length];
+
+    //Values at the previous sample, to compute the deltas
+    private long prevCacheHits, prevCacheMisses, prevSyncLoads;
+    private final long[] prevSent = new long[EnumNetworkType.values().length], prevReceived = new long[EnumNetworkType.values().length];
+    private final long[] prevLookups = new long[StateLookup.values().length];
+    private final long[] lookupDeltas = new long[StateLookup.values().length];
+    private long prevSampleTime;
+
+    private boolean sampling;
+    /** Total number of samples taken (or received) */
+    private int sampleCount;
+
+    private PerformanceMonitor() {
+        stepTime = addGraph("Physics step", "ms", Group.PHYSICS).addSeries("step", 0xFFBC00);
+        Graph bodyGraph = addGraph("Bullet bodies", "", Group.PHYSICS);
+        bodies = bodyGraph.addSeries("total", 0xFFFFFF);
+        activeBodies = bodyGraph.addSeries("active", 0x55FF55);
+        sleepingBodies = bodyGraph.addSeries("sleeping", 0x5555FF);
+        Graph queueGraph = addGraph("Terrain loader", "chunks", Group.TERRAIN);
+        queueLow = queueGraph.addSeries("low", 0x5555FF);
+        queueMedium = queueGraph.addSeries("medium", 0xFFFF55);
+        syncLoads = queueGraph.addSeries("high (sync)", 0xFF5555);
+        readyChunks = queueGraph.addSeries("ready", 0x55FF55);
+        cacheHits = addGraph("Terrain cache hits", "%", Group.TERRAIN).addSeries("hits", 0x55FFFF);
+        for (EnumNetworkType type : EnumNetworkType.values()) {
+            Graph networkGraph = addGraph(type.name(), "kB/s", Group.NETWORK);
+            sentBandwidth[type.ordinal()] = networkGraph.addSeries("sent", 0xFF55FF);
+            receivedBandwidth[type.ordinal()] = networkGraph.addSeries("received", 0x55FFFF);
+        }
+        bufferHealth = addGraph("Interpolation buffer health", "%", Group.INTERPOLATION).addSeries("exact or interpolated", 0x55FF55);
+        Graph lookupGraph = addGraph("Buffer lookups", "/s", Group.INTERPOLATION);
+        interpolatedLookups = lookupGraph.addSeries("interpolated", 0x55FF55);
+        extrapolatedLookups = lookupGraph.addSeries("extrapolated", 0xFFFF55);
+        missedLookups = lookupGraph.addSeries("missed", 0xFF5555);
+        for (int i = 0; i < stateLookups.length; i++)
+            stateLookups[i] = new LongAdder();
+    }
+
+    private Graph addGraph(String name, String unit, Group group) {
+        Graph graph = new Graph(name, unit, group);
+        graphs.add(graph);
+        return graph;
+    }
+
+    /**
+     * @param remote True to get the monitor of the client
+     */
+    public static PerformanceMonitor get(boolean remote) {
+        return remote ? CLIENT : SERVER;
+    }
+
+    /**
+     * @return True if the overlay is used : if false, the physics world and the terrain don't need to record their costs
+     */
+    public boolean isSampling() {
+        return sampling;
+    }
+
+    /**
+     * Starts or stops the sampling, the history is cleared when the sampling starts
+     */
+    public void setSampling(boolean sampling) {
+        if (sampling && !this.sampling)
+            clear();
+        this.sampling = sampling;
+    }
+
+    /**
+     * Called by the physics world after each step
+     *
+     * @param stepNanos The duration of the step, in nanoseconds
+     * @param bodyCount The number of collision objects in the physics world
+     * @param activeCount The number of active dynamic bodies
+     * @param sleepingCount The number of sleeping dynamic bodies
+     */
+    public void recordPhysicsStep(long stepNanos, int bodyCount, int activeCount, int sleepingCount) {
+        lastStepNanos = stepNanos;
+        lastBodyCount = bodyCount;
+        lastActiveCount = activeCount;
+        lastSleepingCount = sleepingCount;
+        hasPhysicsWorld = true;
+    }
+
+    /**
+     * Called each time the terrain tries to load a chunk from its cache
+     *
+     * @param hit True if the chunk was in the cache
+     */
+    public void recordTerrainCacheLookup(boolean hit) {
+        (hit ? terrainCacheHits : terrainCacheMisses).increment();
+    }
+
+    /**
+     * Called each time a chunk is loaded synchronously (high priority and emergency loads)
+     */
+    public void recordSyncTerrainLoad() {
+        syncTerrainLoads.increment();
+    }
+
+    /**
+     * Called each time a past state is searched in the history of an entity
+     */
+    public void recordStateLookup(StateLookup result) {
+        stateLookups[result.ordinal()].increment();
+    }
+
+    /**
+     * Takes one sample of each series, if sampling
+     *
+     * @param physicsWorld The physics world of this side, or null
+     */
+    public void sample(@Nullable IPhysicsWorld physicsWorld) {
+        if (!sampling)
+            return;
+        long time = System.nanoTime();
+        float seconds = prevSampleTime == 0 ? 0.05f : Math.max(1, time - prevSampleTime) / 1e9f;
+        prevSampleTime = time;
+
+        stepTime.add(lastStepNanos / 1e6f);
+        bodies.add(lastBodyCount);
+        activeBodies.add(lastActiveCount);
+        sleepingBodies.add(lastSleepingCount);
+
+        if (physicsWorld != null && physicsWorld.getTerrainManager() instanceof PhysicsWorldTerrain) {
+            PhysicsWorldTerrain terrain = (PhysicsWorldTerrain) physicsWorld.getTerrainManager();
+            queueLow.add(terrain.getLoaderQueueSize(ChunkLoadingTicket.TicketPriority.LOW));
+            queueMedium.add(terrain.getLoaderQueueSize(ChunkLoadingTicket.TicketPriority.MEDIUM));
+            readyChunks.add(terrain.getAsyncLoadedQueueSize());
+        } else {
+            queueLow.add(0);
+            queueMedium.add(0);
+            readyChunks.add(0);
+        }
+        long loads = syncTerrainLoads.sum();
+        syncLoads.add(loads - prevSyncLoads);
+        prevSyncLoads = loads;
+        long hits = terrainCacheHits.sum(), misses = terrainCacheMisses.sum();
+        long lookups = hits - prevCacheHits + misses - prevCacheMisses;
+        //Keep the previous rate if there was no lookup
+        cacheHits.add(lookups == 0 ? cacheHits.getLast() : (hits - prevCacheHits) * 100f / lookups);
+        prevCacheHits = hits;
+        prevCacheMisses = misses;
+
+        for (EnumNetworkType type : EnumNetworkType.values()) {
+            int i = type.ordinal();
+            long sent = NetworkTrafficStats.getSentBytes(NetworkTrafficStats.Category.TRANSPORT, type);
+            long received = NetworkTrafficStats.getReceivedBytes(NetworkTrafficStats.Category.TRANSPORT, type);
+            //The counters may have been reset by the network stats command
+            sentBandwidth[i].add(Math.max(0, sent - prevSent[i]) / 1000f / seconds);
+            receivedBandwidth[i].add(Math.max(0, received - prevReceived[i]) / 1000f / seconds);
+            prevSent[i] = sent;
+            prevReceived[i] = received;
+        }
+
+        long[] deltas = lookupDeltas;
+        long total = 0;
+        for (int i = 0; i < stateLookups.length; i++) {
+            long sum = stateLookups[i].sum();
+            deltas[i] = sum - prevLookups[i];
+            prevLookups[i] = sum;
+            total += deltas[i];
+        }
+        bufferHealth.add(total == 0 ? bufferHealth.getLast() : (deltas[StateLookup.EXACT.ordinal()] + deltas[StateLookup.INTERPOLATED.ordinal()]) * 100f / total);
+        interpolatedLookups.add(deltas[StateLookup.INTERPOLATED.ordinal()] / seconds);
+        extrapolatedLookups.add(deltas[StateLookup.EXTRAPOLATED.ordinal()] / seconds);
+        missedLookups.add(deltas[StateLookup.MISSED.ordinal()] / seconds);
+        sampleCount++;
+    }
+
+    /**
+     * Clears the history of all series
+     */
+    public void clear() {
+        for (Graph graph : graphs)
+            for (Series series : graph.series)
+                series.clear();
+        sampleCount = 0;
+        prevSampleTime = 0;
+    }
+
+    /**
+     * Writes the last samples of all series
+     *
+     * @param count The number of samples to write
+     */
+    public void writeLastSamples(ByteBuf buf, int count) {
+        count = Math.min(count, Math.min(sampleCount, HISTORY));
+        buf.writeByte(count);
+        buf.writeBoolean(hasPhysicsWorld);
+        for (Graph graph : graphs)
+            for (Series series : graph.series)
+                for (int i = series.size() - count; i < series.size(); i++)
+                    buf.writeFloat(series.get(i));
+    }
+
+    /**
+     * Reads and adds the samples written by {@link #writeLastSamples(ByteBuf, int)}
+     */
+    public void readSamples(ByteBuf buf) {
+        int count = buf.readUnsignedByte();
+        hasPhysicsWorld = buf.readBoolean();
+        for (Graph graph : graphs)
+            for (Series series : graph.series)
+                for (int i = 0; i < count; i++)
+                    series.add(buf.readFloat());
+        sampleCount += count;
+    }
+
+    /**
+     * @return True if a physics world recorded its steps in this monitor
+     */
+    public boolean hasPhysicsWorld() {
+        return hasPhysicsWorld;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public List<Graph> getGraphs() {
+        return Collections.unmodifiableList(graphs);
+    }
+
+    /**
+     * A graph of the overlay, with one or more series sharing the same scale
+     */
+    public static class Graph
+    {
+        private final String name, unit;
+        private final Group group;
+        private final List<Series> series = new ArrayList<>(1);
+
+        private Graph(String name, String unit, Group group) {
+            this.name = name;
+            this.unit = unit;
+            this.group = group;
+        }
+
+        private Series addSeries(String name, int color) {
+            Series s = new Series(name, color);
+            series.add(s);
+            return s;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getUnit() {
+            return unit;
+        }
+
+        public Group getGroup() {
+            return group;
+        }
+
+        public List<Series> getSeries() {
+            return series;
+        }
+
+        /**
+         * @return The max value of all series, to scale the graph
+         */
+        public float getMax() {
+            float max = 0;
+            for (Series s : series)
+                max = Math.max(max, s.getMax());
+            return max;
+        }
+    }
+
+    /**
+     * The last {@link #HISTORY} values of a measure, in a ring buffer
+     */
+    public static class Series
+    {
+        private final String name;
+        private final int color;
+        private final float[] values = new float[HISTORY];
+        private int head, size;
+
+        private Series(String name, int color) {
+            this.name = name;
+            this.color = color;
+        }
+
+        private void add(float value) {
+            values[head] = value;
+            head = (head + 1) % HISTORY;
+            if (size < HISTORY)
+                size++;
+        }
+
+        private void clear() {
+            head = size = 0;
+        }
+
+        /**
+         * @param index The index of the value, from 0 (the oldest) to size - 1 (the newest)
+         */
+        public float get(int index) {
+            return values[(head - size + index + HISTORY) % HISTORY];
+        }
+
+        public float getLast() {
+            return size == 0 ? 0 : get(size - 1);
+        }
+
+        public float getMax() {
+            float max = 0;
+            for (int i = 0; i < size; i++)
+                max = Math.max(max, get(i));
+            return max;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getColor() {
+            return color;
+        }
+    }
+}
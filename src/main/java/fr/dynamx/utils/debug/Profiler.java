@@ -3,18 +3,38 @@ package fr.dynamx.utils.debug;
 import fr.dynamx.common.DynamXMain;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
 
 /**
- * A simple home-made thread safe profiler
+ * A simple home-made thread safe profiler <br>
+ * Each thread has its own profiler, measuring the time spent in the {@link Profiles} with {@link System#nanoTime()} <br>
+ * The spans can be nested : the profiler keeps the hierarchy of the profiles, and the last spans of the thread in a ring buffer <br>
+ * The profiling is enabled by the profiling debug option, or by the profiler command, which can dump the histograms of all threads in json or csv <br>
+ * The histograms and spans of a thread are only written by this thread, and read without synchronization by the dumps : to get consistent data, the dumps should be taken after stopping the recording, once the profilers have been updated (next tick) <br>
+ * The profilers of the dead threads are forgotten
  */
 public class Profiler
 {
+    /**
+     * Number of spans kept in the ring buffer of each thread
+     */
+    public static final int RING_SIZE = 1024;
+    private static final int MAX_DEPTH = 32;
+
     private static boolean isProfilingOn;
-    private static final ThreadLocal<Profiler> LOCAL_PROFILER = ThreadLocal.withInitial(Profiler::new);
+    private static volatile boolean isRecording;
+    private static final List<Profiler> PROFILERS = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<Profiler> LOCAL_PROFILER = ThreadLocal.withInitial(() -> {
+        Profiler profiler = new Profiler(Thread.currentThread());
+        PROFILERS.add(profiler);
+        return profiler;
+    });
 
     public static Profiler get() {
         return LOCAL_PROFILER.get();
@@ -24,12 +44,98 @@ public class Profiler
         Profiler.isProfilingOn = isProfilingOn;
     }
 
-    public static boolean isProfilingOn() {
+    /**
+     * @return True if the profiling debug option is enabled : the threads print their profiling data in the log
+     */
+    public static boolean isPrintingData() {
         return isProfilingOn;
     }
 
-    private final Map<Profiles, ProfilingData> data = new HashMap<>();
+    /**
+     * @return True if the profiling debug option is enabled, or if the profiler command is recording
+     */
+    public static boolean isProfilingOn() {
+        return isProfilingOn || isRecording;
+    }
+
+    /**
+     * Starts or stops the recording of the profiler command, independently of the profiling debug option
+     */
+    public static void setRecording(boolean recording) {
+        isRecording = recording;
+    }
+
+    public static boolean isRecording() {
+        return isRecording;
+    }
+
+    /**
+     * @return The profilers of all the living threads
+     */
+    public static List<Profiler> getProfilers() {
+        PROFILERS.removeIf(p -> p.thread != null && (p.thread.get() == null || !p.thread.get().isAlive()));
+        return PROFILERS;
+    }
+
+    /**
+     * Resets the histograms and the spans of all threads, at their next update
+     */
+    public static void resetAll() {
+        PROFILERS.forEach(p -> p.resetRequested = true);
+    }
+
+    /**
+     * Creates a profiler always recording, independently of the profiling debug option and of the profiler command <br>
+     * It isn't in the {@link #getProfilers()}, and should be used by one thread at once
+     *
+     * @param name The name of the profiler, shown instead of the thread name
+     */
+    public static Profiler createStandalone(String name) {
+        return new Profiler(name, true);
+    }
+
+    private final String threadName;
+    /** The thread of this profiler, null if not created by {@link #get()} */
+    @Nullable
+    private final WeakReference<Thread> thread;
+    private final ProfilingData[] data = new ProfilingData[Profiles.values().length];
+    /** True if this profiler always records, see {@link #createStandalone(String)} */
+    private final boolean standalone;
     private boolean isActive;
+    private volatile boolean resetRequested;
+
+    //Stack of the started profiles
+    private final Profiles[] stack = new Profiles[MAX_DEPTH];
+    private int depth;
+
+    //Ring buffer of the last spans
+    private final int[] spanProfiles = new int[RING_SIZE];
+    private final int[] spanDepths = new int[RING_SIZE];
+    private final long[] spanStarts = new long[RING_SIZE];
+    private final long[] spanDurations = new long[RING_SIZE];
+    private int spanHead;
+    private long spanCount;
+
+    public Profiler() {
+        this("unnamed", false);
+    }
+
+    private Profiler(String threadName, boolean standalone) {
+        this.threadName = threadName;
+        this.thread = null;
+        this.standalone = standalone;
+        this.isActive = standalone;
+    }
+
+    private Profiler(Thread thread) {
+        this.threadName = thread.getName();
+        this.thread = new WeakReference<>(thread);
+        this.standalone = false;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
 
     public boolean isActive() {
         return isActive;
@@ -38,31 +144,58 @@ public class Profiler
     public void start(Profiles profile)
     {
         if(isActive) {
-            if (!data.containsKey(profile))
-                data.put(profile, new ProfilingData(profile));
-            data.get(profile).start();
+            ProfilingData d = data[profile.ordinal()];
+            if (d == null)
+                d = data[profile.ordinal()] = new ProfilingData(profile);
+            d.addParent(depth > 0 ? stack[depth - 1] : null);
+            if (depth < MAX_DEPTH)
+                stack[depth++] = profile;
+            d.start();
         }
     }
     public void end(Profiles profile)
     {
-        if(isActive && data.containsKey(profile))
-            data.get(profile).end();
+        ProfilingData d = data[profile.ordinal()];
+        if(isActive && d != null) {
+            long duration = d.end();
+            //The profiles are usually ended in the reverse order of their start
+            int spanDepth = depth - 1;
+            while (spanDepth >= 0 && stack[spanDepth] != profile)
+                spanDepth--;
+            if (spanDepth >= 0) {
+                System.arraycopy(stack, spanDepth + 1, stack, spanDepth, depth - spanDepth - 1);
+                depth--;
+            } else //Too deep to be in the stack
+                spanDepth = MAX_DEPTH;
+            int i = spanHead;
+            spanProfiles[i] = profile.ordinal();
+            spanDepths[i] = spanDepth;
+            spanStarts[i] = System.nanoTime() - duration;
+            spanDurations[i] = duration;
+            spanHead = (i + 1) % RING_SIZE;
+            spanCount++;
+        }
     }
     public void update()
     {
         if(isActive)
-            data.values().forEach(ProfilingData::update);
-        if(isActive && !isProfilingOn)
+            for (ProfilingData d : data)
+                if (d != null)
+                    d.update();
+        if(isActive && !standalone && !isProfilingOn())
             reset();
-        isActive = isProfilingOn;
+        if(resetRequested)
+            resetHistograms();
+        resetRequested = false;
+        isActive = standalone || isProfilingOn();
     }
     public List<String> getData()
     {
         List<String> result = new ArrayList<>();
-        data.forEach((p,d) -> {
-            if(!d.isEmpty())
+        for (ProfilingData d : data) {
+            if(d != null && !d.isEmpty())
                 result.add(d.toString());
-        });
+        }
         return result;
     }
     public void printData(String displayName)
@@ -78,14 +211,89 @@ public class Profiler
     }
     public void reset()
     {
-        data.values().forEach(ProfilingData::reset);
+        for (ProfilingData d : data)
+            if (d != null)
+                d.reset();
+    }
+
+    private void resetHistograms()
+    {
+        for (ProfilingData d : data)
+            if (d != null)
+                d.resetHistogram();
+        spanHead = 0;
+        spanCount = 0;
+    }
+
+    /**
+     * Writes the histograms and the hierarchy of the profiles of all threads, and the last spans of each thread, in json
+     */
+    public static void exportJson(Writer writer) throws IOException {
+        writer.write("{\"timestamp\":" + System.currentTimeMillis() + ",\"threads\":[");
+        boolean firstThread = true;
+        for (Profiler profiler : getProfilers()) {
+            if (!profiler.hasData())
+                continue;
+            if (!firstThread)
+                writer.write(",");
+            firstThread = false;
+            writer.write("\n{\"name\":\"" + profiler.threadName.replace("\\", "\\\\").replace("\"", "\\\"") + "\",\"profiles\":[");
+            boolean first = true;
+            for (ProfilingData d : profiler.data) {
+                if (d == null || d.getHistogram().getCount() == 0)
+                    continue;
+                if (!first)
+                    writer.write(",");
+                first = false;
+                LatencyHistogram h = d.getHistogram();
+                writer.write("\n{\"name\":\"" + d.getProfile().name() + "\",\"root\":" + d.isRoot() + ",\"parents\":[");
+                writer.write(d.getParents().stream().map(p -> "\"" + p.name() + "\"").collect(Collectors.joining(",")));
+                writer.write("],\"count\":" + h.getCount() + ",\"mean_ns\":" + h.getMean() + ",\"p50_ns\":" + h.getValueAtPercentile(50) + ",\"p90_ns\":" + h.getValueAtPercentile(90)
+                        + ",\"p99_ns\":" + h.getValueAtPercentile(99) + ",\"p999_ns\":" + h.getValueAtPercentile(99.9) + ",\"max_ns\":" + h.getMax() + "}");
+            }
+            writer.write("],\"spans\":[");
+            int count = (int) Math.min(profiler.spanCount, RING_SIZE);
+            for (int n = 0; n < count; n++) {
+                int i = (profiler.spanHead - count + n + RING_SIZE) % RING_SIZE;
+                if (n > 0)
+                    writer.write(",");
+                writer.write("\n{\"profile\":\"" + Profiles.values()[profiler.spanProfiles[i]].name() + "\",\"depth\":" + profiler.spanDepths[i] + ",\"start_ns\":" + profiler.spanStarts[i]
+                        + ",\"duration_ns\":" + profiler.spanDurations[i] + "}");
+            }
+            writer.write("]}");
+        }
+        writer.write("]}\n");
+    }
+
+    /**
+     * Writes the histograms of the profiles of all threads in csv, one line per thread and profile
+     */
+    public static void exportCsv(Writer writer) throws IOException {
+        writer.write("thread,profile,parents,count,mean_ns,p50_ns,p90_ns,p99_ns,p999_ns,max_ns\n");
+        for (Profiler profiler : getProfilers()) {
+            for (ProfilingData d : profiler.data) {
+                if (d == null || d.getHistogram().getCount() == 0)
+                    continue;
+                LatencyHistogram h = d.getHistogram();
+                writer.write(profiler.threadName.replace(',', ' ') + "," + d.getProfile().name() + "," + d.getParents().stream().map(Enum::name).collect(Collectors.joining(" "))
+                        + "," + h.getCount() + "," + h.getMean() + "," + h.getValueAtPercentile(50) + "," + h.getValueAtPercentile(90) + "," + h.getValueAtPercentile(99)
+                        + "," + h.getValueAtPercentile(99.9) + "," + h.getMax() + "\n");
+            }
+        }
+    }
+
+    /**
+     * @return True if a span was recorded since the last reset
+     */
+    public boolean hasData() {
+        return spanCount > 0;
     }
 
     private static int lastId;
 
     @Nullable
     public ProfilingData getData(Profiles profile) {
-        return data.get(profile);
+        return data[profile.ordinal()];
     }
 
     public enum Profiles
@@ -125,7 +333,8 @@ public class Profiler
         UPDATE_VEHICLE_PHYSICS, TERRAIN_LOADER_TICK, PHYSICS_TICK_ENTITIES_PRE, PHYSICS_TICK_ENTITIES_POST, TICK_ENTITIES,
         SYNC_BUFFER_UPDATE,
         SLOPE_CALCULUS,
-        ENTITY_COLLISION;
+        ENTITY_COLLISION,
+        TIRE_FORCES;
         public final int id;
         Profiles()
         {
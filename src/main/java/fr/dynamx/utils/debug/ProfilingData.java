@@ -6,7 +6,13 @@ import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
 import java.awt.*;
+import java.util.EnumSet;
+import java.util.Set;
 
+/**
+ * Measures of a {@link Profiler.Profiles} in one thread <br>
+ * The times are measured in nanoseconds : the average and the max of the last ticks are displayed in the logs and the debug overlay, and each span is recorded in a {@link LatencyHistogram}, kept until the profiler is reset
+ */
 public class ProfilingData
 {
     private final Profiler.Profiles profileIn;
@@ -18,6 +24,13 @@ public class ProfilingData
 
     private long startTime;
 
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    /**
+     * The profiles in which this profile was started
+     */
+    private final Set<Profiler.Profiles> parents = EnumSet.noneOf(Profiler.Profiles.class);
+    private boolean root;
+
     public ProfilingData(Profiler.Profiles profileIn) {
         this.profileIn = profileIn;
     }
@@ -25,14 +38,63 @@ public class ProfilingData
     public void start() {
         if(startTime != 0)
             throw new IllegalStateException("Profiling of "+profileIn+" is already started !");
-        startTime = System.currentTimeMillis();
+        startTime = System.nanoTime();
     }
 
-    public void end() {
+    /**
+     * @return The duration of the span, in nanoseconds
+     */
+    public long end() {
         if(startTime == 0)
             throw new IllegalStateException("Profiling of "+profileIn+" is not started !");
-        delta += System.currentTimeMillis()-startTime;
+        long duration = System.nanoTime()-startTime;
+        delta += duration;
+        histogram.record(duration);
         startTime = 0;
+        return duration;
+    }
+
+    /**
+     * Records the profile in which this profile was started
+     *
+     * @param parent The parent profile, or null if it's a root profile
+     */
+    void addParent(Profiler.Profiles parent) {
+        if(parent == null)
+            root = true;
+        else
+            parents.add(parent);
+    }
+
+    public Set<Profiler.Profiles> getParents() {
+        return parents;
+    }
+
+    /**
+     * @return True if this profile was started outside of any other profile
+     */
+    public boolean isRoot() {
+        return root;
+    }
+
+    public Profiler.Profiles getProfile() {
+        return profileIn;
+    }
+
+    /**
+     * @return The histogram of the durations of the spans, in nanoseconds
+     */
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * Resets the histogram and the hierarchy
+     */
+    void resetHistogram() {
+        histogram.reset();
+        parents.clear();
+        root = false;
     }
 
     public boolean isEmpty() {
@@ -64,11 +126,15 @@ public class ProfilingData
 
     @Override
     public String toString() {
-        return "ProfilingData "+ profileIn.name()+" : average= "+medium+" ms, max= "+max+" ms on "+measureCount+" measures";
+        return String.format("ProfilingData %s : average= %.3f ms, max= %.3f ms on %d measures (p50= %.3f ms, p99= %.3f ms)", profileIn.name(), medium / 1e6, max / 1e6, measureCount,
+                histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(99) / 1e6);
     }
 
+    /**
+     * @return The last measures, in milliseconds
+     */
     public Measure save() {
-        return new Measure(max, medium, lastDelta);
+        return new Measure(max / 1000000, medium / 1000000, lastDelta / 1000000);
     }
 
     public static class Measure
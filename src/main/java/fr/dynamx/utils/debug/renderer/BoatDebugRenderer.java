@@ -6,6 +6,7 @@ import fr.dynamx.common.contentpack.parts.PartFloat;
 import fr.dynamx.common.entities.BaseVehicleEntity;
 import fr.dynamx.common.entities.PhysicsEntity;
 import fr.dynamx.common.entities.vehicles.BoatEntity;
+import fr.dynamx.common.physics.entities.parts.boat.BuoyancyPhysicsHandler;
 import fr.dynamx.utils.debug.ClientDebugSystem;
 import fr.dynamx.utils.debug.DynamXDebugOptions;
 import fr.dynamx.utils.optimization.MutableBoundingBox;
@@ -38,38 +39,23 @@ public class BoatDebugRenderer
             GlStateManager.disableLighting();
             GlStateManager.color(0, 0, 1, 0.2f);
             GlStateManager.disableCull();
-            //if(carEntity.physicsPosition.y <= 40)
-            {
-                int i = 0;
+            if (entity.physicsHandler instanceof BoatEntity.BoatPhysicsHandler) {
+                //Buoyancy (magenta) and drag (yellow) of each sample point
+                BuoyancyPhysicsHandler buoyancy = ((BoatEntity.BoatPhysicsHandler<?>) entity.physicsHandler).getBuoyancy();
+                float[] forces = buoyancy.getDebugForces();
+                Vector3f p = new Vector3f();
                 Tessellator tessellator = Tessellator.getInstance();
                 BufferBuilder bufferbuilder = tessellator.getBuffer();
-                for(PartFloat f : entity.getPackInfo().getPartsByType(PartFloat.class))
-                {
-                    Vector3f p = f.getPosition();
-                    if(BoatEntity.ntmdrag[i+5] != null)
-                    {
-                        bufferbuilder.begin(GL11.GL_LINE_STRIP, DefaultVertexFormats.POSITION_COLOR);
-                        bufferbuilder.pos(p.x, p.y, p.z).color(1f, 0, 1, 1f).endVertex();
-                        bufferbuilder.pos(p.x+BoatEntity.ntmdrag[i+5].x+0.0001, p.y+BoatEntity.ntmdrag[i+5].y, p.z+BoatEntity.ntmdrag[i+5].z+0.0001).color(1f, 0, 0, 1f).endVertex();
-                        tessellator.draw();
-                    }
-                    if(BoatEntity.ntm[i] != null)
-                    {
-                        bufferbuilder.begin(GL11.GL_LINE_STRIP, DefaultVertexFormats.POSITION_COLOR);
-                        bufferbuilder.pos(p.x, p.y, p.z).color(1f, 0, 1, 1f).endVertex();
-                        bufferbuilder.pos(p.x+BoatEntity.ntm[i].x+0.0001, p.y+BoatEntity.ntm[i].y, p.z+BoatEntity.ntm[i].z+0.0001).color(1f, 0, 1, 1f).endVertex();
-                        tessellator.draw();
-                    }
-                    if(BoatEntity.ntmdrag[i] != null)
-                    {
-                        bufferbuilder.begin(GL11.GL_LINE_STRIP, DefaultVertexFormats.POSITION_COLOR);
-                        bufferbuilder.pos(p.x, p.y, p.z).color(1f, 1, 0, 1f).endVertex();
-                        bufferbuilder.pos(p.x+BoatEntity.ntmdrag[i].x+0.0001, p.y+BoatEntity.ntmdrag[i].y, p.z+BoatEntity.ntmdrag[i].z+0.0001).color(1f, 1, 0, 1f).endVertex();
-                        tessellator.draw();
-                    }
-                    i++;
+                bufferbuilder.begin(GL11.GL_LINES, DefaultVertexFormats.POSITION_COLOR);
+                for (int i = 0; i < buoyancy.getSampleCount(); i++) {
+                    buoyancy.getSampleModelPosition(i, p);
+                    int d = i * 6;
+                    bufferbuilder.pos(p.x, p.y, p.z).color(1f, 0, 1, 1f).endVertex();
+                    bufferbuilder.pos(p.x + forces[d] + 0.0001, p.y + forces[d + 1], p.z + forces[d + 2] + 0.0001).color(1f, 0, 1, 1f).endVertex();
+                    bufferbuilder.pos(p.x, p.y, p.z).color(1f, 1, 0, 1f).endVertex();
+                    bufferbuilder.pos(p.x + forces[d + 3] + 0.0001, p.y + forces[d + 4], p.z + forces[d + 5] + 0.0001).color(1f, 1, 0, 1f).endVertex();
                 }
-                //System.out.println(DynamXMain.physicsWorld.getDynamicsWorld().getGravity(Vector3fPool.get())+" "+packInfo.getEmptyMass());
+                tessellator.draw();
             }
             GlStateManager.enableCull();
             GlStateManager.popMatrix();
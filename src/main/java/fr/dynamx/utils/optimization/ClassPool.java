@@ -15,6 +15,10 @@ public abstract class ClassPool<T>
     protected T[] pool;
     protected SubClassPool<T> root;
     protected int subPoolCount;
+    /**
+     * Stats of the pool debug mode, see {@link PoolDebugger}
+     */
+    private PoolDebugger.PoolStats debugStats;
 
     public ClassPool(int initialCapacity)
     {
@@ -31,6 +35,9 @@ public abstract class ClassPool<T>
         else
             root = new SubClassPool<>(root, root.getStartIndex()+root.getAffectedObjectsCount());
         subPoolCount++;
+        PoolDebugger.PoolStats stats = getDebugStats();
+        if(stats != null)
+            stats.onOpen(root.getStartIndex());
     }
 
     /**
@@ -38,6 +45,9 @@ public abstract class ClassPool<T>
      */
     public void closeSubPool()
     {
+        PoolDebugger.PoolStats stats = getDebugStats();
+        if(stats != null)
+            stats.onClose(root != null);
         if(root != null) {
             root = root.getParent();
             subPoolCount--;
@@ -56,8 +66,10 @@ public abstract class ClassPool<T>
             DynamXMain.log.throwing(new IllegalStateException("No sub-pool opened ! Opening a default one"));
             openSubPool();
         }
+        PoolDebugger.PoolStats stats = getDebugStats();
         if(root.getStartIndex()+root.getAffectedObjectsCount()>=pool.length) //If the pool is too small
         {
+            int oldSize = pool.length;
             T[] nPool = createNewPool(pool.length, root.getStartIndex()+root.getAffectedObjectsCount()+getGrowthSize()); //Allocate a bigger pool
             System.arraycopy(pool, 0, nPool, 0, pool.length);
             pool = nPool;
@@ -69,12 +81,42 @@ public abstract class ClassPool<T>
                 else
                     DynamXMain.log.debug("Bigger pool : "+pool.length+" ! "+this+" open c "+subPoolCount);
             }
+            if(stats != null)
+                stats.onGrowth(oldSize, pool.length, subPoolCount);
         }
         instance = pool[root.getStartIndex()+root.getAffectedObjectsCount()]; //Take an unused instance
         root.affectObject(instance); //Instance is now used
+        if(stats != null)
+            stats.onObjectProvided(getTotalAffectedObject());
         return instance;
     }
 
+    /**
+     * Closes all open sub pools and releases all objects, used when the pool is recycled
+     */
+    protected void closeAllSubPools()
+    {
+        if(root != null) {
+            PoolDebugger.PoolStats stats = getDebugStats();
+            if(stats != null)
+                stats.onDisposedWithOpenPools(subPoolCount);
+        }
+        root = null;
+        subPoolCount = 0;
+    }
+
+    /**
+     * @return The debug stats of this pool, or null if the pool debug mode is disabled
+     */
+    private PoolDebugger.PoolStats getDebugStats()
+    {
+        if(!PoolDebugger.isEnabled())
+            return null;
+        if(debugStats == null)
+            debugStats = PoolDebugger.getStats(this);
+        return debugStats;
+    }
+
     /**
      * Used to enlarge the pool, not called often
      * @return A array, empty from 0 to newInstancesStart-1, containing fresh instances from newInstancesStart to size
@@ -0,0 +1,237 @@
+package fr.dynamx.utils.optimization;
+
+import fr.dynamx.common.DynamXMain;
+import fr.dynamx.utils.DynamXConfig;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Pool debug mode, enabled with {@link DynamXConfig#poolDebug} or the pools command <br>
+ * When enabled, each {@link ClassPool} records the code opening and closing its sub-pools, its peak size and its growths : this permits to find the unbalanced openSubPool/closeSubPool calls, that otherwise only appear as slowly growing pools <br>
+ * The pools are thread-local (except the retained pools), so the stats are grouped by owner thread <br>
+ * Recording the sites uses the stack traces, it's slow and should only be enabled to find a leak
+ */
+public class PoolDebugger
+{
+    /** Sub-pools opened since more than this duration are reported as possible leaks */
+    public static final long LEAK_AGE_MS = 10000;
+    /** Number of remembered growth and leak events */
+    private static final int MAX_EVENTS = 64;
+
+    private static final Map<ClassPool<?>, PoolStats> POOLS = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final Deque<String> EVENTS = new ArrayDeque<>();
+    /** Classes skipped when looking for the caller of a pool, GlQuaternionPool is named to not load the lwjgl classes on the server */
+    private static final Set<String> POOL_CLASSES = new HashSet<>(Arrays.asList(ClassPool.class.getName(), SubClassPool.class.getName(), PoolDebugger.class.getName(),
+            Vector3fPool.class.getName(), QuaternionPool.class.getName(), "fr.dynamx.utils.optimization.GlQuaternionPool", TransformPool.class.getName(), BoundingBoxPool.class.getName()));
+
+    public static boolean isEnabled() {
+        return DynamXConfig.poolDebug;
+    }
+
+    /**
+     * Enables or disables the debug mode, the sub-pools opened before enabling it have an unknown open site
+     */
+    public static void setEnabled(boolean enabled) {
+        DynamXConfig.poolDebug = enabled;
+    }
+
+    /**
+     * @return The stats of the pool, created when the pool is first used in debug mode
+     */
+    static PoolStats getStats(ClassPool<?> pool) {
+        return POOLS.computeIfAbsent(pool, p -> new PoolStats(p instanceof Vector3fPool.RetainedVector3fPool ? "Retained " + ((Vector3fPool.RetainedVector3fPool) p).getRetainer() : Thread.currentThread().getName(),
+                p.getClass().getSimpleName()));
+    }
+
+    /**
+     * @return The first caller outside of the pools
+     */
+    static StackTraceElement findCaller() {
+        for (StackTraceElement element : new Throwable().getStackTrace()) {
+            if (!isPoolClass(element.getClassName()))
+                return element;
+        }
+        return null;
+    }
+
+    /**
+     * @return True if the class is one of the pools or their inner classes, the other classes of the package are callers like the others
+     */
+    private static boolean isPoolClass(String className) {
+        int inner = className.indexOf('$');
+        if (inner != -1)
+            className = className.substring(0, inner);
+        return POOL_CLASSES.contains(className);
+    }
+
+    static void addEvent(String event) {
+        DynamXMain.log.warn("[POOL DEBUG] " + event);
+        synchronized (EVENTS) {
+            EVENTS.addLast(event);
+            if (EVENTS.size() > MAX_EVENTS)
+                EVENTS.removeFirst();
+        }
+    }
+
+    /**
+     * @return A snapshot of the stats of all the pools used in debug mode
+     */
+    public static List<PoolStats> getPoolStats() {
+        synchronized (POOLS) {
+            List<PoolStats> stats = new ArrayList<>(POOLS.values());
+            stats.sort((a, b) -> a.owner.equals(b.owner) ? a.poolName.compareTo(b.poolName) : a.owner.compareTo(b.owner));
+            return stats;
+        }
+    }
+
+    /**
+     * @return The last growth and leak events
+     */
+    public static List<String> getEvents() {
+        synchronized (EVENTS) {
+            return new ArrayList<>(EVENTS);
+        }
+    }
+
+    /**
+     * Clears the recorded events and the counters, the currently open sub-pools are kept
+     */
+    public static void reset() {
+        synchronized (EVENTS) {
+            EVENTS.clear();
+        }
+        synchronized (POOLS) {
+            POOLS.values().forEach(PoolStats::reset);
+        }
+    }
+
+    /**
+     * Debug data of a pool
+     */
+    public static class PoolStats
+    {
+        private final String owner, poolName;
+        /** Open sites of the open sub-pools, the last one is the current sub-pool */
+        private final Deque<OpenSite> openSites = new ArrayDeque<>();
+        private int peakSize, growths, unbalancedCloses, leaks;
+
+        private PoolStats(String owner, String poolName) {
+            this.owner = owner;
+            this.poolName = poolName;
+        }
+
+        synchronized void onOpen(int startIndex) {
+            openSites.addLast(new OpenSite(findCaller(), startIndex));
+        }
+
+        synchronized void onClose(boolean wasOpen) {
+            if (!wasOpen) {
+                unbalancedCloses++;
+                addEvent(poolName + " of " + owner + " closed without open sub-pool at " + findCaller());
+            } else
+                openSites.pollLast(); //Can be empty if the sub-pool was opened before enabling the debug
+        }
+
+        synchronized void onObjectProvided(int totalAffected) {
+            if (totalAffected > peakSize)
+                peakSize = totalAffected;
+        }
+
+        synchronized void onGrowth(int oldSize, int newSize, int subPoolCount) {
+            growths++;
+            addEvent(poolName + " of " + owner + " grew from " + oldSize + " to " + newSize + " objects with " + subPoolCount + " open sub-pools, at " + findCaller() + ". Open sites : " + openSites);
+        }
+
+        /**
+         * Called when a retained pool is disposed while it has open sub-pools, they are released
+         */
+        synchronized void onDisposedWithOpenPools(int subPoolCount) {
+            leaks++;
+            addEvent(poolName + " of " + owner + " disposed with " + subPoolCount + " open sub-pools at " + findCaller() + ". Open sites : " + openSites);
+            openSites.clear();
+        }
+
+        synchronized void reset() {
+            peakSize = growths = unbalancedCloses = leaks = 0;
+        }
+
+        /**
+         * @return The open sub-pools opened since more than {@link #LEAK_AGE_MS}
+         */
+        public synchronized List<OpenSite> getPossibleLeaks() {
+            List<OpenSite> leaks = new ArrayList<>();
+            long now = System.currentTimeMillis();
+            for (OpenSite site : openSites) {
+                if (now - site.openTime > LEAK_AGE_MS)
+                    leaks.add(site);
+            }
+            return leaks;
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public String getPoolName() {
+            return poolName;
+        }
+
+        public synchronized int getOpenSubPoolCount() {
+            return openSites.size();
+        }
+
+        public synchronized int getPeakSize() {
+            return peakSize;
+        }
+
+        public synchronized int getGrowths() {
+            return growths;
+        }
+
+        public synchronized int getUnbalancedCloses() {
+            return unbalancedCloses;
+        }
+
+        public synchronized int getLeaks() {
+            return leaks;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return poolName + " : peak " + peakSize + " objects, " + growths + " growths, " + openSites.size() + " open sub-pools, " + unbalancedCloses + " unbalanced closes, " + leaks + " leaks";
+        }
+    }
+
+    /**
+     * The code that opened a sub-pool
+     */
+    public static class OpenSite
+    {
+        private final StackTraceElement site;
+        private final int startIndex;
+        private final long openTime = System.currentTimeMillis();
+
+        private OpenSite(StackTraceElement site, int startIndex) {
+            this.site = site;
+            this.startIndex = startIndex;
+        }
+
+        public long getAgeMs() {
+            return System.currentTimeMillis() - openTime;
+        }
+
+        @Override
+        public String toString() {
+            return site + " (from object " + startIndex + ")";
+        }
+    }
+}
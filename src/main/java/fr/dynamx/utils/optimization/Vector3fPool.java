@@ -1,23 +1,28 @@
 package fr.dynamx.utils.optimization;
 
 import com.jme3.math.Vector3f;
+import fr.dynamx.common.DynamXMain;
 import net.minecraft.util.math.Vec3d;
 import scala.Int;
 
 import javax.annotation.concurrent.ThreadSafe;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Queue;
-import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Stores different Vector3fPool for each thread, referenced by their id (named "instance" here)
+ * Stores different Vector3fPool for each thread, and retained pools referenced by their id (named "instance" here) <br>
+ * The retained pools can be handed from a thread to another, but not used by several threads at the same time, see {@link RetainedVector3fPool}
  */
 @ThreadSafe
 public class Vector3fPool extends ClassPool<Vector3f> {
+    /** Max number of disposed retained pools kept for reuse */
+    private static final int MAX_FREE_POOLS = 30;
     private static final Queue<Long> freePools = new ConcurrentLinkedQueue<>();
-    private static final Map<Long, RetainedVector3fPool> INSTANCES = new HashMap<>();
+    private static final Map<Long, RetainedVector3fPool> INSTANCES = new ConcurrentHashMap<>();
+    private static final AtomicLong nextPoolId = new AtomicLong();
 
     private static final ThreadLocal<Vector3fPool> LOCAL_POOL = ThreadLocal.withInitial(Vector3fPool::new);
 
@@ -38,7 +43,7 @@ public class Vector3fPool extends ClassPool<Vector3f> {
         RetainedVector3fPool instance = INSTANCES.get(id);
         if (instance == null) {
             //System.out.println("Creating pool "+id+" "+retainer);
-            INSTANCES.put(id, instance = new RetainedVector3fPool(retainer));
+            instance = INSTANCES.computeIfAbsent(id, i -> new RetainedVector3fPool(retainer));
         }
         return instance;
     }
@@ -110,18 +115,32 @@ public class Vector3fPool extends ClassPool<Vector3f> {
         return INSTANCES;
     }
 
-    public static long findFreePool() {
-        if (!freePools.isEmpty()) {
-            return freePools.poll();
+    /**
+     * @return The id of a free retained pool, never 0
+     */
+    public static synchronized long findFreePool() {
+        Long id = freePools.poll();
+        if (id != null) {
+            return id;
         }
-        return UUID.randomUUID().getMostSignificantBits();
+        return nextPoolId.incrementAndGet();
     }
 
-    public static void disposePool(long id) {
+    /**
+     * Releases a retained pool, the sub-pools that are still open are closed (and reported in the pool debug mode)
+     */
+    public static synchronized void disposePool(long id) {
         //System.out.println("Disposing pool "+id+" "+INSTANCES.size());
+        if (freePools.contains(id)) {
+            DynamXMain.log.warn(new IllegalStateException("Retained pool " + id + " disposed twice"));
+            return;
+        }
+        RetainedVector3fPool pool = INSTANCES.get(id);
+        if (pool != null)
+            pool.closeAllSubPools();
         freePools.add(id);
-        if (freePools.size() > 30) {
-            INSTANCES.remove(freePools.remove(0));
+        if (freePools.size() > MAX_FREE_POOLS) {
+            INSTANCES.remove(freePools.poll());
         }
     }
 
@@ -146,10 +165,18 @@ public class Vector3fPool extends ClassPool<Vector3f> {
                 '}';
     }
 
+    /**
+     * A pool retained by an object, that can be handed from a thread to another <br>
+     * The sub-pools form a stack, so they can't be interleaved by several threads : the thread opening the first sub-pool owns the pool until all its sub-pools are closed, and the uses from other threads are reported in the pool debug mode <br>
+     * The operations are synchronized, so the pool stays consistent when it's handed to another thread
+     */
     public static class RetainedVector3fPool extends Vector3fPool {
         private static final String DEFAULT_RETAINER = "i";
 
         public final String retainer;
+        /** The thread using the open sub-pools, null if there is no open sub-pool */
+        private Thread owner;
+        private boolean crossThreadReported;
 
         public RetainedVector3fPool(String retainer) {
             this.retainer = retainer;
@@ -159,6 +186,47 @@ public class Vector3fPool extends ClassPool<Vector3f> {
             return retainer;
         }
 
+        /**
+         * Reports the first use of this pool by another thread than the one owning its open sub-pools, in the pool debug mode
+         */
+        private void checkOwner() {
+            if (!PoolDebugger.isEnabled())
+                return;
+            Thread current = Thread.currentThread();
+            if (owner != null && owner != current && !crossThreadReported) {
+                crossThreadReported = true;
+                PoolDebugger.addEvent("Retained pool of " + retainer + " used by " + current.getName() + " while " + owner.getName() + " has open sub-pools, at " + PoolDebugger.findCaller());
+            }
+        }
+
+        @Override
+        public synchronized void openSubPool() {
+            checkOwner();
+            if (subPoolCount == 0)
+                owner = Thread.currentThread();
+            super.openSubPool();
+        }
+
+        @Override
+        public synchronized void closeSubPool() {
+            checkOwner();
+            super.closeSubPool();
+            if (subPoolCount == 0)
+                owner = null;
+        }
+
+        @Override
+        public synchronized Vector3f provideNewInstance() {
+            checkOwner();
+            return super.provideNewInstance();
+        }
+
+        @Override
+        protected synchronized void closeAllSubPools() {
+            super.closeAllSubPools();
+            owner = null;
+        }
+
         @Override
         public String toString() {
             return "RetainedVector3fPool{" +
@@ -0,0 +1,204 @@
+package fr.dynamx.utils.physics;
+
+import fr.aym.acslib.services.impl.thrload.DynamXThreadedModLoader;
+import fr.dynamx.common.DynamXMain;
+import fr.dynamx.utils.DynamXConstants;
+import fr.dynamx.utils.debug.JfrEvents;
+import vhacd.VHACD;
+import vhacd.VHACDHull;
+import vhacd.VHACDParameters;
+
+import javax.annotation.Nullable;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+import static fr.dynamx.common.DynamXMain.log;
+
+/**
+ * Generates the convex hulls of the complex collision shapes with VHACD, on a bounded pool of worker threads <br>
+ * The results are stored in the dynamx_cache/shapes directory, keyed by a hash of the model file and of the VHACD parameters, so they're found again even if the model is moved or renamed, and without parsing the model <br>
+ * The .dc files shipped with the packs (generated by the old versions) are used to seed the cache, so the shapes are not generated again
+ *
+ * @see ShapeUtils#generateComplexModelCollisions(fr.dynamx.api.obj.ObjModelPath, String, com.jme3.math.Vector3f, com.jme3.math.Vector3f, float, java.util.function.Consumer)
+ */
+public class HullShapeGenerator
+{
+    /** Increment when the cache format changes */
+    private static final int CACHE_VERSION = 1;
+
+    private static final int CONVEX_HULL_DOWN_SAMPLING = 1;
+    private static final int PLANE_DOWN_SAMPLING = 1;
+    private static final int MAX_VERTICES_PER_HULL = 1024;
+    private static final int VOXEL_RESOLUTION = 10000;
+
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), new DynamXThreadedModLoader.DefaultThreadFactory("DnxVhacdWorker"));
+    /** Running jobs, by key, so the same mesh is only generated once */
+    private static final Map<String, CompletableFuture<List<float[]>>> pendingJobs = new ConcurrentHashMap<>();
+
+    /**
+     * @param modelContent The content of the obj file
+     * @param objectName   The object of the model used for the shape, or an empty string for the whole model
+     * @return The hash of the model, of the object and of the VHACD parameters, identifying the generated hulls
+     */
+    public static String computeKey(byte[] modelContent, String objectName) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        digest.update(DynamXConstants.DC_FILE_VERSION.getBytes(StandardCharsets.UTF_8));
+        updateInt(digest, CONVEX_HULL_DOWN_SAMPLING);
+        updateInt(digest, PLANE_DOWN_SAMPLING);
+        updateInt(digest, MAX_VERTICES_PER_HULL);
+        updateInt(digest, VOXEL_RESOLUTION);
+        digest.update(objectName.getBytes(StandardCharsets.UTF_8));
+        updateInt(digest, modelContent.length);
+        digest.update(modelContent);
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest())
+            key.append(String.format("%02x", b));
+        return key.toString();
+    }
+
+    private static void updateInt(MessageDigest digest, int value) {
+        digest.update((byte) (value >>> 24));
+        digest.update((byte) (value >>> 16));
+        digest.update((byte) (value >>> 8));
+        digest.update((byte) value);
+    }
+
+    @Nullable
+    private static File getCacheFile(String key) {
+        if (DynamXMain.resDir == null)
+            return null;
+        return new File(new File(DynamXMain.resDir.getAbsoluteFile().getParentFile(), "dynamx_cache/shapes"), key + ".hulls");
+    }
+
+    /**
+     * @param key The {@link #computeKey(byte[], String)} of the mesh
+     * @return The cached hulls, or null if they are not generated
+     */
+    @Nullable
+    public static List<float[]> readCache(String key) {
+        File file = getCacheFile(key);
+        if (file == null || !file.exists())
+            return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != CACHE_VERSION)
+                return null;
+            int hullCount = in.readInt();
+            List<float[]> hulls = new ArrayList<>(hullCount);
+            for (int i = 0; i < hullCount; i++) {
+                float[] points = new float[in.readInt()];
+                for (int j = 0; j < points.length; j++)
+                    points[j] = in.readFloat();
+                hulls.add(points);
+            }
+            return hulls;
+        } catch (IOException e) {
+            log.error("Cannot load the cached shape " + file + ". Re-creating it", e);
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Reads the hulls of a .dc file shipped with a pack, and stores them in the cache
+     *
+     * @param key      The {@link #computeKey(byte[], String)} of the mesh
+     * @param content  The content of the .dc file, a serialized {@link ShapeGenerator} in gzip
+     * @param fileName The name of the file, for logging
+     * @return The hulls, or null if the file can't be read
+     */
+    @Nullable
+    public static List<float[]> readShippedFile(String key, byte[] content, String fileName) {
+        ShapeGenerator shapeGenerator;
+        try (ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(new ByteArrayInputStream(content)))) {
+            shapeGenerator = (ShapeGenerator) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            log.error("Cannot load the .dc file " + fileName + ", generating the shape", e);
+            return null;
+        }
+        List<float[]> hulls = new ArrayList<>();
+        for (float[] hullPoints : shapeGenerator.getHullPoints())
+            hulls.add(hullPoints);
+        writeCache(key, hulls);
+        return hulls;
+    }
+
+    private static void writeCache(String key, List<float[]> hulls) {
+        File file = getCacheFile(key);
+        if (file == null)
+            return;
+        if (!file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
+            log.warn("Cannot create the shape cache directory " + file.getParentFile());
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(CACHE_VERSION);
+            out.writeInt(hulls.size());
+            for (float[] points : hulls) {
+                out.writeInt(points.length);
+                for (float f : points)
+                    out.writeFloat(f);
+            }
+        } catch (IOException e) {
+            log.error("Cannot save the shape " + file, e);
+            file.delete();
+        }
+    }
+
+    /**
+     * Generates the hulls of a mesh on the worker threads, and stores them in the cache <br>
+     * If the same mesh is already being generated, the running job is returned
+     *
+     * @param key       The {@link #computeKey(byte[], String)} of the mesh
+     * @param modelName The name of the model, for logging
+     * @param positions The vertices of the mesh
+     * @param indices   The indices of the mesh
+     * @return The generated hulls, completed exceptionally if VHACD failed
+     */
+    public static CompletableFuture<List<float[]>> generate(String key, String modelName, float[] positions, int[] indices) {
+        CompletableFuture<List<float[]>> job = pendingJobs.computeIfAbsent(key, k -> CompletableFuture.supplyAsync(() -> {
+            try {
+                long start = System.currentTimeMillis();
+                Object jfrEvent = JfrEvents.VHACD_JOB.begin();
+                VHACDParameters parameters = new VHACDParameters();
+                parameters.setConvexHullDownSampling(CONVEX_HULL_DOWN_SAMPLING);
+                parameters.setPlaneDownSampling(PLANE_DOWN_SAMPLING);
+                parameters.setMaxVerticesPerHull(MAX_VERTICES_PER_HULL);
+                parameters.setVoxelResolution(VOXEL_RESOLUTION);
+                List<float[]> hulls = new ArrayList<>();
+                for (VHACDHull hull : VHACD.compute(positions, indices, parameters))
+                    hulls.add(hull.clonePositions());
+                JfrEvents.VHACD_JOB.commit(jfrEvent, positions.length / 3, indices.length / 3, hulls.size());
+                writeCache(key, hulls);
+                log.info("Generated " + modelName + " shape in " + (System.currentTimeMillis() - start) + " ms");
+                return hulls;
+            } catch (RuntimeException e) {
+                log.error("Failed to generate the shape of " + modelName + ", keeping its bounding box", e);
+                throw e;
+            }
+        }, WORKERS));
+        job.whenComplete((hulls, e) -> pendingJobs.remove(key, job));
+        return job;
+    }
+
+    /**
+     * @return The number of queued or running VHACD jobs
+     */
+    public static int getPendingJobs() {
+        return pendingJobs.size();
+    }
+}
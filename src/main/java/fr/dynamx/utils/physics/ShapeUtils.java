@@ -1,167 +1,160 @@
 package fr.dynamx.utils.physics;
 
+import com.jme3.bullet.collision.shapes.BoxCollisionShape;
 import com.jme3.bullet.collision.shapes.CollisionShape;
 import com.jme3.bullet.collision.shapes.CompoundCollisionShape;
 import com.jme3.bullet.collision.shapes.HullCollisionShape;
 import com.jme3.bullet.collision.shapes.infos.ChildCollisionShape;
+import com.jme3.bullet.objects.PhysicsRigidBody;
 import com.jme3.bullet.util.DebugShapeFactory;
 import com.jme3.math.Vector3f;
 import fr.dynamx.api.obj.ObjModelPath;
+import fr.dynamx.api.physics.IPhysicsWorld;
+import fr.dynamx.common.DynamXContext;
 import fr.dynamx.common.DynamXMain;
 import fr.dynamx.common.contentpack.ContentPackLoader;
 import fr.dynamx.common.contentpack.type.objects.AbstractProp;
 import fr.dynamx.common.contentpack.type.objects.PropObject;
+import fr.dynamx.common.handlers.TaskScheduler;
 import fr.dynamx.common.obj.ObjModelServer;
 import fr.dynamx.utils.DynamXConstants;
 import fr.dynamx.utils.DynamXUtils;
 import fr.dynamx.utils.optimization.MutableBoundingBox;
 import fr.dynamx.utils.optimization.Vector3fPool;
-import vhacd.VHACD;
-import vhacd.VHACDHull;
-import vhacd.VHACDParameters;
+import net.minecraft.util.ResourceLocation;
 
-import java.io.*;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
 import java.nio.FloatBuffer;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
+import java.util.function.Consumer;
 
 import static fr.dynamx.common.DynamXMain.log;
 
 public class ShapeUtils {
     // Shape generation
+
+    /**
+     * @see #generateComplexModelCollisions(ObjModelPath, String, Vector3f, Vector3f, float, Consumer)
+     */
     public static CompoundCollisionShape generateComplexModelCollisions(ObjModelPath path, String objectName, Vector3f scale, Vector3f centerOfMass, float shapeYOffset) {
-        String tessellatorModel = DynamXMain.resDir + File.separator + path.getPackName() + File.separator + "assets" +
-                File.separator + path.getModelPath().getNamespace() + File.separator + path.getModelPath().getPath().replace("/", File.separator);
+        return generateComplexModelCollisions(path, objectName, scale, centerOfMass, shapeYOffset, null);
+    }
 
-        String modelName = tessellatorModel.substring(tessellatorModel.lastIndexOf(File.separator) + 1);
-        File file = new File(tessellatorModel.replace(".obj", "_" + DynamXConstants.DC_FILE_VERSION + ".dc"));
-        ShapeGenerator shapeGenerator = null;
+    /**
+     * Creates a collision shape made of the convex hulls of the model, generated with VHACD <br>
+     * The hulls are searched in the cache of the {@link HullShapeGenerator}, then in the .dc file shipped with the pack <br>
+     * If they are not found, the returned shape contains the bounding box of the model : the hulls are generated on a worker thread, in a new shape.
+     * This new shape is given to onGenerated on the main thread (the owner of the shape should use it for the new bodies), then it replaces the bounding box shape in the existing bodies, on the physics thread
+     *
+     * @param onGenerated Called on the main thread with the generated shape, not called if the hulls were in the cache
+     * @return The collision shape
+     */
+    public static CompoundCollisionShape generateComplexModelCollisions(ObjModelPath path, String objectName, Vector3f scale, Vector3f centerOfMass, float shapeYOffset, @Nullable Consumer<CompoundCollisionShape> onGenerated) {
         long start = System.currentTimeMillis();
-        if (file.exists()) {
-            //load file
-            try {
-                shapeGenerator = loadFile(new FileInputStream(file));
-            } catch (Exception e) {
-                log.error("Cannot load .dc file of " + tessellatorModel + ". Re-creating it", e);
-                file.delete();
-                shapeGenerator = null;
-            }
-        } else if (file.getPath().contains(".zip") || file.getPath().contains(ContentPackLoader.PACK_FILE_EXTENSION)) {
-            boolean zipped = file.getPath().contains(".zip");
-            //System.out.println("ZIP FILE " + zipped);
-            File unZip;
-            if (zipped) {
-                unZip = new File(file.getPath().replace(".zip", ""));
-            } else {
-                unZip = new File(file.getPath().replace(ContentPackLoader.PACK_FILE_EXTENSION, ""));
-            }
-            //System.out.println("Unzip " + unZip);
-            if (unZip.exists()) {
-                //load file
-                try {
-                    log.info("Using dezipped .dc file for " + objectName + " of pack " + path.getPackName() + ". Consider putting it in the zip file and delete the dezipped file.");
-                    shapeGenerator = loadFile(new FileInputStream(unZip));
-                } catch (Exception e) {
-                    log.error("Cannot load .dc file of " + tessellatorModel + " (Zipped pack). Re-creating it.", e);
-                    unZip.delete();
-                }
-            } else {
-                File zipFile;
-                if (zipped) {
-                    zipFile = new File(file.getPath().substring(0, file.getPath().lastIndexOf(".zip") + 4));
-                } else {
-                    zipFile = new File(file.getPath().substring(0, file.getPath().lastIndexOf(ContentPackLoader.PACK_FILE_EXTENSION) + ContentPackLoader.PACK_FILE_EXTENSION.length()));
-                }
-                //System.out.println("So zip file " + zipFile + " " + zipFile.exists());
-                if (zipFile.exists()) {
-                    try {
-                        ZipFile zip = new ZipFile(zipFile);
-                        ZipEntry entry;
-                        if (zipped) {
-                            entry = zip.getEntry(file.getPath().substring(file.getPath().lastIndexOf(".zip") + 5).replace(File.separator, "/"));
-                        } else {
-                            entry = zip.getEntry(file.getPath().substring(file.getPath().lastIndexOf(ContentPackLoader.PACK_FILE_EXTENSION)
-                                    + ContentPackLoader.PACK_FILE_EXTENSION.length() + 1).replace(File.separator, "/"));
-                        }
-                        //System.out.println("Then entry " + entry);
-                        if (entry != null) {
-                            shapeGenerator = loadFile(zip.getInputStream(entry));
-                        }
-                    } catch (IOException e) {
-                        log.error("Cannot load .dc file of " + tessellatorModel + " (Zipped pack). Creating it out of the zip.", e);
-                        shapeGenerator = null;
-                    }
-                } else {
-                    System.out.println("File not found");
+        String modelName = path.getModelPath().getPath().substring(path.getModelPath().getPath().lastIndexOf("/") + 1);
+        byte[] modelContent = ObjModelServer.readServerObjModelContent(path);
+
+        Vector3f hullScale = scale.subtract(new Vector3f(.1f, .1f, .1f));
+        Vector3f offset = new Vector3f(centerOfMass.x, shapeYOffset + centerOfMass.y, centerOfMass.z);
+        CompoundCollisionShape collisionShape = new CompoundCollisionShape();
+        String key = HullShapeGenerator.computeKey(modelContent, objectName);
+        List<float[]> hulls = HullShapeGenerator.readCache(key);
+        if (hulls == null)
+            hulls = readShippedHulls(path, key);
+        if (hulls != null) {
+            addHulls(collisionShape, hulls, hullScale, offset);
+            log.info("Loaded " + modelName + " in " + (System.currentTimeMillis() - start) + " ms");
+            return collisionShape;
+        }
+        ObjModelServer model = ObjModelServer.createServerObjModel(path, modelContent);
+        float[] pos = objectName.isEmpty() ? model.getVerticesPos() : model.getVerticesPos(objectName);
+        int[] indices = objectName.isEmpty() ? model.getAllMeshIndices() : model.getMeshIndices(objectName);
+        //Temporary shape, until VHACD has finished
+        if (pos.length >= 3)
+            addBoundingBox(collisionShape, pos, hullScale, offset);
+        log.info("Generating " + modelName + " shape in background, using its bounding box until it's done");
+        HullShapeGenerator.generate(key, modelName, pos, indices).thenAccept(generated -> {
+            //The shape in use is never modified : the bodies using it may be simulated or rendered at the same time
+            CompoundCollisionShape generatedShape = new CompoundCollisionShape();
+            addHulls(generatedShape, generated, hullScale, offset);
+            TaskScheduler.schedule(new TaskScheduler.ScheduledTask((short) 0) {
+                @Override
+                public void run() {
+                    generatedShape.setMargin(collisionShape.getMargin());
+                    if (onGenerated != null)
+                        onGenerated.accept(generatedShape);
+                    //Scheduled after the creation of the bodies using the old shape, that are added to the physics world on the physics thread
+                    IPhysicsWorld physicsWorld = DynamXContext.getPhysicsWorld();
+                    if (physicsWorld != null)
+                        physicsWorld.schedule(() -> replaceShape(physicsWorld, collisionShape, generatedShape));
                 }
+            });
+        });
+        return collisionShape;
+    }
+
+    /**
+     * Reads the .dc file next to the model in the pack, or next to the model out of the zipped pack (where the old versions saved it)
+     *
+     * @return The hulls, or null if there is no .dc file
+     */
+    @Nullable
+    private static List<float[]> readShippedHulls(ObjModelPath path, String key) {
+        String dcPath = path.getModelPath().getPath().replace(".obj", "_" + DynamXConstants.DC_FILE_VERSION + ".dc");
+        byte[] content;
+        try {
+            content = ObjModelServer.readServerObjModelContent(new ObjModelPath(path.getPackName(), new ResourceLocation(path.getModelPath().getNamespace(), dcPath)));
+        } catch (RuntimeException notShipped) {
+            File unzipped = new File(DynamXMain.resDir, path.getPackName().replace(".zip", "").replace(ContentPackLoader.PACK_FILE_EXTENSION, "") + File.separator + "assets" +
+                    File.separator + path.getModelPath().getNamespace() + File.separator + dcPath.replace("/", File.separator));
+            if (!unzipped.isFile())
+                return null;
+            try {
+                content = Files.readAllBytes(unzipped.toPath());
+            } catch (IOException e) {
+                log.error("Cannot read the .dc file " + unzipped, e);
+                return null;
             }
         }
-        if (shapeGenerator == null) {
-            ObjModelServer model = ObjModelServer.createServerObjModel(path);
-
-            float[] pos = objectName.isEmpty() ? model.getVerticesPos() : model.getVerticesPos(objectName);
-            int[] indices = objectName.isEmpty() ? model.getAllMeshIndices() : model.getMeshIndices(objectName);
-
-            long end = System.currentTimeMillis();
-            long time = end - start;
-            log.info("Converted " + modelName + " model to shape and in " + time + " ms");
-
-            start = System.currentTimeMillis();
-            VHACDParameters parameters = new VHACDParameters();
-
-            parameters.setConvexHullDownSampling(1);
-            parameters.setPlaneDownSampling(1);
-            parameters.setMaxVerticesPerHull(1024);
-            parameters.setVoxelResolution(10000);
-            //parameters.setDebugEnabled(true);
-
-            shapeGenerator = new ShapeGenerator(pos, indices, parameters);
-            if (!file.getPath().contains(".zip") && !file.getPath().contains(ContentPackLoader.PACK_FILE_EXTENSION)) { //not a zip pack
-                saveFile(file, shapeGenerator);
-            } else {
-                file = new File(file.getPath().replace(".zip", "").replace(ContentPackLoader.PACK_FILE_EXTENSION, ""));
-                new File(file.getParent()).mkdirs();
-                log.warn("Saving .dc file of " + tessellatorModel + " of a zipped pack in " + file + ". Consider putting it in the zip file of the pack.");
-                saveFile(file, shapeGenerator);
+        return HullShapeGenerator.readShippedFile(key, content, dcPath);
+    }
+
+    /**
+     * Gives the new shape to the rigid bodies using the old one, and updates their inertia <br>
+     * Must be called on the physics thread
+     */
+    private static void replaceShape(IPhysicsWorld physicsWorld, CompoundCollisionShape oldShape, CompoundCollisionShape newShape) {
+        for (PhysicsRigidBody body : physicsWorld.getDynamicsWorld().getRigidBodyList()) {
+            if (body.getCollisionShape() == oldShape) {
+                body.setCollisionShape(newShape);
+                if (body.isDynamic())
+                    body.setMass(body.getMass()); //Recomputes the local inertia from the new shape
+                body.activate(); //Updates the aabb of sleeping bodies
             }
-            end = System.currentTimeMillis();
-            time = end - start;
-            log.info("Generated " + modelName + " shape in " + time + " ms");
-        }
-        CompoundCollisionShape collisionShape = new CompoundCollisionShape();
-        for (float[] hullPoint : shapeGenerator.getHullPoints()) {
-            HullCollisionShape hullShape = new HullCollisionShape(hullPoint);
-            hullShape.setScale(scale.subtract(new Vector3f(.1f, .1f, .1f)));
-            collisionShape.addChildShape(hullShape, new Vector3f(centerOfMass.x, shapeYOffset + centerOfMass.y, centerOfMass.z));
         }
-        long end = System.currentTimeMillis();
-        long time = end - start;
-        log.info("Loaded " + modelName + " in " + time + " ms");
-        return collisionShape;
     }
 
-    private static void saveFile(File file, ShapeGenerator shapeGenerator) {
-        try {
-            ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(new FileOutputStream(file)));
-            out.writeObject(shapeGenerator);
-            out.close();
-            log.info("Saved the shape " + file.getName());
-        } catch (IOException e) {
-            e.printStackTrace();
+    private static void addHulls(CompoundCollisionShape collisionShape, List<float[]> hulls, Vector3f scale, Vector3f offset) {
+        for (float[] hullPoint : hulls) {
+            HullCollisionShape hullShape = new HullCollisionShape(hullPoint);
+            hullShape.setScale(scale);
+            collisionShape.addChildShape(hullShape, offset);
         }
     }
 
-    private static ShapeGenerator loadFile(InputStream file) {
-        try {
-            ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(file));
-            return (ShapeGenerator) in.readObject();
-        } catch (IOException | ClassNotFoundException e) {
-            throw new RuntimeException("Cannot load " + file, e);
+    private static void addBoundingBox(CompoundCollisionShape collisionShape, float[] pos, Vector3f scale, Vector3f offset) {
+        Vector3f min = new Vector3f(pos[0], pos[1], pos[2]);
+        Vector3f max = new Vector3f(min);
+        for (int i = 3; i < pos.length; i += 3) {
+            min.set(Math.min(min.x, pos[i]), Math.min(min.y, pos[i + 1]), Math.min(min.z, pos[i + 2]));
+            max.set(Math.max(max.x, pos[i]), Math.max(max.y, pos[i + 1]), Math.max(max.z, pos[i + 2]));
         }
+        BoxCollisionShape box = new BoxCollisionShape(max.subtract(min).multLocal(0.5f).multLocal(scale));
+        collisionShape.addChildShape(box, max.add(min).multLocal(0.5f).multLocal(scale).addLocal(offset));
     }
 
     public static FloatBuffer[] getDebugBuffer(CompoundCollisionShape compoundShape) {
@@ -226,18 +219,4 @@ public class ShapeUtils {
             objObject.getMesh().addCollisionShape(compoundCollisionShape, abstractProp.getScaleModifier());
         });
     }
-
-    public static class ShapeGenerator implements Serializable {
-
-        public List<float[]> points = new ArrayList<>();
-
-        public ShapeGenerator(float[] positions, int[] indices, VHACDParameters params) {
-            List<VHACDHull> hullList = VHACD.compute(positions, indices, params);
-            hullList.forEach(hull -> points.add(hull.clonePositions()));
-        }
-
-        public List<float[]> getHullPoints() {
-            return points;
-        }
-    }
 }